@@ -0,0 +1,88 @@
+/*
+ * @(#)AttributesBenchmark.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.benchmarks;
+
+import static org.jhotdraw.draw.AttributeKeys.*;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+import org.jhotdraw.draw.figure.Attributes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures reading and writing figure attributes, as figures do when they are drawn and styled. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class AttributesBenchmark {
+
+  private Attributes attributes;
+  private int counter;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    attributes = createStyledAttributes();
+  }
+
+  private static Attributes createStyledAttributes() {
+    Attributes a = new Attributes();
+    a.set(FILL_COLOR, Color.white);
+    a.set(STROKE_COLOR, Color.black);
+    a.set(STROKE_WIDTH, 2d);
+    a.set(TEXT_COLOR, Color.blue);
+    a.set(FONT_SIZE, 14d);
+    a.set(FONT_BOLD, true);
+    return a;
+  }
+
+  /** Reads the attributes, which a figure reads when it is drawn. */
+  @Benchmark
+  public int readDrawAttributes() {
+    Attributes a = attributes;
+    int h = System.identityHashCode(a.get(FILL_COLOR));
+    h += System.identityHashCode(a.get(STROKE_COLOR));
+    h += a.get(STROKE_WIDTH).intValue();
+    h += a.get(STROKE_CAP);
+    h += a.get(STROKE_JOIN);
+    h += a.get(STROKE_MITER_LIMIT).intValue();
+    h += a.get(STROKE_TYPE).ordinal();
+    h += a.get(STROKE_PLACEMENT).ordinal();
+    h += a.get(FILL_UNDER_STROKE).ordinal();
+    h += System.identityHashCode(a.get(STROKE_DASHES));
+    h += a.get(IS_STROKE_MITER_LIMIT_FACTOR) ? 1 : 0;
+    h += a.get(TRANSFORM) == null ? 0 : 1;
+    return h;
+  }
+
+  /** Changes an attribute back and forth. */
+  @Benchmark
+  public Attributes setAttribute() {
+    attributes.set(STROKE_WIDTH, (double) (counter++ & 7));
+    return attributes;
+  }
+
+  /** Creates the attributes of a new figure, which is styled like many other figures. */
+  @Benchmark
+  public Attributes createStyledAttributesBenchmark() {
+    return createStyledAttributes();
+  }
+}
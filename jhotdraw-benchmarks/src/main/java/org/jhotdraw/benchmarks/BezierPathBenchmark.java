@@ -0,0 +1,102 @@
+/*
+ * @(#)BezierPathBenchmark.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.benchmarks;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jhotdraw.utils.geom.path.BezierPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the conversion of a {@link BezierPath} into a general path, hit-testing on it, finding
+ * points on it, and transforming and bounding it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class BezierPathBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  @Param({"10", "100", "1000"})
+  public int nodeCount;
+
+  private BezierPath path;
+
+  /** A transform which does not accumulate rounding errors in the coordinates. */
+  private final AffineTransform flip = new AffineTransform(-1, 0, 0, 1, 1000, 0);
+
+  private Point2D.Double[] points;
+  private int sample;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random r = new Random(42);
+    path = SyntheticDrawings.createBezierPath(r, 0, 0, 1000, 1000, nodeCount);
+    points = new Point2D.Double[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      points[i] = new Point2D.Double(r.nextDouble() * 1000, r.nextDouble() * 1000);
+    }
+  }
+
+  private int nextSample() {
+    sample = (sample + 1) & (SAMPLES - 1);
+    return sample;
+  }
+
+  /** Converts the path after it has been invalidated, as it happens after each edit. */
+  @Benchmark
+  public Path2D.Double toGeneralPath() {
+    path.invalidatePath();
+    return path.toGeneralPath();
+  }
+
+  @Benchmark
+  public boolean contains() {
+    return path.contains(points[nextSample()]);
+  }
+
+  @Benchmark
+  public boolean outlineContains() {
+    return path.outlineContains(points[nextSample()], 2);
+  }
+
+  @Benchmark
+  public int findSegment() {
+    return path.findSegment(points[nextSample()], 2);
+  }
+
+  @Benchmark
+  public Point2D.Double pointOnPath() {
+    return path.getPointOnPath(nextSample() / (double) SAMPLES, 1);
+  }
+
+  @Benchmark
+  public Rectangle2D.Double transformAndBounds() {
+    path.transform(flip);
+    return path.getBounds2D();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * @(#)DOMStorableFormatBenchmark.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.jhotdraw.draw.DefaultDrawing;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.io.InputFormat;
+import org.jhotdraw.draw.io.OutputFormat;
+import org.jhotdraw.io.BinaryInputFormat;
+import org.jhotdraw.io.BinaryOutputFormat;
+import org.jhotdraw.io.DOMDefaultDrawFigureFactory;
+import org.jhotdraw.io.DOMStorableInputFormat;
+import org.jhotdraw.io.DOMStorableOutputFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures writing and reading drawings with the XML and the binary DOM storable formats. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+@State(Scope.Thread)
+public class DOMStorableFormatBenchmark {
+
+  @Param({"xml", "binary"})
+  public String format;
+
+  @Param({"1000", "10000", "100000"})
+  public int figureCount;
+
+  /** Whether the figures are decoded in parallel on the common pool. */
+  @Param({"false", "true"})
+  public boolean parallel;
+
+  private InputFormat inputFormat;
+  private OutputFormat outputFormat;
+  private Drawing drawing;
+  private byte[] data;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    DOMDefaultDrawFigureFactory factory = new DOMDefaultDrawFigureFactory();
+    ForkJoinPool pool = parallel ? ForkJoinPool.commonPool() : null;
+    if (format.equals("binary")) {
+      BinaryInputFormat binaryInputFormat = new BinaryInputFormat(factory);
+      binaryInputFormat.setDecodingPool(pool);
+      inputFormat = binaryInputFormat;
+      outputFormat = new BinaryOutputFormat(factory);
+    } else {
+      DOMStorableInputFormat xmlInputFormat = new DOMStorableInputFormat(factory);
+      xmlInputFormat.setDecodingPool(pool);
+      inputFormat = xmlInputFormat;
+      outputFormat = new DOMStorableOutputFormat(factory);
+    }
+    drawing = SyntheticDrawings.createDrawing("default", figureCount, 42);
+    data = write();
+  }
+
+  @Benchmark
+  public byte[] write() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    outputFormat.write(out, drawing);
+    return out.toByteArray();
+  }
+
+  @Benchmark
+  public Drawing read() throws IOException {
+    Drawing d = new DefaultDrawing();
+    inputFormat.read(new ByteArrayInputStream(data), d, true);
+    return d;
+  }
+
+  @Benchmark
+  public Drawing roundTrip() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    outputFormat.write(out, drawing);
+    Drawing d = new DefaultDrawing();
+    inputFormat.read(new ByteArrayInputStream(out.toByteArray()), d, true);
+    return d;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * @(#)DrawingBenchmark.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.figure.Figure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures hit-testing, rendering and change notification of {@code DefaultDrawing} and {@code
+ * QuadTreeDrawing} with synthetic drawings of increasing size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+@State(Scope.Thread)
+public class DrawingBenchmark {
+
+  private static final int SAMPLES = 1024;
+  private static final int VIEWPORT_WIDTH = 1024;
+  private static final int VIEWPORT_HEIGHT = 768;
+
+  @Param({"default", "quadtree"})
+  public String kind;
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  public int figureCount;
+
+  private Drawing drawing;
+  private List<Figure> figures;
+  private Point2D.Double[] points;
+  private Rectangle2D.Double[] rectangles;
+  private BufferedImage image;
+  private Graphics2D graphics;
+  private int sample;
+  private double direction = 1;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    drawing = SyntheticDrawings.createDrawing(kind, figureCount, 42);
+    figures = drawing.getChildren();
+    points = SyntheticDrawings.createPoints(SAMPLES, figureCount, 7);
+    rectangles = SyntheticDrawings.createRectangles(SAMPLES, figureCount, 200, 7);
+    image = new BufferedImage(VIEWPORT_WIDTH, VIEWPORT_HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+    graphics = image.createGraphics();
+    graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    // Let the drawing build its lazily created indices before measuring
+    drawing.findFigure(points[0]);
+    drawing.getDrawingArea();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    graphics.dispose();
+  }
+
+  private int nextSample() {
+    sample = (sample + 1) & (SAMPLES - 1);
+    return sample;
+  }
+
+  @Benchmark
+  public Figure findFigure() {
+    return drawing.findFigure(points[nextSample()]);
+  }
+
+  @Benchmark
+  public List<Figure> findFiguresInRectangle() {
+    return drawing.findFigures(rectangles[nextSample()]);
+  }
+
+  /** Renders a viewport of the drawing into an offscreen image. */
+  @Benchmark
+  public BufferedImage drawViewport() {
+    Point2D.Double p = points[nextSample()];
+    Graphics2D g = (Graphics2D) graphics.create();
+    try {
+      g.clipRect(0, 0, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+      g.translate(-p.x, -p.y);
+      drawing.draw(g);
+    } finally {
+      g.dispose();
+    }
+    return image;
+  }
+
+  /** Moves a figure back and forth, which makes the drawing update its indices. */
+  @Benchmark
+  public Figure figureChanged() {
+    int i = nextSample();
+    Figure f = figures.get(i % figures.size());
+    if (i == 0) {
+      direction = -direction;
+    }
+    f.willChange();
+    f.transform(AffineTransform.getTranslateInstance(3 * direction, 2 * direction));
+    f.changed();
+    return f;
+  }
+}
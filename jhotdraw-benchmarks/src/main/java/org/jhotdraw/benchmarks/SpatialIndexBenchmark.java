@@ -0,0 +1,120 @@
+/*
+ * @(#)SpatialIndexBenchmark.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.benchmarks;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.utils.geom.QuadTree;
+import org.jhotdraw.utils.geom.RTree;
+import org.jhotdraw.utils.geom.SpatialIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures adding, removing and querying of the {@link SpatialIndex} implementations. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+@State(Scope.Thread)
+public class SpatialIndexBenchmark {
+
+  private static final int SAMPLES = 1024;
+
+  @Param({"quadtree", "rtree"})
+  public String kind;
+
+  @Param({"1000", "100000", "1000000"})
+  public int figureCount;
+
+  private SpatialIndex<Figure> index;
+  private List<Figure> figures;
+  private Point2D.Double[] points;
+  private Rectangle2D.Double[] rectangles;
+  private int sample;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    figures = SyntheticDrawings.createFigures(figureCount, 42);
+    index = createIndex();
+    for (Figure f : figures) {
+      index.add(f, f.getDrawingArea());
+    }
+    points = SyntheticDrawings.createPoints(SAMPLES, figureCount, 7);
+    rectangles = SyntheticDrawings.createRectangles(SAMPLES, figureCount, 200, 7);
+  }
+
+  private SpatialIndex<Figure> createIndex() {
+    switch (kind) {
+      case "quadtree":
+        return new QuadTree<>();
+      case "rtree":
+        return new RTree<>();
+      default:
+        throw new IllegalArgumentException("unknown index kind: " + kind);
+    }
+  }
+
+  private int nextSample() {
+    sample = (sample + 1) & (SAMPLES - 1);
+    return sample;
+  }
+
+  /** Builds an index of all figures, one figure after the other. */
+  @Benchmark
+  public SpatialIndex<Figure> build() {
+    SpatialIndex<Figure> newIndex = createIndex();
+    for (Figure f : figures) {
+      newIndex.add(f, f.getDrawingArea());
+    }
+    return newIndex;
+  }
+
+  /** Builds an index of all figures with a single bulk operation. */
+  @Benchmark
+  public SpatialIndex<Figure> buildBulk() {
+    SpatialIndex<Figure> newIndex = createIndex();
+    newIndex.addAll(figures, Figure::getDrawingArea);
+    return newIndex;
+  }
+
+  /** Removes a figure and adds it again. */
+  @Benchmark
+  public SpatialIndex<Figure> removeAndAdd() {
+    Figure f = figures.get(nextSample() % figures.size());
+    index.remove(f);
+    index.add(f, f.getDrawingArea());
+    return index;
+  }
+
+  @Benchmark
+  public Collection<Figure> findContains() {
+    return index.findContains(points[nextSample()]);
+  }
+
+  @Benchmark
+  public Collection<Figure> findIntersects() {
+    return index.findIntersects(rectangles[nextSample()]);
+  }
+}
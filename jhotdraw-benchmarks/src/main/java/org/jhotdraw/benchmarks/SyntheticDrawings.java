@@ -0,0 +1,135 @@
+/*
+ * @(#)SyntheticDrawings.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.benchmarks;
+
+import static org.jhotdraw.draw.AttributeKeys.*;
+
+import java.awt.Color;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jhotdraw.draw.DefaultDrawing;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.QuadTreeDrawing;
+import org.jhotdraw.draw.figure.BezierFigure;
+import org.jhotdraw.draw.figure.EllipseFigure;
+import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.draw.figure.RectangleFigure;
+import org.jhotdraw.utils.geom.path.BezierPath;
+
+/**
+ * Generates reproducible synthetic drawings for the benchmarks.
+ *
+ * <p>The figures are distributed uniformly over a square area, which grows with the number of
+ * figures, so that the density of the drawing stays the same for all sizes.
+ */
+public final class SyntheticDrawings {
+
+  /** The average area of the drawing covered by a single figure. */
+  private static final double CELL_SIZE = 40;
+
+  private static final double MAX_FIGURE_SIZE = 30;
+
+  private SyntheticDrawings() {}
+
+  /** Creates an empty drawing of the specified kind, either "default" or "quadtree". */
+  public static Drawing createDrawing(String kind) {
+    switch (kind) {
+      case "default":
+        return new DefaultDrawing();
+      case "quadtree":
+        return new QuadTreeDrawing();
+      default:
+        throw new IllegalArgumentException("unknown drawing kind: " + kind);
+    }
+  }
+
+  /** Returns the width and height of the area covered by the specified number of figures. */
+  public static double getExtent(int figureCount) {
+    return Math.ceil(Math.sqrt(figureCount)) * CELL_SIZE;
+  }
+
+  /** Creates the specified number of rectangle, ellipse and bezier figures. */
+  public static List<Figure> createFigures(int figureCount, long seed) {
+    Random r = new Random(seed);
+    double extent = getExtent(figureCount);
+    List<Figure> figures = new ArrayList<>(figureCount);
+    for (int i = 0; i < figureCount; i++) {
+      double x = r.nextDouble() * extent;
+      double y = r.nextDouble() * extent;
+      double w = 2 + r.nextDouble() * MAX_FIGURE_SIZE;
+      double h = 2 + r.nextDouble() * MAX_FIGURE_SIZE;
+      Figure f;
+      switch (i % 3) {
+        case 0:
+          f = new RectangleFigure(x, y, w, h);
+          break;
+        case 1:
+          f = new EllipseFigure(x, y, w, h);
+          break;
+        default:
+          BezierFigure b = new BezierFigure();
+          b.setBezierPath(createBezierPath(r, x, y, w, h, 6));
+          f = b;
+          break;
+      }
+      f.attr().set(FILL_COLOR, new Color(r.nextInt(0xffffff)));
+      f.attr().set(STROKE_COLOR, Color.BLACK);
+      figures.add(f);
+    }
+    return figures;
+  }
+
+  /** Creates a drawing of the specified kind with the specified number of figures. */
+  public static Drawing createDrawing(String kind, int figureCount, long seed) {
+    Drawing drawing = createDrawing(kind);
+    drawing.addAll(createFigures(figureCount, seed));
+    return drawing;
+  }
+
+  /** Creates a closed bezier path with curved segments, which fits into the specified bounds. */
+  public static BezierPath createBezierPath(
+      Random r, double x, double y, double w, double h, int nodeCount) {
+    BezierPath path = new BezierPath();
+    for (int i = 0; i < nodeCount; i++) {
+      double angle = 2 * Math.PI * i / nodeCount;
+      double cx = x + w / 2 + Math.cos(angle) * w / 2 * (0.5 + r.nextDouble() / 2);
+      double cy = y + h / 2 + Math.sin(angle) * h / 2 * (0.5 + r.nextDouble() / 2);
+      double dx = -Math.sin(angle) * w / 8;
+      double dy = Math.cos(angle) * h / 8;
+      path.add(
+          new BezierPath.Node(BezierPath.C1C2_MASK, cx, cy, cx - dx, cy - dy, cx + dx, cy + dy));
+    }
+    path.setClosed(true);
+    return path;
+  }
+
+  /** Creates random points inside the area covered by the specified number of figures. */
+  public static Point2D.Double[] createPoints(int count, int figureCount, long seed) {
+    Random r = new Random(seed);
+    double extent = getExtent(figureCount);
+    Point2D.Double[] points = new Point2D.Double[count];
+    for (int i = 0; i < count; i++) {
+      points[i] = new Point2D.Double(r.nextDouble() * extent, r.nextDouble() * extent);
+    }
+    return points;
+  }
+
+  /** Creates random square query rectangles inside the area covered by the figures. */
+  public static Rectangle2D.Double[] createRectangles(
+      int count, int figureCount, double size, long seed) {
+    Point2D.Double[] points = createPoints(count, figureCount, seed);
+    Rectangle2D.Double[] rectangles = new Rectangle2D.Double[count];
+    for (int i = 0; i < count; i++) {
+      rectangles[i] = new Rectangle2D.Double(points[i].x, points[i].y, size, size);
+    }
+    return rectangles;
+  }
+}
@@ -14,7 +14,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EventListener;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import javax.swing.JPanel;
@@ -30,6 +32,8 @@ import org.jhotdraw.draw.figure.Attributes;
 import org.jhotdraw.draw.figure.Figure;
 import org.jhotdraw.draw.io.InputFormat;
 import org.jhotdraw.draw.io.OutputFormat;
+import org.jhotdraw.utils.geom.BoundsSegmentTree;
+import org.jhotdraw.utils.undo.CompositeEdit;
 
 public abstract class AbstractDrawing implements Drawing {
 
@@ -39,7 +43,33 @@ public abstract class AbstractDrawing implements Drawing {
   protected transient Rectangle2D.Double cachedBounds;
 
   protected transient Rectangle2D.Double cachedDrawingArea;
+
+  /** The scale factor of {@link #cachedDrawingArea}. */
+  private transient double cachedDrawingAreaFactor;
+
+  /**
+   * Holds the drawing areas of the children, so that the drawing area of the drawing can be updated
+   * in O(log n) when a single child changes. An index is built lazily for each scale factor which
+   * is requested, e.g. one for the zoom factor of each view, and one for factor 1. The list is in
+   * most recently used order, and holds at most {@link #MAX_DRAWING_AREA_INDEXES} indexes.
+   */
+  private transient List<DrawingAreaIndex> drawingAreaIndexes = new ArrayList<>();
+
+  private static final int MAX_DRAWING_AREA_INDEXES = 4;
   protected int changingDepth = 0;
+
+  /** The nesting depth of batches. */
+  private transient int batchDepth;
+
+  /** The children which have changed during the current batch. */
+  private transient Set<Figure> batchChangedFigures;
+
+  /** The union of the areas which have been invalidated during the current batch, or null. */
+  private transient Rectangle2D.Double batchInvalidatedArea;
+
+  /** The edit which compounds the undoable edits of the current batch. */
+  private transient CompositeEdit batchEdit;
+
   protected final List<Figure> CHILDREN = new ArrayList<>();
   protected final List<Figure> UNMODIFIABLE_CHILDREN = Collections.unmodifiableList(CHILDREN);
 
@@ -47,6 +77,8 @@ public abstract class AbstractDrawing implements Drawing {
   protected EventListenerList listenerList = new EventListenerList();
   private Attributes attributes = new Attributes(this::fireDrawingAttributeChanged);
   private transient FontRenderContext fontRenderContext;
+  private transient volatile TextLayoutCache textLayoutCache;
+  private transient ConnectionUpdateScheduler connectionUpdateScheduler;
   private List<InputFormat> inputFormats = new ArrayList<>();
   private List<OutputFormat> outputFormats = new ArrayList<>();
 
@@ -109,6 +141,7 @@ public abstract class AbstractDrawing implements Drawing {
   public void basicAdd(int index, Figure figure) {
     CHILDREN.add(index, figure);
     figure.addFigureListener(eventHandler);
+    updateDrawingAreaIndex(figure);
   }
 
   @Override
@@ -142,7 +175,7 @@ public abstract class AbstractDrawing implements Drawing {
   public void changed() {
     if (changingDepth == 1) {
       validate();
-      fireDrawingChanged(getDrawingArea());
+      fireDrawingChanged(getIndexedDrawingArea());
     } else if (changingDepth < 1) {
       throw new IllegalStateException(
           "changed was called without a prior call to willChange. " + changingDepth);
@@ -150,6 +183,101 @@ public abstract class AbstractDrawing implements Drawing {
     changingDepth--;
   }
 
+  @Override
+  public void beginBatch(String presentationName) {
+    if (batchDepth++ == 0) {
+      batchChangedFigures = Collections.newSetFromMap(new IdentityHashMap<>());
+      batchInvalidatedArea = null;
+      batchEdit = new CompositeEdit(presentationName);
+      fireUndoableEditHappened(batchEdit);
+    }
+    getConnectionUpdateScheduler().begin();
+  }
+
+  @Override
+  public void endBatch() {
+    if (batchDepth < 1) {
+      throw new IllegalStateException("endBatch was called without a prior call to beginBatch.");
+    }
+    // Connection updates are part of the batch
+    getConnectionUpdateScheduler().end();
+    if (--batchDepth > 0) {
+      return;
+    }
+    Set<Figure> changedFigures = batchChangedFigures;
+    Rectangle2D.Double invalidatedArea = batchInvalidatedArea;
+    CompositeEdit edit = batchEdit;
+    batchChangedFigures = null;
+    batchInvalidatedArea = null;
+    batchEdit = null;
+
+    if (!changedFigures.isEmpty()) {
+      updateIndexes(changedFigures);
+      invalidate();
+      validate();
+    }
+    if (invalidatedArea != null) {
+      fireDrawingChanged(invalidatedArea);
+    }
+    fireUndoableEditHappened(edit);
+  }
+
+  /** Returns true, if a batch of changes is open. */
+  protected boolean isBatching() {
+    return batchDepth > 0;
+  }
+
+  /**
+   * Records a figure changed event of a child during a batch.
+   *
+   * @return true, if the event has been recorded, false if no batch is open.
+   */
+  protected boolean addToBatch(FigureEvent e) {
+    if (batchDepth == 0) {
+      return false;
+    }
+    batchChangedFigures.add(e.getFigure());
+    addToBatch(e.getInvalidatedArea());
+    return true;
+  }
+
+  private void addToBatch(Rectangle2D.Double area) {
+    if (area == null) {
+      return;
+    }
+    if (batchInvalidatedArea == null) {
+      batchInvalidatedArea = (Rectangle2D.Double) area.clone();
+    } else {
+      batchInvalidatedArea.add(area);
+    }
+  }
+
+  /**
+   * Updates the indexes of the drawing for the children which have changed during a batch.
+   * Subclasses which maintain own indexes must override this method, and call the super
+   * implementation.
+   *
+   * <p>The drawing area indexes are updated child by child, or discarded and rebuilt on the next
+   * request if a large part of the children has changed.
+   */
+  protected void updateIndexes(Collection<Figure> changedFigures) {
+    if (isBulkUpdate(changedFigures)) {
+      drawingAreaIndexes.clear();
+    } else {
+      for (DrawingAreaIndex index : drawingAreaIndexes) {
+        for (Figure f : changedFigures) {
+          index.tree.put(f, f.getDrawingArea(index.factor));
+        }
+      }
+    }
+    cachedDrawingArea = null;
+  }
+
+  /** Returns true, if an index should be rebuilt rather than updated for the changed children. */
+  protected boolean isBulkUpdate(Collection<Figure> changedFigures) {
+    return changedFigures.size() > CHILDREN.size() / 4;
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public AbstractDrawing clone() {
@@ -160,7 +288,15 @@ public abstract class AbstractDrawing implements Drawing {
       throw new InternalError("clone failed", ex);
     }
     that.attributes = Attributes.from(attributes, that::fireDrawingAttributeChanged);
+    that.drawingAreaIndexes = new ArrayList<>();
+    that.cachedDrawingArea = null;
     that.listenerList = new EventListenerList();
+    that.textLayoutCache = null;
+    that.connectionUpdateScheduler = null;
+    that.batchDepth = 0;
+    that.batchChangedFigures = null;
+    that.batchInvalidatedArea = null;
+    that.batchEdit = null;
 
     that.inputFormats = (this.inputFormats == null) ? null : new ArrayList<>(this.inputFormats);
     that.outputFormats = (this.outputFormats == null) ? null : new ArrayList<>(this.outputFormats);
@@ -210,17 +346,11 @@ public abstract class AbstractDrawing implements Drawing {
 
   @Override
   public Rectangle2D.Double getDrawingArea(double factor) {
-    if (cachedDrawingArea == null) {
-      if (getChildCount() == 0) {
+    if (cachedDrawingArea == null || factor != cachedDrawingAreaFactor) {
+      cachedDrawingArea = getDrawingAreaIndex(factor).getBounds();
+      cachedDrawingAreaFactor = factor;
+      if (cachedDrawingArea == null) {
         cachedDrawingArea = new Rectangle2D.Double();
-      } else {
-        for (Figure f : CHILDREN) {
-          if (cachedDrawingArea == null) {
-            cachedDrawingArea = f.getDrawingArea(factor);
-          } else {
-            cachedDrawingArea.add(f.getDrawingArea(factor));
-          }
-        }
       }
     }
     return new Rectangle2D.Double(
@@ -230,6 +360,32 @@ public abstract class AbstractDrawing implements Drawing {
         cachedDrawingArea.height);
   }
 
+  /** Returns the drawing area index for the specified scale factor, and builds it if necessary. */
+  private BoundsSegmentTree<Figure> getDrawingAreaIndex(double factor) {
+    for (int i = 0; i < drawingAreaIndexes.size(); i++) {
+      DrawingAreaIndex index = drawingAreaIndexes.get(i);
+      if (index.factor == factor) {
+        if (i != 0) {
+          drawingAreaIndexes.remove(i);
+          drawingAreaIndexes.add(0, index);
+        }
+        return index.tree;
+      }
+    }
+    DrawingAreaIndex index = new DrawingAreaIndex(factor, new BoundsSegmentTree<>());
+    for (Figure f : CHILDREN) {
+      index.tree.put(f, f.getDrawingArea(factor));
+    }
+    drawingAreaIndexes.add(0, index);
+    if (drawingAreaIndexes.size() > MAX_DRAWING_AREA_INDEXES) {
+      drawingAreaIndexes.remove(drawingAreaIndexes.size() - 1);
+    }
+    return index.tree;
+  }
+
+  /** The drawing areas of the children for a scale factor. */
+  private record DrawingAreaIndex(double factor, BoundsSegmentTree<Figure> tree) {}
+
   @Override
   public FontRenderContext getFontRenderContext() {
     return fontRenderContext;
@@ -240,6 +396,28 @@ public abstract class AbstractDrawing implements Drawing {
     fontRenderContext = frc;
   }
 
+  @Override
+  public TextLayoutCache getTextLayoutCache() {
+    TextLayoutCache cache = textLayoutCache;
+    if (cache == null) {
+      synchronized (this) {
+        if (textLayoutCache == null) {
+          textLayoutCache = new TextLayoutCache();
+        }
+        cache = textLayoutCache;
+      }
+    }
+    return cache;
+  }
+
+  @Override
+  public ConnectionUpdateScheduler getConnectionUpdateScheduler() {
+    if (connectionUpdateScheduler == null) {
+      connectionUpdateScheduler = new ConnectionUpdateScheduler();
+    }
+    return connectionUpdateScheduler;
+  }
+
   @Override
   public List<InputFormat> getInputFormats() {
     return inputFormats;
@@ -332,6 +510,12 @@ public abstract class AbstractDrawing implements Drawing {
   protected Figure basicRemoveChild(int index) {
     Figure figure = CHILDREN.remove(index);
     figure.removeFigureListener(eventHandler);
+    if (batchChangedFigures != null) {
+      batchChangedFigures.remove(figure);
+    }
+    for (DrawingAreaIndex areaIndex : drawingAreaIndexes) {
+      areaIndex.tree.remove(figure);
+    }
     invalidate();
     return figure;
   }
@@ -347,7 +531,15 @@ public abstract class AbstractDrawing implements Drawing {
         () -> new DrawingEvent(this, attribute, oldValue, newValue));
   }
 
+  /**
+   * Fires a drawing changed event. During a batch, the changed area is merged into the area of the
+   * event which is fired at the end of the batch.
+   */
   protected void fireDrawingChanged(Rectangle2D.Double changedArea) {
+    if (batchDepth > 0) {
+      addToBatch(changedArea);
+      return;
+    }
     fireDrawingEvent(
         (listener, event) -> listener.drawingChanged(event),
         () -> new DrawingEvent(this, changedArea));
@@ -395,6 +587,28 @@ public abstract class AbstractDrawing implements Drawing {
     cachedDrawingArea = null;
   }
 
+  /**
+   * Updates the drawing area of the specified child in the drawing area indexes. This is an O(log
+   * n) operation for each index. Subclasses which handle figure events on their own must call this
+   * method whenever a child has changed.
+   */
+  protected void updateDrawingAreaIndex(Figure figure) {
+    for (DrawingAreaIndex index : drawingAreaIndexes) {
+      index.tree.put(figure, figure.getDrawingArea(index.factor));
+    }
+    cachedDrawingArea = null;
+  }
+
+  /**
+   * Returns the drawing area for the scale factor of the most recently used drawing area index.
+   * Used for internal updates, so that they do not build an index for another scale factor.
+   */
+  private Rectangle2D.Double getIndexedDrawingArea() {
+    return drawingAreaIndexes.isEmpty()
+        ? getDrawingArea()
+        : getDrawingArea(drawingAreaIndexes.get(0).factor);
+  }
+
   protected boolean isChanging() {
     return changingDepth != 0;
   }
@@ -402,10 +616,10 @@ public abstract class AbstractDrawing implements Drawing {
   protected void validate() {}
 
   private void addAll(int index, Collection<? extends Figure> figures) {
+    basicAddAll(index, figures);
     for (Figure f : figures) {
-      basicAdd(index++, f);
       f.addNotify(this);
-      fireFigureAdded(f, index);
+      fireFigureAdded(f, index++);
     }
     invalidate();
   }
@@ -422,17 +636,23 @@ public abstract class AbstractDrawing implements Drawing {
 
     @Override
     public void figureChanged(FigureEvent e) {
+      if (addToBatch(e)) {
+        return;
+      }
       fireFigureChanged(e.getFigure(), 0);
       if (!isChanging()) {
-        Rectangle2D.Double invalidatedArea = getDrawingArea();
+        Rectangle2D.Double invalidatedArea = getIndexedDrawingArea();
         invalidatedArea.add(e.getInvalidatedArea());
+        updateDrawingAreaIndex(e.getFigure());
         // We call invalidate/validate here, because we must layout
         // the figure again.
         invalidate();
         validate();
         // Forward the figureChanged event to listeners on AbstractCompositeFigure.
-        invalidatedArea.add(getDrawingArea());
+        invalidatedArea.add(getIndexedDrawingArea());
         fireDrawingChanged(invalidatedArea);
+      } else {
+        updateDrawingAreaIndex(e.getFigure());
       }
     }
 
@@ -448,6 +668,12 @@ public abstract class AbstractDrawing implements Drawing {
 
     @Override
     public void attributeChanged(FigureEvent e) {
+      if (isBatching()) {
+        batchChangedFigures.add(e.getFigure());
+      } else if (!drawingAreaIndexes.isEmpty()
+          && drawingAreaIndexes.get(0).tree.contains(e.getFigure())) {
+        updateDrawingAreaIndex(e.getFigure());
+      }
       invalidate();
     }
 
@@ -9,9 +9,11 @@ package org.jhotdraw.draw;
 
 import java.io.Serializable;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
-import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.UndoableEdit;
+import org.jhotdraw.draw.event.AttributeDeltaEdit;
 import org.jhotdraw.draw.figure.Figure;
 import org.jhotdraw.utils.util.Methods;
 import org.jhotdraw.utils.util.ResourceBundleUtil;
@@ -35,6 +37,11 @@ public class AttributeKey<T> implements Serializable {
 
   private static final long serialVersionUID = 1L;
 
+  /** Maps key strings to ordinals. Keys with equal key strings share the same ordinal. */
+  private static final ConcurrentHashMap<String, Integer> ORDINALS = new ConcurrentHashMap<>();
+
+  private static final AtomicInteger ORDINAL_COUNT = new AtomicInteger();
+
   /** Holds a String representation of the attribute key. */
   private String key;
 
@@ -56,6 +63,9 @@ public class AttributeKey<T> implements Serializable {
    */
   private Class<T> clazz;
 
+  /** Holds the ordinal plus one, or 0 if the ordinal has not been assigned yet. */
+  private transient int ordinal;
+
   /**
    * Creates a new instance with the specified attribute key, type token class, default value null,
    * and allowing null values.
@@ -132,6 +142,21 @@ public class AttributeKey<T> implements Serializable {
     return key;
   }
 
+  /**
+   * Returns the ordinal of the key. Ordinals are assigned densely, in the order in which keys are
+   * first asked for them, so that attribute storage can use them as bit indices.
+   *
+   * @return the ordinal, which is the same for all keys with the same key string.
+   */
+  public int ordinal() {
+    int o = ordinal;
+    if (o == 0) {
+      o = ORDINALS.computeIfAbsent(key, k -> ORDINAL_COUNT.getAndIncrement()) + 1;
+      ordinal = o;
+    }
+    return o - 1;
+  }
+
   /**
    * Returns a localized human friendly presentation of the key.
    *
@@ -182,7 +207,8 @@ public class AttributeKey<T> implements Serializable {
    */
   @SuppressWarnings("unchecked")
   public T get(Map<AttributeKey<?>, Object> a) {
-    return a.containsKey(this) ? (T) a.get(this) : getDefaultValue();
+    Object value = a.get(this);
+    return value != null || a.containsKey(this) ? (T) value : getDefaultValue();
   }
 
   /**
@@ -227,32 +253,8 @@ public class AttributeKey<T> implements Serializable {
     if (value == null && !isNullValueAllowed) {
       throw new NullPointerException("Null value not allowed for AttributeKey " + key);
     }
-    final Object restoreData = f.attr().getAttributesRestoreData();
-    f.attr().set(this, value);
-    UndoableEdit edit = new AbstractUndoableEdit() {
-      private static final long serialVersionUID = 1L;
-
-      @Override
-      public String getPresentationName() {
-        return AttributeKey.this.getPresentationName();
-      }
-
-      @Override
-      public void undo() {
-        super.undo();
-        f.willChange();
-        f.attr().restoreAttributesTo(restoreData);
-        f.changed();
-      }
-
-      @Override
-      public void redo() {
-        super.redo();
-        f.willChange();
-        f.attr().set(AttributeKey.this, value);
-        f.changed();
-      }
-    };
+    AttributeDeltaEdit edit = new AttributeDeltaEdit(getPresentationName());
+    edit.set(f, this, value);
     return edit;
   }
 
@@ -0,0 +1,155 @@
+/*
+ * @(#)ConnectionUpdateScheduler.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import org.jhotdraw.draw.figure.ConnectionFigure;
+import org.jhotdraw.draw.figure.Figure;
+
+/**
+ * Schedules the updates of the connection figures of a drawing.
+ *
+ * <p>A connection figure must be updated, whenever its start or its end figure changes. Outside of
+ * a deferral scope, the update is performed immediately. Inside of a scope, which is opened with
+ * {@link #begin} and closed with {@link #end}, the connections are collected, and each of them is
+ * updated exactly once when the outermost scope is closed. Connections which are attached to other
+ * connections are updated after the connections they are attached to.
+ *
+ * <p>The drawing opens a scope for each batch of changes, and tools can open a scope for each
+ * mouse event which changes multiple figures. This class is not thread safe, it must only be used
+ * on the thread which changes the drawing.
+ *
+ * @see Drawing#getConnectionUpdateScheduler
+ */
+public class ConnectionUpdateScheduler {
+
+  private int depth;
+
+  /** The connections which have been scheduled in the current scope. */
+  private final Set<ConnectionFigure> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /** The scheduled connections in the order in which they have been scheduled. */
+  private List<ConnectionFigure> order = new ArrayList<>();
+
+  /** The connections which have been updated by the current flush, or null. */
+  private Set<ConnectionFigure> updated;
+
+  private long updateCount;
+
+  /** Opens a deferral scope. Scopes can be nested. */
+  public void begin() {
+    depth++;
+  }
+
+  /**
+   * Closes a deferral scope. When the outermost scope is closed, all scheduled connections are
+   * updated.
+   */
+  public void end() {
+    if (depth < 1) {
+      throw new IllegalStateException("end was called without a prior call to begin.");
+    }
+    try {
+      if (depth == 1) {
+        flush();
+      }
+    } finally {
+      depth--;
+    }
+  }
+
+  /** Performs the specified changes in a deferral scope. */
+  public void run(Runnable changes) {
+    begin();
+    try {
+      changes.run();
+    } finally {
+      end();
+    }
+  }
+
+  /** Returns true, if a deferral scope is open. */
+  public boolean isDeferring() {
+    return depth > 0;
+  }
+
+  /** Schedules the update of a connection, whose start or end figure has changed. */
+  public void schedule(ConnectionFigure connection) {
+    if (depth == 0) {
+      update(connection);
+    } else if ((updated == null || !updated.contains(connection)) && pending.add(connection)) {
+      order.add(connection);
+    }
+  }
+
+  /** Returns the number of connection updates which have been performed by this scheduler. */
+  public long getUpdateCount() {
+    return updateCount;
+  }
+
+  private void flush() {
+    updated = Collections.newSetFromMap(new IdentityHashMap<>());
+    try {
+      // Updating a connection may schedule connections which are attached to it
+      while (!order.isEmpty()) {
+        List<ConnectionFigure> sorted = sortByDependency(order);
+        order = new ArrayList<>();
+        for (ConnectionFigure c : sorted) {
+          pending.remove(c);
+          if (updated.add(c)) {
+            update(c);
+          }
+        }
+      }
+    } finally {
+      updated = null;
+      pending.clear();
+      order.clear();
+    }
+  }
+
+  /**
+   * Sorts the connections, so that each connection comes after the scheduled connections it is
+   * attached to.
+   */
+  private List<ConnectionFigure> sortByDependency(List<ConnectionFigure> connections) {
+    List<ConnectionFigure> sorted = new ArrayList<>(connections.size());
+    Set<ConnectionFigure> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (ConnectionFigure c : connections) {
+      visit(c, visited, sorted);
+    }
+    return sorted;
+  }
+
+  private void visit(
+      ConnectionFigure c, Set<ConnectionFigure> visited, List<ConnectionFigure> sorted) {
+    if (visited.add(c)) {
+      visitAnchor(c.getStartFigure(), visited, sorted);
+      visitAnchor(c.getEndFigure(), visited, sorted);
+      sorted.add(c);
+    }
+  }
+
+  private void visitAnchor(
+      Figure anchor, Set<ConnectionFigure> visited, List<ConnectionFigure> sorted) {
+    if (anchor instanceof ConnectionFigure c && pending.contains(c)) {
+      visit(c, visited, sorted);
+    }
+  }
+
+  private void update(ConnectionFigure connection) {
+    updateCount++;
+    connection.willChange();
+    connection.updateConnection();
+    connection.changed();
+  }
+}
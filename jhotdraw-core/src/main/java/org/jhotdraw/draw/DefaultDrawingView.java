@@ -25,8 +25,12 @@ import java.awt.TexturePaint;
 import java.awt.Transparency;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
+import java.awt.event.HierarchyBoundsAdapter;
+import java.awt.event.HierarchyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
@@ -38,10 +42,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
@@ -59,7 +67,10 @@ import org.jhotdraw.draw.event.HandleEvent;
 import org.jhotdraw.draw.event.HandleListener;
 import org.jhotdraw.draw.figure.Figure;
 import org.jhotdraw.draw.handle.Handle;
+import org.jhotdraw.draw.handle.SelectionOutlineHandle;
 import org.jhotdraw.draw.io.DefaultDrawingViewTransferHandler;
+import org.jhotdraw.utils.geom.RTree;
+import org.jhotdraw.utils.geom.SpatialIndex;
 import org.jhotdraw.utils.util.ResourceBundleUtil;
 import org.jhotdraw.utils.util.ReversedList;
 
@@ -107,13 +118,80 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     public void figureHandlesChanged(FigureEvent e) {
       invalidateHandles();
     }
+
+    @Override
+    public void figureChanged(FigureEvent e) {
+      // The handles of the figure have moved
+      handleIndex = null;
+      if (selectionOutlineHandle != null) {
+        selectionOutlineHandle.figureChanged(e.getFigure());
+      }
+    }
   };
+
+  /** The handle which draws the outline of the selection, if the selection is too large. */
+  private SelectionOutlineHandle selectionOutlineHandle;
+
   private transient Rectangle2D.Double cachedDrawingArea;
   public static final String DRAWING_DOUBLE_BUFFERED_PROPERTY = "drawingDoubleBuffered";
 
   /** Whether the drawing is double buffered */
   private boolean isDrawingDoubleBuffered = true;
 
+  public static final String DRAWING_TILED_PROPERTY = "drawingTiled";
+  public static final String LEVEL_OF_DETAIL_PROPERTY = "levelOfDetail";
+
+  /** The level of detail policy. Null, if the drawing is always rendered with full detail. */
+  private LevelOfDetail levelOfDetail;
+
+  public static final String HANDLE_VIRTUALIZATION_THRESHOLD_PROPERTY =
+      "handleVirtualizationThreshold";
+  public static final String AGGREGATE_HANDLE_THRESHOLD_PROPERTY = "aggregateHandleThreshold";
+
+  /**
+   * If more figures than this are selected, handles are only created for the selected figures
+   * which are near the visible area of the view.
+   */
+  private int handleVirtualizationThreshold = 1000;
+
+  /**
+   * If more figures than this are selected, a single outline of the selection is shown instead of
+   * the handles of the figures.
+   */
+  private int aggregateHandleThreshold = 20000;
+
+  /**
+   * The area in view coordinates, for which the selection handles have been created. Null, if the
+   * handles have been created for all selected figures.
+   */
+  private Rectangle virtualizedHandleArea;
+
+  public static final String REPAINT_COALESCING_PROPERTY = "repaintCoalescing";
+
+  /**
+   * Whether repaint requests on the event dispatch thread are coalesced, and passed on to the
+   * RepaintManager once per cycle of the event queue. Off by default.
+   */
+  private boolean isRepaintCoalescing;
+
+  /** Coalesces the repaint requests of this view. Null, if it has not been created yet. */
+  private transient RepaintCoalescer repaintCoalescer;
+
+  /** If there are more selection handles than this, findHandle uses a spatial index. */
+  private static final int HANDLE_INDEX_THRESHOLD = 64;
+
+  /** The spatial index of the selection handles in view coordinates. Null, if it is stale. */
+  private transient SpatialIndex<Handle> handleIndex;
+
+  /** The positions of the selection handles in the selectionHandles list. */
+  private transient Map<Handle, Integer> handleOrder;
+
+  /**
+   * Renders the drawing into tiles on worker threads, if the drawing is tiled. Null, if the drawing
+   * is not tiled.
+   */
+  private transient TiledDrawingRenderer tiledRenderer;
+
   /** The drawingBuffer holds a rendered image of the drawing (in view coordinates). */
   private VolatileImage drawingBufferV;
 
@@ -223,22 +301,20 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
 
     @Override
     public void figureAdded(DrawingEvent evt) {
+      repaintDrawingArea(evt.getFigure()
+          .getDrawingArea(AttributeKeys.getScaleFactor(getDrawingToViewTransform())));
       if (drawing.getChildCount() == 1 && getEmptyDrawingMessage() != null) {
         repaint();
-      } else {
-        repaintDrawingArea(evt.getFigure()
-            .getDrawingArea(AttributeKeys.getScaleFactor(getDrawingToViewTransform())));
       }
       invalidateDimension();
     }
 
     @Override
     public void figureRemoved(DrawingEvent evt) {
+      repaintDrawingArea(evt.getFigure()
+          .getDrawingArea(AttributeKeys.getScaleFactor(getDrawingToViewTransform())));
       if (drawing.getChildCount() == 0 && getEmptyDrawingMessage() != null) {
         repaint();
-      } else {
-        repaintDrawingArea(evt.getFigure()
-            .getDrawingArea(AttributeKeys.getScaleFactor(getDrawingToViewTransform())));
       }
       removeFromSelection(evt.getFigure());
       invalidateDimension();
@@ -278,6 +354,7 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     @Override
     public void handleRequestRemove(HandleEvent e) {
       selectionHandles.remove(e.getHandle());
+      handleIndex = null;
       e.getHandle().dispose();
       invalidateHandles();
       repaint(e.getInvalidatedArea());
@@ -320,6 +397,24 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     setTransferHandler(new DefaultDrawingViewTransferHandler());
     setBackground(new Color(0xb0b0b0));
     setOpaque(true);
+    // Recreate the virtualized handles, when the visible area changes
+    addComponentListener(new ComponentAdapter() {
+      @Override
+      public void componentMoved(ComponentEvent e) {
+        validateVirtualizedHandleArea();
+      }
+
+      @Override
+      public void componentResized(ComponentEvent e) {
+        validateVirtualizedHandleArea();
+      }
+    });
+    addHierarchyBoundsListener(new HierarchyBoundsAdapter() {
+      @Override
+      public void ancestorResized(HierarchyEvent e) {
+        validateVirtualizedHandleArea();
+      }
+    });
   }
 
   protected EventHandler createEventHandler() {
@@ -384,7 +479,9 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     drawBackground(g);
     drawCanvas(g);
     drawConstrainer(g);
-    if (isDrawingDoubleBuffered()) {
+    if (isDrawingTiled()) {
+      drawDrawingTiled(g);
+    } else if (isDrawingDoubleBuffered()) {
       if (IS_WINDOWS) {
         drawDrawingNonvolatileBuffered(g);
       } else {
@@ -397,6 +494,22 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     drawTool(g);
   }
 
+  /**
+   * Draws the drawing from the tiles of the tiled renderer. Tiles which are not rendered yet are
+   * shown as placeholders, and are rendered on worker threads.
+   */
+  protected void drawDrawingTiled(Graphics2D g) {
+    if (drawing == null) {
+      return;
+    }
+    if (drawing.getChildCount() == 0 && emptyDrawingLabel != null) {
+      drawDrawing(g);
+      return;
+    }
+    drawing.setFontRenderContext(g.getFontRenderContext());
+    tiledRenderer.paint(g, drawing, translation, scaleFactor);
+  }
+
   /** Draws the drawing double buffered using a volatile image. */
   protected void drawDrawingVolatileBuffered(Graphics2D g) {
     Rectangle vr = getVisibleRect();
@@ -652,6 +765,31 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
     g.setRenderingHint(
         RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    if (levelOfDetail != null) {
+      g.setRenderingHint(JHotdrawRenderingKeys.LEVEL_OF_DETAIL, levelOfDetail);
+    }
+    g.setRenderingHint(JHotdrawRenderingKeys.ASYNC_IMAGE_LOADING, Boolean.TRUE);
+  }
+
+  /**
+   * Sets the level of detail policy. If a policy is set, figures which are very small on the screen
+   * are rendered in a simplified way. Printing always renders the full detail.
+   *
+   * @param newValue the policy, or null to render the full detail.
+   */
+  public void setLevelOfDetail(LevelOfDetail newValue) {
+    LevelOfDetail oldValue = levelOfDetail;
+    levelOfDetail = newValue;
+    firePropertyChange(LEVEL_OF_DETAIL_PROPERTY, oldValue, newValue);
+    dirtyArea.add(bufferedArea);
+    if (tiledRenderer != null) {
+      tiledRenderer.invalidateAll();
+    }
+    repaint();
+  }
+
+  public LevelOfDetail getLevelOfDetail() {
+    return levelOfDetail;
   }
 
   /**
@@ -753,6 +891,9 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
       this.drawing.addDrawingListener(eventHandler);
     }
     dirtyArea.add(bufferedArea);
+    if (tiledRenderer != null) {
+      tiledRenderer.clear();
+    }
     firePropertyChange(DRAWING_PROPERTY, oldValue, newValue);
     // Revalidate without flickering
     revalidate();
@@ -769,6 +910,65 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     t.start();
   }
 
+  /**
+   * Coalesces the repaint request with the other repaint requests of the current cycle of the event
+   * queue, if repaint coalescing is on.
+   */
+  @Override
+  public void repaint(long tm, int x, int y, int width, int height) {
+    if (isRepaintCoalescing && SwingUtilities.isEventDispatchThread()) {
+      getRepaintCoalescer().add(x, y, width, height);
+    } else {
+      super.repaint(tm, x, y, width, height);
+    }
+  }
+
+  /**
+   * Returns the coalescer of the repaint requests of this view. Its counters show how many repaint
+   * requests have been coalesced, and how much area is repainted.
+   *
+   * <p>The RepaintManager merges all dirty regions of a component into a single rectangle. The
+   * coalescer of the view therefore accumulates a single rectangle, which is passed on to the
+   * RepaintManager as is, so that the repainted area of the counters is the area which is really
+   * repainted. Its maximal rectangle count should not be changed.
+   */
+  public RepaintCoalescer getRepaintCoalescer() {
+    if (repaintCoalescer == null) {
+      repaintCoalescer = new RepaintCoalescer(r -> {
+        int x = (int) Math.floor(r.x);
+        int y = (int) Math.floor(r.y);
+        RepaintManager.currentManager(this)
+            .addDirtyRegion(
+                this,
+                x,
+                y,
+                (int) Math.ceil(r.x + r.width) - x,
+                (int) Math.ceil(r.y + r.height) - y);
+      });
+      repaintCoalescer.setMaxRectangleCount(1);
+    }
+    return repaintCoalescer;
+  }
+
+  /**
+   * Sets whether repaint requests on the event dispatch thread are coalesced. This is off by
+   * default. When it is on, the repaint requests of a cycle of the event queue are passed on to the
+   * RepaintManager at the end of the event queue. This saves work during bulk edits, which request
+   * thousands of repaints, but delays each repaint by one cycle of the event queue.
+   */
+  public void setRepaintCoalescing(boolean newValue) {
+    boolean oldValue = isRepaintCoalescing;
+    isRepaintCoalescing = newValue;
+    if (!newValue && repaintCoalescer != null) {
+      repaintCoalescer.flush();
+    }
+    firePropertyChange(REPAINT_COALESCING_PROPERTY, oldValue, newValue);
+  }
+
+  public boolean isRepaintCoalescing() {
+    return isRepaintCoalescing;
+  }
+
   @Override
   public void paint(Graphics g) {
     if (paintEnabled) {
@@ -780,6 +980,11 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     Rectangle vr = drawingToView(r);
     vr.grow(2, 2);
     dirtyArea.add(vr);
+    if (tiledRenderer != null) {
+      double grow = 2 / scaleFactor;
+      tiledRenderer.invalidate(
+          new Rectangle2D.Double(r.x - grow, r.y - grow, r.width + 2 * grow, r.height + 2 * grow));
+    }
     repaint(vr);
   }
 
@@ -792,6 +997,9 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
   @Override
   public void removeNotify() {
     super.removeNotify();
+    if (tiledRenderer != null) {
+      tiledRenderer.clear();
+    }
     if (drawingBufferNV != null) {
       drawingBufferNV.flush();
       drawingBufferNV = null;
@@ -810,7 +1018,10 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
       figure.addFigureListener(handleInvalidator);
       Set<Figure> newSelection = new HashSet<>(SELECTED_FIGURES);
       Rectangle invalidatedArea = null;
-      if (handlesAreValid && getEditor() != null) {
+      if (handlesAreValid && getEditor() != null && isHandleVirtualizationNeeded(0)) {
+        invalidateHandles();
+      } else if (handlesAreValid && getEditor() != null) {
+        handleIndex = null;
         for (Handle h : figure.createHandles(detailLevel)) {
           h.setView(this);
           selectionHandles.add(h);
@@ -836,12 +1047,15 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     Set<Figure> newSelection = new HashSet<>(SELECTED_FIGURES);
     boolean selectionChanged = false;
     Rectangle invalidatedArea = null;
+    // Do not create the handles one by one, if they will be virtualized
+    boolean createHandles = !isHandleVirtualizationNeeded(figures.size());
     for (Figure figure : figures) {
       if (SELECTED_FIGURES.add(figure)) {
         selectionChanged = true;
         newSelection.add(figure);
         figure.addFigureListener(handleInvalidator);
-        if (handlesAreValid && getEditor() != null) {
+        if (handlesAreValid && getEditor() != null && createHandles) {
+          handleIndex = null;
           for (Handle h : figure.createHandles(detailLevel)) {
             h.setView(this);
             selectionHandles.add(h);
@@ -856,6 +1070,9 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
       }
     }
     if (selectionChanged) {
+      if (!createHandles) {
+        invalidateHandles();
+      }
       fireSelectionChanged(oldSelection, newSelection);
       if (invalidatedArea != null) {
         repaint(invalidatedArea);
@@ -899,10 +1116,14 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
   @Override
   public void selectAll() {
     Set<Figure> oldSelection = new HashSet<>(SELECTED_FIGURES);
+    for (Figure figure : SELECTED_FIGURES) {
+      figure.removeFigureListener(handleInvalidator);
+    }
     SELECTED_FIGURES.clear();
     for (Figure figure : drawing.getChildren()) {
       if (figure.isSelectable()) {
         SELECTED_FIGURES.add(figure);
+        figure.addFigureListener(handleInvalidator);
       }
     }
     Set<Figure> newSelection = new HashSet<>(SELECTED_FIGURES);
@@ -916,6 +1137,9 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
   public void clearSelection() {
     if (getSelectionCount() > 0) {
       Set<Figure> oldSelection = new HashSet<>(SELECTED_FIGURES);
+      for (Figure figure : SELECTED_FIGURES) {
+        figure.removeFigureListener(handleInvalidator);
+      }
       SELECTED_FIGURES.clear();
       Set<Figure> newSelection = new HashSet<>(SELECTED_FIGURES);
       invalidateHandles();
@@ -944,7 +1168,7 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
   }
 
   /** Gets the currently active selection handles. */
-  private java.util.List<Handle> getSelectionHandles() {
+  java.util.List<Handle> getSelectionHandles() {
     validateHandles();
     return Collections.unmodifiableList(selectionHandles);
   }
@@ -980,6 +1204,9 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
       }
       selectionHandles.clear();
       secondaryHandles.clear();
+      handleIndex = null;
+      selectionOutlineHandle = null;
+      virtualizedHandleArea = null;
       setActiveHandle(null);
       if (invalidatedArea != null) {
         repaint(invalidatedArea);
@@ -994,9 +1221,33 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     if (!handlesAreValid && getEditor() != null) {
       handlesAreValid = true;
       selectionHandles.clear();
+      handleIndex = null;
+      virtualizedHandleArea = null;
+      if (getSelectionCount() > aggregateHandleThreshold) {
+        selectionOutlineHandle = new SelectionOutlineHandle(getSelectedFigures());
+        selectionOutlineHandle.setView(this);
+        selectionHandles.add(selectionOutlineHandle);
+        selectionOutlineHandle.addHandleListener(eventHandler);
+        repaint(selectionOutlineHandle.getDrawingArea());
+        return;
+      }
+      Rectangle2D.Double visibleArea = null;
+      if (isHandleVirtualizationNeeded(0)) {
+        // Create handles for the visible area and a margin around it, so that
+        // they do not need to be recreated for each scroll step
+        Rectangle vr = getVisibleRect();
+        virtualizedHandleArea =
+            new Rectangle(vr.x - vr.width / 2, vr.y - vr.height / 2, vr.width * 2, vr.height * 2);
+        visibleArea = viewToDrawing(virtualizedHandleArea);
+      }
       Rectangle invalidatedArea = null;
       while (true) {
+        boolean hasFigures = false;
         for (Figure figure : getSelectedFigures()) {
+          if (visibleArea != null && !visibleArea.intersects(figure.getDrawingArea())) {
+            continue;
+          }
+          hasFigures = true;
           for (Handle handle : figure.createHandles(detailLevel)) {
             handle.setView(this);
             selectionHandles.add(handle);
@@ -1008,7 +1259,7 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
             }
           }
         }
-        if (selectionHandles.size() == 0 && detailLevel != 0) {
+        if (selectionHandles.size() == 0 && hasFigures && detailLevel != 0) {
           // No handles are available at the desired detail level.
           // Retry with detail level 0.
           detailLevel = 0;
@@ -1035,7 +1286,21 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
         return handle;
       }
     }
-    for (Handle handle : new ReversedList<>(getSelectionHandles())) {
+    java.util.List<Handle> handles = getSelectionHandles();
+    if (handles.size() > HANDLE_INDEX_THRESHOLD) {
+      // The last handle which contains the point wins, like in the linear search below
+      Handle found = null;
+      int foundIndex = -1;
+      for (Handle handle : getHandleIndex().findContains(new Point2D.Double(p.x, p.y))) {
+        int index = handleOrder.get(handle);
+        if (index > foundIndex && handle.contains(p)) {
+          found = handle;
+          foundIndex = index;
+        }
+      }
+      return found;
+    }
+    for (Handle handle : new ReversedList<>(handles)) {
       if (handle.contains(p)) {
         return handle;
       }
@@ -1043,6 +1308,75 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     return null;
   }
 
+  /** Returns the spatial index of the selection handles, and builds it if it is stale. */
+  private SpatialIndex<Handle> getHandleIndex() {
+    if (handleIndex == null) {
+      handleOrder = new IdentityHashMap<>();
+      for (int i = 0, n = selectionHandles.size(); i < n; i++) {
+        handleOrder.put(selectionHandles.get(i), i);
+      }
+      SpatialIndex<Handle> index = new RTree<>();
+      index.addAll(selectionHandles, h -> {
+        Rectangle r = h.getDrawingArea();
+        return new Rectangle2D.Double(r.x - 1, r.y - 1, r.width + 2, r.height + 2);
+      });
+      handleIndex = index;
+    }
+    return handleIndex;
+  }
+
+  /**
+   * Returns true, if handles are only created near the visible area of the view, when the specified
+   * number of figures is added to the selection.
+   */
+  private boolean isHandleVirtualizationNeeded(int addedCount) {
+    return (long) getSelectionCount() + addedCount > handleVirtualizationThreshold;
+  }
+
+  /**
+   * Invalidates the handles, if they have been created for an area which does not cover the visible
+   * area of the view anymore. The handles are kept while the user interacts with one of them. This
+   * is called when the visible area changes, and not while the view is painted.
+   */
+  private void validateVirtualizedHandleArea() {
+    if (handlesAreValid
+        && virtualizedHandleArea != null
+        && activeHandle == null
+        && !virtualizedHandleArea.contains(getVisibleRect())) {
+      invalidateHandles();
+    }
+  }
+
+  /**
+   * Sets the number of selected figures above which handles are only created for the figures near
+   * the visible area of the view.
+   */
+  public void setHandleVirtualizationThreshold(int newValue) {
+    int oldValue = handleVirtualizationThreshold;
+    handleVirtualizationThreshold = newValue;
+    invalidateHandles();
+    firePropertyChange(HANDLE_VIRTUALIZATION_THRESHOLD_PROPERTY, oldValue, newValue);
+  }
+
+  public int getHandleVirtualizationThreshold() {
+    return handleVirtualizationThreshold;
+  }
+
+  /**
+   * Sets the number of selected figures above which a single outline of the selection is shown
+   * instead of the handles of the figures.
+   */
+  public void setAggregateHandleThreshold(int newValue) {
+    int oldValue = aggregateHandleThreshold;
+    aggregateHandleThreshold = newValue;
+    invalidateHandles();
+    firePropertyChange(AGGREGATE_HANDLE_THRESHOLD_PROPERTY, oldValue, newValue);
+  }
+
+  public int getAggregateHandleThreshold() {
+    return aggregateHandleThreshold;
+  }
+
   /**
    * Gets compatible handles.
    *
@@ -1296,6 +1630,7 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
   }
 
   protected void fireViewTransformChanged() {
+    handleIndex = null;
     for (Handle handle : selectionHandles) {
       handle.viewTransformChanged();
     }
@@ -1498,6 +1833,31 @@ public class DefaultDrawingView extends JComponent implements DrawingView, Edita
     firePropertyChange(DRAWING_DOUBLE_BUFFERED_PROPERTY, oldValue, newValue);
   }
 
+  /**
+   * Turns tiled rendering on or off. If tiled rendering is on, the drawing is rendered into a cache
+   * of image tiles on worker threads, and the view only blits the tiles. This keeps the user
+   * interface responsive for large drawings, at the cost of showing placeholders for tiles which
+   * are not rendered yet. Tiled rendering takes precedence over double buffering. Tiled rendering
+   * is off by default.
+   */
+  public void setDrawingTiled(boolean newValue) {
+    boolean oldValue = isDrawingTiled();
+    if (newValue && tiledRenderer == null) {
+      tiledRenderer = new TiledDrawingRenderer(this);
+      tiledRenderer.setRenderingHints(this::setViewRenderingHints);
+    } else if (!newValue && tiledRenderer != null) {
+      tiledRenderer.clear();
+      tiledRenderer = null;
+    }
+    firePropertyChange(DRAWING_TILED_PROPERTY, oldValue, newValue);
+    repaint();
+  }
+
+  /** Returns true, if the drawing is rendered in tiles. */
+  public boolean isDrawingTiled() {
+    return tiledRenderer != null;
+  }
+
   /** Returns true, if the the drawing is double buffered. */
   public boolean isDrawingDoubleBuffered() {
     return isDrawingDoubleBuffered;
@@ -101,6 +101,56 @@ public interface Drawing extends AttributeProvider {
   /** Informs that a Drawing changed its visual representation and needs to be redrawn. */
   public void changed();
 
+  /**
+   * Begins a batch of changes to the children of the drawing.
+   *
+   * <p>While a batch is open, the drawing does not propagate the changes of its children one by
+   * one. It collects the changed children and the invalidated areas instead. When the outermost
+   * batch is ended, the drawing updates its indexes for all changed children in one pass, and fires
+   * a single drawing changed event with the union of the invalidated areas. The undoable edits
+   * which are fired during the batch are compounded into a single {@link
+   * org.jhotdraw.utils.undo.CompositeEdit}. The indexes which are used to find figures may be
+   * stale until the batch has been ended.
+   *
+   * <p>Batches can be nested. Each call to this method must be balanced by a call to {@link
+   * #endBatch}.
+   *
+   * <p>The default implementation does nothing, so that a drawing which does not support batches
+   * propagates the changes one by one.
+   *
+   * @param presentationName the presentation name of the compound undoable edit, or null to use the
+   *     name of the last edit in the batch.
+   */
+  default void beginBatch(String presentationName) {}
+
+  /** Begins a batch of changes, whose compound edit is named after its last edit. */
+  default void beginBatch() {
+    beginBatch(null);
+  }
+
+  /** Ends a batch of changes. The default implementation does nothing. */
+  default void endBatch() {}
+
+  /** Performs the specified changes in a batch. */
+  default void batch(Runnable changes) {
+    batch(null, changes);
+  }
+
+  /**
+   * Performs the specified changes in a batch.
+   *
+   * @param presentationName the presentation name of the compound undoable edit, or null.
+   * @param changes the changes.
+   */
+  default void batch(String presentationName, Runnable changes) {
+    beginBatch(presentationName);
+    try {
+      changes.run();
+    } finally {
+      endBatch();
+    }
+  }
+
   public void draw(Graphics2D g);
 
   /**
@@ -352,6 +402,22 @@ public interface Drawing extends AttributeProvider {
   /** Notify all listenerList that have registered interest for notification on this event type. */
   void fireUndoableEditHappened(UndoableEdit edit);
 
+  /**
+   * Returns the cache of text layouts which is shared by the text figures of this drawing, or null
+   * if the drawing does not provide one.
+   */
+  default TextLayoutCache getTextLayoutCache() {
+    return null;
+  }
+
+  /**
+   * Returns the scheduler which updates the connection figures of this drawing, or null if the
+   * connections are updated immediately. The scheduler defers the updates while a batch is open.
+   */
+  default ConnectionUpdateScheduler getConnectionUpdateScheduler() {
+    return null;
+  }
+
   /** Returns the font render context used to do text layout and text drawing. */
   FontRenderContext getFontRenderContext();
 
@@ -36,5 +36,30 @@ public final class JHotdrawRenderingKeys {
     }
   };
 
+  /**
+   * Switches level of detail rendering on, if the value is a {@link LevelOfDetail} policy. Figures
+   * which are very small on the screen are then rendered in a simplified way or skipped.
+   */
+  public static final RenderingHints.Key LEVEL_OF_DETAIL = new RenderingHints.Key(100) {
+    @Override
+    public boolean isCompatibleValue(Object val) {
+      return val == null || val instanceof LevelOfDetail;
+    }
+  };
+
+  /**
+   * If the value is {@code Boolean.TRUE}, images are decoded and downscaled on worker threads, and
+   * figures draw a placeholder or a lower resolution until the image is ready. Interactive views set
+   * this hint. Without it, images are decoded on the drawing thread.
+   *
+   * @see org.jhotdraw.draw.figure.MipmapImageCache
+   */
+  public static final RenderingHints.Key ASYNC_IMAGE_LOADING = new RenderingHints.Key(101) {
+    @Override
+    public boolean isCompatibleValue(Object val) {
+      return val == null || val instanceof Boolean;
+    }
+  };
+
   private JHotdrawRenderingKeys() {}
 }
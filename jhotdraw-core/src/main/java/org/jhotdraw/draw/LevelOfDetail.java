@@ -0,0 +1,99 @@
+/*
+ * @(#)LevelOfDetail.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw;
+
+import java.awt.Graphics2D;
+
+/**
+ * A level of detail policy decides how much detail of a figure is rendered, depending on the size
+ * of the figure on the screen.
+ *
+ * <p>Level of detail rendering is switched on by setting an instance of this class as the value of
+ * the rendering hint {@link JHotdrawRenderingKeys#LEVEL_OF_DETAIL}. Figures which are smaller than
+ * the configured thresholds are then rendered as a box of their bounds or skipped, and small text
+ * is rendered as greeked bars or skipped. This makes zoomed out overviews of large drawings much
+ * faster to render.
+ *
+ * <p>Subclasses can override {@link #getFigureDetail} and {@link #getTextDetail} to implement
+ * different policies.
+ */
+public class LevelOfDetail {
+
+  /** The level of detail of a figure or a text. */
+  public enum Detail {
+    /** Render with full detail. */
+    FULL,
+    /** Render the bounds of a figure as a box, or a text as greeked bars. */
+    SIMPLIFIED,
+    /** Do not render at all. */
+    SKIP
+  }
+
+  /** A policy with thresholds which are hardly noticeable on the screen. */
+  public static final LevelOfDetail DEFAULT = new LevelOfDetail(0.5, 3, 1, 5);
+
+  private final double skipFigureSize;
+  private final double simplifyFigureSize;
+  private final double skipTextSize;
+  private final double simplifyTextSize;
+
+  /**
+   * Creates a new instance. All sizes are given in device pixels.
+   *
+   * @param skipFigureSize figures which are smaller than this are skipped.
+   * @param simplifyFigureSize figures which are smaller than this are rendered as a box.
+   * @param skipTextSize text with a smaller font size is skipped.
+   * @param simplifyTextSize text with a smaller font size is rendered as greeked bars.
+   */
+  public LevelOfDetail(
+      double skipFigureSize,
+      double simplifyFigureSize,
+      double skipTextSize,
+      double simplifyTextSize) {
+    this.skipFigureSize = skipFigureSize;
+    this.simplifyFigureSize = simplifyFigureSize;
+    this.skipTextSize = skipTextSize;
+    this.simplifyTextSize = simplifyTextSize;
+  }
+
+  /**
+   * Returns the level of detail policy of the specified graphics, or null if level of detail
+   * rendering is switched off.
+   */
+  public static LevelOfDetail fromGraphics(Graphics2D g) {
+    return g.getRenderingHint(JHotdrawRenderingKeys.LEVEL_OF_DETAIL) instanceof LevelOfDetail lod
+        ? lod
+        : null;
+  }
+
+  /**
+   * Returns the level of detail for a figure.
+   *
+   * @param screenWidth the width of the figure in device pixels.
+   * @param screenHeight the height of the figure in device pixels.
+   */
+  public Detail getFigureDetail(double screenWidth, double screenHeight) {
+    double size = Math.max(screenWidth, screenHeight);
+    if (size < skipFigureSize) {
+      return Detail.SKIP;
+    }
+    return size < simplifyFigureSize ? Detail.SIMPLIFIED : Detail.FULL;
+  }
+
+  /**
+   * Returns the level of detail for a text.
+   *
+   * @param screenFontSize the font size in device pixels.
+   */
+  public Detail getTextDetail(double screenFontSize) {
+    if (screenFontSize < skipTextSize) {
+      return Detail.SKIP;
+    }
+    return screenFontSize < simplifyTextSize ? Detail.SIMPLIFIED : Detail.FULL;
+  }
+}
@@ -15,26 +15,38 @@ import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.function.Predicate;
 import org.jhotdraw.draw.event.FigureEvent;
 import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.draw.figure.ZOrderIndex;
 import org.jhotdraw.utils.geom.Geom;
-import org.jhotdraw.utils.geom.QuadTree;
+import org.jhotdraw.utils.geom.RTree;
+import org.jhotdraw.utils.geom.SpatialIndex;
 import org.jhotdraw.utils.util.*;
 
 /**
- * An implementation of {@link Drawing} which uses a {@link org.jhotdraw.utils.geom.QuadTree} to provide a
- * good responsiveness for drawings which contain many figures.
+ * An implementation of {@link Drawing} which uses a {@link SpatialIndex} to provide a good
+ * responsiveness for drawings which contain many figures.
+ *
+ * <p>By default the figures are indexed by an {@link RTree}. Subclasses can plug in a different
+ * index by overriding {@link #createSpatialIndex}.
  */
 public class QuadTreeDrawing extends AbstractDrawing {
 
   private static final long serialVersionUID = 1L;
-  private QuadTree<Figure> quadTree = new QuadTree<>();
+  private SpatialIndex<Figure> spatialIndex = createSpatialIndex();
+  private ZOrderIndex zOrder = new ZOrderIndex();
+
+  /** True, if the children list is not sorted by z-order key. */
   private boolean needsSorting = false;
 
+  /** Creates the spatial index which is used to look up the figures of this drawing. */
+  protected SpatialIndex<Figure> createSpatialIndex() {
+    return new RTree<>();
+  }
+
   @Override
   public int indexOf(Figure figure) {
     return CHILDREN.indexOf(figure);
@@ -43,15 +55,41 @@ public class QuadTreeDrawing extends AbstractDrawing {
   @Override
   public void basicAdd(int index, Figure figure) {
     super.basicAdd(index, figure);
-    quadTree.add(figure, figure.getDrawingArea());
-    needsSorting = true;
+    spatialIndex.add(figure, figure.getDrawingArea());
+    addToZOrder(index, figure);
+  }
+
+  @Override
+  public void basicAddAll(int index, Collection<? extends Figure> figures) {
+    for (Figure f : figures) {
+      super.basicAdd(index, f);
+      addToZOrder(index++, f);
+    }
+    spatialIndex.addAll(figures, Figure::getDrawingArea);
+  }
+
+  /**
+   * Assigns a z-order key to a figure which has just been added to the children list at the
+   * specified index.
+   */
+  private void addToZOrder(int index, Figure figure) {
+    int last = CHILDREN.size() - 1;
+    if (index == last) {
+      zOrder.addToFront(figure);
+      needsSorting |= index > 0 && zOrder.getKey(CHILDREN.get(index - 1)) > zOrder.getKey(figure);
+    } else if (index == 0) {
+      zOrder.addToBack(figure);
+      needsSorting |= zOrder.getKey(CHILDREN.get(1)) < zOrder.getKey(figure);
+    } else {
+      zOrder.addAt(figure);
+    }
   }
 
   @Override
   public Figure basicRemoveChild(int index) {
     Figure figure = getChild(index);
-    quadTree.remove(figure);
-    needsSorting = true;
+    spatialIndex.remove(figure);
+    zOrder.remove(figure);
     super.basicRemoveChild(index);
     return figure;
   }
@@ -60,20 +98,35 @@ public class QuadTreeDrawing extends AbstractDrawing {
   public void draw(Graphics2D g) {
     Rectangle2D clipBounds = g.getClipBounds();
     if (clipBounds != null) {
-      draw(g, sort(quadTree.findIntersects(clipBounds)));
+      draw(g, backToFront(spatialIndex.findIntersects(clipBounds)));
     } else {
       draw(g, CHILDREN);
     }
   }
 
-  /** Implementation note: Sorting can not be done for orphaned children. */
+  /**
+   * Implementation note: Orphaned children are sorted by layer only, and are placed behind the
+   * children of the same layer.
+   */
   @Override
   public List<Figure> sort(Collection<? extends Figure> c) {
     List<Figure> sorted = new ArrayList<>(c);
-    Collections.sort(sorted, Comparator.comparing(Figure::getLayer));
+    ensureZOrder();
+    zOrder.sortBackToFront(sorted);
     return sorted;
   }
 
+  /**
+   * Sorts the result of a spatial query from back to front. Reuses the list, if the query already
+   * returned one.
+   */
+  private List<Figure> backToFront(Collection<Figure> c) {
+    List<Figure> list = (c instanceof ArrayList) ? (List<Figure>) c : new ArrayList<>(c);
+    ensureZOrder();
+    zOrder.sortBackToFront(list);
+    return list;
+  }
+
   public void draw(Graphics2D g, Collection<Figure> c) {
     for (Figure f : c) {
       if (f.isVisible()) {
@@ -83,14 +136,14 @@ public class QuadTreeDrawing extends AbstractDrawing {
   }
 
   //  public List<Figure> getChildren(Rectangle2D.Double bounds) {
-  //    return new ArrayList<>(quadTree.findInside(bounds));
+  //    return new ArrayList<>(spatialIndex.findInside(bounds));
   //  }
 
   @Override
   public Figure findFigureInside(Point2D.Double p) {
-    Collection<Figure> c = quadTree.findContains(p);
+    Collection<Figure> c = spatialIndex.findContains(p);
     for (Figure f : getFiguresFrontToBack(c)) {
-      if (c.contains(f) && f.contains(p)) {
+      if (f.contains(p)) {
         return f.findFigureInside(p);
       }
     }
@@ -105,14 +158,17 @@ public class QuadTreeDrawing extends AbstractDrawing {
   }
 
   protected List<Figure> getFiguresFrontToBack(Collection<Figure> smallCollection) {
-    List<Figure> list = new ArrayList<>(smallCollection);
-    Collections.sort(list, Comparator.comparing(Figure::getLayer).reversed());
+    List<Figure> list = (smallCollection instanceof ArrayList)
+        ? (List<Figure>) smallCollection
+        : new ArrayList<>(smallCollection);
+    ensureZOrder();
+    zOrder.sortFrontToBack(list);
     return list;
   }
 
   @Override
   public Figure findFigure(Point2D.Double p) {
-    Collection<Figure> c = quadTree.findContains(p);
+    Collection<Figure> c = spatialIndex.findContains(p);
     switch (c.size()) {
       case 0:
         return null;
@@ -144,7 +200,7 @@ public class QuadTreeDrawing extends AbstractDrawing {
 
   @Override
   public List<Figure> findFigures(Point2D.Double p) {
-    return quadTree.findContains(p).stream().filter(f -> f.contains(p)).toList();
+    return spatialIndex.findContains(p).stream().filter(f -> f.contains(p)).toList();
   }
 
   @Override
@@ -159,7 +215,7 @@ public class QuadTreeDrawing extends AbstractDrawing {
 
   @Override
   public Figure findFigureExcept(Point2D.Double p, Figure ignore) {
-    Collection<Figure> c = quadTree.findContains(p);
+    Collection<Figure> c = spatialIndex.findContains(p);
     switch (c.size()) {
       case 0:
         return null;
@@ -178,7 +234,7 @@ public class QuadTreeDrawing extends AbstractDrawing {
 
   @Override
   public Figure findFigureExcept(Point2D.Double p, Collection<? extends Figure> ignore) {
-    Collection<Figure> c = quadTree.findContains(p);
+    Collection<Figure> c = spatialIndex.findContains(p);
     switch (c.size()) {
       case 0:
         return null;
@@ -238,15 +294,7 @@ public class QuadTreeDrawing extends AbstractDrawing {
 
   @Override
   public List<Figure> findFigures(Rectangle2D.Double r) {
-    List<Figure> c = new ArrayList<>(quadTree.findIntersects(r));
-    switch (c.size()) {
-      case 0:
-      // fall through
-      case 1:
-        return c;
-      default:
-        return getFiguresFrontToBack(c);
-    }
+    return getFiguresFrontToBack(spatialIndex.findIntersects(r));
   }
 
   @Override
@@ -271,10 +319,9 @@ public class QuadTreeDrawing extends AbstractDrawing {
   @Override
   public void bringToFront(Figure figure) {
     if (CHILDREN.remove(figure)) {
-      var maxLayer = CHILDREN.stream().mapToInt(f -> f.getLayer()).max().orElse(0) + 1;
-
       CHILDREN.add(figure);
-      needsSorting = true;
+      zOrder.remove(figure);
+      addToZOrder(CHILDREN.size() - 1, figure);
       fireDrawingChanged(figure.getDrawingArea());
     }
   }
@@ -283,29 +330,67 @@ public class QuadTreeDrawing extends AbstractDrawing {
   public void sendToBack(Figure figure) {
     if (CHILDREN.remove(figure)) {
       CHILDREN.add(0, figure);
-      needsSorting = true;
+      zOrder.remove(figure);
+      addToZOrder(0, figure);
       fireDrawingChanged(figure.getDrawingArea());
     }
   }
 
+  /**
+   * Ensures that the z-order keys are valid. If a figure has been inserted in the middle of the
+   * children list, the keys are renumbered from the children list.
+   */
+  private void ensureZOrder() {
+    if (!zOrder.isValid()) {
+      CHILDREN.sort(Comparator.comparingInt(Figure::getLayer));
+      zOrder.renumber(CHILDREN);
+      needsSorting = false;
+    }
+  }
+
   /** Ensures that the children are sorted in z-order sequence. */
   private void ensureSorted() {
+    ensureZOrder();
     if (needsSorting) {
-      Collections.sort(CHILDREN, Comparator.comparing(Figure::getLayer));
+      CHILDREN.sort(zOrder.comparator());
       needsSorting = false;
     }
   }
 
   @Override
   public QuadTreeDrawing clone() {
+    // Sort before cloning, so that the clone copies the children in z-order
+    ensureSorted();
     QuadTreeDrawing that = (QuadTreeDrawing) super.clone();
-    that.quadTree = new QuadTree<>();
-    for (Figure f : getChildren()) {
-      quadTree.add(f, f.getDrawingArea());
-    }
+    that.spatialIndex = that.createSpatialIndex();
+    that.spatialIndex.addAll(that.getChildren(), Figure::getDrawingArea);
+    that.zOrder = new ZOrderIndex();
+    that.zOrder.renumber(that.CHILDREN);
     return that;
   }
 
+  /**
+   * Updates the spatial index and the z-order index for the children which have changed during a
+   * batch. The spatial index is bulk loaded again, if a large part of the children has changed.
+   */
+  @Override
+  protected void updateIndexes(Collection<Figure> changedFigures) {
+    super.updateIndexes(changedFigures);
+    if (isBulkUpdate(changedFigures)) {
+      spatialIndex.clear();
+      spatialIndex.addAll(CHILDREN, Figure::getDrawingArea);
+    } else {
+      for (Figure f : changedFigures) {
+        spatialIndex.update(f, f.getDrawingArea());
+      }
+    }
+    for (Figure f : changedFigures) {
+      if (zOrder.updateLayer(f)) {
+        needsSorting = true;
+      }
+    }
+  }
+
   @Override
   protected EventHandler createEventHandler() {
     return new QuadTreeEventHandler();
@@ -318,11 +403,16 @@ public class QuadTreeDrawing extends AbstractDrawing {
 
     @Override
     public void figureChanged(FigureEvent e) {
+      if (addToBatch(e)) {
+        return;
+      }
       fireFigureChanged(e.getFigure(), 0);
-      if (!isChanging()) {
-        quadTree.remove(e.getFigure());
-        quadTree.add(e.getFigure(), e.getFigure().getDrawingArea());
+      updateDrawingAreaIndex(e.getFigure());
+      spatialIndex.update(e.getFigure(), e.getFigure().getDrawingArea());
+      if (zOrder.updateLayer(e.getFigure())) {
         needsSorting = true;
+      }
+      if (!isChanging()) {
         invalidate();
         fireDrawingChanged(e.getInvalidatedArea());
       }
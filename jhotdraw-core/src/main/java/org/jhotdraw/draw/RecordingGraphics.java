@@ -0,0 +1,600 @@
+/*
+ * @(#)RecordingGraphics.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw;
+
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.RectangularShape;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.text.AttributedCharacterIterator;
+import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A {@code Graphics2D}, which records the operations performed on it into a display list, so that
+ * they can be replayed onto other graphics later, and on another thread.
+ *
+ * <p>The state of the graphics, such as the transform, the clip and the rendering hints, is kept
+ * in a scratch graphics, so that figures which query the state while they draw get the same answers
+ * as from a real graphics. Mutable arguments, such as shapes, transforms and coordinate arrays, are
+ * copied when they are recorded. The display list therefore does not depend on the state of the
+ * figures, after the figures have been drawn onto the recorder.
+ *
+ * <p>A recorded absolute transform is replayed relative to the transform of the graphics on which
+ * the display list is replayed. This allows to replay the same display list onto tiles with
+ * different offsets.
+ *
+ * <p>Recording is not thread safe. A display list which has been recorded can be replayed by
+ * multiple threads at the same time.
+ */
+final class RecordingGraphics extends Graphics2D {
+
+  /** An operation on the graphics with the specified index in a replay. */
+  private record Op(int graphics, Consumer<Replay> action) {}
+
+  /** The state of a replay. */
+  private static final class Replay {
+
+    private final AffineTransform base;
+    private final Graphics2D[] graphics;
+    private int current;
+
+    Replay(Graphics2D target, int graphicsCount) {
+      base = target.getTransform();
+      graphics = new Graphics2D[graphicsCount];
+      graphics[0] = target;
+    }
+
+    Graphics2D g() {
+      return graphics[current];
+    }
+  }
+
+  /** The display list, which is shared by a recorder and the recorders created from it. */
+  private static final class DisplayList {
+
+    private final List<Op> ops = new ArrayList<>();
+    private int graphicsCount = 1;
+  }
+
+  private final DisplayList list;
+  private final int index;
+  private final Graphics2D scratch;
+
+  /** Creates a recorder, whose scratch state is taken from the specified graphics. */
+  RecordingGraphics(Graphics2D scratch) {
+    this(new DisplayList(), 0, scratch);
+  }
+
+  private RecordingGraphics(DisplayList list, int index, Graphics2D scratch) {
+    this.list = list;
+    this.index = index;
+    this.scratch = scratch;
+  }
+
+  /** Creates a recorder with a scratch graphics for ARGB images. */
+  static RecordingGraphics create(Consumer<Graphics2D> renderingHints) {
+    BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
+    Graphics2D scratch = image.createGraphics();
+    renderingHints.accept(scratch);
+    return new RecordingGraphics(scratch);
+  }
+
+  /** Returns the number of recorded operations. */
+  int getOperationCount() {
+    return list.ops.size();
+  }
+
+  /**
+   * Intersects the clip of the scratch state with the specified shape, without recording the clip.
+   * Figures use the clip to skip drawing what is not visible.
+   */
+  void clipWithoutRecording(Shape s) {
+    scratch.clip(s);
+  }
+
+  /** Replays the display list onto the specified graphics. */
+  void replay(Graphics2D target) {
+    Replay replay = new Replay(target, list.graphicsCount);
+    try {
+      for (Op op : list.ops) {
+        replay.current = op.graphics;
+        op.action.accept(replay);
+      }
+    } finally {
+      for (int i = 1; i < replay.graphics.length; i++) {
+        if (replay.graphics[i] != null) {
+          replay.graphics[i].dispose();
+        }
+      }
+    }
+  }
+
+  private void record(Consumer<Graphics2D> action) {
+    list.ops.add(new Op(index, r -> action.accept(r.g())));
+  }
+
+  private static Shape copy(Shape s) {
+    if (s == null) {
+      return null;
+    } else if (s instanceof RectangularShape r) {
+      return (Shape) r.clone();
+    } else if (s instanceof Line2D l) {
+      return (Shape) l.clone();
+    } else if (s instanceof Path2D p) {
+      return (Shape) p.clone();
+    } else {
+      return new Path2D.Double(s);
+    }
+  }
+
+  @Override
+  public Graphics create() {
+    int childIndex = list.graphicsCount++;
+    list.ops.add(new Op(index, r -> r.graphics[childIndex] = (Graphics2D) r.g().create()));
+    return new RecordingGraphics(list, childIndex, (Graphics2D) scratch.create());
+  }
+
+  @Override
+  public void dispose() {
+    if (index != 0) {
+      int disposed = index;
+      list.ops.add(new Op(index, r -> {
+        r.graphics[disposed].dispose();
+        r.graphics[disposed] = null;
+      }));
+    }
+    scratch.dispose();
+  }
+
+  // State changes
+
+  @Override
+  public void setColor(Color c) {
+    scratch.setColor(c);
+    record(g -> g.setColor(c));
+  }
+
+  @Override
+  public void setPaintMode() {
+    scratch.setPaintMode();
+    record(Graphics::setPaintMode);
+  }
+
+  @Override
+  public void setXORMode(Color c1) {
+    scratch.setXORMode(c1);
+    record(g -> g.setXORMode(c1));
+  }
+
+  @Override
+  public void setFont(Font font) {
+    scratch.setFont(font);
+    record(g -> g.setFont(font));
+  }
+
+  @Override
+  public void setComposite(Composite comp) {
+    scratch.setComposite(comp);
+    record(g -> g.setComposite(comp));
+  }
+
+  @Override
+  public void setPaint(Paint paint) {
+    scratch.setPaint(paint);
+    record(g -> g.setPaint(paint));
+  }
+
+  @Override
+  public void setStroke(Stroke s) {
+    scratch.setStroke(s);
+    record(g -> g.setStroke(s));
+  }
+
+  @Override
+  public void setBackground(Color color) {
+    scratch.setBackground(color);
+    record(g -> g.setBackground(color));
+  }
+
+  @Override
+  public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue) {
+    scratch.setRenderingHint(hintKey, hintValue);
+    record(g -> g.setRenderingHint(hintKey, hintValue));
+  }
+
+  @Override
+  public void setRenderingHints(Map<?, ?> hints) {
+    scratch.setRenderingHints(hints);
+    RenderingHints copy = new RenderingHints(null);
+    copy.putAll(hints);
+    record(g -> g.setRenderingHints(copy));
+  }
+
+  @Override
+  public void addRenderingHints(Map<?, ?> hints) {
+    scratch.addRenderingHints(hints);
+    RenderingHints copy = new RenderingHints(null);
+    copy.putAll(hints);
+    record(g -> g.addRenderingHints(copy));
+  }
+
+  @Override
+  public void translate(int x, int y) {
+    scratch.translate(x, y);
+    record(g -> g.translate(x, y));
+  }
+
+  @Override
+  public void translate(double tx, double ty) {
+    scratch.translate(tx, ty);
+    record(g -> g.translate(tx, ty));
+  }
+
+  @Override
+  public void rotate(double theta) {
+    scratch.rotate(theta);
+    record(g -> g.rotate(theta));
+  }
+
+  @Override
+  public void rotate(double theta, double x, double y) {
+    scratch.rotate(theta, x, y);
+    record(g -> g.rotate(theta, x, y));
+  }
+
+  @Override
+  public void scale(double sx, double sy) {
+    scratch.scale(sx, sy);
+    record(g -> g.scale(sx, sy));
+  }
+
+  @Override
+  public void shear(double shx, double shy) {
+    scratch.shear(shx, shy);
+    record(g -> g.shear(shx, shy));
+  }
+
+  @Override
+  public void transform(AffineTransform tx) {
+    scratch.transform(tx);
+    AffineTransform copy = new AffineTransform(tx);
+    record(g -> g.transform(copy));
+  }
+
+  @Override
+  public void setTransform(AffineTransform tx) {
+    scratch.setTransform(tx);
+    AffineTransform copy = new AffineTransform(tx);
+    list.ops.add(new Op(index, r -> {
+      AffineTransform t = new AffineTransform(r.base);
+      t.concatenate(copy);
+      r.g().setTransform(t);
+    }));
+  }
+
+  @Override
+  public void clipRect(int x, int y, int width, int height) {
+    scratch.clipRect(x, y, width, height);
+    record(g -> g.clipRect(x, y, width, height));
+  }
+
+  @Override
+  public void setClip(int x, int y, int width, int height) {
+    scratch.setClip(x, y, width, height);
+    record(g -> g.setClip(x, y, width, height));
+  }
+
+  @Override
+  public void setClip(Shape clip) {
+    scratch.setClip(clip);
+    Shape copy = copy(clip);
+    record(g -> g.setClip(copy));
+  }
+
+  @Override
+  public void clip(Shape s) {
+    scratch.clip(s);
+    Shape copy = copy(s);
+    record(g -> g.clip(copy));
+  }
+
+  // State queries
+
+  @Override
+  public Color getColor() {
+    return scratch.getColor();
+  }
+
+  @Override
+  public Font getFont() {
+    return scratch.getFont();
+  }
+
+  @Override
+  public FontMetrics getFontMetrics(Font f) {
+    return scratch.getFontMetrics(f);
+  }
+
+  @Override
+  public Rectangle getClipBounds() {
+    return scratch.getClipBounds();
+  }
+
+  @Override
+  public Shape getClip() {
+    return scratch.getClip();
+  }
+
+  @Override
+  public Composite getComposite() {
+    return scratch.getComposite();
+  }
+
+  @Override
+  public Paint getPaint() {
+    return scratch.getPaint();
+  }
+
+  @Override
+  public Stroke getStroke() {
+    return scratch.getStroke();
+  }
+
+  @Override
+  public Color getBackground() {
+    return scratch.getBackground();
+  }
+
+  @Override
+  public Object getRenderingHint(RenderingHints.Key hintKey) {
+    return scratch.getRenderingHint(hintKey);
+  }
+
+  @Override
+  public RenderingHints getRenderingHints() {
+    return scratch.getRenderingHints();
+  }
+
+  @Override
+  public AffineTransform getTransform() {
+    return scratch.getTransform();
+  }
+
+  @Override
+  public FontRenderContext getFontRenderContext() {
+    return scratch.getFontRenderContext();
+  }
+
+  @Override
+  public GraphicsConfiguration getDeviceConfiguration() {
+    return scratch.getDeviceConfiguration();
+  }
+
+  @Override
+  public boolean hit(Rectangle rect, Shape s, boolean onStroke) {
+    return scratch.hit(rect, s, onStroke);
+  }
+
+  // Drawing operations
+
+  @Override
+  public void draw(Shape s) {
+    Shape copy = copy(s);
+    record(g -> g.draw(copy));
+  }
+
+  @Override
+  public void fill(Shape s) {
+    Shape copy = copy(s);
+    record(g -> g.fill(copy));
+  }
+
+  @Override
+  public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+    record(g -> g.copyArea(x, y, width, height, dx, dy));
+  }
+
+  @Override
+  public void drawLine(int x1, int y1, int x2, int y2) {
+    record(g -> g.drawLine(x1, y1, x2, y2));
+  }
+
+  @Override
+  public void fillRect(int x, int y, int width, int height) {
+    record(g -> g.fillRect(x, y, width, height));
+  }
+
+  @Override
+  public void clearRect(int x, int y, int width, int height) {
+    record(g -> g.clearRect(x, y, width, height));
+  }
+
+  @Override
+  public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+    record(g -> g.drawRoundRect(x, y, width, height, arcWidth, arcHeight));
+  }
+
+  @Override
+  public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+    record(g -> g.fillRoundRect(x, y, width, height, arcWidth, arcHeight));
+  }
+
+  @Override
+  public void drawOval(int x, int y, int width, int height) {
+    record(g -> g.drawOval(x, y, width, height));
+  }
+
+  @Override
+  public void fillOval(int x, int y, int width, int height) {
+    record(g -> g.fillOval(x, y, width, height));
+  }
+
+  @Override
+  public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+    record(g -> g.drawArc(x, y, width, height, startAngle, arcAngle));
+  }
+
+  @Override
+  public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+    record(g -> g.fillArc(x, y, width, height, startAngle, arcAngle));
+  }
+
+  @Override
+  public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+    int[] xs = xPoints.clone();
+    int[] ys = yPoints.clone();
+    record(g -> g.drawPolyline(xs, ys, nPoints));
+  }
+
+  @Override
+  public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+    int[] xs = xPoints.clone();
+    int[] ys = yPoints.clone();
+    record(g -> g.drawPolygon(xs, ys, nPoints));
+  }
+
+  @Override
+  public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+    int[] xs = xPoints.clone();
+    int[] ys = yPoints.clone();
+    record(g -> g.fillPolygon(xs, ys, nPoints));
+  }
+
+  @Override
+  public void drawString(String str, int x, int y) {
+    record(g -> g.drawString(str, x, y));
+  }
+
+  @Override
+  public void drawString(String str, float x, float y) {
+    record(g -> g.drawString(str, x, y));
+  }
+
+  @Override
+  public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+    AttributedString copy = new AttributedString(iterator);
+    record(g -> g.drawString(copy.getIterator(), x, y));
+  }
+
+  @Override
+  public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+    AttributedString copy = new AttributedString(iterator);
+    record(g -> g.drawString(copy.getIterator(), x, y));
+  }
+
+  @Override
+  public void drawGlyphVector(GlyphVector gv, float x, float y) {
+    record(g -> g.drawGlyphVector(gv, x, y));
+  }
+
+  @Override
+  public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+    record(g -> g.drawImage(img, x, y, null));
+    return true;
+  }
+
+  @Override
+  public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer) {
+    record(g -> g.drawImage(img, x, y, bgcolor, null));
+    return true;
+  }
+
+  @Override
+  public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+    record(g -> g.drawImage(img, x, y, width, height, null));
+    return true;
+  }
+
+  @Override
+  public boolean drawImage(
+      Image img, int x, int y, int width, int height, Color bgcolor, ImageObserver observer) {
+    record(g -> g.drawImage(img, x, y, width, height, bgcolor, null));
+    return true;
+  }
+
+  @Override
+  public boolean drawImage(
+      Image img,
+      int dx1,
+      int dy1,
+      int dx2,
+      int dy2,
+      int sx1,
+      int sy1,
+      int sx2,
+      int sy2,
+      ImageObserver observer) {
+    record(g -> g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null));
+    return true;
+  }
+
+  @Override
+  public boolean drawImage(
+      Image img,
+      int dx1,
+      int dy1,
+      int dx2,
+      int dy2,
+      int sx1,
+      int sy1,
+      int sx2,
+      int sy2,
+      Color bgcolor,
+      ImageObserver observer) {
+    record(g -> g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, bgcolor, null));
+    return true;
+  }
+
+  @Override
+  public boolean drawImage(Image img, AffineTransform xform, ImageObserver obs) {
+    AffineTransform copy = xform == null ? null : new AffineTransform(xform);
+    record(g -> g.drawImage(img, copy, null));
+    return true;
+  }
+
+  @Override
+  public void drawImage(BufferedImage img, BufferedImageOp op, int x, int y) {
+    record(g -> g.drawImage(img, op, x, y));
+  }
+
+  @Override
+  public void drawRenderedImage(RenderedImage img, AffineTransform xform) {
+    AffineTransform copy = new AffineTransform(xform);
+    record(g -> g.drawRenderedImage(img, copy));
+  }
+
+  @Override
+  public void drawRenderableImage(RenderableImage img, AffineTransform xform) {
+    AffineTransform copy = new AffineTransform(xform);
+    record(g -> g.drawRenderableImage(img, copy));
+  }
+}
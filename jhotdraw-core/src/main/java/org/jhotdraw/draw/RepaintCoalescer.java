@@ -0,0 +1,201 @@
+/*
+ * @(#)RepaintCoalescer.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Accumulates invalidated rectangles, and passes them on to a repaint target once per cycle of the
+ * event queue.
+ *
+ * <p>Bulk edits invalidate thousands of small areas, one after the other. Instead of passing each
+ * of them on to the {@code RepaintManager}, this class merges them into a short list of
+ * rectangles. A new rectangle is merged with an accumulated rectangle, if the area of their union
+ * is at most the merge ratio times the sum of their areas. A merge ratio of 1 only merges
+ * rectangles whose union covers no more area than the two rectangles. Larger ratios trade
+ * repainting more pixels for fewer repaint requests. If more rectangles than the maximal rectangle
+ * count remain, they are replaced by their bounding union.
+ *
+ * <p>Note that the Swing {@code RepaintManager} merges all dirty regions of a component into a
+ * single rectangle. A list of rectangles only pays off for targets which repaint each rectangle on
+ * its own, such as tiled renderers. Targets which pass the rectangles on to the
+ * {@code RepaintManager} should use a maximal rectangle count of 1.
+ *
+ * <p>The first rectangle which is added after a flush schedules the next flush at the end of the
+ * event queue. The rectangles can be in any coordinate system, as long as all rectangles use the
+ * same one. This class is not thread safe, it must only be used on the event dispatch thread.
+ *
+ * <p>The counters show how many repaint requests have been coalesced, and how much more area is
+ * repainted than requested.
+ */
+public class RepaintCoalescer {
+
+  public static final double DEFAULT_MERGE_RATIO = 1.5;
+  public static final int DEFAULT_MAX_RECTANGLE_COUNT = 16;
+
+  private final Consumer<Rectangle2D.Double> target;
+  private final List<Rectangle2D.Double> rectangles = new ArrayList<>();
+  private double mergeRatio = DEFAULT_MERGE_RATIO;
+  private int maxRectangleCount = DEFAULT_MAX_RECTANGLE_COUNT;
+  private boolean isFlushScheduled;
+
+  private long requestCount;
+  private long flushCount;
+  private long repaintCount;
+  private double requestedArea;
+  private double repaintedArea;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param target receives the accumulated rectangles when they are flushed.
+   */
+  public RepaintCoalescer(Consumer<Rectangle2D.Double> target) {
+    this.target = target;
+  }
+
+  /** Adds an invalidated rectangle. Empty rectangles are ignored. */
+  public void add(double x, double y, double width, double height) {
+    if (width <= 0 || height <= 0) {
+      return;
+    }
+    requestCount++;
+    requestedArea += width * height;
+    Rectangle2D.Double r = new Rectangle2D.Double(x, y, width, height);
+    for (int i = 0; i < rectangles.size(); i++) {
+      Rectangle2D.Double other = rectangles.get(i);
+      if (other.contains(r)) {
+        scheduleFlush();
+        return;
+      }
+      Rectangle2D.Double union = (Rectangle2D.Double) other.createUnion(r);
+      if (area(union) <= mergeRatio * (area(other) + area(r))) {
+        // The union may now be mergeable with rectangles which have already been visited
+        rectangles.remove(i);
+        r = union;
+        i = -1;
+      }
+    }
+    rectangles.add(r);
+    if (rectangles.size() > maxRectangleCount) {
+      Rectangle2D.Double union = rectangles.get(0);
+      for (int i = 1, n = rectangles.size(); i < n; i++) {
+        Rectangle2D.union(union, rectangles.get(i), union);
+      }
+      rectangles.clear();
+      rectangles.add(union);
+    }
+    scheduleFlush();
+  }
+
+  /** Adds an invalidated rectangle. Empty rectangles are ignored. */
+  public void add(Rectangle2D r) {
+    add(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+  }
+
+  private static double area(Rectangle2D.Double r) {
+    return r.width * r.height;
+  }
+
+  private void scheduleFlush() {
+    if (!isFlushScheduled) {
+      isFlushScheduled = true;
+      SwingUtilities.invokeLater(this::flush);
+    }
+  }
+
+  /** Returns true, if there are no accumulated rectangles. */
+  public boolean isEmpty() {
+    return rectangles.isEmpty();
+  }
+
+  /** Passes the accumulated rectangles on to the target, and clears them. */
+  public void flush() {
+    isFlushScheduled = false;
+    if (rectangles.isEmpty()) {
+      return;
+    }
+    flushCount++;
+    List<Rectangle2D.Double> flushed = new ArrayList<>(rectangles);
+    rectangles.clear();
+    for (Rectangle2D.Double r : flushed) {
+      repaintCount++;
+      repaintedArea += area(r);
+      target.accept(r);
+    }
+  }
+
+  /** Discards the accumulated rectangles. */
+  public void clear() {
+    rectangles.clear();
+  }
+
+  public double getMergeRatio() {
+    return mergeRatio;
+  }
+
+  /**
+   * Sets the merge ratio.
+   *
+   * @param newValue a value of at least 1. Use {@link Double#POSITIVE_INFINITY} to always repaint
+   *     the bounding union of all rectangles.
+   */
+  public void setMergeRatio(double newValue) {
+    if (!(newValue >= 1)) {
+      throw new IllegalArgumentException("mergeRatio must be at least 1: " + newValue);
+    }
+    mergeRatio = newValue;
+  }
+
+  public int getMaxRectangleCount() {
+    return maxRectangleCount;
+  }
+
+  /** Sets the maximal number of rectangles which are passed on to the target per flush. */
+  public void setMaxRectangleCount(int newValue) {
+    if (newValue < 1) {
+      throw new IllegalArgumentException("maxRectangleCount must be at least 1: " + newValue);
+    }
+    maxRectangleCount = newValue;
+  }
+
+  /** Returns the number of non-empty rectangles which have been added. */
+  public long getRequestCount() {
+    return requestCount;
+  }
+
+  /** Returns the number of flushes which passed rectangles on to the target. */
+  public long getFlushCount() {
+    return flushCount;
+  }
+
+  /** Returns the number of rectangles which have been passed on to the target. */
+  public long getRepaintCount() {
+    return repaintCount;
+  }
+
+  /** Returns the sum of the areas of the added rectangles. */
+  public double getRequestedArea() {
+    return requestedArea;
+  }
+
+  /** Returns the sum of the areas of the rectangles which have been passed on to the target. */
+  public double getRepaintedArea() {
+    return repaintedArea;
+  }
+
+  /** Resets all counters to zero. */
+  public void resetCounters() {
+    requestCount = flushCount = repaintCount = 0;
+    requestedArea = repaintedArea = 0;
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * @(#)TextLayoutCache.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of {@code TextLayout}s, which is shared by the text figures of a drawing.
+ *
+ * <p>Drawings often show the same labels many times. The text figures of a drawing obtain their
+ * layouts from this cache, so that each distinct combination of text, font, text decoration and
+ * font render context is laid out only once. The size factor of a figure is part of the font size,
+ * so each zoom level has its own entries.
+ *
+ * <p>{@code TextLayout}s are immutable, and can therefore be handed out to all figures and to
+ * concurrent painters. The least recently used entries are evicted when the cache is full. This
+ * class is thread safe.
+ *
+ * @see Drawing#getTextLayoutCache
+ */
+public class TextLayoutCache {
+
+  public static final int DEFAULT_MAX_SIZE = 4096;
+
+  private final int maxSize;
+
+  /** The cache in least recently used order. Guarded by itself. */
+  private final LinkedHashMap<Key, TextLayout> cache;
+
+  private long hitCount;
+  private long missCount;
+
+  public TextLayoutCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param maxSize the maximal number of layouts held by the cache.
+   */
+  public TextLayoutCache(int maxSize) {
+    this.maxSize = maxSize;
+    this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, TextLayout> eldest) {
+        return size() > TextLayoutCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the layout of a text, and creates it if it is not in the cache.
+   *
+   * @param text the text, which must not be empty.
+   * @param font the font, including the size factor of the figure.
+   * @param underline whether the text is underlined.
+   * @param strikethrough whether the text is struck through.
+   * @param frc the font render context.
+   */
+  public TextLayout getTextLayout(
+      String text, Font font, boolean underline, boolean strikethrough, FontRenderContext frc) {
+    Key key = new Key(text, font, underline, strikethrough, frc);
+    synchronized (cache) {
+      TextLayout layout = cache.get(key);
+      if (layout != null) {
+        hitCount++;
+        return layout;
+      }
+      missCount++;
+    }
+    // Lay out the text outside of the lock, so that other painters are not blocked
+    TextLayout layout = createTextLayout(text, font, underline, strikethrough, frc);
+    synchronized (cache) {
+      TextLayout existing = cache.putIfAbsent(key, layout);
+      return existing != null ? existing : layout;
+    }
+  }
+
+  /** Creates the layout of a text without caching it. */
+  public static TextLayout createTextLayout(
+      String text, Font font, boolean underline, boolean strikethrough, FontRenderContext frc) {
+    HashMap<TextAttribute, Object> textAttributes = new HashMap<>();
+    textAttributes.put(TextAttribute.FONT, font);
+    if (underline) {
+      textAttributes.put(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_LOW_ONE_PIXEL);
+    }
+    if (strikethrough) {
+      textAttributes.put(TextAttribute.STRIKETHROUGH, TextAttribute.STRIKETHROUGH_ON);
+    }
+    return new TextLayout(text, textAttributes, frc);
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /** Returns the number of layouts in the cache. */
+  public int size() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /** Returns the number of requests which have been served from the cache. */
+  public long getHitCount() {
+    synchronized (cache) {
+      return hitCount;
+    }
+  }
+
+  /** Returns the number of requests for which a new layout had to be created. */
+  public long getMissCount() {
+    synchronized (cache) {
+      return missCount;
+    }
+  }
+
+  /** Removes all layouts from the cache, and resets the counters. */
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+      hitCount = 0;
+      missCount = 0;
+    }
+  }
+
+  private record Key(
+      String text, Font font, boolean underline, boolean strikethrough, FontRenderContext frc) {}
+}
@@ -0,0 +1,299 @@
+/*
+ * @(#)TiledDrawingRenderer.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * Renders a drawing into fixed-size image tiles on a worker pool, and blits the tiles onto the
+ * view.
+ *
+ * <p>A tile covers {@code tileSize x tileSize} pixels of the drawing scaled by the zoom factor of
+ * the view. Tiles are therefore keyed by (scale factor, tile x, tile y), and stay valid while the
+ * view scrolls. The tiles are held in an LRU cache, which is bounded by a memory budget.
+ *
+ * <p>{@link #invalidate} marks the tiles which intersect a changed area of the drawing as dirty.
+ * {@link #paint} only blits tiles which are ready, and schedules the rendering of missing or dirty
+ * tiles. A dirty tile is blitted with its stale contents until it has been rendered again, a
+ * missing tile is shown as a placeholder. When a tile has been rendered, the affected area of the
+ * view is repainted on the event dispatch thread.
+ *
+ * <p>The workers never access the drawing. {@link #paint} draws the drawing onto a {@link
+ * RecordingGraphics} on the event dispatch thread, clipped to the tiles which need rendering. The
+ * workers replay the recorded display list, which is an immutable snapshot of the drawing, onto the
+ * tile images. If the drawing is changed while a tile is rendered, the tile has been invalidated in
+ * the meantime, and is rendered again on the next paint.
+ */
+public class TiledDrawingRenderer {
+
+  private static final Logger LOG = Logger.getLogger(TiledDrawingRenderer.class.getName());
+  public static final int DEFAULT_TILE_SIZE = 256;
+  public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+  private static final Color PLACEHOLDER_COLOR = new Color(0x20808080, true);
+
+  private final JComponent view;
+  private final int tileSize;
+  private final int maxTiles;
+  private final ForkJoinPool pool;
+  private Consumer<Graphics2D> renderingHints = g -> {};
+
+  /** The cache in least recently used order. Guarded by itself. */
+  private final LinkedHashMap<TileKey, Tile> cache;
+
+  /** The translation of the view at the last paint, used to repaint rendered tiles. */
+  private volatile Point translation = new Point();
+
+  public TiledDrawingRenderer(JComponent view) {
+    this(view, DEFAULT_TILE_SIZE, DEFAULT_MEMORY_BUDGET, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param view the view which is repainted when a tile has been rendered.
+   * @param tileSize the width and height of a tile in pixels.
+   * @param memoryBudget the maximal number of bytes held by the tile images.
+   * @param pool the pool on which the tiles are rendered.
+   */
+  public TiledDrawingRenderer(JComponent view, int tileSize, long memoryBudget, ForkJoinPool pool) {
+    this.view = view;
+    this.tileSize = tileSize;
+    this.pool = pool;
+    // Keep at least enough tiles to cover a large screen twice
+    this.maxTiles = (int) Math.max(
+        2 * (4096 / tileSize + 1) * (2048 / tileSize + 1),
+        memoryBudget / (4L * tileSize * tileSize));
+    this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<TileKey, Tile> eldest) {
+        return size() > maxTiles;
+      }
+    };
+  }
+
+  /** Sets the rendering hints, which are applied to the graphics of each tile. */
+  public void setRenderingHints(Consumer<Graphics2D> renderingHints) {
+    this.renderingHints = renderingHints;
+  }
+
+  public int getTileSize() {
+    return tileSize;
+  }
+
+  /** Returns the number of tiles in the cache. */
+  public int getTileCount() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /** Removes all tiles from the cache. */
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  /** Marks all tiles which intersect the specified area of the drawing as dirty. */
+  public void invalidate(Rectangle2D.Double drawingArea) {
+    synchronized (cache) {
+      for (Map.Entry<TileKey, Tile> entry : cache.entrySet()) {
+        TileKey key = entry.getKey();
+        double s = key.scale;
+        if (drawingArea.x * s < (key.tx + 1) * tileSize
+            && (drawingArea.x + drawingArea.width) * s >= key.tx * tileSize
+            && drawingArea.y * s < (key.ty + 1) * tileSize
+            && (drawingArea.y + drawingArea.height) * s >= key.ty * tileSize) {
+          entry.getValue().invalidate();
+        }
+      }
+    }
+  }
+
+  /** Marks all tiles as dirty. */
+  public void invalidateAll() {
+    synchronized (cache) {
+      for (Tile tile : cache.values()) {
+        tile.invalidate();
+      }
+    }
+  }
+
+  /**
+   * Paints the tiles which intersect the clip bounds of the graphics, and schedules the rendering
+   * of missing and dirty tiles.
+   *
+   * @param g the graphics of the view, in view coordinates.
+   * @param drawing the drawing.
+   * @param translation the translation of the view.
+   * @param scale the scale factor of the view.
+   */
+  public void paint(Graphics2D g, Drawing drawing, Point translation, double scale) {
+    this.translation = new Point(translation);
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) {
+      clip = view.getVisibleRect();
+    }
+    int minTx = Math.floorDiv(clip.x + translation.x, tileSize);
+    int minTy = Math.floorDiv(clip.y + translation.y, tileSize);
+    int maxTx = Math.floorDiv(clip.x + clip.width + translation.x - 1, tileSize);
+    int maxTy = Math.floorDiv(clip.y + clip.height + translation.y - 1, tileSize);
+
+    List<Job> toRender = new ArrayList<>();
+    Rectangle union = null;
+    synchronized (cache) {
+      for (int ty = minTy; ty <= maxTy; ty++) {
+        for (int tx = minTx; tx <= maxTx; tx++) {
+          TileKey key = new TileKey(scale, tx, ty);
+          Tile tile = cache.computeIfAbsent(key, Tile::new);
+          int x = tx * tileSize - translation.x;
+          int y = ty * tileSize - translation.y;
+          BufferedImage image = tile.image;
+          if (image != null) {
+            g.drawImage(image, x, y, null);
+          } else {
+            g.setColor(PLACEHOLDER_COLOR);
+            g.fillRect(x, y, tileSize, tileSize);
+          }
+          int generation = tile.scheduleRendering();
+          if (generation != -1) {
+            toRender.add(new Job(tile, generation));
+            Rectangle r = new Rectangle(tx * tileSize, ty * tileSize, tileSize, tileSize);
+            union = union == null ? r : union.union(r);
+          }
+        }
+      }
+    }
+    if (!toRender.isEmpty()) {
+      RecordingGraphics snapshot = record(drawing, union, scale);
+      for (Job job : toRender) {
+        pool.execute(() -> render(job, snapshot));
+      }
+    }
+  }
+
+  /**
+   * Records the drawing onto a display list, in tile pixel coordinates. Runs on the event dispatch
+   * thread.
+   */
+  private RecordingGraphics record(Drawing drawing, Rectangle area, double scale) {
+    RecordingGraphics recorder = RecordingGraphics.create(renderingHints);
+    try {
+      recorder.clipWithoutRecording(area);
+      recorder.scale(scale, scale);
+      drawing.draw(recorder);
+    } finally {
+      recorder.dispose();
+    }
+    return recorder;
+  }
+
+  /** Renders a tile by replaying the display list. Runs on a worker thread. */
+  private void render(Job job, RecordingGraphics snapshot) {
+    TileKey key = job.tile.key;
+    BufferedImage image = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB_PRE);
+    Graphics2D g = image.createGraphics();
+    boolean success = false;
+    try {
+      renderingHints.accept(g);
+      g.setComposite(AlphaComposite.SrcOver);
+      g.clipRect(0, 0, tileSize, tileSize);
+      g.translate(-key.tx * tileSize, -key.ty * tileSize);
+      snapshot.replay(g);
+      success = true;
+    } catch (RuntimeException e) {
+      LOG.log(Level.WARNING, "could not render tile " + key, e);
+    } finally {
+      g.dispose();
+    }
+    job.tile.rendered(image, job.generation, success);
+    if (success) {
+      SwingUtilities.invokeLater(() -> {
+        Point t = translation;
+        view.repaint(key.tx * tileSize - t.x, key.ty * tileSize - t.y, tileSize, tileSize);
+      });
+    }
+  }
+
+  /** Returns true if the specified tile is in the cache and is dirty. For testing. */
+  boolean isTileDirty(double scale, int tx, int ty) {
+    Tile tile;
+    synchronized (cache) {
+      tile = cache.get(new TileKey(scale, tx, ty));
+    }
+    return tile != null && tile.isDirty();
+  }
+
+  /** A tile, and the generation of the tile at the time the display list was recorded. */
+  private record Job(Tile tile, int generation) {}
+
+  private record TileKey(double scale, int tx, int ty) {}
+
+  private static class Tile {
+
+    private final TileKey key;
+    private volatile BufferedImage image;
+
+    /** Incremented whenever the tile is invalidated. Guarded by this. */
+    private int generation;
+
+    private boolean dirty = true;
+    private boolean scheduled;
+
+    Tile(TileKey key) {
+      this.key = key;
+    }
+
+    synchronized void invalidate() {
+      generation++;
+      dirty = true;
+    }
+
+    /**
+     * Marks the tile as scheduled, if the tile needs to be rendered, and returns its current
+     * generation. Returns -1 if the tile does not need to be rendered.
+     */
+    synchronized int scheduleRendering() {
+      if (dirty && !scheduled) {
+        scheduled = true;
+        return generation;
+      }
+      return -1;
+    }
+
+    synchronized boolean isDirty() {
+      return dirty;
+    }
+
+    synchronized void rendered(BufferedImage newImage, int renderedGeneration, boolean success) {
+      scheduled = false;
+      if (success) {
+        image = newImage;
+        dirty = renderedGeneration != generation;
+      }
+    }
+  }
+}
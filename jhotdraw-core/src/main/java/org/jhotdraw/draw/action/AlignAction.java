@@ -12,7 +12,6 @@ import java.util.*;
 import org.jhotdraw.draw.DrawingEditor;
 import org.jhotdraw.draw.event.TransformEdit;
 import org.jhotdraw.draw.figure.Figure;
-import org.jhotdraw.utils.undo.CompositeEdit;
 import org.jhotdraw.utils.util.ResourceBundleUtil;
 
 /**
@@ -41,10 +40,10 @@ public abstract class AlignAction extends AbstractSelectedAction {
 
   @Override
   public void actionPerformed(java.awt.event.ActionEvent e) {
-    CompositeEdit edit = new CompositeEdit(labels.getString("edit.align.text"));
-    fireUndoableEditHappened(edit);
-    alignFigures(getView().getSelectedFigures(), getSelectionBounds());
-    fireUndoableEditHappened(edit);
+    getDrawing()
+        .batch(
+            labels.getString("edit.align.text"),
+            () -> alignFigures(getView().getSelectedFigures(), getSelectionBounds()));
   }
 
   protected abstract void alignFigures(
@@ -11,9 +11,9 @@ import static org.jhotdraw.draw.AttributeKeys.*;
 
 import java.util.*;
 import org.jhotdraw.draw.*;
+import org.jhotdraw.draw.event.AttributeDeltaEdit;
 import org.jhotdraw.draw.event.FigureSelectionEvent;
 import org.jhotdraw.draw.figure.Figure;
-import org.jhotdraw.utils.undo.CompositeEdit;
 import org.jhotdraw.utils.util.ResourceBundleUtil;
 
 /** ApplyAttributesAction. */
@@ -44,20 +44,22 @@ public class ApplyAttributesAction extends AbstractSelectedAction {
   public void applyAttributes() {
     DrawingEditor editor = getEditor();
     ResourceBundleUtil labels = ResourceBundleUtil.getBundle("org.jhotdraw.draw.Labels");
-    CompositeEdit edit = new CompositeEdit(labels.getString("edit.applyAttributes.text"));
     DrawingView view = getView();
-    view.getDrawing().fireUndoableEditHappened(edit);
-    for (Figure figure : view.getSelectedFigures()) {
-      figure.willChange();
-      for (Map.Entry<AttributeKey<?>, Object> entry :
-          editor.getDefaultAttributes().entrySet()) {
-        if (!excludedAttributes.contains(entry.getKey())) {
-          figure.attr().set((AttributeKey<Object>) entry.getKey(), entry.getValue());
+    String presentationName = labels.getString("edit.applyAttributes.text");
+    view.getDrawing().batch(presentationName, () -> {
+      AttributeDeltaEdit edit = new AttributeDeltaEdit(presentationName);
+      for (Figure figure : view.getSelectedFigures()) {
+        figure.willChange();
+        for (Map.Entry<AttributeKey<?>, Object> entry :
+            editor.getDefaultAttributes().entrySet()) {
+          if (!excludedAttributes.contains(entry.getKey())) {
+            edit.set(figure, (AttributeKey<Object>) entry.getKey(), entry.getValue());
+          }
         }
+        figure.changed();
       }
-      figure.changed();
-    }
-    view.getDrawing().fireUndoableEditHappened(edit);
+      view.getDrawing().fireUndoableEditHappened(edit);
+    });
   }
 
   public void selectionChanged(FigureSelectionEvent evt) {
@@ -9,8 +9,8 @@ package org.jhotdraw.draw.action;
 
 import java.util.*;
 import javax.swing.*;
-import javax.swing.undo.*;
 import org.jhotdraw.draw.*;
+import org.jhotdraw.draw.event.AttributeDeltaEdit;
 import org.jhotdraw.draw.figure.Figure;
 import org.jhotdraw.utils.util.ActionUtil;
 import org.jhotdraw.utils.util.ResourceBundleUtil;
@@ -83,16 +83,7 @@ public class AttributeAction extends AbstractSelectedAction {
       getEditor().setDefaultAttribute((AttributeKey<Object>) entry.getKey(), entry.getValue());
     }
     final ArrayList<Figure> selectedFigures = new ArrayList<>(figures);
-    final ArrayList<Object> restoreData = new ArrayList<>(selectedFigures.size());
-    for (Figure figure : selectedFigures) {
-      restoreData.add(figure.attr().getAttributesRestoreData());
-      figure.willChange();
-      for (Map.Entry<AttributeKey<?>, Object> entry : a.entrySet()) {
-        figure.attr().set((AttributeKey<Object>) entry.getKey(), entry.getValue());
-      }
-      figure.changed();
-    }
-    UndoableEdit edit = new AbstractUndoableEdit() {
+    AttributeDeltaEdit edit = new AttributeDeltaEdit() {
       private static final long serialVersionUID = 1L;
 
       @Override
@@ -107,31 +98,14 @@ public class AttributeAction extends AbstractSelectedAction {
         }
         return name;
       }
-
-      @Override
-      public void undo() {
-        super.undo();
-        Iterator<Object> iRestore = restoreData.iterator();
-        for (Figure figure : selectedFigures) {
-          figure.willChange();
-          figure.attr().restoreAttributesTo(iRestore.next());
-          figure.changed();
-        }
-      }
-
-      @Override
-      public void redo() {
-        super.redo();
-        for (Figure figure : selectedFigures) {
-          // restoreData.add(figure.getAttributesRestoreData());
-          figure.willChange();
-          for (Map.Entry<AttributeKey<?>, Object> entry : a.entrySet()) {
-            figure.attr().set((AttributeKey<Object>) entry.getKey(), entry.getValue());
-          }
-          figure.changed();
-        }
-      }
     };
+    for (Figure figure : selectedFigures) {
+      figure.willChange();
+      for (Map.Entry<AttributeKey<?>, Object> entry : a.entrySet()) {
+        edit.set(figure, (AttributeKey<Object>) entry.getKey(), entry.getValue());
+      }
+      figure.changed();
+    }
     getDrawing().fireUndoableEditHappened(edit);
   }
 
@@ -12,8 +12,8 @@ import java.awt.event.*;
 import java.util.*;
 import javax.swing.*;
 import javax.swing.text.*;
-import javax.swing.undo.*;
 import org.jhotdraw.draw.*;
+import org.jhotdraw.draw.event.AttributeDeltaEdit;
 import org.jhotdraw.draw.figure.Figure;
 import org.jhotdraw.utils.util.ActionUtil;
 import org.jhotdraw.utils.util.ResourceBundleUtil;
@@ -78,14 +78,7 @@ public class AttributeToggler<T> extends AbstractAction {
     final T newValue = toggleValue;
     // --
     final ArrayList<Figure> selectedFigures = new ArrayList<>(getView().getSelectedFigures());
-    final ArrayList<Object> restoreData = new ArrayList<>(selectedFigures.size());
-    for (Figure figure : selectedFigures) {
-      restoreData.add(figure.attr().getAttributesRestoreData());
-      figure.willChange();
-      figure.attr().set(key, newValue);
-      figure.changed();
-    }
-    UndoableEdit edit = new AbstractUndoableEdit() {
+    AttributeDeltaEdit edit = new AttributeDeltaEdit() {
       private static final long serialVersionUID = 1L;
 
       @Override
@@ -100,29 +93,12 @@ public class AttributeToggler<T> extends AbstractAction {
         }
         return name;
       }
-
-      @Override
-      public void undo() {
-        super.undo();
-        Iterator<Object> iRestore = restoreData.iterator();
-        for (Figure figure : selectedFigures) {
-          figure.willChange();
-          figure.attr().restoreAttributesTo(iRestore.next());
-          figure.changed();
-        }
-      }
-
-      @Override
-      public void redo() {
-        super.redo();
-        for (Figure figure : selectedFigures) {
-          // restoreData.add(figure.getAttributesRestoreData());
-          figure.willChange();
-          figure.attr().set(key, newValue);
-          figure.changed();
-        }
-      }
     };
+    for (Figure figure : selectedFigures) {
+      figure.willChange();
+      edit.set(figure, key, newValue);
+      figure.changed();
+    }
     getView().getDrawing().fireUndoableEditHappened(edit);
   }
 }
@@ -7,12 +7,13 @@
 package org.jhotdraw.draw.action;
 
 import java.awt.*;
+import java.awt.event.MouseEvent;
 import java.util.*;
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
-import javax.swing.undo.*;
 import org.jhotdraw.draw.*;
+import org.jhotdraw.draw.event.AttributeDeltaEdit;
 import org.jhotdraw.draw.figure.Figure;
 
 /** SelectionColorChooserHandler. */
@@ -24,6 +25,9 @@ public class SelectionColorChooserHandler extends AbstractSelectedAction impleme
   protected JPopupMenu popupMenu;
   protected int isUpdating;
 
+  /** Identifies the mouse gesture, which is changing the color. */
+  private Object dragSession;
+
   // protected Map<AttributeKey, Object> attributes;
 
   public SelectionColorChooserHandler(
@@ -52,20 +56,11 @@ public class SelectionColorChooserHandler extends AbstractSelectedAction impleme
 
   protected void applySelectedColorToFigures() {
     final ArrayList<Figure> selectedFigures = new ArrayList<>(getView().getSelectedFigures());
-    final ArrayList<Object> restoreData = new ArrayList<>(selectedFigures.size());
     Color selectedColor = colorChooser.getColor();
     if (selectedColor != null && selectedColor.getAlpha() == 0) {
       selectedColor = null;
     }
-    for (Figure figure : selectedFigures) {
-      restoreData.add(figure.attr().getAttributesRestoreData());
-      figure.willChange();
-      figure.attr().set(key, selectedColor);
-      figure.changed();
-    }
-    getEditor().setDefaultAttribute(key, selectedColor);
-    final Color undoValue = selectedColor;
-    UndoableEdit edit = new AbstractUndoableEdit() {
+    AttributeDeltaEdit edit = new AttributeDeltaEdit() {
       private static final long serialVersionUID = 1L;
 
       @Override
@@ -82,29 +77,21 @@ public class SelectionColorChooserHandler extends AbstractSelectedAction impleme
         }
         return name;*/
       }
-
-      @Override
-      public void undo() {
-        super.undo();
-        Iterator<Object> iRestore = restoreData.iterator();
-        for (Figure figure : selectedFigures) {
-          figure.willChange();
-          figure.attr().restoreAttributesTo(iRestore.next());
-          figure.changed();
-        }
-      }
-
-      @Override
-      public void redo() {
-        super.redo();
-        for (Figure figure : selectedFigures) {
-          // restoreData.add(figure.getAttributesRestoreData());
-          figure.willChange();
-          figure.attr().set(key, undoValue);
-          figure.changed();
-        }
-      }
     };
+    // The changes made while the user drags a slider of the color chooser are undone as one
+    AWTEvent event = EventQueue.getCurrentEvent();
+    boolean isDragging = event instanceof MouseEvent me
+        && (me.getID() == MouseEvent.MOUSE_DRAGGED || me.getID() == MouseEvent.MOUSE_RELEASED);
+    if (!isDragging || dragSession == null) {
+      dragSession = new Object();
+    }
+    edit.setSession(dragSession);
+    for (Figure figure : selectedFigures) {
+      figure.willChange();
+      edit.set(figure, key, selectedColor);
+      figure.changed();
+    }
+    getEditor().setDefaultAttribute(key, selectedColor);
     fireUndoableEditHappened(edit);
   }
 
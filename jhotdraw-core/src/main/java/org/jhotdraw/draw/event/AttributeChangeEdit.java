@@ -7,45 +7,22 @@
  */
 package org.jhotdraw.draw.event;
 
-import javax.swing.undo.*;
 import org.jhotdraw.draw.*;
 import org.jhotdraw.draw.figure.Figure;
 
-/** An {@code UndoableEdit} event which can undo a change of a {@link Figure} attribute. */
-public class AttributeChangeEdit<T> extends AbstractUndoableEdit {
+/**
+ * An {@code UndoableEdit} event which can undo a change of a {@link Figure} attribute.
+ *
+ * <p>The change is recorded as a single {@link AttributeDeltaEdit} entry per attributes, so that
+ * consecutive changes of the same attribute are merged.
+ */
+public class AttributeChangeEdit<T> extends AttributeDeltaEdit {
 
   private static final long serialVersionUID = 1L;
-  private Figure owner;
-  private AttributeKey<T> name;
-  private T oldValue;
-  private T newValue;
 
   public AttributeChangeEdit(Figure owner, AttributeKey<T> name, T oldValue, T newValue) {
-    this.owner = owner;
-    this.name = name;
-    this.oldValue = oldValue;
-    this.newValue = newValue;
-  }
-
-  @Override
-  public String getPresentationName() {
     // FIXME - Localize me
-    return "Eigenschaft \u00e4ndern";
-  }
-
-  @Override
-  public void redo() throws CannotRedoException {
-    super.redo();
-    owner.willChange();
-    owner.attr().set(name, newValue);
-    owner.changed();
-  }
-
-  @Override
-  public void undo() throws CannotUndoException {
-    super.undo();
-    owner.willChange();
-    owner.attr().set(name, oldValue);
-    owner.changed();
+    super("Eigenschaft \u00e4ndern");
+    add(owner, name, oldValue, newValue);
   }
 }
@@ -0,0 +1,251 @@
+/*
+ * @(#)AttributeDeltaEdit.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw.event;
+
+import java.util.Arrays;
+import javax.swing.undo.*;
+import org.jhotdraw.draw.AttributeKey;
+import org.jhotdraw.draw.figure.Attributes;
+import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.utils.undo.SizeEstimatingEdit;
+import org.jhotdraw.utils.undo.UndoRedoManager;
+import org.jhotdraw.utils.util.ResourceBundleUtil;
+
+/**
+ * An {@code UndoableEdit} event which can undo changes of attributes of any number of {@link
+ * Figure}s.
+ *
+ * <p>Instead of a copy of all attributes of a figure, the edit records only the changed
+ * attributes, as (key, old value, new value) entries in flat arrays. Changes which are passed on
+ * to the dependent attributes of a figure, such as the children of a group, are recorded with the
+ * old values of the dependent attributes.
+ *
+ * <p>Consecutive changes of the same attribute of the same figure are merged into a single entry.
+ * Edits which belong to the same user gesture, such as the edits which are fired while the user
+ * drags the slider of a color chooser, can be given the same {@link #setSession session}. An edit
+ * with a session absorbs a following edit of the same class, presentation name and session, which
+ * changes the same attributes of the same figures. Edits without a session are never merged, so
+ * that separate user actions can be undone separately.
+ *
+ * <p>Usage:
+ *
+ * <pre>
+ * AttributeDeltaEdit edit = new AttributeDeltaEdit(presentationName);
+ * for (Figure f : figures) {
+ *   f.willChange();
+ *   edit.set(f, AttributeKeys.STROKE_COLOR, color);
+ *   f.changed();
+ * }
+ * drawing.fireUndoableEditHappened(edit);
+ * </pre>
+ */
+public class AttributeDeltaEdit extends AbstractUndoableEdit implements SizeEstimatingEdit {
+
+  private static final long serialVersionUID = 1L;
+
+  /** Marks an attribute, which was not present before it was changed. */
+  private static final Object ABSENT = new Object();
+
+  private String presentationName;
+
+  /** The user gesture to which this edit belongs, or null. */
+  private Object session;
+
+  private int size;
+  private Figure[] figures = new Figure[4];
+  private Attributes[] targets = new Attributes[4];
+  private AttributeKey<?>[] keys = new AttributeKey<?>[4];
+  private Object[] oldValues = new Object[4];
+  private Object[] newValues = new Object[4];
+
+  /** Creates a new instance, whose presentation name is "Attribute". */
+  public AttributeDeltaEdit() {
+    this(null);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param presentationName the presentation name, or null to use the default name.
+   */
+  public AttributeDeltaEdit(String presentationName) {
+    this.presentationName = presentationName;
+  }
+
+  @Override
+  public String getPresentationName() {
+    if (presentationName == null) {
+      ResourceBundleUtil labels = ResourceBundleUtil.getBundle("org.jhotdraw.draw.Labels");
+      return labels.getString("attribute.text");
+    }
+    return presentationName;
+  }
+
+  /**
+   * Sets the user gesture to which this edit belongs. Consecutive edits with the same session are
+   * merged into a single edit.
+   *
+   * @param session an object which identifies the gesture, or null if the edit must not be merged.
+   */
+  public void setSession(Object session) {
+    this.session = session;
+  }
+
+  public Object getSession() {
+    return session;
+  }
+
+  /**
+   * Returns the size of the five entry arrays. The values are usually shared with the figures, and
+   * are not counted.
+   */
+  @Override
+  public long getEstimatedSize() {
+    return UndoRedoManager.DEFAULT_EDIT_SIZE + 5L * (16 + 4L * keys.length);
+  }
+
+  /**
+   * Sets an attribute on the figure, and records the change.
+   *
+   * <p>This method does not call {@code willChange} and {@code changed} on the figure.
+   */
+  public <T> void set(Figure figure, AttributeKey<T> key, T newValue) {
+    record(figure, figure.attr(), key, newValue);
+    figure.attr().set(key, newValue);
+  }
+
+  private void record(Figure figure, Attributes target, AttributeKey<?> key, Object newValue) {
+    if (target.isAttributeEnabled(key)) {
+      add(figure, target, key, target.hasAttribute(key) ? target.get(key) : ABSENT, newValue);
+    }
+    for (Attributes dependent : target.getDependents()) {
+      if (dependent != null) {
+        record(figure, dependent, key, newValue);
+      }
+    }
+  }
+
+  /**
+   * Records a change of an attribute, which has already been set on the figure and its dependent
+   * attributes.
+   */
+  public <T> void add(Figure figure, AttributeKey<T> key, T oldValue, T newValue) {
+    add(figure, figure.attr(), key, oldValue, newValue, true);
+  }
+
+  private void add(
+      Figure figure,
+      Attributes target,
+      AttributeKey<?> key,
+      Object oldValue,
+      Object newValue,
+      boolean isDependentsIncluded) {
+    if (isDependentsIncluded) {
+      for (Attributes dependent : target.getDependents()) {
+        if (dependent != null) {
+          add(figure, dependent, key, oldValue, newValue, true);
+        }
+      }
+    }
+    add(figure, target, key, oldValue, newValue);
+  }
+
+  private void add(
+      Figure figure, Attributes target, AttributeKey<?> key, Object oldValue, Object newValue) {
+    // Merge with an entry of the same attribute in the trailing entries of the same figure
+    for (int i = size - 1; i >= 0 && figures[i] == figure; i--) {
+      if (targets[i] == target && keys[i].equals(key)) {
+        newValues[i] = newValue;
+        return;
+      }
+    }
+    if (size == keys.length) {
+      int capacity = size * 2;
+      figures = Arrays.copyOf(figures, capacity);
+      targets = Arrays.copyOf(targets, capacity);
+      keys = Arrays.copyOf(keys, capacity);
+      oldValues = Arrays.copyOf(oldValues, capacity);
+      newValues = Arrays.copyOf(newValues, capacity);
+    }
+    figures[size] = figure;
+    targets[size] = target;
+    keys[size] = key;
+    oldValues[size] = oldValue;
+    newValues[size] = newValue;
+    size++;
+  }
+
+  /** Returns the number of recorded attribute changes. */
+  public int getChangeCount() {
+    return size;
+  }
+
+  @Override
+  public boolean addEdit(UndoableEdit anEdit) {
+    if (!canUndo()
+        || session == null
+        || anEdit.getClass() != getClass()
+        || !getPresentationName().equals(anEdit.getPresentationName())) {
+      return false;
+    }
+    AttributeDeltaEdit that = (AttributeDeltaEdit) anEdit;
+    if (that.session != session || that.size != size || !that.canUndo()) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (that.targets[i] != targets[i] || !that.keys[i].equals(keys[i])) {
+        return false;
+      }
+    }
+    System.arraycopy(that.newValues, 0, newValues, 0, size);
+    that.die();
+    return true;
+  }
+
+  @Override
+  public void undo() throws CannotUndoException {
+    super.undo();
+    apply(true);
+  }
+
+  @Override
+  public void redo() throws CannotRedoException {
+    super.redo();
+    apply(false);
+  }
+
+  /**
+   * Restores the old or new values. The entries of a figure are consecutive, so that each figure is
+   * only changed once.
+   */
+  @SuppressWarnings("unchecked")
+  private void apply(boolean isUndo) {
+    int step = isUndo ? -1 : 1;
+    int i = isUndo ? size - 1 : 0;
+    while (i >= 0 && i < size) {
+      Figure figure = figures[i];
+      figure.willChange();
+      for (; i >= 0 && i < size && figures[i] == figure; i += step) {
+        Object value = isUndo ? oldValues[i] : newValues[i];
+        targets[i].restoreAttribute(
+            (AttributeKey<Object>) keys[i], value != ABSENT, value == ABSENT ? null : value);
+      }
+      figure.changed();
+    }
+  }
+
+  @Override
+  public void die() {
+    super.die();
+    Arrays.fill(figures, 0, size, null);
+    Arrays.fill(targets, 0, size, null);
+    Arrays.fill(oldValues, 0, size, null);
+    Arrays.fill(newValues, 0, size, null);
+    size = 0;
+  }
+}
@@ -13,6 +13,9 @@ import javax.swing.undo.CannotUndoException;
 import javax.swing.undo.UndoableEdit;
 import org.jhotdraw.draw.figure.BezierFigure;
 import org.jhotdraw.utils.geom.path.BezierPath;
+import org.jhotdraw.utils.undo.EditSizes;
+import org.jhotdraw.utils.undo.SizeEstimatingEdit;
+import org.jhotdraw.utils.undo.UndoRedoManager;
 import org.jhotdraw.utils.util.ResourceBundleUtil;
 
 /**
@@ -21,7 +24,7 @@ import org.jhotdraw.utils.util.ResourceBundleUtil;
  * @version $Id: BezierNodeEdit.java -1 $
  * @author Werner Randelshofer
  */
-public class BezierNodeEdit extends AbstractUndoableEdit {
+public class BezierNodeEdit extends AbstractUndoableEdit implements SizeEstimatingEdit {
 
   private static final long serialVersionUID = 1L;
   private BezierFigure owner;
@@ -75,4 +78,11 @@ public class BezierNodeEdit extends AbstractUndoableEdit {
     }
     return false;
   }
+
+  @Override
+  public long getEstimatedSize() {
+    return UndoRedoManager.DEFAULT_EDIT_SIZE
+        + EditSizes.estimate(oldValue)
+        + EditSizes.estimate(newValue);
+  }
 }
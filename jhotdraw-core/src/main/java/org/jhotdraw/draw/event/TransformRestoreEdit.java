@@ -7,8 +7,16 @@
  */
 package org.jhotdraw.draw.event;
 
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.undo.*;
 import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.utils.undo.EditSizes;
+import org.jhotdraw.utils.undo.SpillableEdit;
+import org.jhotdraw.utils.undo.UndoRedoManager;
+import org.jhotdraw.utils.undo.UndoSpillFile;
 import org.jhotdraw.utils.util.*;
 
 /**
@@ -19,14 +27,18 @@ import org.jhotdraw.utils.util.*;
  * shearing of a figure.
  *
  * <p>The transform restore data may consume a lot of memory. Undos of lossless transforms, such as
- * translations of a figure, should use {@link TransformEdit}.
+ * translations of a figure, should use {@link TransformEdit}. The restore data can be spilled to
+ * an {@link UndoSpillFile}, if it is serializable.
  */
-public class TransformRestoreEdit extends AbstractUndoableEdit {
+public class TransformRestoreEdit extends AbstractUndoableEdit implements SpillableEdit {
 
   private static final long serialVersionUID = 1L;
+  private static final Logger LOG = Logger.getLogger(TransformRestoreEdit.class.getName());
   private Figure owner;
   private Object oldTransformRestoreData;
   private Object newTransformRestoreData;
+  private UndoSpillFile spillFile;
+  private long spillHandle;
 
   public TransformRestoreEdit(
       Figure owner, Object oldTransformRestoreData, Object newTransformRestoreData) {
@@ -45,7 +57,7 @@ public class TransformRestoreEdit extends AbstractUndoableEdit {
   public void undo() throws CannotUndoException {
     super.undo();
     owner.willChange();
-    owner.restoreTransformTo(oldTransformRestoreData);
+    owner.restoreTransformTo(getRestoreData(true));
     owner.changed();
   }
 
@@ -53,7 +65,75 @@ public class TransformRestoreEdit extends AbstractUndoableEdit {
   public void redo() throws CannotRedoException {
     super.redo();
     owner.willChange();
-    owner.restoreTransformTo(newTransformRestoreData);
+    owner.restoreTransformTo(getRestoreData(false));
     owner.changed();
   }
+
+  @Override
+  public long getEstimatedSize() {
+    return spillFile != null
+        ? UndoRedoManager.DEFAULT_EDIT_SIZE
+        : UndoRedoManager.DEFAULT_EDIT_SIZE
+            + EditSizes.estimate(oldTransformRestoreData)
+            + EditSizes.estimate(newTransformRestoreData);
+  }
+
+  @Override
+  public boolean isSpilled() {
+    return spillFile != null;
+  }
+
+  /**
+   * Writes the restore data to the spill file, and releases it from the heap.
+   *
+   * @throws IOException if the restore data is not serializable, or if writing fails.
+   */
+  @Override
+  public void spill(UndoSpillFile file) throws IOException {
+    if (spillFile != null) {
+      return;
+    }
+    spillHandle = file.write(new Serializable[] {
+      requireSerializable(oldTransformRestoreData), requireSerializable(newTransformRestoreData)
+    });
+    spillFile = file;
+    oldTransformRestoreData = null;
+    newTransformRestoreData = null;
+  }
+
+  private static Serializable requireSerializable(Object data) throws IOException {
+    if (data != null && !(data instanceof Serializable)) {
+      throw new IOException(
+          "restore data is not serializable: " + data.getClass().getName());
+    }
+    return (Serializable) data;
+  }
+
+  private Object getRestoreData(boolean isOld) {
+    if (spillFile == null) {
+      return isOld ? oldTransformRestoreData : newTransformRestoreData;
+    }
+    try {
+      Object[] data = (Object[]) spillFile.read(spillHandle);
+      return data[isOld ? 0 : 1];
+    } catch (IOException e) {
+      RuntimeException ex = isOld ? new CannotUndoException() : new CannotRedoException();
+      ex.initCause(e);
+      throw ex;
+    }
+  }
+
+  @Override
+  public void die() {
+    super.die();
+    if (spillFile != null) {
+      try {
+        spillFile.free(spillHandle);
+      } catch (IOException e) {
+        LOG.log(Level.FINE, "cannot free the spilled restore data", e);
+      }
+    }
+    oldTransformRestoreData = null;
+    newTransformRestoreData = null;
+  }
 }
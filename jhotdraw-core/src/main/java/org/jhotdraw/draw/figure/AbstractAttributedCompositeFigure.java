@@ -28,6 +28,7 @@ import javax.swing.event.UndoableEditEvent;
 import javax.swing.event.UndoableEditListener;
 import org.jhotdraw.draw.AttributeKeys;
 import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.LevelOfDetail;
 import org.jhotdraw.draw.event.CompositeFigureEvent;
 import org.jhotdraw.draw.event.CompositeFigureListener;
 import org.jhotdraw.draw.event.FigureEvent;
@@ -456,6 +457,27 @@ public abstract class AbstractAttributedCompositeFigure extends AbstractAttribut
 
   @Override
   public void draw(Graphics2D g) {
+    LevelOfDetail lod = LevelOfDetail.fromGraphics(g);
+    if (lod != null) {
+      double scale = AttributeKeys.getScaleFactorFromGraphics(g);
+      Rectangle2D.Double r = getDrawingArea(scale);
+      switch (lod.getFigureDetail(r.width * scale, r.height * scale)) {
+        case SKIP:
+          return;
+        case SIMPLIFIED:
+          // Draw the first child which has a color, stretched to our drawing area
+          for (Figure child : getChildren()) {
+            if (child instanceof AbstractAttributedFigure attributedFigure
+                && attributedFigure.getSimplifiedColor() != null) {
+              attributedFigure.drawSimplified(g, r);
+              break;
+            }
+          }
+          return;
+        default:
+          break;
+      }
+    }
     Rectangle2D clipBounds = g.getClipBounds();
     if (clipBounds != null) {
       for (Figure child : getChildren()) {
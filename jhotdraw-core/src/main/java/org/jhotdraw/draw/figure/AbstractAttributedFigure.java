@@ -32,6 +32,7 @@ import org.jhotdraw.draw.AttributeKey;
 import org.jhotdraw.draw.AttributeKeys;
 import org.jhotdraw.draw.Drawing;
 import org.jhotdraw.draw.DrawingView;
+import org.jhotdraw.draw.LevelOfDetail;
 import org.jhotdraw.draw.connector.ChopRectangleConnector;
 import org.jhotdraw.draw.connector.Connector;
 import org.jhotdraw.draw.event.FigureEvent;
@@ -73,8 +74,36 @@ public abstract class AbstractAttributedFigure implements Figure, Cloneable {
    */
   protected int changingDepth = 0;
 
+  /**
+   * Caches the drawing area for the level of detail decision in method {@link #draw}, so that a
+   * paint does not compute the bounds of each figure again. Cleared when the figure changes.
+   */
+  private transient Rectangle2D.Double cachedLevelOfDetailArea;
+
+  /** The scale factor of {@link #cachedLevelOfDetailArea}. */
+  private transient double cachedLevelOfDetailScale;
+
   @Override
   public void draw(Graphics2D g) {
+    LevelOfDetail lod = LevelOfDetail.fromGraphics(g);
+    LevelOfDetail.Detail textDetail = LevelOfDetail.Detail.FULL;
+    if (lod != null) {
+      double scale = AttributeKeys.getScaleFactorFromGraphics(g);
+      Rectangle2D.Double r = getLevelOfDetailArea(scale);
+      switch (lod.getFigureDetail(r.width * scale, r.height * scale)) {
+        case SKIP:
+          return;
+        case SIMPLIFIED:
+          drawSimplified(g, r);
+          return;
+        default:
+          break;
+      }
+      if (attr().get(TEXT_COLOR) != null) {
+        textDetail = lod.getTextDetail(
+            attr().get(FONT_SIZE) / AttributeKeys.getGlobalSizeFactor(this, scale) * scale);
+      }
+    }
     if (attr().get(FILL_COLOR) != null) {
       var fillColor = attr().get(FILL_COLOR);
       Float opacity = attr().get(OPACITY);
@@ -89,7 +118,10 @@ public abstract class AbstractAttributedFigure implements Figure, Cloneable {
       g.setColor(attr().get(STROKE_COLOR));
       drawStroke(g);
     }
-    if (attr().get(TEXT_COLOR) != null) {
+    if (attr().get(TEXT_COLOR) != null && textDetail == LevelOfDetail.Detail.SIMPLIFIED) {
+      g.setColor(attr().get(TEXT_COLOR));
+      drawGreekedText(g);
+    } else if (attr().get(TEXT_COLOR) != null && textDetail == LevelOfDetail.Detail.FULL) {
       if (attr().get(TEXT_SHADOW_COLOR) != null && attr().get(TEXT_SHADOW_OFFSET) != null) {
         Dimension2DDouble d = attr().get(TEXT_SHADOW_OFFSET);
         g.translate(d.width, d.height);
@@ -146,6 +178,57 @@ public abstract class AbstractAttributedFigure implements Figure, Cloneable {
    */
   protected void drawText(java.awt.Graphics2D g) {}
 
+  /**
+   * This method is called by method draw() instead of drawText(), if the text is too small on the
+   * screen to be readable, and the graphics has a {@link LevelOfDetail} policy. By default nothing
+   * is drawn.
+   */
+  protected void drawGreekedText(java.awt.Graphics2D g) {}
+
+  /**
+   * This method is called by method draw() instead of drawing the figure, if the figure is very
+   * small on the screen, and the graphics has a {@link LevelOfDetail} policy. By default, the
+   * drawing area of the figure is filled with its {@link #getSimplifiedColor simplified color}.
+   *
+   * @param area the drawing area of the figure.
+   */
+  protected void drawSimplified(java.awt.Graphics2D g, Rectangle2D.Double area) {
+    Color color = getSimplifiedColor();
+    if (color != null) {
+      g.setColor(color);
+      g.fill(area);
+    }
+  }
+
+  /**
+   * Returns the color which is used by method drawSimplified(): the fill color, or the stroke
+   * color, or the text color. Returns null, if the figure has none of these colors.
+   */
+  public Color getSimplifiedColor() {
+    Color color = attr().get(FILL_COLOR);
+    if (color == null) {
+      color = attr().get(STROKE_COLOR);
+    }
+    if (color == null) {
+      color = attr().get(TEXT_COLOR);
+    }
+    return color;
+  }
+
+  /**
+   * Returns the drawing area of the figure, which is used for level of detail decisions. The area
+   * is cached until the figure changes. The returned rectangle must not be modified.
+   */
+  protected Rectangle2D.Double getLevelOfDetailArea(double scale) {
+    Rectangle2D.Double r = cachedLevelOfDetailArea;
+    if (r == null || scale != cachedLevelOfDetailScale) {
+      r = getDrawingArea(scale);
+      cachedLevelOfDetailArea = r;
+      cachedLevelOfDetailScale = scale;
+    }
+    return r;
+  }
+
   @Override
   public AbstractAttributedFigure clone() {
     AbstractAttributedFigure that;
@@ -157,6 +240,7 @@ public abstract class AbstractAttributedFigure implements Figure, Cloneable {
     that.attributes = Attributes.from(attributes, that::fireAttributeChanged);
     that.listenerList = new EventListenerList();
     that.drawing = null; // Clones need to be explictly added to a drawing
+    that.cachedLevelOfDetailArea = null;
     return that;
   }
 
@@ -292,6 +376,7 @@ public abstract class AbstractAttributedFigure implements Figure, Cloneable {
 
   /** Notify all listenerList that have registered interest for notification on this event type. */
   protected <T> void fireAttributeChanged(AttributeKey<T> attribute, T oldValue, T newValue) {
+    cachedLevelOfDetailArea = null;
     fireFigureEvent(
         (listener, event) -> listener.attributeChanged(event),
         () -> new FigureEvent(this, attribute, oldValue, newValue));
@@ -387,6 +472,7 @@ public abstract class AbstractAttributedFigure implements Figure, Cloneable {
       fireAreaInvalidated();
       invalidate();
     }
+    cachedLevelOfDetailArea = null;
     changingDepth++;
   }
 
@@ -395,6 +481,7 @@ public abstract class AbstractAttributedFigure implements Figure, Cloneable {
   /** Informs that a figure changed the area of its display box. */
   @Override
   public void changed() {
+    cachedLevelOfDetailArea = null;
     if (changingDepth == 1) {
       validate();
       fireFigureChanged(getDrawingArea());
@@ -0,0 +1,284 @@
+/*
+ * @(#)AttributeStyle.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw.figure;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.WeakHashMap;
+import org.jhotdraw.draw.AttributeKey;
+
+/**
+ * An immutable set of attribute values, which is shared by all {@link Attributes} with the same
+ * values.
+ *
+ * <p>The values are stored in a packed array, in the order of the {@link AttributeKey#ordinal()
+ * ordinals} of their keys. A bit mask over the ordinals tells which keys are present. The index of
+ * a value in the packed array is the number of bits below its ordinal, so that a lookup is a bit
+ * test and a population count.
+ *
+ * <p>Styles are interned, so that figures with the same attribute values share the same style.
+ * Values are considered the same, if they are identical, or if they are equal instances of a well
+ * known immutable class, such as {@code Double} or {@code Color}. Equal instances of other classes
+ * are not merged, because they might be mutated.
+ *
+ * <p>Styles are never changed in place. A change creates a new style, so that a style can be read
+ * by other threads, and shared by other figures, once it has been published. Styles are interned
+ * when attributes are copied, and not when they are read.
+ */
+final class AttributeStyle {
+
+  static final AttributeStyle EMPTY =
+      new AttributeStyle(new long[0], new int[0], new AttributeKey<?>[0], new Object[0]);
+
+  static {
+    EMPTY.isInterned = true;
+  }
+
+  private static final Set<Class<?>> IMMUTABLE_VALUE_CLASSES = Set.of(
+      String.class,
+      Boolean.class,
+      Character.class,
+      Byte.class,
+      Short.class,
+      Integer.class,
+      Long.class,
+      Float.class,
+      Double.class,
+      Color.class,
+      Font.class);
+
+  private static final WeakHashMap<AttributeStyle, WeakReference<AttributeStyle>> POOL =
+      new WeakHashMap<>();
+
+  /** Holds one bit per ordinal, which is set if the style has a value for the ordinal. */
+  private final long[] mask;
+
+  /** Holds the number of bits which are set in the preceding words of the mask. */
+  private final int[] rankBase;
+
+  private final AttributeKey<?>[] keys;
+  private final Object[] values;
+  private volatile boolean isInterned;
+
+  private AttributeStyle(long[] mask, int[] rankBase, AttributeKey<?>[] keys, Object[] values) {
+    this.mask = mask;
+    this.rankBase = rankBase;
+    this.keys = keys;
+    this.values = values;
+  }
+
+  /** Returns the interned style, which is the same as the specified style. */
+  static AttributeStyle intern(AttributeStyle style) {
+    if (style.isInterned) {
+      return style;
+    }
+    if (style.values.length == 0) {
+      return EMPTY;
+    }
+    synchronized (POOL) {
+      WeakReference<AttributeStyle> ref = POOL.get(style);
+      AttributeStyle interned = ref == null ? null : ref.get();
+      if (interned == null) {
+        style.isInterned = true;
+        POOL.put(style, new WeakReference<>(style));
+        interned = style;
+      }
+      return interned;
+    }
+  }
+
+  int size() {
+    return values.length;
+  }
+
+  /** Returns the index of the value with the specified ordinal, or -1 if there is none. */
+  int indexOf(int ordinal) {
+    int word = ordinal >>> 6;
+    if (word >= mask.length) {
+      return -1;
+    }
+    long bit = 1L << ordinal;
+    long bits = mask[word];
+    return (bits & bit) == 0 ? -1 : rankBase[word] + Long.bitCount(bits & (bit - 1));
+  }
+
+  AttributeKey<?> getKey(int index) {
+    return keys[index];
+  }
+
+  Object getValue(int index) {
+    return values[index];
+  }
+
+  /** Returns a style, which has the specified value in addition to the values of this. */
+  AttributeStyle with(AttributeKey<?> key, Object value) {
+    int ordinal = key.ordinal();
+    int index = indexOf(ordinal);
+    if (index >= 0) {
+      if (keys[index] == key && values[index] == value) {
+        return this;
+      }
+      AttributeKey<?>[] newKeys = keys.clone();
+      Object[] newValues = values.clone();
+      newKeys[index] = key;
+      newValues[index] = value;
+      return new AttributeStyle(mask, rankBase, newKeys, newValues);
+    }
+    int word = ordinal >>> 6;
+    long[] newMask = Arrays.copyOf(mask, Math.max(mask.length, word + 1));
+    long bit = 1L << ordinal;
+    newMask[word] |= bit;
+    index = (word < rankBase.length ? rankBase[word] : values.length)
+        + Long.bitCount(newMask[word] & (bit - 1));
+    AttributeKey<?>[] newKeys = new AttributeKey<?>[keys.length + 1];
+    Object[] newValues = new Object[values.length + 1];
+    System.arraycopy(keys, 0, newKeys, 0, index);
+    System.arraycopy(values, 0, newValues, 0, index);
+    newKeys[index] = key;
+    newValues[index] = value;
+    System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+    System.arraycopy(values, index, newValues, index + 1, values.length - index);
+    return new AttributeStyle(newMask, rankBase(newMask), newKeys, newValues);
+  }
+
+  /** Returns a style, which has the values of this except for the specified key. */
+  AttributeStyle without(AttributeKey<?> key) {
+    int ordinal = key.ordinal();
+    int index = indexOf(ordinal);
+    if (index < 0) {
+      return this;
+    }
+    long[] newMask = mask.clone();
+    newMask[ordinal >>> 6] &= ~(1L << ordinal);
+    AttributeKey<?>[] newKeys = new AttributeKey<?>[keys.length - 1];
+    Object[] newValues = new Object[values.length - 1];
+    System.arraycopy(keys, 0, newKeys, 0, index);
+    System.arraycopy(values, 0, newValues, 0, index);
+    System.arraycopy(keys, index + 1, newKeys, index, newKeys.length - index);
+    System.arraycopy(values, index + 1, newValues, index, newValues.length - index);
+    return newValues.length == 0
+        ? EMPTY
+        : new AttributeStyle(newMask, rankBase(newMask), newKeys, newValues);
+  }
+
+  private static int[] rankBase(long[] mask) {
+    int[] rankBase = new int[mask.length];
+    for (int i = 1; i < mask.length; i++) {
+      rankBase[i] = rankBase[i - 1] + Long.bitCount(mask[i - 1]);
+    }
+    return rankBase;
+  }
+
+  private static boolean isSameValue(Object a, Object b) {
+    return a == b
+        || a != null
+            && b != null
+            && a.getClass() == b.getClass()
+            && IMMUTABLE_VALUE_CLASSES.contains(a.getClass())
+            && a.equals(b);
+  }
+
+  private static int valueHashCode(Object value) {
+    if (value == null) {
+      return 0;
+    }
+    return IMMUTABLE_VALUE_CLASSES.contains(value.getClass())
+        ? value.hashCode()
+        : System.identityHashCode(value);
+  }
+
+  /** Returns a read-only map view of this style. */
+  Map<AttributeKey<?>, Object> asMap() {
+    return new MapView();
+  }
+
+  @Override
+  public int hashCode() {
+    int h = Arrays.hashCode(mask);
+    for (int i = 0; i < values.length; i++) {
+      h = 31 * h + valueHashCode(values[i]);
+    }
+    return h;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof AttributeStyle that) || !Arrays.equals(that.mask, mask)) {
+      return false;
+    }
+    for (int i = 0; i < values.length; i++) {
+      if (that.keys[i] != keys[i] || !isSameValue(that.values[i], values[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private class MapView extends AbstractMap<AttributeKey<?>, Object> {
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof AttributeKey<?> k && indexOf(k.ordinal()) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+      int index = key instanceof AttributeKey<?> k ? indexOf(k.ordinal()) : -1;
+      return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Set<Map.Entry<AttributeKey<?>, Object>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public int size() {
+          return values.length;
+        }
+
+        @Override
+        public Iterator<Map.Entry<AttributeKey<?>, Object>> iterator() {
+          return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+              return index < values.length;
+            }
+
+            @Override
+            public Map.Entry<AttributeKey<?>, Object> next() {
+              if (index >= values.length) {
+                throw new NoSuchElementException();
+              }
+              Map.Entry<AttributeKey<?>, Object> entry =
+                  new AbstractMap.SimpleImmutableEntry<>(keys[index], values[index]);
+              index++;
+              return entry;
+            }
+          };
+        }
+      };
+    }
+  }
+}
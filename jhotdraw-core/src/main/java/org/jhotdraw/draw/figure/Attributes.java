@@ -21,9 +21,8 @@ package org.jhotdraw.draw.figure;
 import static java.util.stream.Collectors.toList;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,15 +30,22 @@ import java.util.function.Supplier;
 import org.jhotdraw.draw.AttributeKey;
 import org.jhotdraw.draw.AttributeKeys;
 
-/** implementation of Attribute storage and processing. */
+/**
+ * implementation of Attribute storage and processing.
+ *
+ * <p>The attribute values are held by an immutable {@link AttributeStyle}, which is replaced on
+ * each change. The style is interned when the attributes are copied, so that figures with the same
+ * attribute values share the same style. Reading the attributes never interns the style.
+ */
 public final class Attributes {
 
-  private final HashMap<AttributeKey<?>, Object> attributes = new HashMap<>();
+  private AttributeStyle style = AttributeStyle.EMPTY;
 
   /**
    * Forbidden attributes can't be put by the put() operation. They can only be changed by put().
+   * Holds one bit per {@link AttributeKey#ordinal()}, or null if no attribute is forbidden.
    */
-  private HashSet<AttributeKey<?>> forbiddenAttributes;
+  private long[] forbiddenAttributes;
 
   private AttributeListener listener;
 
@@ -63,13 +69,23 @@ public final class Attributes {
   }
 
   public void setAttributeEnabled(AttributeKey<?> key, boolean b) {
+    int ordinal = key.ordinal();
+    int word = ordinal >>> 6;
     if (forbiddenAttributes == null) {
-      forbiddenAttributes = new HashSet<>();
+      if (b) {
+        return;
+      }
+      forbiddenAttributes = new long[word + 1];
+    } else if (word >= forbiddenAttributes.length) {
+      if (b) {
+        return;
+      }
+      forbiddenAttributes = Arrays.copyOf(forbiddenAttributes, word + 1);
     }
     if (b) {
-      forbiddenAttributes.remove(key);
+      forbiddenAttributes[word] &= ~(1L << ordinal);
     } else {
-      forbiddenAttributes.add(key);
+      forbiddenAttributes[word] |= 1L << ordinal;
     }
   }
 
@@ -80,7 +96,12 @@ public final class Attributes {
    * @return
    */
   public boolean isAttributeEnabled(AttributeKey<?> key) {
-    return forbiddenAttributes == null || !forbiddenAttributes.contains(key);
+    if (forbiddenAttributes == null) {
+      return true;
+    }
+    int ordinal = key.ordinal();
+    int word = ordinal >>> 6;
+    return word >= forbiddenAttributes.length || (forbiddenAttributes[word] & (1L << ordinal)) == 0;
   }
 
   /**
@@ -98,23 +119,24 @@ public final class Attributes {
     }
   }
 
+  /** Returns a read-only snapshot of the attributes. */
   public Map<AttributeKey<?>, Object> getAttributes() {
-    return Collections.unmodifiableMap(attributes);
+    return style.asMap();
   }
 
   /**
    * Gets data which can be used to restore the attributes of the figure after a set has been
-   * applied to it.
+   * applied to it. Since styles are immutable, this does not copy the attributes.
    */
   public Object getAttributesRestoreData() {
     List<Attributes> dependent = DEPENDENT.get();
     if (dependent.isEmpty()) {
-      return new HashMap<>(attributes);
+      return getAttributes();
     } else {
       List<Map<AttributeKey<?>, Object>> list = new ArrayList<>();
-      list.add(new HashMap<>(attributes));
+      list.add(getAttributes());
       for (Attributes attr : dependent) {
-        list.add(new HashMap<>(attr.getAttributes()));
+        list.add(attr.getAttributes());
       }
       return list;
     }
@@ -131,7 +153,7 @@ public final class Attributes {
         idx++;
       }
     } else {
-      attributes.clear();
+      style = AttributeStyle.EMPTY;
       Map<AttributeKey<?>, Object> restoreDataHashMap = (Map<AttributeKey<?>, Object>) restoreData;
       setAttributes(restoreDataHashMap);
     }
@@ -154,8 +176,14 @@ public final class Attributes {
    * @see AttributeKey#set
    */
   public <T> Attributes set(final AttributeKey<T> key, final T newValue) {
-    if (forbiddenAttributes == null || !forbiddenAttributes.contains(key)) {
-      T oldValue = key.put(attributes, newValue);
+    if (isAttributeEnabled(key)) {
+      if (newValue == null && !key.isNullValueAllowed()) {
+        throw new NullPointerException("Null value not allowed for AttributeKey " + key);
+      }
+      int index = style.indexOf(key.ordinal());
+      @SuppressWarnings("unchecked")
+      T oldValue = index < 0 ? null : (T) style.getValue(index);
+      style = style.with(key, newValue);
       fireAttributeChanged(key, oldValue, newValue);
     }
 
@@ -163,6 +191,33 @@ public final class Attributes {
     return this;
   }
 
+  /**
+   * Restores a single attribute to a recorded state, and calls the listener if the value changes.
+   * Unlike {@link #set}, this does not change the dependent attributes, and does not check whether
+   * the attribute is enabled.
+   *
+   * @param key the attribute key.
+   * @param isPresent whether the attribute was present in the recorded state. If not, the attribute
+   *     is removed.
+   * @param value the recorded value.
+   */
+  public <T> void restoreAttribute(AttributeKey<T> key, boolean isPresent, T value) {
+    if (!isPresent) {
+      removeAttribute(key);
+      return;
+    }
+    int index = style.indexOf(key.ordinal());
+    @SuppressWarnings("unchecked")
+    T oldValue = index < 0 ? null : (T) style.getValue(index);
+    style = style.with(key, value);
+    fireAttributeChanged(key, oldValue, value);
+  }
+
+  /** Returns the attributes, to which {@link #set} passes each change on. */
+  public List<Attributes> getDependents() {
+    return DEPENDENT.get();
+  }
+
   /**
    * Gets an attribute from the Figure.
    *
@@ -170,8 +225,11 @@ public final class Attributes {
    * @return Returns the attribute value. If the Figure does not have an attribute with the
    *     specified key, returns key.getDefaultValue().
    */
+  @SuppressWarnings("unchecked")
   public <T> T get(AttributeKey<T> key) {
-    return key.get(attributes);
+    AttributeStyle s = style;
+    int index = s.indexOf(key.ordinal());
+    return index < 0 ? key.getDefaultValue() : (T) s.getValue(index);
   }
 
   /**
@@ -181,8 +239,16 @@ public final class Attributes {
    * @return Returns the attribute value. If the Figure does not have an attribute with the
    *     specified key, returns key.getDefaultValue().
    */
+  @SuppressWarnings("unchecked")
   public <T> T getAndInclude(AttributeKey<T> key) {
-    return key.getAndInclude(attributes);
+    AttributeStyle s = style;
+    int index = s.indexOf(key.ordinal());
+    if (index >= 0) {
+      return (T) s.getValue(index);
+    }
+    T dv = key.getDefaultValue();
+    style = s.with(key, dv);
+    return dv;
   }
 
   public static AttributeKey<?> getAttributeKey(String name) {
@@ -192,7 +258,7 @@ public final class Attributes {
   public <T> void removeAttribute(AttributeKey<T> key) {
     if (hasAttribute(key)) {
       T oldValue = get(key);
-      attributes.remove(key);
+      style = style.without(key);
       fireAttributeChanged(key, oldValue, key.getDefaultValue());
     }
   }
@@ -204,7 +270,7 @@ public final class Attributes {
    * @return
    */
   public boolean hasAttribute(AttributeKey<?> key) {
-    return attributes.containsKey(key);
+    return style.indexOf(key.ordinal()) >= 0;
   }
 
   private <T> void fireAttributeChanged(AttributeKey<T> attribute, T oldValue, T newValue) {
@@ -229,9 +295,11 @@ public final class Attributes {
   public static Attributes from(
       Attributes source, AttributeListener listener, Supplier<List<Attributes>> dependent) {
     Attributes attr = new Attributes(listener, dependent);
-    attr.attributes.putAll(source.attributes);
+    AttributeStyle s = AttributeStyle.intern(source.style);
+    source.style = s;
+    attr.style = s;
     if (source.forbiddenAttributes != null) {
-      attr.forbiddenAttributes = new HashSet<>(source.forbiddenAttributes);
+      attr.forbiddenAttributes = source.forbiddenAttributes.clone();
     }
     return attr;
   }
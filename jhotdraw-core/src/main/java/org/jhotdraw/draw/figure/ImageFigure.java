@@ -28,7 +28,9 @@ import java.util.Collection;
 import java.util.Collections;
 import javax.imageio.ImageIO;
 import javax.swing.Action;
+import javax.swing.SwingUtilities;
 import org.jhotdraw.draw.AttributeKeys;
+import org.jhotdraw.draw.JHotdrawRenderingKeys;
 import org.jhotdraw.draw.connector.ChopRectangleConnector;
 import org.jhotdraw.draw.connector.Connector;
 import org.jhotdraw.utils.geom.Dimension2DDouble;
@@ -49,6 +51,9 @@ public class ImageFigure extends AbstractAttributedDecoratedFigure implements Im
   /** The buffered image. This can be null, if we haven't yet parsed the imageData. */
   private transient BufferedImage bufferedImage;
 
+  /** The mipmap of the image. This can be null, if we haven't drawn the image yet. */
+  private transient volatile MipmapImageCache.Mipmap mipmap;
+
   public ImageFigure() {
     this(0, 0, 0, 0);
   }
@@ -92,8 +97,21 @@ public class ImageFigure extends AbstractAttributedDecoratedFigure implements Im
     g.fill(r);
   }
 
+  /**
+   * Draws the image. The image is drawn from the level of its mipmap which best fits the size of
+   * the figure on the device. While the image is being decoded, a placeholder is drawn.
+   */
   protected void drawImage(Graphics2D g) {
-    BufferedImage image = getBufferedImage();
+    MipmapImageCache.Mipmap m = getMipmap();
+    BufferedImage image = null;
+    if (m != null) {
+      double[] scale = MipmapImageCache.getDeviceScale(g);
+      image = m.getImage(
+          rectangle.width * scale[0],
+          rectangle.height * scale[1],
+          g.getRenderingHint(JHotdrawRenderingKeys.ASYNC_IMAGE_LOADING) == Boolean.TRUE,
+          () -> SwingUtilities.invokeLater(this::fireAreaInvalidated));
+    }
     if (image != null) {
       g.drawImage(
           image,
@@ -102,6 +120,9 @@ public class ImageFigure extends AbstractAttributedDecoratedFigure implements Im
           (int) rectangle.width,
           (int) rectangle.height,
           null);
+    } else if (m != null && !m.isFailed()) {
+      g.setColor(Color.lightGray);
+      g.fill(rectangle);
     } else {
       g.setStroke(new BasicStroke());
       g.setColor(Color.red);
@@ -197,6 +218,19 @@ public class ImageFigure extends AbstractAttributedDecoratedFigure implements Im
     return new ChopRectangleConnector(this);
   }
 
+  private MipmapImageCache.Mipmap getMipmap() {
+    MipmapImageCache.Mipmap m = mipmap;
+    if (m == null) {
+      if (bufferedImage != null) {
+        m = MipmapImageCache.getInstance().createMipmap(bufferedImage);
+      } else if (imageData != null) {
+        m = MipmapImageCache.getInstance().createMipmap(imageData);
+      }
+      mipmap = m;
+    }
+    return m;
+  }
+
   // COMPOSITE FIGURES
   // CLONING
   @Override
@@ -218,6 +252,7 @@ public class ImageFigure extends AbstractAttributedDecoratedFigure implements Im
     willChange();
     this.imageData = imageData;
     this.bufferedImage = bufferedImage;
+    this.mipmap = null;
     changed();
   }
 
@@ -231,6 +266,7 @@ public class ImageFigure extends AbstractAttributedDecoratedFigure implements Im
     willChange();
     this.imageData = imageData;
     this.bufferedImage = null;
+    this.mipmap = null;
     changed();
   }
 
@@ -240,20 +276,20 @@ public class ImageFigure extends AbstractAttributedDecoratedFigure implements Im
     willChange();
     this.imageData = null;
     this.bufferedImage = image;
+    this.mipmap = null;
     changed();
   }
 
   /**
    * Gets the buffered image. If necessary, this method creates the buffered image from the image
-   * data.
+   * data. The image is shared with the mipmap, which is used for drawing the figure, so that the
+   * image data is decoded only once.
    */
   @Override
   public BufferedImage getBufferedImage() {
     if (bufferedImage == null && imageData != null) {
-      try {
-        bufferedImage = ImageIO.read(new ByteArrayInputStream(imageData));
-      } catch (IOException e) {
-        e.printStackTrace();
+      bufferedImage = getMipmap().getBaseImage();
+      if (bufferedImage == null) {
         // If we can't create a buffered image from the image data,
         // there is no use to keep the image data and try again, so
         // we drop the image data.
@@ -316,6 +352,7 @@ public class ImageFigure extends AbstractAttributedDecoratedFigure implements Im
     }
     imageData = baos.toByteArray();
     bufferedImage = img;
+    mipmap = null;
   }
 
   private void writeObject(ObjectOutputStream out) throws IOException {
@@ -12,6 +12,7 @@ import java.awt.geom.*;
 import java.io.*;
 import java.util.*;
 import javax.swing.undo.*;
+import org.jhotdraw.draw.ConnectionUpdateScheduler;
 import org.jhotdraw.draw.Drawing;
 import org.jhotdraw.draw.DrawingView;
 import org.jhotdraw.draw.connector.Connector;
@@ -72,9 +73,16 @@ public class LineConnectionFigure extends LineFigure implements ConnectionFigure
     public void figureChanged(FigureEvent e) {
       if (!owner.isChanging()) {
         if (e.getSource() == owner.getStartFigure() || e.getSource() == owner.getEndFigure()) {
-          owner.willChange();
-          owner.updateConnection();
-          owner.changed();
+          Drawing drawing = owner.getDrawing();
+          ConnectionUpdateScheduler scheduler =
+              drawing == null ? null : drawing.getConnectionUpdateScheduler();
+          if (scheduler != null) {
+            scheduler.schedule(owner);
+          } else {
+            owner.willChange();
+            owner.updateConnection();
+            owner.changed();
+          }
         }
       }
     }
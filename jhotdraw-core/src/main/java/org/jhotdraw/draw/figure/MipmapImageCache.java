@@ -0,0 +1,371 @@
+/*
+ * @(#)MipmapImageCache.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw.figure;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+import org.jhotdraw.draw.JHotdrawRenderingKeys;
+
+/**
+ * A cache of image pyramids, which lets image figures draw a downscaled version of their image when
+ * the image is shown much smaller than its full resolution.
+ *
+ * <p>Each image is represented by a {@link Mipmap}. Level 0 of a mipmap is the full resolution
+ * image, each further level halves the width and the height of the previous level. A figure asks
+ * its mipmap for the image to draw at a given size in device pixels, and gets the smallest level
+ * which is at least that large.
+ *
+ * <p>If the {@link JHotdrawRenderingKeys#ASYNC_IMAGE_LOADING} rendering hint is set, missing levels
+ * are decoded and downscaled on a worker pool, and the figure draws the closest available level or
+ * a placeholder meanwhile. Otherwise, e.g. when printing or exporting, missing levels are generated
+ * on the calling thread.
+ *
+ * <p>The generated levels are held in an LRU cache, which is bounded by a global memory budget and
+ * shared by all image figures. Full resolution images which have been provided by the figures, or
+ * which have been pinned with {@link Mipmap#getBaseImage}, are not part of the budget.
+ */
+public class MipmapImageCache {
+
+  private static final Logger LOG = Logger.getLogger(MipmapImageCache.class.getName());
+  public static final long DEFAULT_MEMORY_BUDGET = 128L * 1024 * 1024;
+
+  private static final MipmapImageCache INSTANCE =
+      new MipmapImageCache(DEFAULT_MEMORY_BUDGET, ForkJoinPool.commonPool());
+
+  private final long memoryBudget;
+  private final Executor executor;
+
+  /** The generated levels in least recently used order. Guarded by itself. */
+  private final LinkedHashMap<LevelKey, BufferedImage> levels =
+      new LinkedHashMap<>(64, 0.75f, true);
+
+  /** The number of bytes held by the generated levels. Guarded by levels. */
+  private long usedMemory;
+
+  /** Returns the cache which is shared by all image figures. */
+  public static MipmapImageCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param memoryBudget the maximal number of bytes held by the generated levels.
+   * @param executor the executor on which levels are generated asynchronously.
+   */
+  public MipmapImageCache(long memoryBudget, Executor executor) {
+    this.memoryBudget = memoryBudget;
+    this.executor = executor;
+  }
+
+  /** Creates a mipmap for an image, which is available at full resolution. */
+  public Mipmap createMipmap(BufferedImage image) {
+    return new Mipmap(image, null);
+  }
+
+  /** Creates a mipmap for encoded image data, which is decoded when it is needed. */
+  public Mipmap createMipmap(byte[] imageData) {
+    return new Mipmap(null, imageData);
+  }
+
+  /** Returns the number of bytes held by the generated levels. */
+  public long getUsedMemory() {
+    synchronized (levels) {
+      return usedMemory;
+    }
+  }
+
+  /** Removes all generated levels. */
+  public void clear() {
+    synchronized (levels) {
+      levels.clear();
+      usedMemory = 0;
+    }
+  }
+
+  private BufferedImage getLevel(LevelKey key) {
+    synchronized (levels) {
+      return levels.get(key);
+    }
+  }
+
+  private void putLevel(LevelKey key, BufferedImage image) {
+    synchronized (levels) {
+      BufferedImage old = levels.put(key, image);
+      usedMemory += sizeOf(image) - (old == null ? 0 : sizeOf(old));
+      for (Iterator<Map.Entry<LevelKey, BufferedImage>> i = levels.entrySet().iterator();
+          usedMemory > memoryBudget && i.hasNext(); ) {
+        Map.Entry<LevelKey, BufferedImage> eldest = i.next();
+        if (eldest.getKey() != key) {
+          usedMemory -= sizeOf(eldest.getValue());
+          i.remove();
+        }
+      }
+    }
+  }
+
+  private void removeLevel(LevelKey key) {
+    synchronized (levels) {
+      BufferedImage old = levels.remove(key);
+      if (old != null) {
+        usedMemory -= sizeOf(old);
+      }
+    }
+  }
+
+  private static long sizeOf(BufferedImage image) {
+    return 4L * image.getWidth() * image.getHeight();
+  }
+
+  /** Returns an image with half the width and height of the specified image. */
+  private static BufferedImage halve(BufferedImage image) {
+    int w = Math.max(1, image.getWidth() / 2);
+    int h = Math.max(1, image.getHeight() / 2);
+    BufferedImage half = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+    Graphics2D g = half.createGraphics();
+    try {
+      g.setRenderingHint(
+          RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      g.drawImage(image, 0, 0, w, h, null);
+    } finally {
+      g.dispose();
+    }
+    return half;
+  }
+
+  /**
+   * Returns the device scale of the x and the y axis of a graphics, including rotation and shear.
+   */
+  public static double[] getDeviceScale(Graphics2D g) {
+    AffineTransform tx = g.getTransform();
+    return new double[] {
+      Math.hypot(tx.getScaleX(), tx.getShearY()), Math.hypot(tx.getShearX(), tx.getScaleY())
+    };
+  }
+
+  private record LevelKey(Mipmap mipmap, int level) {}
+
+  /** The pyramid of an image. This class is thread safe. */
+  public final class Mipmap {
+
+    /**
+     * The full resolution image, if it has been provided or pinned, or null if it is decoded from
+     * the image data and held by the cache.
+     */
+    private volatile BufferedImage source;
+
+    private final byte[] imageData;
+
+    /** Ensures that the image data is decoded only once. */
+    private final Object decodeLock = new Object();
+
+    /** The size of the full resolution image, or -1 if the image has not been decoded yet. */
+    private volatile int width = -1;
+
+    private volatile int height = -1;
+    private volatile boolean failed;
+
+    /** The levels which are being generated. Guarded by this. */
+    private final Set<Integer> pending = new HashSet<>();
+
+    private Mipmap(BufferedImage source, byte[] imageData) {
+      this.source = source;
+      this.imageData = imageData;
+      if (source != null) {
+        width = source.getWidth();
+        height = source.getHeight();
+      }
+    }
+
+    /** Returns true, if the image data could not be decoded. */
+    public boolean isFailed() {
+      return failed;
+    }
+
+    /**
+     * Returns the full resolution image, and decodes it on the calling thread if necessary.
+     *
+     * <p>The image is pinned: it is held by this mipmap instead of the cache, and is not evicted.
+     * This lets a figure, which needs the full resolution image, share it with the mipmap instead
+     * of decoding the image data a second time.
+     *
+     * @return the image, or null if the image data is invalid.
+     */
+    public BufferedImage getBaseImage() {
+      BufferedImage image = source;
+      if (image == null) {
+        image = getLevel(0);
+        if (image == null) {
+          image = decode();
+        }
+        if (image != null) {
+          source = image;
+          removeLevel(new LevelKey(this, 0));
+        }
+      }
+      return image;
+    }
+
+    /**
+     * Returns the image to draw at the specified size.
+     *
+     * <p>If {@code async} is true, the requested level is generated on the worker pool if it is
+     * missing, and the closest available level is returned meanwhile. {@code onReady} is invoked
+     * on the worker thread, when the level has been generated.
+     *
+     * @param deviceWidth the width of the image on the device in pixels.
+     * @param deviceHeight the height of the image on the device in pixels.
+     * @param async whether missing levels are generated asynchronously.
+     * @param onReady invoked when an asynchronously generated level is ready, may be null.
+     * @return the image, or null if no level is available yet or if the image data is invalid.
+     */
+    public BufferedImage getImage(
+        double deviceWidth, double deviceHeight, boolean async, Runnable onReady) {
+      if (failed) {
+        return null;
+      }
+      if (width < 0) {
+        // We do not know the size of the image, before it has been decoded
+        if (!async) {
+          return generate(0);
+        }
+        schedule(0, onReady);
+        return null;
+      }
+      int level = getLevelFor(deviceWidth, deviceHeight);
+      BufferedImage image = getLevel(level);
+      if (image != null) {
+        return image;
+      }
+      if (!async) {
+        return generate(level);
+      }
+      schedule(level, onReady);
+      for (int i = level - 1; i >= 0; i--) {
+        if ((image = getLevel(i)) != null) {
+          return image;
+        }
+      }
+      for (int i = level + 1, n = getLevelCount(); i < n; i++) {
+        if ((image = getLevel(i)) != null) {
+          return image;
+        }
+      }
+      return null;
+    }
+
+    /** Returns the number of levels of the pyramid, or 0 if the image has not been decoded. */
+    public int getLevelCount() {
+      int n = 0;
+      for (int w = width, h = height; w > 0 && h > 0; w /= 2, h /= 2) {
+        n++;
+      }
+      return n;
+    }
+
+    /**
+     * Returns the index of the smallest level, which is at least as large as the specified size.
+     */
+    private int getLevelFor(double deviceWidth, double deviceHeight) {
+      int level = 0;
+      for (int w = width / 2, h = height / 2;
+          w >= deviceWidth && h >= deviceHeight && w > 0 && h > 0;
+          w /= 2, h /= 2) {
+        level++;
+      }
+      return level;
+    }
+
+    private BufferedImage getLevel(int level) {
+      BufferedImage image = level == 0 ? source : null;
+      return image != null ? image : MipmapImageCache.this.getLevel(new LevelKey(this, level));
+    }
+
+    private void schedule(int level, Runnable onReady) {
+      synchronized (this) {
+        if (!pending.add(level)) {
+          return;
+        }
+      }
+      executor.execute(() -> {
+        try {
+          generate(level);
+        } finally {
+          synchronized (this) {
+            pending.remove(level);
+          }
+        }
+        if (onReady != null) {
+          onReady.run();
+        }
+      });
+    }
+
+    /**
+     * Generates a level from the closest finer level which is available, and caches the
+     * intermediate levels.
+     */
+    private BufferedImage generate(int level) {
+      int from = level;
+      BufferedImage image = null;
+      while (from >= 0 && (image = getLevel(from)) == null) {
+        from--;
+      }
+      if (image == null) {
+        image = decode();
+        if (image == null) {
+          return null;
+        }
+        from = 0;
+      }
+      for (int i = from + 1; i <= level; i++) {
+        image = halve(image);
+        putLevel(new LevelKey(this, i), image);
+      }
+      return image;
+    }
+
+    private BufferedImage decode() {
+      synchronized (decodeLock) {
+        // Another thread may have decoded the image meanwhile
+        BufferedImage image = getLevel(0);
+        if (image != null || failed) {
+          return image;
+        }
+        try {
+          image = ImageIO.read(new ByteArrayInputStream(imageData));
+        } catch (IOException e) {
+          LOG.log(Level.WARNING, "could not decode image", e);
+        }
+        if (image == null) {
+          failed = true;
+          return null;
+        }
+        height = image.getHeight();
+        width = image.getWidth();
+        putLevel(new LevelKey(this, 0), image);
+        return image;
+      }
+    }
+  }
+}
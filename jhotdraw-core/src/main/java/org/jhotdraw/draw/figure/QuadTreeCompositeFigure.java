@@ -22,20 +22,35 @@ import javax.swing.event.UndoableEditListener;
 import org.jhotdraw.draw.event.FigureEvent;
 import org.jhotdraw.draw.event.FigureListenerAdapter;
 import org.jhotdraw.utils.geom.Dimension2DDouble;
-import org.jhotdraw.utils.geom.QuadTree;
+import org.jhotdraw.utils.geom.RTree;
+import org.jhotdraw.utils.geom.SpatialIndex;
 import org.jhotdraw.utils.util.ReversedList;
 
-/** QuadTreeCompositeFigure. */
+/**
+ * QuadTreeCompositeFigure. Uses a {@link SpatialIndex} to quickly find its children.
+ *
+ * <p>By default the children are indexed by an {@link RTree}. Subclasses can plug in a different
+ * index by overriding {@link #createSpatialIndex}.
+ */
 public abstract class QuadTreeCompositeFigure extends AbstractAttributedCompositeFigure {
 
   private static final long serialVersionUID = 1L;
-  private final QuadTree<Figure> quadTree = new QuadTree<>();
+  private final SpatialIndex<Figure> spatialIndex = createSpatialIndex();
+  private final ZOrderIndex zOrder = new ZOrderIndex();
+
+  /** True, if the children list is not sorted by z-order key. */
   private boolean needsSorting = false;
+
   private final FigureHandler figureHandler = new FigureHandler();
   private Dimension2DDouble canvasSize;
 
   public QuadTreeCompositeFigure() {}
 
+  /** Creates the spatial index which is used to look up the children of this figure. */
+  protected SpatialIndex<Figure> createSpatialIndex() {
+    return new RTree<>();
+  }
+
   @Override
   public int indexOf(Figure figure) {
     return children.indexOf(figure);
@@ -44,18 +59,35 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
   @Override
   public void basicAdd(int index, Figure figure) {
     children.add(index, figure);
-    quadTree.add(figure, figure.getDrawingArea());
+    spatialIndex.add(figure, figure.getDrawingArea());
     figure.addFigureListener(figureHandler);
-    needsSorting = true;
+    addToZOrder(index, figure);
+  }
+
+  /**
+   * Assigns a z-order key to a figure which has just been added to the children list at the
+   * specified index.
+   */
+  private void addToZOrder(int index, Figure figure) {
+    int last = children.size() - 1;
+    if (index == last) {
+      zOrder.addToFront(figure);
+      needsSorting |= index > 0 && zOrder.getKey(children.get(index - 1)) > zOrder.getKey(figure);
+    } else if (index == 0) {
+      zOrder.addToBack(figure);
+      needsSorting |= zOrder.getKey(children.get(1)) < zOrder.getKey(figure);
+    } else {
+      zOrder.addAt(figure);
+    }
   }
 
   @Override
   public Figure basicRemoveChild(int index) {
     Figure figure = children.get(index);
     children.remove(index);
-    quadTree.remove(figure);
+    spatialIndex.remove(figure);
+    zOrder.remove(figure);
     figure.removeFigureListener(figureHandler);
-    needsSorting = true;
     return figure;
   }
 
@@ -63,23 +95,32 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
   public void draw(Graphics2D g) {
     Rectangle2D clipBounds = g.getClipBounds();
     if (clipBounds != null) {
-      Collection<Figure> c = quadTree.findIntersects(clipBounds);
-      Collection<Figure> toDraw = sort(c);
+      Collection<Figure> c = spatialIndex.findIntersects(clipBounds);
+      Collection<Figure> toDraw = backToFront(c);
       draw(g, toDraw);
     } else {
       draw(g, children);
     }
   }
 
-  /** Implementation note: Sorting can not be done for orphaned children. */
+  /**
+   * Returns a new list with the specified figures sorted from back to front. The collection is not
+   * modified.
+   *
+   * <p>Implementation note: Sorting can not be done for orphaned children.
+   */
   public java.util.List<Figure> sort(Collection<Figure> c) {
-    ensureSorted();
-    ArrayList<Figure> sorted = new ArrayList<>(c.size());
-    for (Figure f : children) {
-      if (c.contains(f)) {
-        sorted.add(f);
-      }
-    }
+    return backToFront(new ArrayList<>(c));
+  }
+
+  /**
+   * Sorts the result of a spatial query from back to front. Reuses the list, if the query already
+   * returned one.
+   */
+  private List<Figure> backToFront(Collection<Figure> c) {
+    List<Figure> sorted = (c instanceof ArrayList) ? (List<Figure>) c : new ArrayList<>(c);
+    ensureZOrder();
+    zOrder.sortBackToFront(sorted);
     return sorted;
   }
 
@@ -90,7 +131,7 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
   }
 
   //  public Collection<Figure> getFigures(Rectangle2D.Double bounds) {
-  //    return new ArrayList<>(quadTree.findInside(bounds));
+  //    return new ArrayList<>(spatialIndex.findInside(bounds));
   //  }
 
   @Override
@@ -100,9 +141,9 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
 
   @Override
   public Figure findFigureInside(Point2D.Double p) {
-    Collection<Figure> c = quadTree.findContains(p);
-    for (Figure f : getFiguresFrontToBack()) {
-      if (c.contains(f) && f.contains(p)) {
+    List<Figure> c = backToFront(spatialIndex.findContains(p));
+    for (Figure f : new ReversedList<>(c)) {
+      if (f.contains(p)) {
         return f.findFigureInside(p);
       }
     }
@@ -116,7 +157,7 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
   }
 
   public Figure findFigure(Point2D.Double p) {
-    Collection<Figure> c = quadTree.findContains(p);
+    Collection<Figure> c = spatialIndex.findContains(p);
     switch (c.size()) {
       case 0:
         return null;
@@ -125,8 +166,8 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
         return (f.contains(p)) ? f : null;
 
       default:
-        for (Figure f2 : getFiguresFrontToBack()) {
-          if (c.contains(f2) && f2.contains(p)) {
+        for (Figure f2 : new ReversedList<>(backToFront(c))) {
+          if (f2.contains(p)) {
             return f2;
           }
         }
@@ -135,7 +176,7 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
   }
 
   public Figure findFigureExcept(Point2D.Double p, Figure ignore) {
-    Collection<Figure> c = quadTree.findContains(p);
+    Collection<Figure> c = spatialIndex.findContains(p);
     switch (c.size()) {
       case 0:
         return null;
@@ -153,7 +194,7 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
   }
 
   public Figure findFigureExcept(Point2D.Double p, Collection<Figure> ignore) {
-    Collection<Figure> c = quadTree.findContains(p);
+    Collection<Figure> c = spatialIndex.findContains(p);
     switch (c.size()) {
       case 0:
         return null;
@@ -201,14 +242,14 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
   }
 
   public List<Figure> findFigures(Rectangle2D.Double r) {
-    List<Figure> c = new ArrayList<>(quadTree.findIntersects(r));
+    List<Figure> c = new ArrayList<>(spatialIndex.findIntersects(r));
     switch (c.size()) {
       case 0:
       // fall through
       case 1:
         return c;
       default:
-        return sort(c);
+        return backToFront(c);
     }
   }
 
@@ -230,7 +271,8 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
   public void bringToFront(Figure figure) {
     if (children.remove(figure)) {
       children.add(figure);
-      needsSorting = true;
+      zOrder.remove(figure);
+      addToZOrder(children.size() - 1, figure);
       fireAreaInvalidated(figure.getDrawingArea());
     }
   }
@@ -239,7 +281,8 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
   public void sendToBack(Figure figure) {
     if (children.remove(figure)) {
       children.add(0, figure);
-      needsSorting = true;
+      zOrder.remove(figure);
+      addToZOrder(0, figure);
       fireAreaInvalidated(figure.getDrawingArea());
     }
   }
@@ -249,10 +292,23 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
     return children.contains(f);
   }
 
+  /**
+   * Ensures that the z-order keys are valid. If a figure has been inserted in the middle of the
+   * children list, the keys are renumbered from the children list.
+   */
+  private void ensureZOrder() {
+    if (!zOrder.isValid()) {
+      children.sort(Comparator.comparingInt(Figure::getLayer));
+      zOrder.renumber(children);
+      needsSorting = false;
+    }
+  }
+
   /** Ensures that the children are sorted in z-order sequence. */
   private void ensureSorted() {
+    ensureZOrder();
     if (needsSorting) {
-      Collections.sort(children, Comparator.comparing(Figure::getLayer));
+      children.sort(zOrder.comparator());
       needsSorting = false;
     }
   }
@@ -285,9 +341,10 @@ public abstract class QuadTreeCompositeFigure extends AbstractAttributedComposit
 
     @Override
     public void figureChanged(FigureEvent e) {
-      quadTree.remove(e.getFigure());
-      quadTree.add(e.getFigure(), e.getFigure().getDrawingArea());
-      needsSorting = true;
+      spatialIndex.update(e.getFigure(), e.getFigure().getDrawingArea());
+      if (zOrder.updateLayer(e.getFigure())) {
+        needsSorting = true;
+      }
       if (!isChanging()) {
         fireAreaInvalidated(e.getInvalidatedArea());
       }
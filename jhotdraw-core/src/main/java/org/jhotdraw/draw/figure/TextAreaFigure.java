@@ -13,7 +13,7 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
-import java.awt.Shape;
+import java.awt.font.FontRenderContext;
 import java.awt.font.LineBreakMeasurer;
 import java.awt.font.TextAttribute;
 import java.awt.font.TextLayout;
@@ -24,8 +24,8 @@ import java.text.AttributedCharacterIterator;
 import java.text.AttributedString;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import org.jhotdraw.draw.AttributeKeys;
 import org.jhotdraw.draw.DrawingView;
 import org.jhotdraw.draw.handle.FontSizeHandle;
@@ -72,8 +72,11 @@ public class TextAreaFigure extends AbstractAttributedDecoratedFigure implements
   private static final BasicStroke DASHES = new BasicStroke(
       1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0f, new float[] {4f, 4f}, 0f);
 
-  /** This is a cached value to improve the performance of method isTextOverflow(); */
-  private Boolean isTextOverflow;
+  /**
+   * The cached layout of the text, which is used for painting and for the overflow check. The
+   * layout is immutable, and is only replaced as a whole.
+   */
+  private transient volatile TextAreaLayout cachedLayout;
 
   public TextAreaFigure() {
     this(ResourceBundleUtil.getBundle("org.jhotdraw.draw.Labels")
@@ -85,11 +88,31 @@ public class TextAreaFigure extends AbstractAttributedDecoratedFigure implements
   }
 
   // DRAWING
+  /**
+   * Draws one bar per line of text. The number of lines is estimated from the length of the text,
+   * assuming an average character width of half the font size.
+   */
+  @Override
+  protected void drawGreekedText(Graphics2D g) {
+    String text = getText();
+    if (text != null && !text.isEmpty()) {
+      Insets2D.Double insets = getInsets();
+      double x = bounds.x + insets.left;
+      double y = bounds.y + insets.top;
+      double width = bounds.width - insets.left - insets.right;
+      double height = bounds.height - insets.top - insets.bottom;
+      double lineHeight = getFontSize() * 1.2;
+      int lines = (int) Math.ceil(text.length() * getFontSize() * 0.5 / Math.max(width, 1));
+      for (int i = 0; i < lines && (i + 1) * lineHeight <= height; i++) {
+        g.fill(new Rectangle2D.Double(
+            x, y + i * lineHeight + lineHeight * 0.3, width, lineHeight * 0.4));
+      }
+    }
+  }
+
   @Override
   protected void drawText(Graphics2D g) {
     if (getText() != null || isEditable()) {
-      Font font = getFont();
-      boolean isUnderlined = attr().get(FONT_UNDERLINE);
       Insets2D.Double insets = getInsets();
       Rectangle2D.Double textRect = new Rectangle2D.Double(
           bounds.x + insets.left,
@@ -106,47 +129,18 @@ public class TextAreaFigure extends AbstractAttributedDecoratedFigure implements
         g2.transform(at);
       }
 
-      float leftMargin = (float) textRect.x;
-      float rightMargin = (float) Math.max(leftMargin + 1, textRect.x + textRect.width + 1);
-      float verticalPos = (float) textRect.y;
-      float maxVerticalPos = (float) (textRect.y + textRect.height);
-      if (leftMargin < rightMargin) {
-        // float tabWidth = (float) (getTabSize() * g.getFontMetrics(font).charWidth('m'));
-        float tabWidth = (float)
-            (getTabSize() * font.getStringBounds("m", getFontRenderContext()).getWidth());
-        float[] tabStops = new float[(int) (textRect.width / tabWidth)];
-        for (int i = 0; i < tabStops.length; i++) {
-          tabStops[i] = (float) (textRect.x + (int) (tabWidth * (i + 1)));
-        }
-        if (getText() != null) {
-          Shape savedClipArea = g.getClip();
-          g2.clip(textRect);
-          String[] paragraphs = getText().split("\n"); // Strings.split(getText(), '\n');
-          for (int i = 0; i < paragraphs.length; i++) {
-            if (paragraphs[i].length() == 0) {
-              paragraphs[i] = " ";
-            }
-            AttributedString as = new AttributedString(paragraphs[i]);
-            as.addAttribute(TextAttribute.FONT, font);
-            if (isUnderlined) {
-              as.addAttribute(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_LOW_ONE_PIXEL);
-            }
-            int tabCount = paragraphs[i].split("\t").length - 1;
-            Rectangle2D.Double paragraphBounds = drawParagraph(
-                g2,
-                as.getIterator(),
-                verticalPos,
-                maxVerticalPos,
-                leftMargin,
-                rightMargin,
-                tabStops,
-                tabCount);
-            verticalPos = (float) (paragraphBounds.y + paragraphBounds.height);
-            if (verticalPos > maxVerticalPos) {
-              break;
-            }
+      TextAreaLayout layout = getTextAreaLayout(textRect.width);
+      if (layout != null) {
+        g2.clip(textRect);
+        float x = (float) textRect.x;
+        float y = (float) textRect.y;
+        for (TextAreaLayout.Line line : layout.lines) {
+          if (line.top > textRect.height) {
+            break;
+          }
+          for (int i = 0; i < line.layouts.length; i++) {
+            line.layouts[i].draw(g2, x + line.penPositions[i], y + line.baseline);
           }
-          g2.setClip(savedClipArea);
         }
       }
       g2.dispose();
@@ -154,135 +148,266 @@ public class TextAreaFigure extends AbstractAttributedDecoratedFigure implements
   }
 
   /**
-   * Draws or measures a paragraph of text at the specified y location and the bounds of the
-   * paragraph.
-   *
-   * @param g Graphics object. This parameter is null, if we want to measure the size of the
-   *     paragraph.
-   * @param styledText the text of the paragraph.
-   * @param verticalPos the top bound of the paragraph
-   * @param maxVerticalPos the bottom bound of the paragraph
-   * @param leftMargin the left bound of the paragraph
-   * @param rightMargin the right bound of the paragraph
-   * @param tabStops an array with tab stops
-   * @param tabCount the number of entries in tabStops which contain actual values
-   * @return Returns the actual bounds of the paragraph.
+   * Returns the layout of the text for the specified width of the text area, or null if the figure
+   * has no text. The layout is cached until one of its inputs changes. Since the layout is
+   * relative to the text area, it stays valid when the figure is moved.
    */
-  private Rectangle2D.Double drawParagraph(
-      Graphics2D g,
-      AttributedCharacterIterator styledText,
-      float verticalPos,
-      float maxVerticalPos,
-      float leftMargin,
-      float rightMargin,
-      float[] tabStops,
-      int tabCount) {
-    // This method is based on the code sample given
-    // in the class comment of java.awt.font.LineBreakMeasurer,
-    // assume styledText is an AttributedCharacterIterator, and the number
-    // of tabs in styledText is tabCount
-    Rectangle2D.Double paragraphBounds = new Rectangle2D.Double(leftMargin, verticalPos, 0, 0);
-    int[] tabLocations = new int[tabCount + 1];
-    int i = 0;
-    for (char c = styledText.first();
-        c != AttributedCharacterIterator.DONE;
-        c = styledText.next()) {
-      if (c == '\t') {
-        tabLocations[i++] = styledText.getIndex();
+  private TextAreaLayout getTextAreaLayout(double width) {
+    String text = getText();
+    if (text == null) {
+      return null;
+    }
+    Font font = getFont();
+    boolean isUnderlined = attr().get(FONT_UNDERLINE);
+    AttributeKeys.Alignment alignment = attr().get(TEXT_ALIGNMENT);
+    FontRenderContext frc = getFontRenderContext();
+    TextAreaLayout layout = cachedLayout;
+    if (layout == null
+        || !layout.isValid(text, font, isUnderlined, alignment, width, getTabSize(), frc)) {
+      float tabWidth = (float) (getTabSize() * font.getStringBounds("m", frc).getWidth());
+      float[] tabStops = new float[(int) (width / tabWidth)];
+      for (int i = 0; i < tabStops.length; i++) {
+        tabStops[i] = (int) (tabWidth * (i + 1));
       }
+      layout = new TextAreaLayout(
+          text,
+          font,
+          isUnderlined,
+          alignment,
+          width,
+          getTabSize(),
+          frc,
+          (float) Math.max(1, width + 1),
+          tabStops);
+      cachedLayout = layout;
     }
-    tabLocations[tabCount] = styledText.getEndIndex() - 1;
-    // Now tabLocations has an entry for every tab's offset in
-    // the text.  For convenience, the last entry is tabLocations
-    // is the offset of the last character in the text.
-    LineBreakMeasurer measurer = new LineBreakMeasurer(styledText, getFontRenderContext());
-    int currentTab = 0;
-    while (measurer.getPosition() < styledText.getEndIndex() && verticalPos <= maxVerticalPos) {
-      // Lay out and draw each line.  All segments on a line
-      // must be computed before any drawing can occur, since
-      // we must know the largest ascent on the line.
-      // TextLayouts are computed and stored in a List;
-      // their horizontal positions are stored in a parallel
-      // List.
-      // lineContainsText is true after first segment is drawn
-      boolean lineContainsText = false;
-      boolean lineComplete = false;
-      float maxAscent = 0, maxDescent = 0;
-      float horizontalPos = leftMargin;
-      List<TextLayout> layouts = new ArrayList<>();
-      List<Float> penPositions = new ArrayList<>();
-      int first = layouts.size();
-      while (!lineComplete && verticalPos <= maxVerticalPos) {
-        float wrappingWidth = rightMargin - horizontalPos;
-        TextLayout layout = null;
-        layout = measurer.nextLayout(wrappingWidth, tabLocations[currentTab] + 1, lineContainsText);
-        // layout can be null if lineContainsText is true
-        if (layout != null) {
-          layouts.add(layout);
-          penPositions.add(horizontalPos);
-          horizontalPos += layout.getAdvance();
-          maxAscent = Math.max(maxAscent, layout.getAscent());
-          maxDescent = Math.max(maxDescent, layout.getDescent() + layout.getLeading());
-        } else {
-          lineComplete = true;
+    return layout;
+  }
+
+  /**
+   * The line-broken text of a {@code TextAreaFigure}. The layout is immutable, so that it can be
+   * shared by concurrent painters.
+   *
+   * <p>The positions are relative to the top left corner of the text area.
+   */
+  static final class TextAreaLayout {
+
+    /** A line of text, which consists of one text layout for each tab separated segment. */
+    private static final class Line {
+
+      private final float top;
+      private final float baseline;
+      private final TextLayout[] layouts;
+      private final float[] penPositions;
+
+      Line(float top, float baseline, List<TextLayout> layouts, List<Float> penPositions) {
+        this.top = top;
+        this.baseline = baseline;
+        this.layouts = layouts.toArray(new TextLayout[0]);
+        this.penPositions = new float[penPositions.size()];
+        for (int i = 0; i < this.penPositions.length; i++) {
+          this.penPositions[i] = penPositions.get(i);
         }
-        lineContainsText = true;
-        if (measurer.getPosition() == tabLocations[currentTab] + 1) {
-          currentTab++;
+      }
+    }
+
+    private final String text;
+    private final Font font;
+    private final boolean isUnderlined;
+    private final AttributeKeys.Alignment alignment;
+    private final double width;
+    private final int tabSize;
+    private final FontRenderContext frc;
+
+    private final List<Line> lines = new ArrayList<>();
+
+    /** The union of the bounds of the paragraphs. */
+    private final Rectangle2D.Double bounds = new Rectangle2D.Double();
+
+    /**
+     * Lays out the text.
+     *
+     * @param alignment the alignment of lines which consist of a single segment, or null to lay out
+     *     all lines leading.
+     * @param width the width of the text area, part of the cache key.
+     * @param rightMargin the right bound of the lines.
+     * @param tabStops the tab stops.
+     */
+    TextAreaLayout(
+        String text,
+        Font font,
+        boolean isUnderlined,
+        AttributeKeys.Alignment alignment,
+        double width,
+        int tabSize,
+        FontRenderContext frc,
+        float rightMargin,
+        float[] tabStops) {
+      this.text = text;
+      this.font = font;
+      this.isUnderlined = isUnderlined;
+      this.alignment = alignment;
+      this.width = width;
+      this.tabSize = tabSize;
+      this.frc = frc;
+
+      float verticalPos = 0;
+      String[] paragraphs = text.split("\n"); // Strings.split(getText(), '\n');
+      for (int i = 0; i < paragraphs.length; i++) {
+        if (paragraphs[i].length() == 0) {
+          paragraphs[i] = " ";
         }
-        if (measurer.getPosition() == styledText.getEndIndex()) {
-          lineComplete = true;
-        } else if (tabStops.length == 0 || horizontalPos >= tabStops[tabStops.length - 1]) {
-          lineComplete = true;
+        AttributedString as = new AttributedString(paragraphs[i]);
+        as.addAttribute(TextAttribute.FONT, font);
+        if (isUnderlined) {
+          as.addAttribute(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_LOW_ONE_PIXEL);
         }
-        if (!lineComplete) {
-          // move to next tab stop
-          int j;
-          for (j = 0; horizontalPos >= tabStops[j]; j++) {}
-          horizontalPos = tabStops[j];
+        int tabCount = paragraphs[i].split("\t").length - 1;
+        Rectangle2D.Double paragraphBounds =
+            layoutParagraph(as.getIterator(), verticalPos, rightMargin, tabStops, tabCount);
+        verticalPos = (float) (paragraphBounds.y + paragraphBounds.height);
+        if (i == 0) {
+          bounds.setRect(paragraphBounds);
+        } else {
+          bounds.add(paragraphBounds);
         }
       }
-      // If there is only one layout element on the line, and we are
-      // drawing, then honor alignment
-      if (first == layouts.size() - 1 && g != null) {
-        switch (attr().get(TEXT_ALIGNMENT)) {
-          case TRAILING:
-            penPositions.set(first, rightMargin - layouts.get(first).getVisibleAdvance() - 1);
-            break;
-          case CENTER:
-            penPositions.set(
-                first,
-                (rightMargin - 1 - leftMargin - layouts.get(first).getVisibleAdvance()) / 2
-                    + leftMargin);
-            break;
-          case BLOCK:
-            // not supported
-            break;
-          case LEADING:
-          default:
-            break;
+    }
+
+    boolean isValid(
+        String text,
+        Font font,
+        boolean isUnderlined,
+        AttributeKeys.Alignment alignment,
+        double width,
+        int tabSize,
+        FontRenderContext frc) {
+      return this.text.equals(text)
+          && this.font.equals(font)
+          && this.isUnderlined == isUnderlined
+          && this.alignment == alignment
+          && this.width == width
+          && this.tabSize == tabSize
+          && Objects.equals(this.frc, frc);
+    }
+
+    /** Returns the height needed to show all lines. */
+    double getHeight() {
+      return -Math.min(bounds.y, 0) + bounds.height;
+    }
+
+    /**
+     * Lays out a paragraph of text at the specified y location, and returns the bounds of the
+     * paragraph.
+     *
+     * @param styledText the text of the paragraph.
+     * @param verticalPos the top bound of the paragraph
+     * @param rightMargin the right bound of the paragraph
+     * @param tabStops an array with tab stops
+     * @param tabCount the number of entries in tabStops which contain actual values
+     * @return Returns the actual bounds of the paragraph.
+     */
+    private Rectangle2D.Double layoutParagraph(
+        AttributedCharacterIterator styledText,
+        float verticalPos,
+        float rightMargin,
+        float[] tabStops,
+        int tabCount) {
+      // This method is based on the code sample given
+      // in the class comment of java.awt.font.LineBreakMeasurer,
+      // assume styledText is an AttributedCharacterIterator, and the number
+      // of tabs in styledText is tabCount
+      float leftMargin = 0;
+      Rectangle2D.Double paragraphBounds = new Rectangle2D.Double(leftMargin, verticalPos, 0, 0);
+      int[] tabLocations = new int[tabCount + 1];
+      int i = 0;
+      for (char c = styledText.first();
+          c != AttributedCharacterIterator.DONE;
+          c = styledText.next()) {
+        if (c == '\t') {
+          tabLocations[i++] = styledText.getIndex();
         }
       }
-      verticalPos += maxAscent;
-      Iterator<TextLayout> layoutEnum = layouts.iterator();
-      Iterator<Float> positionEnum = penPositions.iterator();
-      // now iterate through layouts and draw them
-      while (layoutEnum.hasNext()) {
-        TextLayout nextLayout = layoutEnum.next();
-        float nextPosition = positionEnum.next();
-        if (g != null) {
-          nextLayout.draw(g, nextPosition, verticalPos);
+      tabLocations[tabCount] = styledText.getEndIndex() - 1;
+      // Now tabLocations has an entry for every tab's offset in
+      // the text.  For convenience, the last entry is tabLocations
+      // is the offset of the last character in the text.
+      LineBreakMeasurer measurer = new LineBreakMeasurer(styledText, frc);
+      int currentTab = 0;
+      while (measurer.getPosition() < styledText.getEndIndex()) {
+        // Lay out each line.  All segments on a line
+        // must be computed before the baseline is known, since
+        // we must know the largest ascent on the line.
+        // lineContainsText is true after first segment is laid out
+        boolean lineContainsText = false;
+        boolean lineComplete = false;
+        float maxAscent = 0, maxDescent = 0;
+        float horizontalPos = leftMargin;
+        List<TextLayout> layouts = new ArrayList<>();
+        List<Float> penPositions = new ArrayList<>();
+        while (!lineComplete) {
+          float wrappingWidth = rightMargin - horizontalPos;
+          TextLayout layout =
+              measurer.nextLayout(wrappingWidth, tabLocations[currentTab] + 1, lineContainsText);
+          // layout can be null if lineContainsText is true
+          if (layout != null) {
+            layouts.add(layout);
+            penPositions.add(horizontalPos);
+            horizontalPos += layout.getAdvance();
+            maxAscent = Math.max(maxAscent, layout.getAscent());
+            maxDescent = Math.max(maxDescent, layout.getDescent() + layout.getLeading());
+          } else {
+            lineComplete = true;
+          }
+          lineContainsText = true;
+          if (measurer.getPosition() == tabLocations[currentTab] + 1) {
+            currentTab++;
+          }
+          if (measurer.getPosition() == styledText.getEndIndex()) {
+            lineComplete = true;
+          } else if (tabStops.length == 0 || horizontalPos >= tabStops[tabStops.length - 1]) {
+            lineComplete = true;
+          }
+          if (!lineComplete) {
+            // move to next tab stop
+            int j;
+            for (j = 0; horizontalPos >= tabStops[j]; j++) {}
+            horizontalPos = tabStops[j];
+          }
+        }
+        // If there is only one layout element on the line, then honor alignment
+        if (layouts.size() == 1 && alignment != null) {
+          switch (alignment) {
+            case TRAILING:
+              penPositions.set(0, rightMargin - layouts.get(0).getVisibleAdvance() - 1);
+              break;
+            case CENTER:
+              penPositions.set(
+                  0, (rightMargin - 1 - leftMargin - layouts.get(0).getVisibleAdvance()) / 2);
+              break;
+            case BLOCK:
+              // not supported
+              break;
+            case LEADING:
+            default:
+              break;
+          }
         }
-        Rectangle2D layoutBounds = nextLayout.getBounds();
-        paragraphBounds.add(new Rectangle2D.Double(
-            layoutBounds.getX() + nextPosition,
-            layoutBounds.getY() + verticalPos,
-            layoutBounds.getWidth(),
-            layoutBounds.getHeight()));
+        float top = verticalPos;
+        verticalPos += maxAscent;
+        lines.add(new Line(top, verticalPos, layouts, penPositions));
+        for (int k = 0; k < layouts.size(); k++) {
+          Rectangle2D layoutBounds = layouts.get(k).getBounds();
+          paragraphBounds.add(new Rectangle2D.Double(
+              layoutBounds.getX() + penPositions.get(k),
+              layoutBounds.getY() + verticalPos,
+              layoutBounds.getWidth(),
+              layoutBounds.getHeight()));
+        }
+        verticalPos += maxDescent;
       }
-      verticalPos += maxDescent;
+      return paragraphBounds;
     }
-    return paragraphBounds;
   }
 
   @Override
@@ -449,20 +574,17 @@ public class TextAreaFigure extends AbstractAttributedDecoratedFigure implements
     return handles;
   }
 
-  @Override
-  public void invalidate() {
-    super.invalidate();
-    isTextOverflow = null;
+  /** Returns the cached layout of the text, or null. Used by tests. */
+  TextAreaLayout getCachedLayout() {
+    return cachedLayout;
   }
 
+  /** Returns true, if the lines of the text do not fit into the text area. */
   @Override
   public boolean isTextOverflow() {
-    if (isTextOverflow == null) {
-      Insets2D.Double insets = getInsets();
-      isTextOverflow = getPreferredTextSize(getBounds().width - insets.left - insets.right).height
-          > getBounds().height - insets.top - insets.bottom;
-    }
-    return isTextOverflow;
+    Insets2D.Double insets = getInsets();
+    TextAreaLayout layout = getTextAreaLayout(bounds.width - insets.left - insets.right);
+    return layout != null && layout.getHeight() > bounds.height - insets.top - insets.bottom;
   }
 
   /**
@@ -477,44 +599,19 @@ public class TextAreaFigure extends AbstractAttributedDecoratedFigure implements
    */
   public Dimension2DDouble getPreferredTextSize(double maxWidth) {
     Rectangle2D.Double textRect = new Rectangle2D.Double();
-    if (getText() != null) {
-      Font font = getFont();
-      boolean isUnderlined = attr().get(FONT_UNDERLINE);
-      float leftMargin = 0;
-      float rightMargin = (float) maxWidth - 1;
-      float verticalPos = 0;
-      float maxVerticalPos = Float.MAX_VALUE;
-      if (leftMargin < rightMargin) {
-        float tabWidth = (float)
-            (getTabSize() * font.getStringBounds("m", getFontRenderContext()).getWidth());
-        float[] tabStops = new float[(int) (textRect.width / tabWidth)];
-        for (int i = 0; i < tabStops.length; i++) {
-          tabStops[i] = (float) (textRect.x + (int) (tabWidth * (i + 1)));
-        }
-        String[] paragraphs = getText().split("\n"); // Strings.split(getText(), '\n');
-        for (int i = 0; i < paragraphs.length; i++) {
-          if (paragraphs[i].length() == 0) {
-            paragraphs[i] = " ";
-          }
-          AttributedString as = new AttributedString(paragraphs[i]);
-          as.addAttribute(TextAttribute.FONT, font);
-          if (isUnderlined) {
-            as.addAttribute(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_LOW_ONE_PIXEL);
-          }
-          int tabCount = paragraphs[i].split("\t").length - 1;
-          Rectangle2D.Double paragraphBounds = drawParagraph(
-              null,
-              as.getIterator(),
-              verticalPos,
-              maxVerticalPos,
-              leftMargin,
-              rightMargin,
-              tabStops,
-              tabCount);
-          verticalPos = (float) (paragraphBounds.y + paragraphBounds.height);
-          textRect.add(paragraphBounds);
-        }
-      }
+    if (getText() != null && maxWidth > 1) {
+      // Measure without tab stops, and without alignment
+      TextAreaLayout layout = new TextAreaLayout(
+          getText(),
+          getFont(),
+          attr().get(FONT_UNDERLINE),
+          null,
+          maxWidth,
+          getTabSize(),
+          getFontRenderContext(),
+          (float) maxWidth - 1,
+          new float[0]);
+      textRect = layout.bounds;
     }
     return new Dimension2DDouble(
         -Math.min(textRect.x, 0) + textRect.width, -Math.min(textRect.y, 0) + textRect.height);
@@ -13,16 +13,15 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.font.FontRenderContext;
-import java.awt.font.TextAttribute;
 import java.awt.font.TextLayout;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import org.jhotdraw.draw.AttributeKeys;
 import org.jhotdraw.draw.DrawingView;
+import org.jhotdraw.draw.TextLayoutCache;
 import org.jhotdraw.draw.handle.BoundsOutlineHandle;
 import org.jhotdraw.draw.handle.FontSizeHandle;
 import org.jhotdraw.draw.handle.Handle;
@@ -57,6 +56,9 @@ public class TextFigure extends AbstractAttributedDecoratedFigure
   // cache of the TextFigure's layout
   protected transient TextLayout textLayout;
 
+  /** The font size of the cached layout, which includes the size factor. */
+  private transient float textLayoutFontSize;
+
   protected double alignX;
   protected double alignY;
 
@@ -114,6 +116,15 @@ public class TextFigure extends AbstractAttributedDecoratedFigure
     }
   }
 
+  /** Draws the text as a single bar across the middle of its drawing area. */
+  @Override
+  protected void drawGreekedText(java.awt.Graphics2D g) {
+    if (getText() != null) {
+      Rectangle2D.Double r = getLevelOfDetailArea(AttributeKeys.getScaleFactorFromGraphics(g));
+      g.fill(new Rectangle2D.Double(r.x, r.y + r.height / 3, r.width, r.height / 3));
+    }
+  }
+
   // SHAPE AND BOUNDS
   @Override
   public void transform(AffineTransform tx) {
@@ -167,26 +178,32 @@ public class TextFigure extends AbstractAttributedDecoratedFigure
     return r.contains(p);
   }
 
+  /**
+   * Returns the layout of the text for the specified size factor. The layout is obtained from the
+   * text layout cache of the drawing, so that figures with equal texts share their layouts. The
+   * figure keeps the last layout until it is invalidated, or until a different font size is
+   * requested.
+   */
   protected TextLayout getTextLayout(double sizeFactor) {
-    if (textLayout == null || attr().get(IS_SIZE_PIXEL_VALUE)) {
+    float fontSize = (float) (getFontSize() / AttributeKeys.getGlobalSizeFactor(this, sizeFactor));
+    TextLayout layout = textLayout;
+    if (layout == null || textLayoutFontSize != fontSize) {
       String text = getText();
       if (text == null || text.length() == 0) {
         text = " ";
       }
       FontRenderContext frc = getFontRenderContext();
-      HashMap<TextAttribute, Object> textAttributes = new HashMap<>();
-      textAttributes.put(TextAttribute.FONT, getFont().deriveFont((float)
-          (getFontSize() / AttributeKeys.getGlobalSizeFactor(this, sizeFactor))));
-      if (attr().get(FONT_UNDERLINE)) {
-        textAttributes.put(TextAttribute.UNDERLINE, TextAttribute.UNDERLINE_LOW_ONE_PIXEL);
-      }
-      if (attr().get(FONT_STRIKETHROUGH)) {
-        textAttributes.put(TextAttribute.STRIKETHROUGH, TextAttribute.STRIKETHROUGH_ON);
-      }
-
-      textLayout = new TextLayout(text, textAttributes, frc);
+      Font font = getFont().deriveFont(fontSize);
+      boolean underline = attr().get(FONT_UNDERLINE);
+      boolean strikethrough = attr().get(FONT_STRIKETHROUGH);
+      TextLayoutCache cache = getDrawing() == null ? null : getDrawing().getTextLayoutCache();
+      layout = cache != null
+          ? cache.getTextLayout(text, font, underline, strikethrough, frc)
+          : TextLayoutCache.createTextLayout(text, font, underline, strikethrough, frc);
+      textLayoutFontSize = fontSize;
+      textLayout = layout;
     }
-    return textLayout;
+    return layout;
   }
 
   @Override
@@ -0,0 +1,149 @@
+/*
+ * @(#)ZOrderIndex.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw.figure;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Maintains a z-order key for each child of a drawing or composite figure.
+ *
+ * <p>The key of a figure combines its layer in the upper 32 bits with a sequence number in the
+ * lower 32 bits. Figures with a lower key are behind figures with a higher key. Figures which are
+ * added to the front receive a sequence number above all others, figures which are sent to the
+ * back receive one below all others. This preserves the insertion order within a layer, without
+ * having to re-sort the children on every query.
+ *
+ * <p>If a figure is inserted in the middle, the sequence numbers can not be assigned locally. The
+ * index then becomes invalid, and must be renumbered with {@link #renumber} from the list of
+ * children.
+ */
+public class ZOrderIndex implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private final HashMap<Figure, Long> keys = new HashMap<>();
+  private transient Comparator<Figure> backToFront;
+  private transient Comparator<Figure> frontToBack;
+  private int minSequence = 0;
+  private int maxSequence = -1;
+  private boolean valid = true;
+
+  /** Adds a figure in front of all other figures of its layer. */
+  public void addToFront(Figure f) {
+    if (maxSequence == Integer.MAX_VALUE) {
+      valid = false;
+    }
+    keys.put(f, key(f.getLayer(), ++maxSequence));
+  }
+
+  /** Adds a figure behind all other figures of its layer. */
+  public void addToBack(Figure f) {
+    if (minSequence == Integer.MIN_VALUE) {
+      valid = false;
+    }
+    keys.put(f, key(f.getLayer(), --minSequence));
+  }
+
+  /**
+   * Adds a figure at an arbitrary position. This invalidates the index, until it is renumbered.
+   */
+  public void addAt(Figure f) {
+    keys.put(f, key(f.getLayer(), 0));
+    valid = false;
+  }
+
+  public void remove(Figure f) {
+    keys.remove(f);
+  }
+
+  public void clear() {
+    keys.clear();
+    minSequence = 0;
+    maxSequence = -1;
+    valid = true;
+  }
+
+  /**
+   * Returns false, if the sequence numbers must be renumbered before the keys can be used for
+   * sorting.
+   */
+  public boolean isValid() {
+    return valid;
+  }
+
+  /**
+   * Assigns new sequence numbers to all figures from their position in the specified list. The
+   * list must contain all figures of the index, sorted by layer.
+   */
+  public void renumber(List<Figure> children) {
+    keys.clear();
+    int seq = 0;
+    for (Figure f : children) {
+      keys.put(f, key(f.getLayer(), seq++));
+    }
+    minSequence = 0;
+    maxSequence = seq - 1;
+    valid = true;
+  }
+
+  /**
+   * Updates the layer of the specified figure, keeping its sequence number.
+   *
+   * @return true if the layer has changed, and thus the order of the figures.
+   */
+  public boolean updateLayer(Figure f) {
+    Long key = keys.get(f);
+    if (key == null) {
+      return false;
+    }
+    int layer = f.getLayer();
+    int sequence = (int) key.longValue();
+    if ((int) ((key - sequence) >> 32) == layer) {
+      return false;
+    }
+    keys.put(f, key(layer, sequence));
+    return true;
+  }
+
+  /** Returns the z-order key of the specified figure. */
+  public long getKey(Figure f) {
+    Long key = keys.get(f);
+    return key == null ? key(f.getLayer(), 0) : key;
+  }
+
+  /** Returns a comparator which orders figures from back to front. */
+  public Comparator<Figure> comparator() {
+    if (backToFront == null) {
+      backToFront = Comparator.comparingLong(this::getKey);
+    }
+    return backToFront;
+  }
+
+  /** Sorts the specified list of figures from back to front. */
+  public void sortBackToFront(List<Figure> figures) {
+    if (figures.size() > 1) {
+      figures.sort(comparator());
+    }
+  }
+
+  /** Sorts the specified list of figures from front to back. */
+  public void sortFrontToBack(List<Figure> figures) {
+    if (figures.size() > 1) {
+      if (frontToBack == null) {
+        frontToBack = comparator().reversed();
+      }
+      figures.sort(frontToBack);
+    }
+  }
+
+  private static long key(int layer, int sequence) {
+    return ((long) layer << 32) + sequence;
+  }
+}
@@ -105,14 +105,18 @@ public class BoundsOutlineHandle extends AbstractHandle {
     this.strokeColor2Disabled = strokeColor2Disabled;
   }
 
-  @Override
-  protected Rectangle basicGetBounds() {
+  /** Returns the outline in view coordinates. */
+  protected Shape getOutline() {
     Shape bounds = getOwner().getBounds(view.getScaleFactor());
     if (getOwner().attr().get(TRANSFORM) != null) {
       bounds = getOwner().attr().get(TRANSFORM).createTransformedShape(bounds);
     }
-    bounds = view.getDrawingToViewTransform().createTransformedShape(bounds);
-    Rectangle r = bounds.getBounds();
+    return view.getDrawingToViewTransform().createTransformedShape(bounds);
+  }
+
+  @Override
+  protected Rectangle basicGetBounds() {
+    Rectangle r = getOutline().getBounds();
     r.grow(2, 2);
     return r;
   }
@@ -124,11 +128,7 @@ public class BoundsOutlineHandle extends AbstractHandle {
 
   @Override
   public void draw(Graphics2D g) {
-    Shape bounds = getOwner().getBounds(view.getScaleFactor());
-    if (getOwner().attr().get(TRANSFORM) != null) {
-      bounds = getOwner().attr().get(TRANSFORM).createTransformedShape(bounds);
-    }
-    bounds = view.getDrawingToViewTransform().createTransformedShape(bounds);
+    Shape bounds = getOutline();
     Stroke stroke1;
     Color strokeColor1;
     Stroke stroke2;
@@ -0,0 +1,103 @@
+/*
+ * @(#)SelectionOutlineHandle.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw.handle;
+
+import static org.jhotdraw.draw.AttributeKeys.*;
+
+import java.awt.*;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import org.jhotdraw.draw.figure.Figure;
+
+/**
+ * A non-interactive {@link Handle} which draws the bounds of a whole selection of figures.
+ *
+ * <p>A drawing view uses this handle instead of the handles of the individual figures, when so many
+ * figures are selected that creating and drawing their handles would be too slow.
+ *
+ * <p>The handle caches the union of the bounds of the figures. The view must call {@link
+ * #figureChanged} when any of the figures has changed. This grows the cached union in constant
+ * time, and repaints the old and the new outline. Since the union may also have shrunk, it is
+ * computed again the next time the handle is drawn.
+ */
+public class SelectionOutlineHandle extends BoundsOutlineHandle {
+
+  private final Collection<Figure> figures;
+
+  /** The union of the bounds of the figures in drawing coordinates, or null if not computed. */
+  private Rectangle2D.Double union;
+
+  /** Whether the union is exact, or may be larger than the bounds of the figures. */
+  private boolean isUnionExact;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param figures the selected figures. The first figure is the owner of the handle.
+   */
+  public SelectionOutlineHandle(Collection<Figure> figures) {
+    super(figures.iterator().next());
+    this.figures = new ArrayList<>(figures);
+    // The view reports the changes of all figures, including the owner, see figureChanged
+    getOwner().removeFigureListener(FIGURE_LISTENER);
+  }
+
+  /**
+   * Updates the outline after one of the figures has changed, and repaints the old and the new
+   * outline.
+   */
+  public void figureChanged(Figure figure) {
+    if (union == null || view == null) {
+      return;
+    }
+    fireAreaInvalidated(getDrawingArea());
+    union.add(getBounds(figure, view.getScaleFactor()));
+    isUnionExact = false;
+    updateBounds();
+  }
+
+  @Override
+  public void invalidate() {
+    super.invalidate();
+    union = null;
+  }
+
+  @Override
+  public void draw(Graphics2D g) {
+    if (!isUnionExact) {
+      // The outline may have shrunk. The area of the old outline has already been repainted.
+      union = null;
+      super.invalidate();
+    }
+    super.draw(g);
+  }
+
+  @Override
+  protected Shape getOutline() {
+    if (union == null) {
+      double scale = view.getScaleFactor();
+      for (Figure f : figures) {
+        Rectangle2D r = getBounds(f, scale);
+        if (union == null) {
+          union = new Rectangle2D.Double(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+        } else {
+          union.add(r);
+        }
+      }
+      isUnionExact = true;
+    }
+    return view.getDrawingToViewTransform().createTransformedShape(union);
+  }
+
+  private static Rectangle2D getBounds(Figure f, double scale) {
+    return f.attr().get(TRANSFORM) != null
+        ? f.attr().get(TRANSFORM).createTransformedShape(f.getBounds(scale)).getBounds2D()
+        : f.getBounds(scale);
+  }
+}
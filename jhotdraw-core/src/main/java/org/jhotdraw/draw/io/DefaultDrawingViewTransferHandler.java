@@ -52,6 +52,7 @@ import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
 import org.jhotdraw.datatransfer.CompositeTransferable;
+import org.jhotdraw.datatransfer.LazyTransferable;
 import org.jhotdraw.draw.DefaultDrawing;
 import org.jhotdraw.draw.Drawing;
 import org.jhotdraw.draw.DrawingView;
@@ -121,9 +122,14 @@ public class DefaultDrawingViewTransferHandler extends TransferHandler {
         retValue = false;
         try {
           DataFlavor[] transferFlavors = t.getTransferDataFlavors();
-          // Workaround for Mac OS X:
-          // The Apple JVM messes up the sequence of the data flavors.
-          if (System.getProperty("os.name").toLowerCase().startsWith("mac")) {
+          LocalFigureTransferable localFigures = getLocalFigures(t, drawing);
+          if (localFigures != null) {
+            // Figures from the same Java VM are cloned instead of being written and read
+            retValue =
+                insertFigures(comp, view, localFigures.cloneFigures(), transferFigures, dropPoint);
+          } else if (System.getProperty("os.name").toLowerCase().startsWith("mac")) {
+            // Workaround for Mac OS X:
+            // The Apple JVM messes up the sequence of the data flavors.
             // Search for a suitable input format
             SearchLoop:
             for (InputFormat format : drawing.getInputFormats()) {
@@ -135,38 +141,8 @@ public class DefaultDrawingViewTransferHandler extends TransferHandler {
                     final List<Figure> importedFigures =
                         new ArrayList<>(dummyDrawing.getChildren());
                     importedFigures.removeAll(existingFigures);
-                    if (!preprocessFiguresToInsert(importedFigures)) {
-                      // Veto due to false from preprocess method
-                      break SearchLoop;
-                    }
-                    drawing.addAll(importedFigures);
-                    view.clearSelection();
-                    view.addToSelection(importedFigures);
-                    transferFigures.addAll(importedFigures);
-                    moveToDropPoint(comp, transferFigures, dropPoint);
-                    drawing.fireUndoableEditHappened(new AbstractUndoableEdit() {
-                      private static final long serialVersionUID = 1L;
-
-                      @Override
-                      public String getPresentationName() {
-                        ResourceBundleUtil labels =
-                            ResourceBundleUtil.getBundle("org.jhotdraw.draw.Labels");
-                        return labels.getString("edit.paste.text");
-                      }
-
-                      @Override
-                      public void undo() throws CannotUndoException {
-                        super.undo();
-                        drawing.removeAll(importedFigures);
-                      }
-
-                      @Override
-                      public void redo() throws CannotRedoException {
-                        super.redo();
-                        drawing.addAll(importedFigures);
-                      }
-                    });
-                    retValue = true;
+                    retValue =
+                        insertFigures(comp, view, importedFigures, transferFigures, dropPoint);
                     break SearchLoop;
                   } catch (IOException e) {
                     e.printStackTrace();
@@ -187,39 +163,8 @@ public class DefaultDrawingViewTransferHandler extends TransferHandler {
                     final List<Figure> importedFigures =
                         new ArrayList<>(dummyDrawing.getChildren());
                     importedFigures.removeAll(existingFigures);
-                    if (!preprocessFiguresToInsert(importedFigures)) {
-                      // Veto due to false from preprocess method
-                      break SearchLoop;
-                    }
-                    drawing.addAll(importedFigures);
-
-                    view.clearSelection();
-                    view.addToSelection(importedFigures);
-                    transferFigures.addAll(importedFigures);
-                    moveToDropPoint(comp, transferFigures, dropPoint);
-                    drawing.fireUndoableEditHappened(new AbstractUndoableEdit() {
-                      private static final long serialVersionUID = 1L;
-
-                      @Override
-                      public String getPresentationName() {
-                        ResourceBundleUtil labels =
-                            ResourceBundleUtil.getBundle("org.jhotdraw.draw.Labels");
-                        return labels.getString("edit.paste.text");
-                      }
-
-                      @Override
-                      public void undo() throws CannotUndoException {
-                        super.undo();
-                        drawing.removeAll(importedFigures);
-                      }
-
-                      @Override
-                      public void redo() throws CannotRedoException {
-                        super.redo();
-                        drawing.addAll(importedFigures);
-                      }
-                    });
-                    retValue = true;
+                    retValue =
+                        insertFigures(comp, view, importedFigures, transferFigures, dropPoint);
                     break SearchLoop;
                   } catch (IOException e) {
                     e.printStackTrace();
@@ -261,28 +206,7 @@ public class DefaultDrawingViewTransferHandler extends TransferHandler {
                     view.addToSelection(importedFigures);
                     transferFigures.addAll(importedFigures);
                     moveToDropPoint(comp, transferFigures, dropPoint);
-                    drawing.fireUndoableEditHappened(new AbstractUndoableEdit() {
-                      private static final long serialVersionUID = 1L;
-
-                      @Override
-                      public String getPresentationName() {
-                        ResourceBundleUtil labels =
-                            ResourceBundleUtil.getBundle("org.jhotdraw.draw.Labels");
-                        return labels.getString("edit.paste.text");
-                      }
-
-                      @Override
-                      public void undo() throws CannotUndoException {
-                        super.undo();
-                        drawing.removeAll(importedFigures);
-                      }
-
-                      @Override
-                      public void redo() throws CannotRedoException {
-                        super.redo();
-                        drawing.addAll(importedFigures);
-                      }
-                    });
+                    firePasteEdit(drawing, importedFigures);
                   }
 
                   view.getEditor().setEnabled(true);
@@ -303,6 +227,73 @@ public class DefaultDrawingViewTransferHandler extends TransferHandler {
     return retValue;
   }
 
+  /**
+   * Returns the figures of a transferable from the same Java VM, if they can be pasted into the
+   * drawing.
+   *
+   * @return the figures or null.
+   */
+  private static LocalFigureTransferable getLocalFigures(Transferable t, Drawing drawing)
+      throws IOException, UnsupportedFlavorException {
+    if (t.isDataFlavorSupported(LocalFigureTransferable.LOCAL_FIGURE_FLAVOR)) {
+      LocalFigureTransferable localFigures =
+          (LocalFigureTransferable) t.getTransferData(LocalFigureTransferable.LOCAL_FIGURE_FLAVOR);
+      if (localFigures.isCompatible(drawing)) {
+        return localFigures;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Adds imported figures to the drawing of the view, selects them, and fires an undoable edit.
+   *
+   * @return false, if {@link #preprocessFiguresToInsert} vetoed the import.
+   */
+  private boolean insertFigures(
+      JComponent comp,
+      DrawingView view,
+      List<Figure> importedFigures,
+      HashSet<Figure> transferFigures,
+      Point dropPoint) {
+    if (!preprocessFiguresToInsert(importedFigures)) {
+      // Veto due to false from preprocess method
+      return false;
+    }
+    Drawing drawing = view.getDrawing();
+    drawing.addAll(importedFigures);
+    view.clearSelection();
+    view.addToSelection(importedFigures);
+    transferFigures.addAll(importedFigures);
+    moveToDropPoint(comp, transferFigures, dropPoint);
+    firePasteEdit(drawing, importedFigures);
+    return true;
+  }
+
+  private static void firePasteEdit(final Drawing drawing, final List<Figure> importedFigures) {
+    drawing.fireUndoableEditHappened(new AbstractUndoableEdit() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public String getPresentationName() {
+        ResourceBundleUtil labels = ResourceBundleUtil.getBundle("org.jhotdraw.draw.Labels");
+        return labels.getString("edit.paste.text");
+      }
+
+      @Override
+      public void undo() throws CannotUndoException {
+        super.undo();
+        drawing.removeAll(importedFigures);
+      }
+
+      @Override
+      public void redo() throws CannotRedoException {
+        super.redo();
+        drawing.addAll(importedFigures);
+      }
+    });
+  }
+
   /**
    * preprocess figures from clipboard.
    *
@@ -385,9 +376,18 @@ public class DefaultDrawingViewTransferHandler extends TransferHandler {
       java.util.List<Figure> toBeCopied = drawing.sort(transferFigures);
       if (toBeCopied.size() > 0) {
         try {
+          // The output formats write a snapshot of the figures when their data is requested,
+          // because the figures may have changed by then.
+          final List<Figure> snapshot = LocalFigureTransferable.cloneFigures(toBeCopied);
+          final double scaleFactor = view.getScaleFactor();
           CompositeTransferable transfer = new CompositeTransferable();
-          for (OutputFormat format : drawing.getOutputFormats()) {
-            Transferable t = format.createTransferable(drawing, toBeCopied, view.getScaleFactor());
+          transfer.add(new LocalFigureTransferable(drawing, snapshot));
+          for (final OutputFormat format : drawing.getOutputFormats()) {
+            DataFlavor[] flavors = format.getTransferDataFlavors();
+            Transferable t = flavors == null
+                ? format.createTransferable(drawing, snapshot, scaleFactor)
+                : new LazyTransferable(
+                    flavors, () -> format.createTransferable(drawing, snapshot, scaleFactor));
             if (!transfer.isDataFlavorSupported(t.getTransferDataFlavors()[0])) {
               transfer.add(t);
             }
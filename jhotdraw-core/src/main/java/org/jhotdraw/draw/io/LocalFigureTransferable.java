@@ -0,0 +1,120 @@
+/*
+ * @(#)LocalFigureTransferable.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw.io;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import org.jhotdraw.datatransfer.AbstractTransferable;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.figure.Figure;
+
+/**
+ * A Transferable, which passes figures to drawings in the same Java VM without writing them in an
+ * output format.
+ *
+ * <p>The Transferable holds a snapshot of the transferred figures. Each call of {@link
+ * #cloneFigures()} returns new clones of the snapshot, so that the figures can be pasted more than
+ * once. Since the figures are not converted by input and output formats, they can only be pasted
+ * into drawings of the same kind, see {@link #isCompatible}.
+ */
+public class LocalFigureTransferable extends AbstractTransferable {
+
+  /** The data flavor of this Transferable. Its data is the Transferable itself. */
+  public static final DataFlavor LOCAL_FIGURE_FLAVOR;
+
+  static {
+    try {
+      LOCAL_FIGURE_FLAVOR = new DataFlavor(
+          DataFlavor.javaJVMLocalObjectMimeType + ";class="
+              + LocalFigureTransferable.class.getName(),
+          "Figures",
+          LocalFigureTransferable.class.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      InternalError error = new InternalError("Unable to create local figure data flavor");
+      error.initCause(e);
+      throw error;
+    }
+  }
+
+  private final List<Figure> figures;
+  private final Class<?> drawingClass;
+  private final List<Class<?>> inputFormatClasses;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param drawing The drawing, which contains the figures.
+   * @param figures A snapshot of the figures, which must not be changed anymore.
+   */
+  public LocalFigureTransferable(Drawing drawing, List<Figure> figures) {
+    super(LOCAL_FIGURE_FLAVOR);
+    this.figures = Collections.unmodifiableList(new ArrayList<>(figures));
+    this.drawingClass = drawing.getClass();
+    this.inputFormatClasses = getInputFormatClasses(drawing);
+  }
+
+  private static List<Class<?>> getInputFormatClasses(Drawing drawing) {
+    List<Class<?>> classes = new ArrayList<>();
+    if (drawing.getInputFormats() != null) {
+      for (InputFormat format : drawing.getInputFormats()) {
+        classes.add(format.getClass());
+      }
+    }
+    return classes;
+  }
+
+  @Override
+  public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException {
+    if (!isDataFlavorSupported(flavor)) {
+      throw new UnsupportedFlavorException(flavor);
+    }
+    return this;
+  }
+
+  /** Returns the snapshot of the figures. The figures must not be changed. */
+  public List<Figure> getFigures() {
+    return figures;
+  }
+
+  /**
+   * Returns true, if the figures can be pasted into the specified drawing. This is the case, if the
+   * drawing is of the same class as the drawing which contained the figures, and reads the same
+   * input formats.
+   */
+  public boolean isCompatible(Drawing drawing) {
+    return drawing.getClass() == drawingClass
+        && getInputFormatClasses(drawing).equals(inputFormatClasses);
+  }
+
+  /** Returns new clones of the figures. */
+  public List<Figure> cloneFigures() {
+    return cloneFigures(figures);
+  }
+
+  /**
+   * Clones the specified figures, and remaps the clones to each other. Connections to figures,
+   * which are not in the list, are disconnected.
+   */
+  public static List<Figure> cloneFigures(List<Figure> figures) {
+    HashMap<Figure, Figure> originalToDuplicateMap = new HashMap<>(figures.size() * 2);
+    ArrayList<Figure> duplicates = new ArrayList<>(figures.size());
+    for (Figure f : figures) {
+      Figure df = f.clone();
+      duplicates.add(df);
+      originalToDuplicateMap.put(f, df);
+    }
+    for (Figure f : duplicates) {
+      f.remap(originalToDuplicateMap, true);
+    }
+    return duplicates;
+  }
+}
@@ -7,6 +7,7 @@
  */
 package org.jhotdraw.draw.io;
 
+import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -75,4 +76,19 @@ public interface OutputFormat {
    */
   public Transferable createTransferable(Drawing drawing, List<Figure> figures, double scaleFactor)
       throws IOException;
+
+  /**
+   * Returns the data flavors of the Transferables, which are created by {@link
+   * #createTransferable}.
+   *
+   * <p>If the flavors are known in advance, a Transferable can be offered to the clipboard without
+   * writing the figures, and be created when its data is requested. The default implementation
+   * returns null, which means that the flavors are only known after the Transferable has been
+   * created.
+   *
+   * @return The data flavors, or null.
+   */
+  default DataFlavor[] getTransferDataFlavors() {
+    return null;
+  }
 }
@@ -32,6 +32,7 @@ import org.jhotdraw.draw.figure.BezierFigure;
 import org.jhotdraw.draw.figure.Figure;
 import org.jhotdraw.utils.geom.Geom;
 import org.jhotdraw.utils.geom.path.Bezier;
+import org.jhotdraw.utils.geom.path.BezierFitter;
 import org.jhotdraw.utils.geom.path.BezierPath;
 import org.jhotdraw.utils.util.ResourceBundleUtil;
 
@@ -69,6 +70,9 @@ public class BezierTool extends AbstractTool implements CoordinateDataSupplier {
 
   private final boolean calculateFittedCurveAfterCreation;
 
+  /** Fits the curve to the points of the current drag while they are being added. */
+  private transient BezierFitter fitter;
+
   public BezierTool(BezierFigure prototype) {
     this(prototype, null);
   }
@@ -172,6 +176,7 @@ public class BezierTool extends AbstractTool implements CoordinateDataSupplier {
       }
     }
     nodeCountBeforeDrag = createdFigure.getNodeCount();
+    fitter = null;
   }
 
   @Override
@@ -341,6 +346,19 @@ public class BezierTool extends AbstractTool implements CoordinateDataSupplier {
     int x = evt.getX();
     int y = evt.getY();
     addPointToFigure(getView().viewToDrawing(new Point(x, y)));
+    if (calculateFittedCurveAfterCreation) {
+      if (fitter == null) {
+        fitter = new BezierFitter(1.5d / getView().getScaleFactor());
+      }
+      // All nodes but the last one are final, see addPointToFigure
+      for (int i = nodeCountBeforeDrag - 1 + fitter.getPointCount(),
+              n = createdFigure.getNodeCount() - 1;
+          i < n;
+          i++) {
+        Point2D.Double p = createdFigure.getPoint(i, 0);
+        fitter.add(p.x, p.y);
+      }
+    }
   }
 
   @Override
@@ -379,7 +397,25 @@ public class BezierTool extends AbstractTool implements CoordinateDataSupplier {
 
   protected BezierPath calculateFittedCurve(BezierPath path) {
     if (calculateFittedCurveAfterCreation) {
-      return Bezier.fitBezierPath(path, 1.5d / getView().getScaleFactor());
+      double error = 1.5d / getView().getScaleFactor();
+      BezierFitter f = fitter;
+      fitter = null;
+      if (f != null && f.getError() == error && f.getPointCount() <= path.size()) {
+        // Only the last segment remains to be fitted, if the digitized points did not change
+        boolean isDigitized = true;
+        for (int i = 0, n = f.getPointCount(); i < n && isDigitized; i++) {
+          BezierPath.Node node = path.nodes().get(i);
+          isDigitized = node.x[0] == f.getX(i) && node.y[0] == f.getY(i);
+        }
+        if (isDigitized) {
+          for (int i = f.getPointCount(), n = path.size(); i < n; i++) {
+            BezierPath.Node node = path.nodes().get(i);
+            f.add(node.x[0], node.y[0]);
+          }
+          return f.finish();
+        }
+      }
+      return Bezier.fitBezierPath(path, error);
     } else {
       return path;
     }
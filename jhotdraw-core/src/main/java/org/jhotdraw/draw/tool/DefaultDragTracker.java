@@ -10,6 +10,7 @@ package org.jhotdraw.draw.tool;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
 import java.util.*;
 import java.util.logging.Logger;
 import org.jhotdraw.draw.*;
@@ -71,6 +72,21 @@ public class DefaultDragTracker extends AbstractTool implements DragTracker {
   private boolean isDragging;
   private HashSet<Figure> transformedFigures;
 
+  /** Coalesces the drag events, so that the figures are moved at most once per display frame. */
+  private transient DragEventCoalescer coalescer;
+
+  /** Whether the dragged figures are shown as a snapshot image until the mouse is released. */
+  private boolean snapshotDragging;
+
+  /** The snapshot image of the dragged figures. Null, if the figures are moved live. */
+  private transient BufferedImage snapshot;
+
+  /** The bounds of the snapshot image in view coordinates at the start of the drag. */
+  private Rectangle snapshotBounds;
+
+  /** Larger snapshots are not taken, the figures are moved live instead. */
+  private static final long MAX_SNAPSHOT_PIXELS = 4096L * 4096L;
+
   public DefaultDragTracker(Figure figure) {
     anchorFigure = figure;
   }
@@ -122,17 +138,75 @@ public class DefaultDragTracker extends AbstractTool implements DragTracker {
 
   private static final Logger LOG = Logger.getLogger(DefaultDragTracker.class.getName());
 
+  /**
+   * Sets whether the dragged figures are shown as a snapshot image during the drag. The figures are
+   * moved only once, when the mouse is released. This makes dragging large selections fast, but
+   * connections and other dependent figures are not updated until the drag ends.
+   */
+  public void setSnapshotDragging(boolean newValue) {
+    snapshotDragging = newValue;
+  }
+
+  public boolean isSnapshotDragging() {
+    return snapshotDragging;
+  }
+
+  private DragEventCoalescer getCoalescer() {
+    if (coalescer == null) {
+      coalescer = new DragEventCoalescer(this::dragStep);
+    }
+    return coalescer;
+  }
+
+  @Override
+  public void deactivate(DrawingEditor editor) {
+    getCoalescer().stop();
+    snapshot = null;
+    super.deactivate(editor);
+  }
+
+  @Override
+  public void draw(Graphics2D g) {
+    if (snapshot != null) {
+      Rectangle r = getSnapshotBounds(getView());
+      g.drawImage(snapshot, r.x, r.y, null);
+    }
+  }
+
   @Override
   public void mouseDragged(MouseEvent evt) {
+    getCoalescer().post(evt);
+  }
+
+  private void dragStep(MouseEvent evt) {
+    Drawing drawing = getDrawing();
+    ConnectionUpdateScheduler scheduler =
+        drawing == null ? null : drawing.getConnectionUpdateScheduler();
+    if (scheduler != null) {
+      // Connections to the dragged figures are updated once per mouse event
+      scheduler.run(() -> dragFigures(evt));
+    } else {
+      dragFigures(evt);
+    }
+  }
+
+  private void dragFigures(MouseEvent evt) {
     DrawingView view = getView();
     if (transformedFigures != null && !transformedFigures.isEmpty()) {
       if (isDragging == false) {
         isDragging = true;
         updateCursor(
             editor.findView((Container) evt.getSource()), new Point(evt.getX(), evt.getY()));
+        if (snapshotDragging) {
+          createSnapshot(view);
+        }
       }
 
       Point2D.Double currentPoint = view.viewToDrawing(new Point(evt.getX(), evt.getY()));
+      if (snapshot != null) {
+        dragSnapshot(view, currentPoint);
+        return;
+      }
       Rectangle2D.Double constrainedRect = null;
 
       if (transformedFigures.size() == 1) {
@@ -187,12 +261,98 @@ public class DefaultDragTracker extends AbstractTool implements DragTracker {
     }
   }
 
+  /** Takes a snapshot of the dragged figures, unless they are moved by their origin. */
+  private void createSnapshot(DrawingView view) {
+    if (transformedFigures.size() == 1 && transformedFigures.iterator().next() instanceof Origin) {
+      return;
+    }
+    Rectangle2D.Double area = null;
+    for (Figure f : transformedFigures) {
+      if (area == null) {
+        area = f.getDrawingArea();
+      } else {
+        area.add(f.getDrawingArea());
+      }
+    }
+    Rectangle r = view.drawingToView(area);
+    r.grow(1, 1);
+    if (r.isEmpty() || (long) r.width * r.height > MAX_SNAPSHOT_PIXELS) {
+      return;
+    }
+    BufferedImage image = new BufferedImage(r.width, r.height, BufferedImage.TYPE_INT_ARGB_PRE);
+    Graphics2D g = image.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      g.setRenderingHint(
+          RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+      g.translate(-r.x, -r.y);
+      g.transform(view.getDrawingToViewTransform());
+      for (Figure f : getDrawing().sort(transformedFigures)) {
+        f.draw(g);
+      }
+    } finally {
+      g.dispose();
+    }
+    snapshot = image;
+    snapshotBounds = r;
+  }
+
+  /** Moves the snapshot instead of the figures. */
+  private void dragSnapshot(DrawingView view, Point2D.Double currentPoint) {
+    dragRect.x += currentPoint.x - previousPoint.x;
+    dragRect.y += currentPoint.y - previousPoint.y;
+    Rectangle2D.Double constrainedRect = (Rectangle2D.Double) dragRect.clone();
+    if (view.getConstrainer() != null) {
+      view.getConstrainer().constrainRectangle(constrainedRect);
+    }
+    Rectangle invalidatedArea = getSnapshotBounds(view);
+    previousPoint = currentPoint;
+    previousOrigin = new Point2D.Double(constrainedRect.x, constrainedRect.y);
+    invalidatedArea.add(getSnapshotBounds(view));
+    fireAreaInvalidated(invalidatedArea);
+  }
+
+  /** Returns the current bounds of the snapshot in view coordinates. */
+  private Rectangle getSnapshotBounds(DrawingView view) {
+    Point from = view.drawingToView(anchorOrigin);
+    Point to = view.drawingToView(previousOrigin);
+    Rectangle r = new Rectangle(snapshotBounds);
+    r.translate(to.x - from.x, to.y - from.y);
+    return r;
+  }
+
+  /** Moves the figures by the distance over which their snapshot has been dragged. */
+  private void commitSnapshot(DrawingView view) {
+    fireAreaInvalidated(getSnapshotBounds(view));
+    snapshot = null;
+    AffineTransform tx = AffineTransform.getTranslateInstance(
+        previousOrigin.x - anchorOrigin.x, previousOrigin.y - anchorOrigin.y);
+    Runnable move = () -> {
+      for (Figure f : transformedFigures) {
+        f.willChange();
+        f.transform(tx);
+        f.changed();
+      }
+    };
+    ConnectionUpdateScheduler scheduler = getDrawing().getConnectionUpdateScheduler();
+    if (scheduler != null) {
+      scheduler.run(move);
+    } else {
+      move.run();
+    }
+  }
+
   @Override
   public void mouseReleased(MouseEvent evt) {
+    getCoalescer().flush();
+    getCoalescer().stop();
     super.mouseReleased(evt);
     DrawingView view = getView();
     if (transformedFigures != null && !transformedFigures.isEmpty() && isDragging) {
       isDragging = false;
+      if (snapshot != null) {
+        commitSnapshot(view);
+      }
       int x = evt.getX();
       int y = evt.getY();
       updateCursor(editor.findView((Container) evt.getSource()), new Point(x, y));
@@ -18,6 +18,7 @@ import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import org.jhotdraw.draw.ConnectionUpdateScheduler;
 import org.jhotdraw.draw.Drawing;
 import org.jhotdraw.draw.DrawingEditor;
 import org.jhotdraw.draw.DrawingView;
@@ -81,6 +82,9 @@ public class DefaultHandleTracker extends AbstractTool implements HandleTracker
   private Handle masterHandle;
   private HandleMulticaster multicaster;
 
+  /** Coalesces the drag events, so that the handles track at most one step per display frame. */
+  private transient DragEventCoalescer coalescer;
+
   /**
    * The hover handles, are the handles of the figure over which the mouse pointer is currently
    * hovering.
@@ -139,12 +143,21 @@ public class DefaultHandleTracker extends AbstractTool implements HandleTracker
       v.setActiveHandle(null);
     }
     clearHoverHandles();
+    getCoalescer().stop();
     dragLocation = null;
     masterHandle.removeHandleListener(eventHandler);
   }
 
+  private DragEventCoalescer getCoalescer() {
+    if (coalescer == null) {
+      coalescer = new DragEventCoalescer(this::dragStep);
+    }
+    return coalescer;
+  }
+
   @Override
   public void keyPressed(KeyEvent evt) {
+    getCoalescer().flush();
     multicaster.keyPressed(evt);
     if (!evt.isConsumed()) {
       super.keyPressed(evt);
@@ -157,6 +170,7 @@ public class DefaultHandleTracker extends AbstractTool implements HandleTracker
 
   @Override
   public void keyReleased(KeyEvent evt) {
+    getCoalescer().flush();
     multicaster.keyReleased(evt);
     // Forward key releases to the handler
     if (dragLocation != null) {
@@ -180,8 +194,21 @@ public class DefaultHandleTracker extends AbstractTool implements HandleTracker
 
   @Override
   public void mouseDragged(MouseEvent evt) {
+    getCoalescer().post(evt);
+  }
+
+  private void dragStep(MouseEvent evt) {
     dragLocation = new Point(evt.getX(), evt.getY());
-    multicaster.trackStep(anchor, dragLocation, evt.getModifiersEx(), getView());
+    Drawing drawing = getDrawing();
+    ConnectionUpdateScheduler scheduler =
+        drawing == null ? null : drawing.getConnectionUpdateScheduler();
+    if (scheduler != null) {
+      // Connections to the changed figures are updated once per step
+      scheduler.run(
+          () -> multicaster.trackStep(anchor, dragLocation, evt.getModifiersEx(), getView()));
+    } else {
+      multicaster.trackStep(anchor, dragLocation, evt.getModifiersEx(), getView());
+    }
     clearHoverHandles();
   }
 
@@ -236,6 +263,8 @@ public class DefaultHandleTracker extends AbstractTool implements HandleTracker
 
   @Override
   public void mouseReleased(MouseEvent evt) {
+    getCoalescer().flush();
+    getCoalescer().stop();
     dragLocation = new Point(evt.getX(), evt.getY());
     multicaster.trackEnd(anchor, dragLocation, evt.getModifiersEx(), getView());
     // Note: we must not fire "Tool Done" in this method, because then we can not
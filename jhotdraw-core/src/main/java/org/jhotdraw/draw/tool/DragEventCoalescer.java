@@ -0,0 +1,107 @@
+/*
+ * @(#)DragEventCoalescer.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.draw.tool;
+
+import java.awt.event.MouseEvent;
+import java.util.function.Consumer;
+import javax.swing.Timer;
+
+/**
+ * Coalesces mouse drag events, so that a tracker processes at most one drag step per display
+ * frame.
+ *
+ * <p>A fast mouse delivers many more drag events than the screen can show. The first event of a
+ * drag is processed immediately. Events which arrive within the same frame replace each other, and
+ * only the latest of them is processed on the next tick of a Swing timer. Trackers must therefore
+ * compute each step from the absolute mouse location of the event, not from the distance to the
+ * previous event.
+ *
+ * <p>Trackers must call {@link #flush} before they process an event which depends on the drag
+ * location, for example a mouse release or a key press, and {@link #stop} when they are
+ * deactivated. This class must only be used on the event dispatch thread.
+ */
+public class DragEventCoalescer {
+
+  /** The default frame interval in milliseconds. */
+  public static final int DEFAULT_FRAME_INTERVAL = 16;
+
+  private final Consumer<MouseEvent> step;
+  private final Timer timer;
+  private MouseEvent pendingEvent;
+  private long postedCount;
+  private long processedCount;
+
+  /** Creates a new instance with the default frame interval. */
+  public DragEventCoalescer(Consumer<MouseEvent> step) {
+    this(step, DEFAULT_FRAME_INTERVAL);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param step processes a drag event.
+   * @param frameInterval the frame interval in milliseconds. If this is 0, every event is processed
+   *     immediately.
+   */
+  public DragEventCoalescer(Consumer<MouseEvent> step, int frameInterval) {
+    this.step = step;
+    this.timer = new Timer(frameInterval, e -> tick());
+  }
+
+  /** Processes the event, or defers it to the next frame. */
+  public void post(MouseEvent evt) {
+    postedCount++;
+    if (timer.getDelay() <= 0) {
+      process(evt);
+    } else if (timer.isRunning()) {
+      pendingEvent = evt;
+    } else {
+      process(evt);
+      timer.start();
+    }
+  }
+
+  /** Processes the deferred event, if there is one. */
+  public void flush() {
+    if (pendingEvent != null) {
+      MouseEvent evt = pendingEvent;
+      pendingEvent = null;
+      process(evt);
+    }
+  }
+
+  /** Discards the deferred event and stops the timer. */
+  public void stop() {
+    pendingEvent = null;
+    timer.stop();
+  }
+
+  /** Returns the number of events which have been posted. */
+  public long getPostedCount() {
+    return postedCount;
+  }
+
+  /** Returns the number of events which have been processed. */
+  public long getProcessedCount() {
+    return processedCount;
+  }
+
+  private void tick() {
+    if (pendingEvent == null) {
+      // The mouse has rested for a frame
+      timer.stop();
+    } else {
+      flush();
+    }
+  }
+
+  private void process(MouseEvent evt) {
+    processedCount++;
+    step.accept(evt);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.List;
+import org.jhotdraw.draw.connector.ChopRectangleConnector;
+import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.draw.figure.LineConnectionFigure;
+import org.jhotdraw.draw.figure.RectangleFigure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConnectionUpdateSchedulerTest {
+
+  private final List<LineConnectionFigure> updates = new ArrayList<>();
+  private QuadTreeDrawing drawing;
+  private RectangleFigure a;
+  private RectangleFigure b;
+  private LineConnectionFigure ab;
+  private LineConnectionFigure toAb;
+
+  @BeforeEach
+  void setUp() {
+    drawing = new QuadTreeDrawing();
+    a = new RectangleFigure(0, 0, 10, 10);
+    b = new RectangleFigure(100, 0, 10, 10);
+    drawing.add(a);
+    drawing.add(b);
+    // Connected to a before ab, so that a notifies it first
+    toAb = connect(a, null);
+    ab = connect(a, b);
+    toAb.setEndConnector(new ChopRectangleConnector(ab));
+    updates.clear();
+  }
+
+  private LineConnectionFigure connect(Figure start, Figure end) {
+    LineConnectionFigure c = new LineConnectionFigure() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public void updateConnection() {
+        updates.add(this);
+        super.updateConnection();
+      }
+    };
+    drawing.add(c);
+    c.setStartConnector(new ChopRectangleConnector(start));
+    if (end != null) {
+      c.setEndConnector(new ChopRectangleConnector(end));
+    }
+    return c;
+  }
+
+  private static void move(Figure f, double dx) {
+    f.willChange();
+    f.transform(AffineTransform.getTranslateInstance(dx, 0));
+    f.changed();
+  }
+
+  @Test
+  void testUpdatesImmediatelyOutsideOfBatch() {
+    move(b, 10);
+    assertEquals(List.of(ab, toAb), updates);
+    assertEquals(ab.getEndConnector().findEnd(ab), ab.getEndPoint());
+  }
+
+  @Test
+  void testBatchUpdatesEachConnectionOnce() {
+    drawing.batch(() -> {
+      move(a, 10);
+      move(b, 10);
+      move(a, 10);
+      assertTrue(updates.isEmpty());
+    });
+    assertEquals(List.of(ab, toAb), updates);
+    assertEquals(ab.getStartConnector().findStart(ab), ab.getStartPoint());
+    assertEquals(ab.getEndConnector().findEnd(ab), ab.getEndPoint());
+    assertEquals(toAb.getEndConnector().findEnd(toAb), toAb.getEndPoint());
+  }
+
+  @Test
+  void testNestedScopesFlushAtOutermostEnd() {
+    ConnectionUpdateScheduler scheduler = drawing.getConnectionUpdateScheduler();
+    scheduler.begin();
+    drawing.batch(() -> move(b, 10));
+    assertTrue(updates.isEmpty());
+    scheduler.end();
+    assertEquals(List.of(ab, toAb), updates);
+    assertFalse(scheduler.isDeferring());
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import org.jhotdraw.draw.event.HandleEvent;
+import org.jhotdraw.draw.event.HandleListener;
+import org.jhotdraw.draw.figure.RectangleFigure;
+import org.jhotdraw.draw.handle.Handle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DefaultDrawingViewHandlesTest {
+
+  private DefaultDrawingView view;
+  private RectangleFigure near;
+  private RectangleFigure far;
+
+  @BeforeEach
+  void setUp() {
+    QuadTreeDrawing drawing = new QuadTreeDrawing();
+    for (int i = 0; i < 100; i++) {
+      drawing.add(new RectangleFigure(i * 40, 20, 20, 20));
+    }
+    near = (RectangleFigure) drawing.getChild(1);
+    far = (RectangleFigure) drawing.getChild(99);
+    view = new DefaultDrawingView();
+    view.setDrawing(drawing);
+    view.addNotify(new DrawingEditorProxy() {
+      @Override
+      public <T> T getHandleAttribute(AttributeKey<T> key) {
+        return key.getDefaultValue();
+      }
+    });
+    view.setSize(200, 200);
+  }
+
+  private Handle findHandleAt(double x, double y) {
+    return view.findHandle(view.drawingToView(new Point2D.Double(x, y)));
+  }
+
+  @Test
+  void testAllHandlesBelowThreshold() {
+    view.selectAll();
+    assertSame(near, findHandleAt(40, 20).getOwner());
+    assertSame(far, findHandleAt(99 * 40, 20).getOwner());
+  }
+
+  @Test
+  void testHandlesOnlyNearVisibleArea() {
+    view.setHandleVirtualizationThreshold(10);
+    view.selectAll();
+    assertSame(near, findHandleAt(40, 20).getOwner());
+    assertNull(findHandleAt(99 * 40, 20));
+  }
+
+  @Test
+  void testAggregateOutline() {
+    view.setAggregateHandleThreshold(10);
+    view.selectAll();
+    assertNull(findHandleAt(40, 20));
+    view.clearSelection();
+    view.addToSelection(near);
+    assertSame(near, findHandleAt(40, 20).getOwner());
+  }
+
+  @Test
+  void testAggregateOutlineFollowsAnySelectedFigure() {
+    view.setAggregateHandleThreshold(10);
+    view.selectAll();
+    Handle outline = view.getSelectionHandles().get(0);
+    assertNotSame(far, outline.getOwner());
+    List<Rectangle> invalidatedAreas = new ArrayList<>();
+    outline.addHandleListener(new HandleListener() {
+      @Override
+      public void areaInvalidated(HandleEvent e) {
+        invalidatedAreas.add(e.getInvalidatedArea());
+      }
+
+      @Override
+      public void handleRequestRemove(HandleEvent e) {}
+
+      @Override
+      public void handleRequestSecondaryHandles(HandleEvent e) {}
+    });
+    Rectangle oldBounds = outline.getBounds();
+
+    far.willChange();
+    far.setBounds(new Point2D.Double(99 * 40, 500), new Point2D.Double(99 * 40 + 20, 520));
+    far.changed();
+
+    Rectangle newBounds = outline.getBounds();
+    assertTrue(newBounds.contains(view.drawingToView(new Point2D.Double(99 * 40 + 10, 510))));
+    assertTrue(invalidatedAreas.stream().anyMatch(r -> r.contains(oldBounds)));
+    assertTrue(invalidatedAreas.stream().anyMatch(r -> r.contains(newBounds)));
+  }
+}
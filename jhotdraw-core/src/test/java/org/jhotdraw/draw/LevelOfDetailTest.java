@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw;
+
+import static org.jhotdraw.draw.AttributeKeys.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.draw.figure.GroupFigure;
+import org.jhotdraw.draw.figure.RectangleFigure;
+import org.junit.jupiter.api.Test;
+
+public class LevelOfDetailTest {
+
+  /** A rectangle figure which records how it has been drawn. */
+  private static class RecordingRectangleFigure extends RectangleFigure {
+    private static final long serialVersionUID = 1L;
+    private final List<String> calls = new ArrayList<>();
+
+    RecordingRectangleFigure(double x, double y, double width, double height) {
+      super(x, y, width, height);
+    }
+
+    @Override
+    protected void drawFill(Graphics2D g) {
+      calls.add("fill");
+      super.drawFill(g);
+    }
+
+    @Override
+    protected void drawSimplified(Graphics2D g, Rectangle2D.Double area) {
+      calls.add("simplified");
+      super.drawSimplified(g, area);
+    }
+  }
+
+  private static void draw(Figure figure, double scale, BufferedImage image) {
+    Graphics2D g = image.createGraphics();
+    try {
+      g.setRenderingHint(JHotdrawRenderingKeys.LEVEL_OF_DETAIL, LevelOfDetail.DEFAULT);
+      g.scale(scale, scale);
+      figure.draw(g);
+    } finally {
+      g.dispose();
+    }
+  }
+
+  @Test
+  public void testFigureDetailThresholds() {
+    LevelOfDetail lod = LevelOfDetail.DEFAULT;
+    assertEquals(LevelOfDetail.Detail.SKIP, lod.getFigureDetail(0.4, 0.4));
+    assertEquals(LevelOfDetail.Detail.SIMPLIFIED, lod.getFigureDetail(0.5, 0.1));
+    assertEquals(LevelOfDetail.Detail.SIMPLIFIED, lod.getFigureDetail(2.9, 2.9));
+    assertEquals(LevelOfDetail.Detail.FULL, lod.getFigureDetail(0.1, 3));
+    assertEquals(LevelOfDetail.Detail.FULL, lod.getFigureDetail(100, 100));
+  }
+
+  @Test
+  public void testTextDetailThresholds() {
+    LevelOfDetail lod = LevelOfDetail.DEFAULT;
+    assertEquals(LevelOfDetail.Detail.SKIP, lod.getTextDetail(0.9));
+    assertEquals(LevelOfDetail.Detail.SIMPLIFIED, lod.getTextDetail(1));
+    assertEquals(LevelOfDetail.Detail.SIMPLIFIED, lod.getTextDetail(4.9));
+    assertEquals(LevelOfDetail.Detail.FULL, lod.getTextDetail(5));
+  }
+
+  @Test
+  public void testFigureDetailFollowsScaleAndChanges() {
+    RecordingRectangleFigure figure = new RecordingRectangleFigure(0, 0, 100, 100);
+    BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+
+    draw(figure, 1, image);
+    draw(figure, 0.02, image);
+    draw(figure, 0.001, image);
+    assertEquals(List.of("fill", "simplified"), figure.calls);
+
+    // The cached drawing area must not outlive a change of the figure
+    figure.calls.clear();
+    figure.willChange();
+    figure.setBounds(new Point2D.Double(0, 0), new Point2D.Double(1000, 1000));
+    figure.changed();
+    draw(figure, 0.02, image);
+    assertEquals(List.of("fill"), figure.calls);
+  }
+
+  @Test
+  public void testSimplifiedCompositeUsesFirstChildWithColor() {
+    RectangleFigure colorless = new RectangleFigure(0, 0, 100, 100);
+    colorless.attr().set(FILL_COLOR, null);
+    colorless.attr().set(STROKE_COLOR, null);
+    colorless.attr().set(TEXT_COLOR, null);
+    RectangleFigure blue = new RectangleFigure(0, 0, 100, 100);
+    blue.attr().set(FILL_COLOR, Color.BLUE);
+    GroupFigure group = new GroupFigure();
+    group.basicAdd(colorless);
+    group.basicAdd(blue);
+    BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+
+    draw(group, 0.02, image);
+    assertEquals(Color.BLUE.getRGB(), image.getRGB(1, 1));
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2024 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.undo.AbstractUndoableEdit;
+import javax.swing.undo.UndoableEdit;
+import org.jhotdraw.draw.event.DrawingEvent;
+import org.jhotdraw.draw.event.DrawingListenerAdapter;
+import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.draw.figure.QuadTreeCompositeFigure;
+import org.jhotdraw.draw.figure.RectangleFigure;
+import org.jhotdraw.utils.undo.CompositeEdit;
+import org.junit.jupiter.api.Test;
+
+public class QuadTreeDrawingTest {
+
+  @Test
+  void testZOrderIsInsertionOrder() {
+    QuadTreeDrawing drawing = new QuadTreeDrawing();
+    RectangleFigure a = new RectangleFigure(0, 0, 100, 100);
+    RectangleFigure b = new RectangleFigure(10, 10, 100, 100);
+    RectangleFigure c = new RectangleFigure(20, 20, 100, 100);
+    drawing.add(a);
+    drawing.add(b);
+    drawing.add(c);
+
+    Point2D.Double p = new Point2D.Double(50, 50);
+    assertSame(c, drawing.findFigure(p));
+    assertEquals(List.of(c, b, a), drawing.findFigures(new Rectangle2D.Double(40, 40, 10, 10)));
+
+    drawing.bringToFront(a);
+    assertSame(a, drawing.findFigure(p));
+    assertEquals(List.<Figure>of(b, c, a), drawing.sort(List.of(a, b, c)));
+
+    drawing.sendToBack(c);
+    assertEquals(List.<Figure>of(c, b, a), drawing.sort(List.of(a, b, c)));
+
+    RectangleFigure d = new RectangleFigure(30, 30, 100, 100);
+    drawing.basicAdd(1, d);
+    assertEquals(List.<Figure>of(c, d, b, a), drawing.sort(List.of(a, b, c, d)));
+    assertEquals(List.of(a, b, d, c), drawing.getFiguresFrontToBack());
+  }
+
+  @Test
+  void testMovedFigureIsFound() {
+    QuadTreeDrawing drawing = new QuadTreeDrawing();
+    RectangleFigure a = new RectangleFigure(0, 0, 10, 10);
+    drawing.add(a);
+    a.willChange();
+    a.setBounds(new Point2D.Double(500, 500), new Point2D.Double(510, 510));
+    a.changed();
+    assertNull(drawing.findFigure(new Point2D.Double(5, 5)));
+    assertSame(a, drawing.findFigure(new Point2D.Double(505, 505)));
+    assertEquals(510, drawing.getDrawingArea().getMaxX(), 5);
+  }
+
+  @Test
+  void testDrawingAreaIsKeptForEachScaleFactor() {
+    QuadTreeDrawing drawing = new QuadTreeDrawing();
+    RectangleFigure a = new RectangleFigure(0, 0, 10, 10);
+    drawing.add(a);
+    assertEquals(a.getDrawingArea(2.0), drawing.getDrawingArea(2.0));
+    assertEquals(a.getDrawingArea(1.0), drawing.getDrawingArea(1.0));
+
+    a.willChange();
+    a.setBounds(new Point2D.Double(500, 500), new Point2D.Double(510, 510));
+    a.changed();
+    assertEquals(a.getDrawingArea(2.0), drawing.getDrawingArea(2.0));
+    assertEquals(a.getDrawingArea(1.0), drawing.getDrawingArea(1.0));
+    assertEquals(a.getDrawingArea(0.5), drawing.getDrawingArea(0.5));
+
+    drawing.remove(a);
+    assertEquals(new Rectangle2D.Double(), drawing.getDrawingArea(2.0));
+  }
+
+  @Test
+  void testBatchCoalescesEvents() {
+    QuadTreeDrawing drawing = new QuadTreeDrawing();
+    List<RectangleFigure> figures = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      RectangleFigure f = new RectangleFigure(i * 20, 0, 10, 10);
+      figures.add(f);
+      drawing.add(f);
+    }
+    List<DrawingEvent> changedEvents = new ArrayList<>();
+    List<DrawingEvent> figureChangedEvents = new ArrayList<>();
+    drawing.addDrawingListener(new DrawingListenerAdapter() {
+      @Override
+      public void drawingChanged(DrawingEvent e) {
+        changedEvents.add(e);
+      }
+
+      @Override
+      public void figureChanged(DrawingEvent e) {
+        figureChangedEvents.add(e);
+      }
+    });
+    List<UndoableEdit> edits = new ArrayList<>();
+    drawing.addUndoableEditListener(e -> edits.add(e.getEdit()));
+
+    drawing.batch("move", () -> {
+      for (RectangleFigure f : figures) {
+        f.willChange();
+        Rectangle2D.Double b = f.getBounds();
+        f.setBounds(new Point2D.Double(b.x, 1000), new Point2D.Double(b.x + 10, 1010));
+        f.changed();
+        drawing.fireUndoableEditHappened(new AbstractUndoableEdit());
+      }
+    });
+
+    assertTrue(figureChangedEvents.isEmpty());
+    assertEquals(1, changedEvents.size());
+    Rectangle2D.Double area = changedEvents.get(0).getInvalidatedArea();
+    assertTrue(area.contains(new Point2D.Double(5, 5)));
+    assertTrue(area.contains(new Point2D.Double(1985, 1005)));
+
+    assertEquals(102, edits.size());
+    assertInstanceOf(CompositeEdit.class, edits.get(0));
+    assertSame(edits.get(0), edits.get(101));
+    assertEquals("move", edits.get(0).getPresentationName());
+
+    assertNull(drawing.findFigure(new Point2D.Double(5, 5)));
+    assertSame(figures.get(3), drawing.findFigure(new Point2D.Double(65, 1005)));
+    assertEquals(1010, drawing.getDrawingArea().getMaxY(), 5);
+  }
+
+  @Test
+  void testNestedBatchUpdatesIndex() {
+    QuadTreeDrawing drawing = new QuadTreeDrawing();
+    List<RectangleFigure> figures = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      RectangleFigure f = new RectangleFigure(i * 20, 0, 10, 10);
+      figures.add(f);
+      drawing.add(f);
+    }
+    RectangleFigure moved = figures.get(7);
+    drawing.beginBatch();
+    drawing.batch(() -> {
+      moved.willChange();
+      moved.setBounds(new Point2D.Double(-500, -500), new Point2D.Double(-490, -490));
+      moved.changed();
+    });
+    drawing.endBatch();
+
+    assertNull(drawing.findFigure(new Point2D.Double(145, 5)));
+    assertSame(moved, drawing.findFigure(new Point2D.Double(-495, -495)));
+    assertEquals(-500, drawing.getDrawingArea().getMinX(), 5);
+    assertThrows(IllegalStateException.class, drawing::endBatch);
+  }
+
+  @Test
+  void testCompositeSortDoesNotModifyArgument() {
+    QuadTreeCompositeFigure composite = new QuadTreeCompositeFigure() {};
+    RectangleFigure a = new RectangleFigure(0, 0, 10, 10);
+    RectangleFigure b = new RectangleFigure(0, 0, 10, 10);
+    composite.basicAdd(a);
+    composite.basicAdd(b);
+    List<Figure> figures = new ArrayList<>(List.of(b, a));
+
+    assertEquals(List.of(a, b), composite.sort(figures));
+    assertEquals(List.of(b, a), figures);
+  }
+}
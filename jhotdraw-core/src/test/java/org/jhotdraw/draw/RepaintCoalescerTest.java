@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.Test;
+
+public class RepaintCoalescerTest {
+
+  private final List<Rectangle2D.Double> repainted = new ArrayList<>();
+  private final RepaintCoalescer coalescer = new RepaintCoalescer(repainted::add);
+
+  /** Adds and flushes on the event dispatch thread, where the coalescer schedules its flushes. */
+  private void addAndFlush(double[]... rectangles) throws Exception {
+    SwingUtilities.invokeAndWait(() -> {
+      for (double[] r : rectangles) {
+        coalescer.add(r[0], r[1], r[2], r[3]);
+      }
+      coalescer.flush();
+    });
+  }
+
+  @Test
+  public void testMergesOverlappingRectangles() throws Exception {
+    addAndFlush(
+        new double[] {0, 0, 10, 10},
+        new double[] {5, 0, 10, 10},
+        new double[] {100, 100, 10, 10},
+        new double[] {101, 101, 2, 2},
+        new double[] {0, 0, 0, 10});
+
+    assertEquals(
+        List.of(new Rectangle2D.Double(0, 0, 15, 10), new Rectangle2D.Double(100, 100, 10, 10)),
+        repainted);
+    assertEquals(4, coalescer.getRequestCount());
+    assertEquals(2, coalescer.getRepaintCount());
+    assertEquals(1, coalescer.getFlushCount());
+    assertEquals(304, coalescer.getRequestedArea());
+    assertEquals(250, coalescer.getRepaintedArea());
+    assertTrue(coalescer.isEmpty());
+  }
+
+  @Test
+  public void testMergeRatioDecidesBetweenListAndUnion() throws Exception {
+    addAndFlush(new double[] {0, 0, 10, 10}, new double[] {30, 0, 10, 10});
+    assertEquals(2, repainted.size());
+
+    repainted.clear();
+    coalescer.setMergeRatio(2);
+    addAndFlush(new double[] {0, 0, 10, 10}, new double[] {30, 0, 10, 10});
+    assertEquals(List.of(new Rectangle2D.Double(0, 0, 40, 10)), repainted);
+  }
+
+  @Test
+  public void testCollapsesTooManyRectanglesIntoTheirUnion() throws Exception {
+    coalescer.setMaxRectangleCount(4);
+    double[][] rectangles = new double[5][];
+    for (int i = 0; i < 5; i++) {
+      rectangles[i] = new double[] {i * 100, 0, 10, 10};
+    }
+    addAndFlush(rectangles);
+    assertEquals(List.of(new Rectangle2D.Double(0, 0, 410, 10)), repainted);
+  }
+
+  @Test
+  public void testViewFlushesOncePerEventQueueCycle() throws Exception {
+    DefaultDrawingView view = new DefaultDrawingView();
+    assertFalse(view.isRepaintCoalescing());
+    view.setRepaintCoalescing(true);
+    RepaintCoalescer viewCoalescer = view.getRepaintCoalescer();
+    SwingUtilities.invokeAndWait(() -> {
+      for (int i = 0; i < 1000; i++) {
+        view.repaint(new Rectangle(i % 100, i / 100, 3, 3));
+      }
+      // Far apart, but the RepaintManager would merge it with the other rectangles anyway
+      view.repaint(new Rectangle(500, 500, 3, 3));
+      assertEquals(1001, viewCoalescer.getRequestCount());
+      assertEquals(0, viewCoalescer.getFlushCount());
+    });
+    // The flush has been queued behind the previous event
+    SwingUtilities.invokeAndWait(() -> {});
+    assertEquals(1, viewCoalescer.getFlushCount());
+    assertEquals(1, viewCoalescer.getRepaintCount());
+    assertEquals(503.0 * 503.0, viewCoalescer.getRepaintedArea(), 1e-9);
+    assertTrue(viewCoalescer.isEmpty());
+
+    view.setRepaintCoalescing(false);
+    SwingUtilities.invokeAndWait(() -> view.repaint(new Rectangle(0, 0, 5, 5)));
+    assertEquals(1001, viewCoalescer.getRequestCount());
+  }
+}
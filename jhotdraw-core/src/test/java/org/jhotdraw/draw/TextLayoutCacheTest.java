@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import org.jhotdraw.draw.figure.TextFigure;
+import org.junit.jupiter.api.Test;
+
+public class TextLayoutCacheTest {
+
+  private static final FontRenderContext FRC =
+      new FontRenderContext(new AffineTransform(), true, true);
+
+  @Test
+  void testHitsMissesAndEviction() {
+    TextLayoutCache cache = new TextLayoutCache(2);
+    Font font = new Font("Dialog", Font.PLAIN, 12);
+    TextLayout a = cache.getTextLayout("a", font, false, false, FRC);
+    assertSame(a, cache.getTextLayout("a", font, false, false, FRC));
+    assertNotSame(a, cache.getTextLayout("a", font, true, false, FRC));
+    assertNotSame(a, cache.getTextLayout("a", font.deriveFont(24f), false, false, FRC));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(3, cache.getMissCount());
+    assertEquals(2, cache.size());
+
+    // "a" with the plain 12pt font was the least recently used entry
+    assertNotSame(a, cache.getTextLayout("a", font, false, false, FRC));
+    assertEquals(4, cache.getMissCount());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  void testTextFiguresShareLayouts() {
+    Drawing drawing = new DefaultDrawing();
+    for (int i = 0; i < 100; i++) {
+      TextFigure figure = new TextFigure("label " + (i % 10));
+      figure.setBounds(new Point2D.Double(i, i), new Point2D.Double(i, i));
+      drawing.add(figure);
+      figure.getBounds();
+    }
+    TextLayoutCache cache = drawing.getTextLayoutCache();
+    assertEquals(10, cache.getMissCount());
+    assertTrue(cache.getHitCount() >= 90);
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JPanel;
+import org.jhotdraw.draw.figure.RectangleFigure;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TiledDrawingRendererTest {
+
+  private static final int TILE_SIZE = 64;
+  private ForkJoinPool pool;
+  private TiledDrawingRenderer renderer;
+
+  @BeforeEach
+  void setUp() {
+    pool = new ForkJoinPool(2);
+    renderer = new TiledDrawingRenderer(new JPanel(), TILE_SIZE, 1024 * 1024, pool);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  void testInvalidateMarksOnlyIntersectingTiles() {
+    QuadTreeDrawing drawing = new QuadTreeDrawing();
+    RectangleFigure a = redRectangle(10, 10, 20, 20);
+    drawing.add(a);
+    paintAndWait(drawing);
+    assertFalse(renderer.isTileDirty(1.0, 0, 0));
+    assertFalse(renderer.isTileDirty(1.0, 1, 0));
+
+    renderer.invalidate(new Rectangle2D.Double(10, 10, 20, 20));
+    assertTrue(renderer.isTileDirty(1.0, 0, 0));
+    assertFalse(renderer.isTileDirty(1.0, 1, 0));
+    assertFalse(renderer.isTileDirty(1.0, 0, 1));
+
+    moveTo(a, 80, 10);
+    renderer.invalidate(new Rectangle2D.Double(80, 10, 20, 20));
+    BufferedImage view = paintAndWait(drawing);
+    assertFalse(renderer.isTileDirty(1.0, 0, 0));
+    assertFalse(renderer.isTileDirty(1.0, 1, 0));
+    assertEquals(0, view.getRGB(20, 20));
+    assertEquals(Color.RED.getRGB(), view.getRGB(90, 20));
+  }
+
+  @Test
+  void testTilesAreRenderedFromSnapshot() {
+    QuadTreeDrawing drawing = new QuadTreeDrawing();
+    List<RectangleFigure> figures = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      RectangleFigure f = redRectangle(i % 12 * 10, i / 12 * 10, 8, 8);
+      figures.add(f);
+      drawing.add(f);
+    }
+    renderer.paint(
+        newViewGraphics(new BufferedImage(128, 256, BufferedImage.TYPE_INT_ARGB)),
+        drawing,
+        new Point(),
+        1.0);
+
+    // Mutate the drawing while the workers render the tiles
+    for (int i = 0; i < figures.size(); i += 2) {
+      moveTo(figures.get(i), 300, 300);
+    }
+    for (int i = 1; i < figures.size(); i += 4) {
+      drawing.remove(figures.get(i));
+    }
+    assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+
+    BufferedImage view = new BufferedImage(128, 256, BufferedImage.TYPE_INT_ARGB);
+    renderer.paint(newViewGraphics(view), drawing, new Point(), 1.0);
+    for (int i = 0; i < figures.size(); i++) {
+      assertFalse(renderer.isTileDirty(1.0, i % 12 * 10 / TILE_SIZE, i / 12 * 10 / TILE_SIZE));
+      assertEquals(
+          Color.RED.getRGB(),
+          view.getRGB(i % 12 * 10 + 4, i / 12 * 10 + 4),
+          "figure " + i + " must be drawn as it was at the time of the paint");
+    }
+  }
+
+  private BufferedImage paintAndWait(Drawing drawing) {
+    BufferedImage view =
+        new BufferedImage(2 * TILE_SIZE, 2 * TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+    renderer.paint(newViewGraphics(view), drawing, new Point(), 1.0);
+    assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+    view = new BufferedImage(2 * TILE_SIZE, 2 * TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+    renderer.paint(newViewGraphics(view), drawing, new Point(), 1.0);
+    return view;
+  }
+
+  private static Graphics2D newViewGraphics(BufferedImage image) {
+    Graphics2D g = image.createGraphics();
+    g.setClip(0, 0, image.getWidth(), image.getHeight());
+    return g;
+  }
+
+  private static RectangleFigure redRectangle(double x, double y, double w, double h) {
+    RectangleFigure f = new RectangleFigure(x, y, w, h);
+    f.attr().set(AttributeKeys.FILL_COLOR, Color.RED);
+    f.attr().set(AttributeKeys.STROKE_COLOR, null);
+    return f;
+  }
+
+  private static void moveTo(RectangleFigure f, double x, double y) {
+    Rectangle2D.Double b = f.getBounds();
+    f.willChange();
+    f.setBounds(new Point2D.Double(x, y), new Point2D.Double(x + b.width, y + b.height));
+    f.changed();
+  }
+}
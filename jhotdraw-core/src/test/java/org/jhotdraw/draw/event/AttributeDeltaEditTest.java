@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw.event;
+
+import static org.jhotdraw.draw.AttributeKeys.FILL_COLOR;
+import static org.jhotdraw.draw.AttributeKeys.FONT_BOLD;
+import static org.jhotdraw.draw.AttributeKeys.STROKE_COLOR;
+import static org.jhotdraw.draw.AttributeKeys.STROKE_WIDTH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import org.jhotdraw.draw.figure.GroupFigure;
+import org.jhotdraw.draw.figure.RectangleFigure;
+import org.junit.jupiter.api.Test;
+
+public class AttributeDeltaEditTest {
+
+  @Test
+  public void testUndoRestoresOnlyChangedAttributes() {
+    RectangleFigure a = new RectangleFigure();
+    RectangleFigure b = new RectangleFigure();
+    a.attr().set(STROKE_COLOR, Color.red);
+    a.attr().set(STROKE_WIDTH, 3d);
+
+    AttributeDeltaEdit edit = new AttributeDeltaEdit("change");
+    edit.set(a, STROKE_COLOR, Color.blue);
+    edit.set(a, STROKE_COLOR, Color.green);
+    edit.set(b, STROKE_COLOR, Color.blue);
+    a.attr().set(STROKE_WIDTH, 5d);
+    assertEquals(2, edit.getChangeCount());
+
+    edit.undo();
+    assertEquals(Color.red, a.attr().get(STROKE_COLOR));
+    assertEquals(5d, a.attr().get(STROKE_WIDTH));
+    assertFalse(b.attr().hasAttribute(STROKE_COLOR));
+
+    edit.redo();
+    assertEquals(Color.green, a.attr().get(STROKE_COLOR));
+    assertEquals(Color.blue, b.attr().get(STROKE_COLOR));
+  }
+
+  @Test
+  public void testUndoRestoresDependentAttributes() {
+    RectangleFigure child1 = new RectangleFigure();
+    RectangleFigure child2 = new RectangleFigure();
+    child1.attr().set(FILL_COLOR, Color.red);
+    child2.attr().set(FILL_COLOR, Color.yellow);
+    GroupFigure group = new GroupFigure();
+    group.add(child1);
+    group.add(child2);
+
+    AttributeDeltaEdit edit = new AttributeDeltaEdit("change");
+    edit.set(group, FILL_COLOR, Color.blue);
+    assertEquals(Color.blue, child1.attr().get(FILL_COLOR));
+    assertEquals(Color.blue, child2.attr().get(FILL_COLOR));
+
+    edit.undo();
+    assertEquals(Color.red, child1.attr().get(FILL_COLOR));
+    assertEquals(Color.yellow, child2.attr().get(FILL_COLOR));
+    assertFalse(group.attr().hasAttribute(FILL_COLOR));
+  }
+
+  @Test
+  public void testConsecutiveEditsOfTheSameSessionAreMerged() {
+    RectangleFigure a = new RectangleFigure();
+    a.attr().set(STROKE_COLOR, Color.red);
+    Object session = new Object();
+
+    AttributeDeltaEdit first = new AttributeDeltaEdit("color");
+    first.setSession(session);
+    first.set(a, STROKE_COLOR, Color.green);
+    AttributeDeltaEdit second = new AttributeDeltaEdit("color");
+    second.setSession(session);
+    second.set(a, STROKE_COLOR, Color.blue);
+    AttributeDeltaEdit other = new AttributeDeltaEdit("color");
+    other.setSession(session);
+    other.set(a, STROKE_WIDTH, 2d);
+
+    assertTrue(first.addEdit(second));
+    assertFalse(second.canUndo());
+    assertFalse(first.addEdit(other));
+
+    first.undo();
+    assertEquals(Color.red, a.attr().get(STROKE_COLOR));
+    first.redo();
+    assertEquals(Color.blue, a.attr().get(STROKE_COLOR));
+  }
+
+  @Test
+  public void testEditsOfSeparateActionsAreNotMerged() {
+    RectangleFigure a = new RectangleFigure();
+    a.attr().set(FONT_BOLD, false);
+
+    AttributeDeltaEdit first = new AttributeDeltaEdit("bold");
+    first.set(a, FONT_BOLD, true);
+    AttributeDeltaEdit second = new AttributeDeltaEdit("bold");
+    second.set(a, FONT_BOLD, false);
+    assertFalse(first.addEdit(second));
+
+    AttributeDeltaEdit third = new AttributeDeltaEdit("bold");
+    third.setSession(new Object());
+    third.set(a, FONT_BOLD, true);
+    AttributeDeltaEdit fourth = new AttributeDeltaEdit("bold");
+    fourth.setSession(new Object());
+    fourth.set(a, FONT_BOLD, false);
+    assertFalse(third.addEdit(fourth));
+
+    fourth.undo();
+    assertEquals(true, a.attr().get(FONT_BOLD));
+  }
+
+  @Test
+  public void testAttributeChangeEdit() {
+    RectangleFigure a = new RectangleFigure();
+    a.attr().set(STROKE_COLOR, Color.red);
+    a.attr().set(STROKE_COLOR, Color.blue);
+    AttributeChangeEdit<Color> edit =
+        new AttributeChangeEdit<>(a, STROKE_COLOR, Color.red, Color.blue);
+
+    edit.undo();
+    assertEquals(Color.red, a.attr().get(STROKE_COLOR));
+    edit.redo();
+    assertEquals(Color.blue, a.attr().get(STROKE_COLOR));
+  }
+}
@@ -21,8 +21,14 @@ package org.jhotdraw.draw.figure;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.Color;
 import java.util.Map;
+import org.jhotdraw.draw.AttributeKey;
 import org.jhotdraw.draw.AttributeKeys;
 import org.junit.jupiter.api.Test;
 
@@ -96,4 +102,86 @@ public class AttributesTest {
     assertThat(attr.get(AttributeKeys.STROKE_WIDTH)).isEqualTo(1.5);
     assertThat(attr.get(AttributeKeys.STROKE_COLOR)).isNull();
   }
+
+  @Test
+  void testEqualAttributesShareTheirStyle() {
+    AttributeStyle a = AttributeStyle.intern(AttributeStyle.EMPTY
+        .with(AttributeKeys.STROKE_WIDTH, 1.5)
+        .with(AttributeKeys.STROKE_COLOR, new Color(10, 20, 30)));
+    AttributeStyle b = AttributeStyle.intern(AttributeStyle.EMPTY
+        .with(AttributeKeys.STROKE_COLOR, new Color(10, 20, 30))
+        .with(AttributeKeys.STROKE_WIDTH, 1.5));
+    assertSame(a, b);
+    assertSame(
+        AttributeStyle.EMPTY,
+        a.without(AttributeKeys.STROKE_WIDTH).without(AttributeKeys.STROKE_COLOR));
+
+    // Mutable values are only shared if they are identical
+    AttributeStyle c = AttributeStyle.intern(
+        AttributeStyle.EMPTY.with(AttributeKeys.STROKE_DASHES, new double[] {1, 2}));
+    AttributeStyle d = AttributeStyle.intern(
+        AttributeStyle.EMPTY.with(AttributeKeys.STROKE_DASHES, new double[] {1, 2}));
+    assertNotSame(c, d);
+  }
+
+  @Test
+  void testInternedStyleIsNotChangedInPlace() {
+    Attributes attr = new Attributes();
+    attr.set(AttributeKeys.STROKE_WIDTH, 1.5);
+    Map<AttributeKey<?>, Object> snapshot = attr.getAttributes();
+    Attributes copy = Attributes.from(attr);
+
+    attr.set(AttributeKeys.STROKE_WIDTH, 2.0);
+    attr.set(AttributeKeys.STROKE_WIDTH, 3.0);
+
+    assertEquals(1.5, snapshot.get(AttributeKeys.STROKE_WIDTH));
+    assertEquals(1.5, copy.get(AttributeKeys.STROKE_WIDTH));
+    assertEquals(3.0, attr.get(AttributeKeys.STROKE_WIDTH));
+  }
+
+  @Test
+  void testReadSnapshotIsNotChangedBySet() {
+    Attributes attr = new Attributes();
+    attr.set(AttributeKeys.STROKE_WIDTH, 1.5);
+    attr.set(AttributeKeys.FILL_COLOR, Color.red);
+    Map<AttributeKey<?>, Object> snapshot = attr.getAttributes();
+    assertEquals(1.5, attr.get(AttributeKeys.STROKE_WIDTH));
+
+    attr.set(AttributeKeys.STROKE_WIDTH, 2.0);
+    attr.set(AttributeKeys.FILL_COLOR, Color.blue);
+
+    assertEquals(1.5, snapshot.get(AttributeKeys.STROKE_WIDTH));
+    assertEquals(Color.red, snapshot.get(AttributeKeys.FILL_COLOR));
+    assertEquals(2.0, attr.get(AttributeKeys.STROKE_WIDTH));
+  }
+
+  @Test
+  void testManyKeys() {
+    Attributes attr = new Attributes();
+    AttributeKey<?>[] keys = new AttributeKey<?>[200];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = new AttributeKey<>("AttributesTest.key" + i, Integer.class, -1);
+    }
+    for (int i = keys.length - 1; i >= 0; i -= 2) {
+      attr.set((AttributeKey<Integer>) keys[i], i);
+    }
+    attr.setAttributeEnabled(keys[100], false);
+    attr.set((AttributeKey<Integer>) keys[100], 1000);
+    attr.removeAttribute(keys[199]);
+
+    assertEquals(99, attr.getAttributes().size());
+    for (int i = 0; i < keys.length; i++) {
+      int expected = i % 2 == 1 && i != 199 ? i : -1;
+      assertEquals(expected, attr.get(keys[i]));
+      assertEquals(expected != -1, attr.hasAttribute(keys[i]));
+    }
+    assertFalse(attr.isAttributeEnabled(keys[100]));
+    assertTrue(attr.isAttributeEnabled(keys[101]));
+
+    Attributes copy = Attributes.from(attr);
+    copy.set((AttributeKey<Integer>) keys[1], 42);
+    assertEquals(1, attr.get(keys[1]));
+    assertEquals(42, copy.get(keys[1]));
+    assertFalse(copy.isAttributeEnabled(keys[100]));
+  }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw.figure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+public class MipmapImageCacheTest {
+
+  @Test
+  public void testFullResolutionWhenDrawnLarge() {
+    MipmapImageCache cache = new MipmapImageCache(1 << 20, Runnable::run);
+    BufferedImage source = new BufferedImage(256, 128, BufferedImage.TYPE_INT_ARGB);
+    MipmapImageCache.Mipmap mipmap = cache.createMipmap(source);
+    assertThat(mipmap.getImage(300, 150, true, null)).isSameAs(source);
+    assertThat(mipmap.getImage(256, 128, true, null)).isSameAs(source);
+    assertThat(mipmap.getLevelCount()).isEqualTo(8);
+    assertThat(cache.getUsedMemory()).isZero();
+  }
+
+  @Test
+  public void testSelectsSmallestSufficientLevel() {
+    MipmapImageCache cache = new MipmapImageCache(1 << 20, Runnable::run);
+    MipmapImageCache.Mipmap mipmap =
+        cache.createMipmap(new BufferedImage(256, 128, BufferedImage.TYPE_INT_ARGB));
+    BufferedImage image = mipmap.getImage(60, 20, false, null);
+    assertThat(image.getWidth()).isEqualTo(64);
+    assertThat(image.getHeight()).isEqualTo(32);
+    assertThat(mipmap.getImage(60, 20, false, null)).isSameAs(image);
+  }
+
+  @Test
+  public void testAsyncGenerationNotifies() {
+    List<Runnable> tasks = new ArrayList<>();
+    MipmapImageCache cache = new MipmapImageCache(1 << 20, tasks::add);
+    BufferedImage source = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+    MipmapImageCache.Mipmap mipmap = cache.createMipmap(source);
+    int[] notified = new int[1];
+    // Falls back to the full resolution until the level is ready
+    assertThat(mipmap.getImage(32, 32, true, () -> notified[0]++)).isSameAs(source);
+    assertThat(mipmap.getImage(32, 32, true, () -> notified[0]++)).isSameAs(source);
+    assertThat(tasks).hasSize(1);
+    tasks.get(0).run();
+    assertThat(notified[0]).isEqualTo(1);
+    assertThat(mipmap.getImage(32, 32, true, null).getWidth()).isEqualTo(32);
+  }
+
+  @Test
+  public void testDecodesImageData() throws IOException {
+    List<Runnable> tasks = new ArrayList<>();
+    MipmapImageCache cache = new MipmapImageCache(1 << 20, tasks::add);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB), "PNG", out);
+    MipmapImageCache.Mipmap mipmap = cache.createMipmap(out.toByteArray());
+    assertThat(mipmap.getImage(64, 64, true, null)).isNull();
+    tasks.remove(0).run();
+    assertThat(mipmap.getImage(64, 64, true, null).getWidth()).isEqualTo(64);
+    assertThat(mipmap.getImage(16, 16, false, null).getWidth()).isEqualTo(16);
+  }
+
+  @Test
+  public void testBaseImageIsSharedAndPinned() throws IOException {
+    // Room for a single 64x64 level
+    MipmapImageCache cache = new MipmapImageCache(4 * 64 * 64, Runnable::run);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB), "PNG", out);
+    MipmapImageCache.Mipmap mipmap = cache.createMipmap(out.toByteArray());
+    BufferedImage decoded = mipmap.getImage(64, 64, false, null);
+    assertThat(cache.getUsedMemory()).isEqualTo(4 * 64 * 64);
+
+    // The figure gets the image which has been decoded for drawing, which is now pinned
+    BufferedImage base = mipmap.getBaseImage();
+    assertThat(base).isSameAs(decoded);
+    assertThat(cache.getUsedMemory()).isZero();
+
+    // Other images do not evict the pinned image
+    cache
+        .createMipmap(new BufferedImage(128, 128, BufferedImage.TYPE_INT_ARGB))
+        .getImage(64, 64, false, null);
+    assertThat(mipmap.getImage(64, 64, false, null)).isSameAs(base);
+    assertThat(mipmap.getBaseImage()).isSameAs(base);
+  }
+
+  @Test
+  public void testBaseImageIsDecodedOnce() throws IOException {
+    List<Runnable> tasks = new ArrayList<>();
+    MipmapImageCache cache = new MipmapImageCache(1 << 20, tasks::add);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB), "PNG", out);
+    MipmapImageCache.Mipmap mipmap = cache.createMipmap(out.toByteArray());
+    assertThat(mipmap.getImage(64, 64, true, null)).isNull();
+    BufferedImage base = mipmap.getBaseImage();
+
+    // The scheduled decoding finds the pinned image
+    tasks.remove(0).run();
+    assertThat(mipmap.getImage(64, 64, true, null)).isSameAs(base);
+    assertThat(cache.getUsedMemory()).isZero();
+  }
+
+  @Test
+  public void testInvalidImageDataFails() {
+    MipmapImageCache cache = new MipmapImageCache(1 << 20, Runnable::run);
+    MipmapImageCache.Mipmap mipmap = cache.createMipmap(new byte[] {1, 2, 3});
+    assertThat(mipmap.getImage(10, 10, false, null)).isNull();
+    assertThat(mipmap.isFailed()).isTrue();
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedLevels() {
+    // Room for a single 64x64 level
+    MipmapImageCache cache = new MipmapImageCache(4 * 64 * 64, Runnable::run);
+    MipmapImageCache.Mipmap a =
+        cache.createMipmap(new BufferedImage(128, 128, BufferedImage.TYPE_INT_ARGB));
+    MipmapImageCache.Mipmap b =
+        cache.createMipmap(new BufferedImage(128, 128, BufferedImage.TYPE_INT_ARGB));
+    BufferedImage levelA = a.getImage(64, 64, false, null);
+    b.getImage(64, 64, false, null);
+    assertThat(cache.getUsedMemory()).isEqualTo(4 * 64 * 64);
+    assertThat(a.getImage(64, 64, false, null)).isNotSameAs(levelA);
+  }
+}
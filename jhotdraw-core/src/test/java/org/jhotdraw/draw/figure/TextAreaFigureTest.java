@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw.figure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import org.jhotdraw.draw.AttributeKeys;
+import org.junit.jupiter.api.Test;
+
+public class TextAreaFigureTest {
+
+  private static final String TEXT =
+      "The quick brown fox jumps over the lazy dog.\nThe\tquick\tbrown\tfox.";
+
+  @Test
+  void testTextOverflowFollowsBoundsAndText() {
+    TextAreaFigure figure = new TextAreaFigure(TEXT);
+    figure.setBounds(new Point2D.Double(0, 0), new Point2D.Double(400, 200));
+    assertFalse(figure.isTextOverflow());
+
+    figure.willChange();
+    figure.setBounds(new Point2D.Double(0, 0), new Point2D.Double(60, 30));
+    figure.changed();
+    assertTrue(figure.isTextOverflow());
+
+    // The layout is also refreshed, if an attribute changes without a call to willChange
+    figure.setText("fox");
+    assertFalse(figure.isTextOverflow());
+    figure.attr().set(AttributeKeys.FONT_SIZE, 40d);
+    assertTrue(figure.isTextOverflow());
+  }
+
+  @Test
+  void testDrawAndPreferredSize() {
+    TextAreaFigure figure = new TextAreaFigure(TEXT);
+    figure.setBounds(new Point2D.Double(10, 10), new Point2D.Double(120, 60));
+    BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    figure.draw(g);
+    figure.draw(g);
+    g.dispose();
+
+    figure.setText("The quick brown fox jumps over the lazy dog.");
+    double lineHeight = figure.getFont().getSize2D();
+    assertTrue(figure.getPreferredTextSize(Double.MAX_VALUE).height < 2 * lineHeight);
+    assertTrue(figure.getPreferredTextSize(100).height > 2 * lineHeight);
+  }
+
+  @Test
+  void testMovingKeepsLayout() {
+    TextAreaFigure figure = new TextAreaFigure(TEXT);
+    figure.setBounds(new Point2D.Double(0, 0), new Point2D.Double(120, 60));
+    figure.isTextOverflow();
+    Object layout = figure.getCachedLayout();
+    assertNotNull(layout);
+
+    figure.willChange();
+    figure.transform(AffineTransform.getTranslateInstance(35, 20));
+    figure.changed();
+    figure.isTextOverflow();
+    assertSame(layout, figure.getCachedLayout());
+
+    figure.willChange();
+    figure.setBounds(new Point2D.Double(0, 0), new Point2D.Double(80, 60));
+    figure.changed();
+    figure.isTextOverflow();
+    assertNotSame(layout, figure.getCachedLayout());
+  }
+}
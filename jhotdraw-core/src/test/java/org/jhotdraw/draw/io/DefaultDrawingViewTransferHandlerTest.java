@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.geom.AffineTransform;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import javax.swing.filechooser.FileFilter;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import org.jhotdraw.datatransfer.InputStreamTransferable;
+import org.jhotdraw.draw.AttributeKey;
+import org.jhotdraw.draw.DefaultDrawing;
+import org.jhotdraw.draw.DefaultDrawingView;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.DrawingEditorProxy;
+import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.draw.figure.RectangleFigure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DefaultDrawingViewTransferHandlerTest {
+
+  private static final DataFlavor COUNT_FLAVOR = new DataFlavor("application/x-count", "Count");
+
+  /** Transfers the number of figures, and reads it back as rectangles. */
+  private static class CountFormat implements InputFormat, OutputFormat {
+    int writeCount;
+    int readCount;
+
+    @Override
+    public FileFilter getFileFilter() {
+      return new FileNameExtensionFilter("Count", "count");
+    }
+
+    @Override
+    public String getFileExtension() {
+      return "count";
+    }
+
+    @Override
+    public void write(URI uri, Drawing drawing) {}
+
+    @Override
+    public void write(OutputStream out, Drawing drawing) {}
+
+    @Override
+    public Transferable createTransferable(
+        Drawing drawing, List<Figure> figures, double scaleFactor) {
+      writeCount++;
+      ByteArrayOutputStream buf = new ByteArrayOutputStream();
+      buf.write(figures.size());
+      return new InputStreamTransferable(COUNT_FLAVOR, buf.toByteArray());
+    }
+
+    @Override
+    public DataFlavor[] getTransferDataFlavors() {
+      return new DataFlavor[] {COUNT_FLAVOR};
+    }
+
+    @Override
+    public void read(InputStream in, Drawing drawing, boolean replace) throws IOException {
+      readCount++;
+      for (int i = in.read(); i > 0; i--) {
+        drawing.add(new RectangleFigure());
+      }
+    }
+
+    @Override
+    public boolean isDataFlavorSupported(DataFlavor flavor) {
+      return COUNT_FLAVOR.equals(flavor);
+    }
+
+    @Override
+    public void read(Transferable t, Drawing drawing, boolean replace) throws IOException {
+      try {
+        read((InputStream) t.getTransferData(COUNT_FLAVOR), drawing, replace);
+      } catch (UnsupportedFlavorException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
+  /** Another input format, which makes a drawing incompatible with the source drawing. */
+  private static class OtherFormat extends CountFormat {}
+
+  private final DefaultDrawingViewTransferHandler handler = new DefaultDrawingViewTransferHandler();
+  private CountFormat format;
+  private DefaultDrawingView source;
+  private RectangleFigure figure;
+
+  private DefaultDrawingView createView(CountFormat... formats) {
+    Drawing drawing = new DefaultDrawing();
+    for (CountFormat f : formats) {
+      drawing.addInputFormat(f);
+      drawing.addOutputFormat(f);
+    }
+    DefaultDrawingView view = new DefaultDrawingView();
+    view.setDrawing(drawing);
+    view.addNotify(new DrawingEditorProxy() {
+      @Override
+      public <T> T getHandleAttribute(AttributeKey<T> key) {
+        return key.getDefaultValue();
+      }
+    });
+    return view;
+  }
+
+  @BeforeEach
+  void setUp() {
+    format = new CountFormat();
+    source = createView(format);
+    figure = new RectangleFigure(10, 20, 30, 40);
+    source.getDrawing().add(figure);
+    source.getDrawing().add(new RectangleFigure(50, 60, 70, 80));
+  }
+
+  private Transferable copy() {
+    return handler.createTransferable(source, new HashSet<>(source.getDrawing().getChildren()));
+  }
+
+  @Test
+  void testFormatsAreWrittenOnFirstRequest() throws Exception {
+    Transferable t = copy();
+    assertEquals(LocalFigureTransferable.LOCAL_FIGURE_FLAVOR, t.getTransferDataFlavors()[0]);
+    assertTrue(t.isDataFlavorSupported(COUNT_FLAVOR));
+    assertEquals(0, format.writeCount);
+
+    assertEquals(2, ((InputStream) t.getTransferData(COUNT_FLAVOR)).read());
+    assertEquals(2, ((InputStream) t.getTransferData(COUNT_FLAVOR)).read());
+    assertEquals(1, format.writeCount);
+  }
+
+  @Test
+  void testPasteClonesSnapshotWithoutFormats() {
+    Transferable t = copy();
+    figure.transform(AffineTransform.getTranslateInstance(100, 100));
+
+    DefaultDrawingView target = createView(format);
+    assertTrue(handler.importData(target, t));
+    assertTrue(handler.importData(target, t));
+    List<Figure> pasted = target.getDrawing().getChildren();
+    assertEquals(4, pasted.size());
+    assertNotSame(pasted.get(0), pasted.get(2));
+    assertFalse(source.getDrawing().getChildren().contains(pasted.get(0)));
+    assertEquals(10, pasted.get(0).getBounds().x);
+    assertEquals(10, pasted.get(2).getBounds().x);
+    assertEquals(2, target.getSelectionCount());
+    assertEquals(0, format.writeCount);
+    assertEquals(0, format.readCount);
+  }
+
+  @Test
+  void testIncompatibleDrawingReadsFormat() {
+    Transferable t = copy();
+    DefaultDrawingView target = createView(format, new OtherFormat());
+    assertTrue(handler.importData(target, t));
+    assertEquals(2, target.getDrawing().getChildren().size());
+    assertEquals(1, format.writeCount);
+    assertEquals(1, format.readCount);
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw.tool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Container;
+import java.awt.Point;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.swing.SwingUtilities;
+import javax.swing.undo.UndoableEdit;
+import org.jhotdraw.draw.AttributeKey;
+import org.jhotdraw.draw.DefaultDrawingView;
+import org.jhotdraw.draw.DrawingEditorProxy;
+import org.jhotdraw.draw.DrawingView;
+import org.jhotdraw.draw.QuadTreeDrawing;
+import org.jhotdraw.draw.event.TransformEdit;
+import org.jhotdraw.draw.figure.RectangleFigure;
+import org.junit.jupiter.api.Test;
+
+public class DefaultDragTrackerTest {
+
+  private DefaultDrawingView view;
+  private RectangleFigure left;
+  private RectangleFigure right;
+  private final List<UndoableEdit> edits = new ArrayList<>();
+
+  private void setUp() {
+    QuadTreeDrawing drawing = new QuadTreeDrawing();
+    left = new RectangleFigure(10, 10, 20, 20);
+    right = new RectangleFigure(50, 10, 20, 20);
+    drawing.add(left);
+    drawing.add(right);
+    drawing.addUndoableEditListener(e -> edits.add(e.getEdit()));
+    view = new DefaultDrawingView();
+    view.setDrawing(drawing);
+    view.setSize(400, 400);
+  }
+
+  private DrawingEditorProxy createEditor() {
+    return new DrawingEditorProxy() {
+      @Override
+      public Collection<DrawingView> getDrawingViews() {
+        return List.of(view);
+      }
+
+      @Override
+      public DrawingView getActiveView() {
+        return view;
+      }
+
+      @Override
+      public DrawingView findView(Container c) {
+        return c == view ? view : null;
+      }
+
+      @Override
+      public <T> T getHandleAttribute(AttributeKey<T> key) {
+        return key.getDefaultValue();
+      }
+    };
+  }
+
+  private MouseEvent mouse(int id, Point p) {
+    return new MouseEvent(
+        view, id, 0, MouseEvent.BUTTON1_DOWN_MASK, p.x, p.y, 1, false, MouseEvent.BUTTON1);
+  }
+
+  private Point toView(double x, double y) {
+    return view.drawingToView(new Point2D.Double(x, y));
+  }
+
+  /**
+   * Drags both figures by (40, 25), and returns their bounds after the drag. Asserts whether the
+   * figures have been moved during the drag.
+   */
+  private Rectangle2D.Double drag(boolean snapshotDragging) {
+    setUp();
+    DrawingEditorProxy editor = createEditor();
+    view.addNotify(editor);
+    view.addToSelection(left);
+    view.addToSelection(right);
+    DefaultDragTracker tracker = new DefaultDragTracker(left);
+    tracker.setSnapshotDragging(snapshotDragging);
+    tracker.activate(editor);
+    try {
+      tracker.mousePressed(mouse(MouseEvent.MOUSE_PRESSED, toView(20, 20)));
+      tracker.mouseDragged(mouse(MouseEvent.MOUSE_DRAGGED, toView(30, 25)));
+      tracker.mouseDragged(mouse(MouseEvent.MOUSE_DRAGGED, toView(50, 35)));
+      assertEquals(snapshotDragging ? 10 : 20, left.getBounds().x, 1e-9);
+      tracker.mouseDragged(mouse(MouseEvent.MOUSE_DRAGGED, toView(60, 45)));
+      tracker.mouseReleased(mouse(MouseEvent.MOUSE_RELEASED, toView(60, 45)));
+    } finally {
+      tracker.deactivate(editor);
+    }
+
+    Rectangle2D.Double bounds = left.getBounds();
+    bounds.add(right.getBounds());
+
+    assertEquals(1, edits.size());
+    assertInstanceOf(TransformEdit.class, edits.get(0));
+    edits.get(0).undo();
+    assertEquals(new Rectangle2D.Double(10, 10, 20, 20), left.getBounds());
+    assertEquals(new Rectangle2D.Double(50, 10, 20, 20), right.getBounds());
+    edits.clear();
+    return bounds;
+  }
+
+  @Test
+  void testSnapshotDragMovesFiguresLikeLiveDrag() throws Exception {
+    // The drag event coalescer runs a Swing timer
+    SwingUtilities.invokeAndWait(() -> {
+      Rectangle2D.Double expected = new Rectangle2D.Double(50, 35, 60, 20);
+      assertEquals(expected, drag(false));
+      assertEquals(expected, drag(true));
+    });
+  }
+}
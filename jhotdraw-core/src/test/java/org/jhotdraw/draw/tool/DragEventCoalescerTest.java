@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.draw.tool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JPanel;
+import org.junit.jupiter.api.Test;
+
+public class DragEventCoalescerTest {
+
+  private final JPanel source = new JPanel();
+
+  private MouseEvent drag(int x) {
+    return new MouseEvent(source, MouseEvent.MOUSE_DRAGGED, 0, 0, x, 0, 0, false);
+  }
+
+  @Test
+  void testProcessesFirstAndLatestEventOfFrame() {
+    List<Integer> steps = new ArrayList<>();
+    // The frame interval is long enough that the timer does not tick during the test
+    DragEventCoalescer coalescer = new DragEventCoalescer(e -> steps.add(e.getX()), 60_000);
+    try {
+      coalescer.post(drag(1));
+      coalescer.post(drag(2));
+      coalescer.post(drag(3));
+      assertEquals(List.of(1), steps);
+      coalescer.flush();
+      assertEquals(List.of(1, 3), steps);
+      coalescer.flush();
+      assertEquals(3, coalescer.getPostedCount());
+      assertEquals(2, coalescer.getProcessedCount());
+    } finally {
+      coalescer.stop();
+    }
+  }
+
+  @Test
+  void testStopDiscardsPendingEvent() {
+    List<Integer> steps = new ArrayList<>();
+    DragEventCoalescer coalescer = new DragEventCoalescer(e -> steps.add(e.getX()), 60_000);
+    coalescer.post(drag(1));
+    coalescer.post(drag(2));
+    coalescer.stop();
+    coalescer.flush();
+    assertEquals(List.of(1), steps);
+  }
+
+  @Test
+  void testZeroIntervalProcessesEveryEvent() {
+    List<Integer> steps = new ArrayList<>();
+    DragEventCoalescer coalescer = new DragEventCoalescer(e -> steps.add(e.getX()), 0);
+    coalescer.post(drag(1));
+    coalescer.post(drag(2));
+    assertEquals(List.of(1, 2), steps);
+  }
+}
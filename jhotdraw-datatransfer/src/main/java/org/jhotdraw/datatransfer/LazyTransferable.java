@@ -0,0 +1,65 @@
+/*
+ * @(#)LazyTransferable.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.datatransfer;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.IOException;
+
+/**
+ * A Transferable, which creates its data when it is requested for the first time.
+ *
+ * <p>The data flavors must be known in advance. The Transferable which provides the data is created
+ * by a factory on the first call of {@link #getTransferData}, and is reused by all further calls.
+ * If the factory fails, the next call tries again.
+ */
+public class LazyTransferable extends AbstractTransferable {
+
+  /** Creates the Transferable which provides the data. */
+  @FunctionalInterface
+  public interface Factory {
+
+    Transferable create() throws IOException;
+  }
+
+  private Factory factory;
+  private Transferable transferable;
+
+  public LazyTransferable(DataFlavor flavor, Factory factory) {
+    super(flavor);
+    this.factory = factory;
+  }
+
+  public LazyTransferable(DataFlavor[] flavors, Factory factory) {
+    super(flavors);
+    this.factory = factory;
+  }
+
+  /** Returns true, if the data has been created. */
+  public synchronized boolean isCreated() {
+    return transferable != null;
+  }
+
+  @Override
+  public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException, IOException {
+    if (!isDataFlavorSupported(flavor)) {
+      throw new UnsupportedFlavorException(flavor);
+    }
+    Transferable t;
+    synchronized (this) {
+      if (transferable == null) {
+        transferable = factory.create();
+        // Release everything the factory holds on to
+        factory = null;
+      }
+      t = transferable;
+    }
+    return t.getTransferData(flavor);
+  }
+}
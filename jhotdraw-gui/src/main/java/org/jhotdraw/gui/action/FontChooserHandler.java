@@ -10,14 +10,12 @@ import java.awt.Font;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
-import java.util.Iterator;
 import javax.swing.JPopupMenu;
-import javax.swing.undo.AbstractUndoableEdit;
-import javax.swing.undo.UndoableEdit;
 import org.jhotdraw.draw.AttributeKey;
 import org.jhotdraw.draw.AttributeKeys;
 import org.jhotdraw.draw.DrawingEditor;
 import org.jhotdraw.draw.action.AbstractSelectedAction;
+import org.jhotdraw.draw.event.AttributeDeltaEdit;
 import org.jhotdraw.draw.figure.Figure;
 import org.jhotdraw.draw.figure.TextHolderFigure;
 import org.jhotdraw.gui.JFontChooser;
@@ -62,16 +60,7 @@ public class FontChooserHandler extends AbstractSelectedAction implements Proper
 
   protected void applySelectedFontToFigures() {
     final ArrayList<Figure> selectedFigures = new ArrayList<>(getView().getSelectedFigures());
-    final ArrayList<Object> restoreData = new ArrayList<>(selectedFigures.size());
-    for (Figure figure : selectedFigures) {
-      restoreData.add(figure.attr().getAttributesRestoreData());
-      figure.willChange();
-      figure.attr().set(key, fontChooser.getSelectedFont());
-      figure.changed();
-    }
-    getEditor().setDefaultAttribute(key, fontChooser.getSelectedFont());
-    final Font undoValue = fontChooser.getSelectedFont();
-    UndoableEdit edit = new AbstractUndoableEdit() {
+    AttributeDeltaEdit edit = new AttributeDeltaEdit() {
       private static final long serialVersionUID = 1L;
 
       @Override
@@ -88,29 +77,13 @@ public class FontChooserHandler extends AbstractSelectedAction implements Proper
         }
         return name;*/
       }
-
-      @Override
-      public void undo() {
-        super.undo();
-        Iterator<Object> iRestore = restoreData.iterator();
-        for (Figure figure : selectedFigures) {
-          figure.willChange();
-          figure.attr().restoreAttributesTo(iRestore.next());
-          figure.changed();
-        }
-      }
-
-      @Override
-      public void redo() {
-        super.redo();
-        for (Figure figure : selectedFigures) {
-          // restoreData.add(figure.getAttributesRestoreData());
-          figure.willChange();
-          figure.attr().set(key, undoValue);
-          figure.changed();
-        }
-      }
     };
+    for (Figure figure : selectedFigures) {
+      figure.willChange();
+      edit.set(figure, key, fontChooser.getSelectedFont());
+      figure.changed();
+    }
+    getEditor().setDefaultAttribute(key, fontChooser.getSelectedFont());
     fireUndoableEditHappened(edit);
   }
 
@@ -0,0 +1,232 @@
+/*
+ * @(#)BinaryDOMInput.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.io;
+
+import static org.jhotdraw.io.BinaryDOMOutput.*;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.jhotdraw.xml.DOMFactory;
+import org.jhotdraw.xml.StreamingDOMInput;
+
+/**
+ * A {@link org.jhotdraw.xml.DOMInput} which reads the binary encoding written by {@link
+ * BinaryDOMOutput}.
+ */
+public class BinaryDOMInput extends StreamingDOMInput {
+
+  private final DataInputStream in;
+  private final ArrayList<String> strings = new ArrayList<>();
+
+  private String tagName;
+  private int attributeCount;
+  private String[] attributeNames = new String[8];
+  private Object[] attributeValues = new Object[8];
+  private String text;
+
+  /** True, if the current element is empty, and the next event is its end. */
+  private boolean pendingEnd;
+
+  private boolean endOfDocument;
+
+  /**
+   * Arrays which are longer than this are grown while they are read, instead of being allocated
+   * with the length that has been read from the stream.
+   */
+  private static final int MAX_PREALLOCATED_LENGTH = 4096;
+
+  public BinaryDOMInput(DOMFactory factory, InputStream in) throws IOException {
+    super(factory);
+    this.in = new DataInputStream(new BufferedInputStream(in));
+    byte[] magic = new byte[MAGIC.length];
+    try {
+      this.in.readFully(magic);
+    } catch (EOFException ex) {
+      throw new IOException("not a binary drawing", ex);
+    }
+    if (!Arrays.equals(magic, MAGIC)) {
+      throw new IOException("not a binary drawing");
+    }
+    int version = readVarInt();
+    if (version > VERSION) {
+      throw new IOException("unsupported binary drawing version " + version);
+    }
+  }
+
+  /** Creates a detached input. */
+  private BinaryDOMInput(BinaryDOMInput shared) {
+    super(shared);
+    this.in = null;
+  }
+
+  @Override
+  protected StreamingDOMInput createDetachedInput() {
+    return new BinaryDOMInput(this);
+  }
+
+  @Override
+  public double[] getPackedAttribute(String name, double[] defaultValue) {
+    return getAttributeValue(name) instanceof double[] array ? array : defaultValue;
+  }
+
+  @Override
+  protected int next() throws IOException {
+    if (pendingEnd) {
+      pendingEnd = false;
+      return END_ELEMENT;
+    }
+    if (endOfDocument) {
+      return END_DOCUMENT;
+    }
+    int record = in.readUnsignedByte();
+    switch (record) {
+      case RECORD_START:
+      case RECORD_EMPTY:
+        readStart();
+        pendingEnd = record == RECORD_EMPTY;
+        return START_ELEMENT;
+      case RECORD_END:
+        return END_ELEMENT;
+      case RECORD_TEXT:
+        text = readString();
+        return TEXT;
+      case RECORD_END_DOCUMENT:
+        endOfDocument = true;
+        return END_DOCUMENT;
+      default:
+        throw new IOException("illegal record type " + record);
+    }
+  }
+
+  private void readStart() throws IOException {
+    tagName = readTableString();
+    attributeCount = readLength();
+    for (int i = 0; i < attributeCount; i++) {
+      if (i == attributeNames.length) {
+        // Grow while reading, so that a corrupt count can not allocate a huge array
+        attributeNames = Arrays.copyOf(attributeNames, i * 2);
+        attributeValues = Arrays.copyOf(attributeValues, i * 2);
+      }
+      attributeNames[i] = readTableString();
+      attributeValues[i] = readValue();
+    }
+  }
+
+  private Object readValue() throws IOException {
+    int type = in.readUnsignedByte();
+    switch (type) {
+      case TYPE_STRING:
+        return readString();
+      case TYPE_STRING_REF:
+        return readTableString();
+      case TYPE_INT:
+        return unZigZag(readVarInt());
+      case TYPE_TRUE:
+        return Boolean.TRUE;
+      case TYPE_FALSE:
+        return Boolean.FALSE;
+      case TYPE_FLOAT:
+        return in.readFloat();
+      case TYPE_DOUBLE:
+        return in.readDouble();
+      case TYPE_INTEGRAL_DOUBLE:
+        return (double) unZigZag(readVarInt());
+      case TYPE_DOUBLES:
+        int length = readLength();
+        double[] array = new double[Math.min(length, MAX_PREALLOCATED_LENGTH)];
+        for (int i = 0; i < length; i++) {
+          if (i == array.length) {
+            array = Arrays.copyOf(array, (int) Math.min(length, 2L * i));
+          }
+          array[i] = in.readDouble();
+        }
+        return array;
+      default:
+        throw new IOException("illegal value type " + type);
+    }
+  }
+
+  @Override
+  protected String getEventTagName() {
+    return tagName;
+  }
+
+  @Override
+  protected int getEventAttributeCount() {
+    return attributeCount;
+  }
+
+  @Override
+  protected String getEventAttributeName(int index) {
+    return attributeNames[index];
+  }
+
+  @Override
+  protected Object getEventAttributeValue(int index) {
+    return attributeValues[index];
+  }
+
+  @Override
+  protected String getEventText() {
+    return text;
+  }
+
+  private String readTableString() throws IOException {
+    int index = readVarInt();
+    if (index == 0) {
+      String str = readString();
+      strings.add(str);
+      return str;
+    }
+    if (index > strings.size()) {
+      throw new IOException("illegal string reference " + index);
+    }
+    return strings.get(index - 1);
+  }
+
+  private String readString() throws IOException {
+    int length = readLength();
+    // Reads in chunks, so that a corrupt length can not allocate a huge array
+    byte[] bytes = in.readNBytes(length);
+    if (bytes.length < length) {
+      throw new EOFException();
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Reads the length of a string, an array or a list of attributes. */
+  private int readLength() throws IOException {
+    int length = readVarInt();
+    if (length < 0) {
+      throw new IOException("illegal length " + (length & 0xffffffffL));
+    }
+    return length;
+  }
+
+  private int readVarInt() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("malformed variable length integer");
+  }
+
+  private static int unZigZag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * @(#)BinaryDOMOutput.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.jhotdraw.xml.DOMFactory;
+import org.jhotdraw.xml.StreamingDOMOutput;
+
+/**
+ * A {@link org.jhotdraw.xml.DOMOutput} which writes a compact binary encoding of the elements.
+ *
+ * <p>The encoding starts with the magic number {@code JHDB} and a format version. It is followed
+ * by a sequence of records, each of which starts with a record type byte:
+ *
+ * <ul>
+ *   <li>start of an element, or an empty element: tag name, number of attributes, and for each
+ *       attribute its name, a value type byte and the value,
+ *   <li>end of an element,
+ *   <li>text,
+ *   <li>end of the document.
+ * </ul>
+ *
+ * <p>Tag names, attribute names and short string values are written into a string table the first
+ * time they occur, and are referenced by their index afterwards. Integers, and doubles which have
+ * an integer value, are written as variable length integers. Arrays of doubles, which are used
+ * for the nodes of bezier paths, are written as packed arrays. Comments are not written.
+ */
+public class BinaryDOMOutput extends StreamingDOMOutput {
+
+  static final byte[] MAGIC = {'J', 'H', 'D', 'B'};
+  static final int VERSION = 1;
+
+  static final int RECORD_END_DOCUMENT = 0;
+  static final int RECORD_START = 1;
+  static final int RECORD_EMPTY = 2;
+  static final int RECORD_END = 3;
+  static final int RECORD_TEXT = 4;
+
+  static final int TYPE_STRING = 0;
+  static final int TYPE_STRING_REF = 1;
+  static final int TYPE_INT = 2;
+  static final int TYPE_TRUE = 3;
+  static final int TYPE_FALSE = 4;
+  static final int TYPE_FLOAT = 5;
+  static final int TYPE_DOUBLE = 6;
+  static final int TYPE_INTEGRAL_DOUBLE = 7;
+  static final int TYPE_DOUBLES = 8;
+
+  /** Strings up to this length are put into the string table. */
+  static final int MAX_TABLE_STRING_LENGTH = 32;
+
+  private final DataOutputStream out;
+  private final HashMap<String, Integer> strings = new HashMap<>();
+
+  public BinaryDOMOutput(DOMFactory factory, OutputStream out) {
+    super(factory);
+    this.out = new DataOutputStream(new BufferedOutputStream(out));
+  }
+
+  /** Adds an attribute with an array of doubles to the current element, which is written packed. */
+  @Override
+  public void addPackedAttribute(String name, double[] values) {
+    addAttributeValue(name, values);
+  }
+
+  @Override
+  public boolean prefersPackedAttributes() {
+    return true;
+  }
+
+  @Override
+  protected void writeStartDocument() throws IOException {
+    out.write(MAGIC);
+    writeVarInt(VERSION);
+  }
+
+  @Override
+  protected void writeStartElement(String tagName, Map<String, Object> attributes, boolean empty)
+      throws IOException {
+    out.writeByte(empty ? RECORD_EMPTY : RECORD_START);
+    writeTableString(tagName);
+    writeVarInt(attributes.size());
+    for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+      writeTableString(entry.getKey());
+      writeValue(entry.getValue());
+    }
+  }
+
+  private void writeValue(Object value) throws IOException {
+    if (value instanceof String str) {
+      if (str.length() <= MAX_TABLE_STRING_LENGTH) {
+        out.writeByte(TYPE_STRING_REF);
+        writeTableString(str);
+      } else {
+        out.writeByte(TYPE_STRING);
+        writeString(str);
+      }
+    } else if (value instanceof Integer i) {
+      out.writeByte(TYPE_INT);
+      writeVarInt(zigZag(i));
+    } else if (value instanceof Boolean b) {
+      out.writeByte(b ? TYPE_TRUE : TYPE_FALSE);
+    } else if (value instanceof Float f) {
+      out.writeByte(TYPE_FLOAT);
+      out.writeFloat(f);
+    } else if (value instanceof Double d) {
+      double v = d;
+      if (v == (int) v && !(v == 0 && 1 / v < 0)) {
+        out.writeByte(TYPE_INTEGRAL_DOUBLE);
+        writeVarInt(zigZag((int) v));
+      } else {
+        out.writeByte(TYPE_DOUBLE);
+        out.writeDouble(v);
+      }
+    } else if (value instanceof double[] array) {
+      out.writeByte(TYPE_DOUBLES);
+      writeVarInt(array.length);
+      for (double v : array) {
+        out.writeDouble(v);
+      }
+    } else {
+      throw new IOException("unsupported attribute value " + value);
+    }
+  }
+
+  @Override
+  protected void writeEndElement() throws IOException {
+    out.writeByte(RECORD_END);
+  }
+
+  @Override
+  protected void writeText(String text) throws IOException {
+    out.writeByte(RECORD_TEXT);
+    writeString(text);
+  }
+
+  @Override
+  protected void writeComment(String comment) throws IOException {
+    // Comments are not written
+  }
+
+  @Override
+  protected void writeEndDocument() throws IOException {
+    out.writeByte(RECORD_END_DOCUMENT);
+    out.flush();
+  }
+
+  /** Writes a string as a reference into the string table, adding it if necessary. */
+  private void writeTableString(String str) throws IOException {
+    Integer index = strings.get(str);
+    if (index == null) {
+      writeVarInt(0);
+      writeString(str);
+      strings.put(str, strings.size() + 1);
+    } else {
+      writeVarInt(index);
+    }
+  }
+
+  private void writeString(String str) throws IOException {
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private void writeVarInt(int value) throws IOException {
+    while ((value & ~0x7f) != 0) {
+      out.writeByte((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int zigZag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * @(#)BinaryInputFormat.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.io;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.draw.io.InputFormat;
+import org.jhotdraw.xml.DOMFactory;
+
+/** An InputFormat that reads Drawings written by {@link BinaryOutputFormat}. */
+public class BinaryInputFormat implements InputFormat {
+
+  private DOMFactory factory;
+
+  /** Format description used for the file filter. */
+  private String description;
+
+  /** File name extension used for the file filter. */
+  private String fileExtension;
+
+  /** The mime type is used for clipboard access. */
+  private String mimeType;
+
+  /** The data flavor constructed from the mime type. */
+  private DataFlavor dataFlavor;
+
+  /** The pool on which figures are decoded in parallel, or null. */
+  private ForkJoinPool decodingPool;
+
+  /**
+   * Creates a new instance with format name "Binary Drawing", file extension "jhdb" and mime type
+   * "application/x-jhotdraw-binary".
+   */
+  public BinaryInputFormat(DOMFactory factory) {
+    this(factory, "Binary Drawing", "jhdb", "application/x-jhotdraw-binary");
+  }
+
+  /**
+   * Creates a new instance using the specified parameters.
+   *
+   * @param factory The factory for creating Figures.
+   * @param description The format description to be used for the file filter.
+   * @param fileExtension The file extension to be used for file filter.
+   * @param mimeType The Mime Type is used for clipboard access.
+   */
+  public BinaryInputFormat(
+      DOMFactory factory, String description, String fileExtension, String mimeType) {
+    this.factory = factory;
+    this.description = description;
+    this.fileExtension = fileExtension;
+    this.mimeType = mimeType;
+    try {
+      this.dataFlavor = new DataFlavor(mimeType);
+    } catch (ClassNotFoundException ex) {
+      throw new InternalError("Unable to create data flavor for mime type:" + mimeType, ex);
+    }
+  }
+
+  /**
+   * Sets the pool on which the figures are decoded in parallel. By default the pool is null, and
+   * the figures are decoded sequentially.
+   *
+   * <p>In parallel mode the input is still parsed sequentially, but figures which do not refer to
+   * other objects are decoded concurrently. Figures with references, e.g. connections, are decoded
+   * in a final single-threaded phase. The drawing is populated with all figures at once, when all
+   * of them have been read.
+   */
+  public void setDecodingPool(ForkJoinPool decodingPool) {
+    this.decodingPool = decodingPool;
+  }
+
+  public ForkJoinPool getDecodingPool() {
+    return decodingPool;
+  }
+
+  @Override
+  public javax.swing.filechooser.FileFilter getFileFilter() {
+    return new FileNameExtensionFilter(description, fileExtension);
+  }
+
+  @Override
+  public boolean isDataFlavorSupported(DataFlavor flavor) {
+    return flavor.equals(dataFlavor);
+  }
+
+  @Override
+  public void read(InputStream in, Drawing drawing, boolean replace) throws IOException {
+    List<Figure> figures = read(in, factory.getName(drawing));
+    if (replace) {
+      drawing.removeAllChildren();
+    }
+    drawing.addAll(figures);
+  }
+
+  @Override
+  public void read(Transferable t, Drawing drawing, boolean replace)
+      throws UnsupportedFlavorException, IOException {
+    InputStream in = (InputStream) t.getTransferData(new DataFlavor(mimeType, description));
+    List<Figure> figures = read(in, "Drawing-Clip");
+    if (replace) {
+      drawing.removeAllChildren();
+    }
+    drawing.addAll(figures);
+  }
+
+  private List<Figure> read(InputStream in, String rootName) throws IOException {
+    List<Figure> figures = new ArrayList<>();
+    BinaryDOMInput domi = new BinaryDOMInput(factory, in);
+    domi.openElement(rootName);
+    domi.openElement("figures");
+    if (decodingPool != null) {
+      domi.readObjects(o -> figures.add((Figure) o), decodingPool);
+    } else {
+      domi.readObjects(o -> figures.add((Figure) o));
+    }
+    domi.closeElement();
+    domi.closeElement();
+    return figures;
+  }
+}
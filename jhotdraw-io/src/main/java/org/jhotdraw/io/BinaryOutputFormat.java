@@ -0,0 +1,120 @@
+/*
+ * @(#)BinaryOutputFormat.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.io;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import org.jhotdraw.datatransfer.InputStreamTransferable;
+import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.draw.io.OutputFormat;
+import org.jhotdraw.xml.DOMFactory;
+
+/**
+ * An OutputFormat that writes Drawings with DOMStorable Figure's in a compact binary encoding.
+ *
+ * <p>The figures are written with the same {@link DOMFactory} as used by {@link
+ * DOMStorableOutputFormat}, but with a {@link BinaryDOMOutput} instead of XML.
+ */
+public class BinaryOutputFormat implements OutputFormat {
+
+  private DOMFactory factory;
+
+  /** Format description used for the file filter. */
+  private String description;
+
+  /** File name extension used for the file filter. */
+  private String fileExtension;
+
+  /** The mime type is used for clipboard access. */
+  private String mimeType;
+
+  /**
+   * Creates a new instance with format name "Binary Drawing", file extension "jhdb" and mime type
+   * "application/x-jhotdraw-binary".
+   */
+  public BinaryOutputFormat(DOMFactory factory) {
+    this(factory, "Binary Drawing", "jhdb", "application/x-jhotdraw-binary");
+  }
+
+  /**
+   * Creates a new instance using the specified parameters.
+   *
+   * @param factory The factory for writing Figures.
+   * @param description The format description to be used for the file filter.
+   * @param fileExtension The file extension to be used for file filter.
+   * @param mimeType The Mime Type is used for clipboard access.
+   */
+  public BinaryOutputFormat(
+      DOMFactory factory, String description, String fileExtension, String mimeType) {
+    this.factory = factory;
+    this.description = description;
+    this.fileExtension = fileExtension;
+    this.mimeType = mimeType;
+  }
+
+  @Override
+  public javax.swing.filechooser.FileFilter getFileFilter() {
+    return new FileNameExtensionFilter(description, fileExtension);
+  }
+
+  @Override
+  public String getFileExtension() {
+    return fileExtension;
+  }
+
+  @Override
+  public void write(URI uri, Drawing drawing) throws IOException {
+    write(new File(uri), drawing);
+  }
+
+  public void write(File file, Drawing drawing) throws IOException {
+    try (BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+      write(out, drawing);
+    }
+  }
+
+  @Override
+  public void write(OutputStream out, Drawing drawing) throws IOException {
+    write(out, factory.getName(drawing), drawing.getChildren());
+  }
+
+  private void write(OutputStream out, String rootName, List<Figure> figures) throws IOException {
+    try (BinaryDOMOutput domo = new BinaryDOMOutput(factory, out)) {
+      domo.openElement(rootName);
+      domo.openElement("figures");
+      for (Figure f : figures) {
+        domo.writeObject(f);
+      }
+      domo.closeElement();
+      domo.closeElement();
+    }
+  }
+
+  @Override
+  public Transferable createTransferable(Drawing drawing, List<Figure> figures, double scaleFactor)
+      throws IOException {
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    write(buf, "Drawing-Clip", figures);
+    return new InputStreamTransferable(new DataFlavor(mimeType, description), buf.toByteArray());
+  }
+
+  @Override
+  public DataFlavor[] getTransferDataFlavors() {
+    return new DataFlavor[] {new DataFlavor(mimeType, description)};
+  }
+}
@@ -10,8 +10,6 @@ package org.jhotdraw.io;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import org.jhotdraw.draw.*;
@@ -57,6 +55,9 @@ import org.jhotdraw.xml.DefaultDOMFactory;
 /** DOM based figure factory */
 public class DOMDefaultDrawFigureFactory extends DefaultDOMFactory {
 
+  /** Flag of a bezier node, which is packed together with its mask by the binary format. */
+  private static final int PACKED_COLINEAR = 4;
+
   private static final Object[][] ENUM_TAGS = {
     {AttributeKeys.StrokePlacement.class, "strokePlacement"},
     {AttributeKeys.StrokeType.class, "strokeType"},
@@ -237,9 +238,7 @@ public class DOMDefaultDrawFigureFactory extends DefaultDOMFactory {
       domInput.closeElement();
     }
     domInput.openElement("children");
-    for (int i = 0; i < domInput.getElementCount(); i++) {
-      figure.basicAdd((Figure) domInput.readObject(i));
-    }
+    domInput.readObjects(o -> figure.basicAdd((Figure) o));
     domInput.closeElement();
     readAttributes(figure, domInput);
   }
@@ -261,9 +260,7 @@ public class DOMDefaultDrawFigureFactory extends DefaultDOMFactory {
 
   public static void readGroup(GroupFigure figure, DOMInput domInput) throws IOException {
     domInput.openElement("children");
-    for (int i = 0; i < domInput.getElementCount(); i++) {
-      figure.basicAdd((Figure) domInput.readObject(i));
-    }
+    domInput.readObjects(o -> figure.basicAdd((Figure) o));
     domInput.closeElement();
   }
 
@@ -443,7 +440,24 @@ public class DOMDefaultDrawFigureFactory extends DefaultDOMFactory {
 
     domInput.openElement("points");
     figure.setClosed(domInput.getAttribute("closed", false));
-    List<BezierPath.Node> nodes = new ArrayList<>();
+    double[] packed = domInput.getPackedAttribute("nodes", null);
+    if (packed != null) {
+      for (int i = 0; i + 6 < packed.length; i += 7) {
+        int flags = (int) packed[i];
+        BezierPath.Node node = new BezierPath.Node(
+            flags & BezierPath.C1C2_MASK,
+            packed[i + 1],
+            packed[i + 2],
+            packed[i + 3],
+            packed[i + 4],
+            packed[i + 5],
+            packed[i + 6]);
+        node.keepColinear = (flags & PACKED_COLINEAR) != 0;
+        figure.addNode(node);
+      }
+      domInput.closeElement();
+      return;
+    }
     for (int i = 0, n = domInput.getElementCount("p"); i < n; i++) {
       domInput.openElement("p", i);
       BezierPath.Node node = new BezierPath.Node(
@@ -471,6 +485,21 @@ public class DOMDefaultDrawFigureFactory extends DefaultDOMFactory {
     if (figure.isClosed()) {
       domOutput.addAttribute("closed", true);
     }
+    if (domOutput.prefersPackedAttributes()) {
+      // Pack the nodes into a single array of flags and control points
+      double[] packed = new double[figure.getNodeCount() * 7];
+      for (int i = 0, n = figure.getNodeCount(); i < n; i++) {
+        BezierPath.Node node = figure.getNode(i);
+        packed[i * 7] = node.mask | (node.keepColinear ? PACKED_COLINEAR : 0);
+        for (int c = 0; c < 3; c++) {
+          packed[i * 7 + 1 + c * 2] = node.x[c];
+          packed[i * 7 + 2 + c * 2] = node.y[c];
+        }
+      }
+      domOutput.addPackedAttribute("nodes", packed);
+      domOutput.closeElement();
+      return;
+    }
     for (int i = 0, n = figure.getNodeCount(); i < n; i++) {
       BezierPath.Node node = figure.getNode(i);
       domOutput.openElement("p");
@@ -14,12 +14,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import org.jhotdraw.draw.Drawing;
 import org.jhotdraw.draw.figure.Figure;
 import org.jhotdraw.draw.io.InputFormat;
 import org.jhotdraw.xml.DOMFactory;
-import org.jhotdraw.xml.JavaxDOMInput;
+import org.jhotdraw.xml.StaxDOMInput;
 
 /** An OutputFormat that can write Drawings with DOMStorable Figure's. */
 public class DOMStorableInputFormat implements InputFormat {
@@ -41,6 +42,9 @@ public class DOMStorableInputFormat implements InputFormat {
   /** The data flavor constructed from the mime type. */
   private DataFlavor dataFlavor;
 
+  /** The pool on which figures are decoded in parallel, or null. */
+  private ForkJoinPool decodingPool;
+
   /**
    * Creates a new instance with format name "Drawing", file extension "xml" and mime type
    * "image/x-jhotdraw".
@@ -70,6 +74,23 @@ public class DOMStorableInputFormat implements InputFormat {
     }
   }
 
+  /**
+   * Sets the pool on which the figures are decoded in parallel. By default the pool is null, and
+   * the figures are decoded sequentially.
+   *
+   * <p>In parallel mode the input is still parsed sequentially, but figures which do not refer to
+   * other objects are decoded concurrently. Figures with references, e.g. connections, are decoded
+   * in a final single-threaded phase. The drawing is populated with all figures at once, when all
+   * of them have been read.
+   */
+  public void setDecodingPool(ForkJoinPool decodingPool) {
+    this.decodingPool = decodingPool;
+  }
+
+  public ForkJoinPool getDecodingPool() {
+    return decodingPool;
+  }
+
   @Override
   public javax.swing.filechooser.FileFilter getFileFilter() {
     return new FileNameExtensionFilter(description, fileExtension);
@@ -82,17 +103,17 @@ public class DOMStorableInputFormat implements InputFormat {
 
   @Override
   public void read(InputStream in, Drawing drawing, boolean replace) throws IOException {
-    JavaxDOMInput domi = new JavaxDOMInput(factory, in);
+    List<Figure> figures = new ArrayList<>();
+    StaxDOMInput domi = new StaxDOMInput(factory, in);
     domi.openElement(factory.getName(drawing));
     domi.openElement("figures");
+    readFigures(domi, figures);
+    domi.closeElement();
+    domi.closeElement();
     if (replace) {
       drawing.removeAllChildren();
     }
-    for (int i = 0; i < domi.getElementCount(); i++) {
-      drawing.add((Figure) domi.readObject(i));
-    }
-    domi.closeElement();
-    domi.closeElement();
+    drawing.addAll(figures);
   }
 
   @Override
@@ -100,15 +121,21 @@ public class DOMStorableInputFormat implements InputFormat {
       throws UnsupportedFlavorException, IOException {
     List<Figure> figures = new ArrayList<>();
     InputStream in = (InputStream) t.getTransferData(new DataFlavor(mimeType, description));
-    JavaxDOMInput domi = new JavaxDOMInput(factory, in);
+    StaxDOMInput domi = new StaxDOMInput(factory, in);
     domi.openElement("Drawing-Clip");
-    for (int i = 0, n = domi.getElementCount(); i < n; i++) {
-      figures.add((Figure) domi.readObject(i));
-    }
+    readFigures(domi, figures);
     domi.closeElement();
     if (replace) {
       drawing.removeAllChildren();
     }
     drawing.addAll(figures);
   }
+
+  private void readFigures(StaxDOMInput domi, List<Figure> figures) throws IOException {
+    if (decodingPool != null) {
+      domi.readObjects(o -> figures.add((Figure) o), decodingPool);
+    } else {
+      domi.readObjects(o -> figures.add((Figure) o));
+    }
+  }
 }
@@ -94,29 +94,34 @@ public class DOMStorableOutputFormat implements OutputFormat {
 
   @Override
   public void write(OutputStream out, Drawing drawing) throws IOException {
-    JavaxDOMOutput domo = new JavaxDOMOutput(factory);
-    domo.openElement(factory.getName(drawing));
-    //    drawing.write(domo);
-    domo.openElement("figures");
-    for (Figure f : drawing.getChildren()) {
-      domo.writeObject(f);
+    try (StaxDOMOutput domo = new StaxDOMOutput(factory, out)) {
+      domo.openElement(factory.getName(drawing));
+      //    drawing.write(domo);
+      domo.openElement("figures");
+      for (Figure f : drawing.getChildren()) {
+        domo.writeObject(f);
+      }
+      domo.closeElement();
+      domo.closeElement();
     }
-    domo.closeElement();
-    domo.closeElement();
-    domo.save(out);
   }
 
   @Override
   public Transferable createTransferable(Drawing drawing, List<Figure> figures, double scaleFactor)
       throws IOException {
     ByteArrayOutputStream buf = new ByteArrayOutputStream();
-    JavaxDOMOutput domo = new JavaxDOMOutput(factory);
-    domo.openElement("Drawing-Clip");
-    for (Figure f : figures) {
-      domo.writeObject(f);
+    try (StaxDOMOutput domo = new StaxDOMOutput(factory, buf)) {
+      domo.openElement("Drawing-Clip");
+      for (Figure f : figures) {
+        domo.writeObject(f);
+      }
+      domo.closeElement();
     }
-    domo.closeElement();
-    domo.save(buf);
     return new InputStreamTransferable(new DataFlavor(mimeType, description), buf.toByteArray());
   }
+
+  @Override
+  public DataFlavor[] getTransferDataFlavors() {
+    return new DataFlavor[] {new DataFlavor(mimeType, description)};
+  }
 }
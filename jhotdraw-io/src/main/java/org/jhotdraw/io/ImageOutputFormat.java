@@ -15,6 +15,7 @@ import java.awt.Composite;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
+import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
@@ -141,6 +142,11 @@ public class ImageOutputFormat implements OutputFormat {
     return new ImageTransferable(toImage(drawing, figures, scaleFactor, true));
   }
 
+  @Override
+  public DataFlavor[] getTransferDataFlavors() {
+    return new DataFlavor[] {DataFlavor.imageFlavor, ImageTransferable.IMAGE_PNG_FLAVOR};
+  }
+
   /**
    * Writes the figures to the specified output stream. This method ensures that all figures of the
    * drawing are visible on the image.
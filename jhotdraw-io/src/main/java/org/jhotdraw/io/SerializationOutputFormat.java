@@ -124,4 +124,9 @@ public class SerializationOutputFormat implements OutputFormat {
       }
     };
   }
+
+  @Override
+  public DataFlavor[] getTransferDataFlavors() {
+    return new DataFlavor[] {dataFlavor};
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2024 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.jhotdraw.draw.DefaultDrawing;
+import org.jhotdraw.draw.Drawing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class BinaryInputOutputFormatTest {
+
+  /** Converts the XML test files to binary and back, and compares the result with the original. */
+  @ParameterizedTest(name = "{index} {0}")
+  @CsvSource({"figures", "arrowtip", "green_rectangle", "bezier", "group", "image"})
+  public void testBinaryRoundTrip(String filename) throws IOException {
+    DOMDefaultDrawFigureFactory factory = new DOMDefaultDrawFigureFactory();
+    Drawing drawing = new DefaultDrawing();
+    new DOMStorableInputFormat(factory)
+        .read(
+            BinaryInputOutputFormatTest.class.getResourceAsStream(filename + ".xml"),
+            drawing,
+            true);
+
+    ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    new BinaryOutputFormat(factory).write(binary, drawing);
+    Drawing result = new DefaultDrawing();
+    new BinaryInputFormat(factory)
+        .read(new ByteArrayInputStream(binary.toByteArray()), result, true);
+
+    ByteArrayOutputStream xml = new ByteArrayOutputStream();
+    new DOMStorableOutputFormat(factory).write(xml, result);
+    assertThat(binary.size()).isLessThan(xml.size());
+    DOMStorableInputOutputFormatTest.assertSameDrawingXml(
+        BinaryInputOutputFormatTest.class.getResourceAsStream(filename + ".xml"),
+        xml.toString("UTF-8"));
+  }
+
+  /** Corrupt lengths must be rejected, and must not allocate arrays of that length. */
+  @ParameterizedTest(name = "{index} {0}")
+  @CsvSource({
+    // tag name with a length of 2^31-1
+    "01 00 ff ff ff ff 07",
+    // tag name with a negative length
+    "01 00 ff ff ff ff 0f",
+    // attribute with 2^31-1 doubles
+    "01 00 01 61 01 00 01 6e 08 ff ff ff ff 07 00 00 00 00 00 00 00 00",
+    // element with 2^31-1 attributes
+    "01 00 01 61 ff ff ff ff 07 00 01 6e 03"
+  })
+  public void testRejectsCorruptLengths(String records) throws IOException {
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    buf.write(BinaryDOMOutput.MAGIC);
+    buf.write(BinaryDOMOutput.VERSION);
+    for (String b : records.split(" ")) {
+      buf.write(Integer.parseInt(b, 16));
+    }
+    assertThatThrownBy(() -> new BinaryInputFormat(new DOMDefaultDrawFigureFactory())
+            .read(new ByteArrayInputStream(buf.toByteArray()), new DefaultDrawing(), true))
+        .isInstanceOf(IOException.class);
+  }
+
+  @Test
+  public void testRejectsXml() {
+    assertThatThrownBy(() -> new BinaryInputFormat(new DOMDefaultDrawFigureFactory())
+            .read(
+                BinaryInputOutputFormatTest.class.getResourceAsStream("figures.xml"),
+                new DefaultDrawing(),
+                true))
+        .isInstanceOf(IOException.class);
+  }
+}
@@ -22,23 +22,37 @@ package org.jhotdraw.io;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.awt.Color;
+import java.awt.geom.Point2D;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 import org.jhotdraw.draw.AttributeKeys;
 import org.jhotdraw.draw.DefaultDrawing;
 import org.jhotdraw.draw.Drawing;
+import org.jhotdraw.draw.connector.ChopRectangleConnector;
 import org.jhotdraw.draw.figure.BezierFigure;
 import org.jhotdraw.draw.figure.Figure;
+import org.jhotdraw.draw.figure.GroupFigure;
+import org.jhotdraw.draw.figure.LineConnectionFigure;
 import org.jhotdraw.draw.figure.RectangleFigure;
+import org.jhotdraw.draw.figure.RoundRectangleFigure;
 import org.jhotdraw.draw.io.InputFormat;
 import org.jhotdraw.draw.io.OutputFormat;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.xmlunit.assertj.XmlAssert;
+import org.xmlunit.diff.ComparisonResult;
+import org.xmlunit.diff.ComparisonType;
+import org.xmlunit.diff.DefaultNodeMatcher;
+import org.xmlunit.diff.DifferenceEvaluators;
+import org.xmlunit.diff.ElementSelectors;
 
 /**
  * @author tw
@@ -62,6 +76,24 @@ public class DOMStorableInputOutputFormatTest {
     assertThat(rect.attr().get(AttributeKeys.FILL_COLOR)).isEqualTo(new Color(0, 128, 0));
   }
 
+  @Test
+  public void testPackedBezierNodes() throws IOException {
+    String xml = "<drawing><figures><b id=\"0\"><points closed=\"true\""
+        + " nodes=\"0 10 20 10 20 10 20 6 30 40 30 40 35 45.5\"/></b></figures></drawing>";
+    Drawing drawing = new DefaultDrawing();
+    new DOMStorableInputFormat(new DOMDefaultDrawFigureFactory())
+        .read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), drawing, true);
+
+    BezierFigure bezier = (BezierFigure) drawing.getChild(0);
+    assertThat(bezier.isClosed()).isTrue();
+    assertThat(bezier.getNodeCount()).isEqualTo(2);
+    assertThat(bezier.getNode(0).keepColinear).isFalse();
+    assertThat(bezier.getNode(1).mask).isEqualTo(2);
+    assertThat(bezier.getNode(1).keepColinear).isTrue();
+    assertThat(bezier.getNode(1).x[2]).isEqualTo(35);
+    assertThat(bezier.getNode(1).y[2]).isEqualTo(45.5);
+  }
+
   @Test
   public void testSomeFigures() throws IOException {
     InputFormat format = new DOMStorableInputFormat(new DOMDefaultDrawFigureFactory());
@@ -94,11 +126,32 @@ public class DOMStorableInputOutputFormatTest {
     outFormat.write(
         new FileOutputStream("target/test-output/" + filename + "_roundtrip.xml"), drawing);
 
-    XmlAssert.assertThat(
-            DOMStorableInputOutputFormatTest.class.getResourceAsStream(filename + ".xml"))
-        .and(outputFile)
+    assertSameDrawingXml(
+        DOMStorableInputOutputFormatTest.class.getResourceAsStream(filename + ".xml"), outputFile);
+  }
+
+  /**
+   * Asserts that two XML files describe the same drawing. The order of the attribute elements of a
+   * figure is not significant. Since object ids are assigned in the order in which the objects are
+   * written, the values of the id and ref attributes are not compared.
+   */
+  static void assertSameDrawingXml(Object expected, Object actual) {
+    XmlAssert.assertThat(expected)
+        .and(actual)
         .ignoreWhitespace()
-        .areIdentical();
+        .withNodeMatcher(new DefaultNodeMatcher(ElementSelectors.byName))
+        .withDifferenceEvaluator(DifferenceEvaluators.chain(
+            DifferenceEvaluators.Default, (comparison, outcome) -> {
+              if (outcome == ComparisonResult.DIFFERENT
+                  && comparison.getType() == ComparisonType.ATTR_VALUE) {
+                String name = comparison.getControlDetails().getTarget().getNodeName();
+                if (name.equals("id") || name.equals("ref")) {
+                  return ComparisonResult.SIMILAR;
+                }
+              }
+              return outcome;
+            }))
+        .areSimilar();
   }
 
   private static final Logger LOG =
@@ -139,4 +192,82 @@ public class DOMStorableInputOutputFormatTest {
     assertThat(((BezierFigure) rect).getNodeCount()).isEqualTo(10);
     assertThat(rect.attr().get(AttributeKeys.TEXT_COLOR)).isEqualTo(new Color(0, 0, 0));
   }
+
+  @Test
+  public void testStreamingRoundTrip() throws IOException {
+    Drawing drawing = new DefaultDrawing();
+    for (int i = 0; i < 1000; i++) {
+      drawing.add(new RectangleFigure(i, i, 10, 10));
+    }
+    RoundRectangleFigure roundRect = new RoundRectangleFigure(0, 0, 50, 50);
+    roundRect.setArc(7, 9);
+    drawing.add(roundRect);
+    GroupFigure group = new GroupFigure();
+    RectangleFigure start = new RectangleFigure(0, 0, 10, 10);
+    RectangleFigure end = new RectangleFigure(100, 100, 10, 10);
+    group.add(start);
+    group.add(end);
+    drawing.add(group);
+    LineConnectionFigure connection = new LineConnectionFigure();
+    connection.setStartPoint(new Point2D.Double(5, 5));
+    connection.setEndPoint(new Point2D.Double(105, 105));
+    connection.setStartConnector(new ChopRectangleConnector(start));
+    connection.setEndConnector(new ChopRectangleConnector(end));
+    drawing.add(connection);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new DOMStorableOutputFormat(new DOMDefaultDrawFigureFactory()).write(out, drawing);
+    Drawing result = new DefaultDrawing();
+    new DOMStorableInputFormat(new DOMDefaultDrawFigureFactory())
+        .read(new ByteArrayInputStream(out.toByteArray()), result, true);
+
+    assertThat(result.getChildren()).hasSize(1003);
+    RoundRectangleFigure roundRectResult = (RoundRectangleFigure) result.getChild(1000);
+    assertThat(roundRectResult.getArcWidth()).isEqualTo(7);
+    assertThat(roundRectResult.getArcHeight()).isEqualTo(9);
+    GroupFigure groupResult = (GroupFigure) result.getChild(1001);
+    assertThat(groupResult.getChildren()).hasSize(2);
+    LineConnectionFigure connectionResult = (LineConnectionFigure) result.getChild(1002);
+    assertThat(connectionResult.getStartFigure()).isSameAs(groupResult.getChild(0));
+    assertThat(connectionResult.getEndFigure()).isSameAs(groupResult.getChild(1));
+  }
+
+  @Test
+  public void testParallelRead() throws IOException {
+    Drawing drawing = new DefaultDrawing();
+    for (int i = 0; i < 5000; i++) {
+      RectangleFigure start = new RectangleFigure(i, i, 10, 10);
+      RectangleFigure end = new RectangleFigure(i + 100, i, 10, 10);
+      drawing.add(start);
+      drawing.add(end);
+      if (i % 10 == 0) {
+        LineConnectionFigure connection = new LineConnectionFigure();
+        connection.setStartPoint(new Point2D.Double(i + 5, i + 5));
+        connection.setEndPoint(new Point2D.Double(i + 105, i + 5));
+        connection.setStartConnector(new ChopRectangleConnector(start));
+        connection.setEndConnector(new ChopRectangleConnector(end));
+        drawing.add(connection);
+      }
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new DOMStorableOutputFormat(new DOMDefaultDrawFigureFactory()).write(out, drawing);
+
+    DOMStorableInputFormat format = new DOMStorableInputFormat(new DOMDefaultDrawFigureFactory());
+    format.setDecodingPool(ForkJoinPool.commonPool());
+    Drawing result = new DefaultDrawing();
+    format.read(new ByteArrayInputStream(out.toByteArray()), result, true);
+
+    assertThat(result.getChildren()).hasSize(drawing.getChildren().size());
+    for (int i = 0; i < drawing.getChildren().size(); i++) {
+      assertThat(result.getChild(i)).hasSameClassAs(drawing.getChild(i));
+      assertThat(result.getChild(i).getBounds()).isEqualTo(drawing.getChild(i).getBounds());
+    }
+    LineConnectionFigure connectionResult = (LineConnectionFigure) result.getChild(2);
+    assertThat(connectionResult.getStartFigure()).isSameAs(result.getChild(0));
+    assertThat(connectionResult.getEndFigure()).isSameAs(result.getChild(1));
+
+    ByteArrayOutputStream roundTrip = new ByteArrayOutputStream();
+    new DOMStorableOutputFormat(new DOMDefaultDrawFigureFactory()).write(roundTrip, result);
+    assertThat(roundTrip.toString("UTF-8")).isEqualTo(out.toString("UTF-8"));
+  }
 }
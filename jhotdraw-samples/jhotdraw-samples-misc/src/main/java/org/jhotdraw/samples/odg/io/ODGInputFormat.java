@@ -1395,6 +1395,7 @@ public class ODGInputFormat implements InputFormat {
                 first.y[1] = last.y[1];
               }
               path.remove(path.size() - 1);
+              path.invalidatePath();
             }
           }
           path.setClosed(true);
@@ -21,6 +21,7 @@ import javax.swing.*;
 import org.jhotdraw.draw.*;
 import org.jhotdraw.draw.event.TransformRestoreEdit;
 import org.jhotdraw.draw.figure.ImageHolderFigure;
+import org.jhotdraw.draw.figure.MipmapImageCache;
 import org.jhotdraw.draw.handle.BoundsOutlineHandle;
 import org.jhotdraw.draw.handle.Handle;
 import org.jhotdraw.draw.handle.ResizeHandleKit;
@@ -49,6 +50,9 @@ public class SVGImageFigure extends SVGAttributedFigure implements SVGFigure, Im
   /** The buffered image. This can be null, if we haven't yet parsed the imageData. */
   private BufferedImage bufferedImage;
 
+  /** The mipmap of the image. This can be null, if we haven't drawn the image yet. */
+  private transient volatile MipmapImageCache.Mipmap mipmap;
+
   public SVGImageFigure() {
     this(0, 0, 0, 0);
   }
@@ -70,15 +74,24 @@ public class SVGImageFigure extends SVGAttributedFigure implements SVGFigure, Im
       if (opacity != 1d) {
         g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opacity));
       }
-      BufferedImage image = getBufferedImage();
-      if (image != null) {
+      MipmapImageCache.Mipmap m = getMipmap();
+      if (m != null) {
+        Graphics2D gx = g;
         if (attr().get(TRANSFORM) != null) {
           // FIXME - We should cache the transformed image.
           //         Drawing a transformed image appears to be very slow.
-          Graphics2D gx = (Graphics2D) g.create();
+          gx = (Graphics2D) g.create();
           // Use same rendering hints like parent graphics
           gx.setRenderingHints(g.getRenderingHints());
           gx.transform(attr().get(TRANSFORM));
+        }
+        double[] scale = MipmapImageCache.getDeviceScale(gx);
+        BufferedImage image = m.getImage(
+            rectangle.width * scale[0],
+            rectangle.height * scale[1],
+            g.getRenderingHint(JHotdrawRenderingKeys.ASYNC_IMAGE_LOADING) == Boolean.TRUE,
+            () -> SwingUtilities.invokeLater(this::fireAreaInvalidated));
+        if (image != null) {
           gx.drawImage(
               image,
               (int) rectangle.x,
@@ -86,17 +99,15 @@ public class SVGImageFigure extends SVGAttributedFigure implements SVGFigure, Im
               (int) rectangle.width,
               (int) rectangle.height,
               null);
+        } else if (!m.isFailed()) {
+          gx.setColor(Color.lightGray);
+          gx.fill(rectangle);
+        }
+        if (gx != g) {
           gx.dispose();
-        } else {
-          g.drawImage(
-              image,
-              (int) rectangle.x,
-              (int) rectangle.y,
-              (int) rectangle.width,
-              (int) rectangle.height,
-              null);
         }
-      } else {
+      }
+      if (m == null || m.isFailed()) {
         Shape shape = getTransformedShape();
         g.setColor(Color.red);
         g.setStroke(new BasicStroke());
@@ -108,6 +119,19 @@ public class SVGImageFigure extends SVGAttributedFigure implements SVGFigure, Im
     }
   }
 
+  private MipmapImageCache.Mipmap getMipmap() {
+    MipmapImageCache.Mipmap m = mipmap;
+    if (m == null) {
+      if (bufferedImage != null) {
+        m = MipmapImageCache.getInstance().createMipmap(bufferedImage);
+      } else if (imageData != null) {
+        m = MipmapImageCache.getInstance().createMipmap(imageData);
+      }
+      mipmap = m;
+    }
+    return m;
+  }
+
   @Override
   protected void drawFill(Graphics2D g) {}
 
@@ -374,6 +398,7 @@ public class SVGImageFigure extends SVGAttributedFigure implements SVGFigure, Im
     willChange();
     this.imageData = imageData;
     this.bufferedImage = bufferedImage;
+    this.mipmap = null;
     changed();
   }
 
@@ -387,6 +412,7 @@ public class SVGImageFigure extends SVGAttributedFigure implements SVGFigure, Im
     willChange();
     this.imageData = imageData;
     this.bufferedImage = null;
+    this.mipmap = null;
     changed();
   }
 
@@ -396,6 +422,7 @@ public class SVGImageFigure extends SVGAttributedFigure implements SVGFigure, Im
     willChange();
     this.imageData = null;
     this.bufferedImage = image;
+    this.mipmap = null;
     changed();
   }
 
@@ -481,5 +508,6 @@ public class SVGImageFigure extends SVGAttributedFigure implements SVGFigure, Im
     }
     imageData = baos.toByteArray();
     bufferedImage = img;
+    mipmap = null;
   }
 }
@@ -184,6 +184,11 @@ public class ImageMapOutputFormat implements OutputFormat {
         new DataFlavor("text/html", "HTML Image Map"), buf.toByteArray());
   }
 
+  @Override
+  public DataFlavor[] getTransferDataFlavors() {
+    return new DataFlavor[] {new DataFlavor("text/html", "HTML Image Map")};
+  }
+
   protected void writeElement(Element parent, Figure f) throws IOException {
     if (f instanceof SVGEllipseFigure) {
       writeEllipseElement(parent, (SVGEllipseFigure) f);
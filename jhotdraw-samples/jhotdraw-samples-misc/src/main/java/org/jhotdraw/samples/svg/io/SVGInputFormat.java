@@ -1309,6 +1309,7 @@ public class SVGInputFormat implements InputFormat {
                 first.y[1] = last.y[1];
               }
               path.remove(path.size() - 1);
+              path.invalidatePath();
             }
           }
           path.setClosed(true);
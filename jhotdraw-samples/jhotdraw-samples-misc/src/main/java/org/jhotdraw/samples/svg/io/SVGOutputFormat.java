@@ -1372,4 +1372,9 @@ public class SVGOutputFormat implements OutputFormat {
     return new InputStreamTransferable(
         new DataFlavor(SVG_MIMETYPE, "Image SVG"), buf.toByteArray());
   }
+
+  @Override
+  public DataFlavor[] getTransferDataFlavors() {
+    return new DataFlavor[] {new DataFlavor(SVG_MIMETYPE, "Image SVG")};
+  }
 }
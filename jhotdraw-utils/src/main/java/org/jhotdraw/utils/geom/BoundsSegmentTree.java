@@ -0,0 +1,159 @@
+/*
+ * @(#)BoundsSegmentTree.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.utils.geom;
+
+import java.awt.geom.Rectangle2D;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Maintains the union of the bounds of a changing set of objects.
+ *
+ * <p>Each object occupies a leaf slot of a segment tree. Every inner node of the tree holds the
+ * union of the bounds of its two children, so that the root holds the union of all bounds. Adding,
+ * updating or removing an object only recomputes the path from its leaf to the root, and costs
+ * O(log n), no matter whether the union grows or shrinks.
+ *
+ * @param <T> the type of the objects
+ */
+public class BoundsSegmentTree<T> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final HashMap<T, Integer> slots = new HashMap<>();
+  private int[] freeSlots = new int[0];
+  private int freeCount;
+  private int usedSlots;
+  private int capacity;
+
+  /** The nodes of the tree. Node 1 is the root, the leaves start at index {@code capacity}. */
+  private double[] minX;
+
+  private double[] minY;
+  private double[] maxX;
+  private double[] maxY;
+
+  public BoundsSegmentTree() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /** Returns the number of objects. */
+  public int size() {
+    return slots.size();
+  }
+
+  public boolean contains(T o) {
+    return slots.containsKey(o);
+  }
+
+  /** Sets the bounds of the specified object. Adds the object, if it is not present yet. */
+  public void put(T o, Rectangle2D.Double bounds) {
+    Integer slot = slots.get(o);
+    if (slot == null) {
+      slot = allocateSlot();
+      slots.put(o, slot);
+    }
+    int i = capacity + slot;
+    minX[i] = bounds.x;
+    minY[i] = bounds.y;
+    maxX[i] = bounds.x + bounds.width;
+    maxY[i] = bounds.y + bounds.height;
+    updatePath(i);
+  }
+
+  /** Removes the specified object. Does nothing if the object is not present. */
+  public void remove(T o) {
+    Integer slot = slots.remove(o);
+    if (slot != null) {
+      int i = capacity + slot;
+      setEmpty(i);
+      updatePath(i);
+      if (freeCount == freeSlots.length) {
+        freeSlots = Arrays.copyOf(freeSlots, Math.max(INITIAL_CAPACITY, freeCount * 2));
+      }
+      freeSlots[freeCount++] = slot;
+    }
+  }
+
+  public void clear() {
+    slots.clear();
+    freeCount = 0;
+    usedSlots = 0;
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /** Returns the union of the bounds of all objects, or null if there are no objects. */
+  public Rectangle2D.Double getBounds() {
+    if (slots.isEmpty()) {
+      return null;
+    }
+    return new Rectangle2D.Double(minX[1], minY[1], maxX[1] - minX[1], maxY[1] - minY[1]);
+  }
+
+  private int allocateSlot() {
+    if (freeCount > 0) {
+      return freeSlots[--freeCount];
+    }
+    if (usedSlots == capacity) {
+      grow();
+    }
+    return usedSlots++;
+  }
+
+  private void allocate(int newCapacity) {
+    capacity = newCapacity;
+    minX = new double[2 * capacity];
+    minY = new double[2 * capacity];
+    maxX = new double[2 * capacity];
+    maxY = new double[2 * capacity];
+    for (int i = 1; i < 2 * capacity; i++) {
+      setEmpty(i);
+    }
+  }
+
+  /** Doubles the capacity. The old tree becomes the left subtree of the new root. */
+  private void grow() {
+    int oldCapacity = capacity;
+    double[] oldMinX = minX;
+    double[] oldMinY = minY;
+    double[] oldMaxX = maxX;
+    double[] oldMaxY = maxY;
+    allocate(oldCapacity * 2);
+    System.arraycopy(oldMinX, oldCapacity, minX, capacity, oldCapacity);
+    System.arraycopy(oldMinY, oldCapacity, minY, capacity, oldCapacity);
+    System.arraycopy(oldMaxX, oldCapacity, maxX, capacity, oldCapacity);
+    System.arraycopy(oldMaxY, oldCapacity, maxY, capacity, oldCapacity);
+    for (int i = capacity - 1; i >= 1; i--) {
+      combine(i);
+    }
+  }
+
+  private void setEmpty(int i) {
+    minX[i] = Double.POSITIVE_INFINITY;
+    minY[i] = Double.POSITIVE_INFINITY;
+    maxX[i] = Double.NEGATIVE_INFINITY;
+    maxY[i] = Double.NEGATIVE_INFINITY;
+  }
+
+  private void updatePath(int i) {
+    for (i >>>= 1; i >= 1; i >>>= 1) {
+      combine(i);
+    }
+  }
+
+  private void combine(int i) {
+    int l = 2 * i;
+    int r = l + 1;
+    minX[i] = Math.min(minX[l], minX[r]);
+    minY[i] = Math.min(minY[l], minY[r]);
+    maxX[i] = Math.max(maxX[l], maxX[r]);
+    maxY[i] = Math.max(maxY[l], maxY[r]);
+  }
+}
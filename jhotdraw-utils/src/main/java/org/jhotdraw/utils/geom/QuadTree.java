@@ -24,7 +24,7 @@ import java.util.Map;
  * covering the upper left, upper right, lower left and lower right quadrant of the parent
  * rectangle.
  */
-public class QuadTree<T> implements Serializable {
+public class QuadTree<T> implements SpatialIndex<T>, Serializable {
 
   private static final long serialVersionUID = 1L;
   private final HashMap<T, Rectangle2D.Double> outside = new HashMap<>();
@@ -41,6 +41,7 @@ public class QuadTree<T> implements Serializable {
     root = new QuadNode(bounds);
   }
 
+  @Override
   public void add(T o, Rectangle2D.Double bounds) {
     if (root.bounds.contains(bounds)) {
       root.add(o, (Rectangle2D.Double) bounds.clone());
@@ -73,11 +74,20 @@ public class QuadTree<T> implements Serializable {
     outside.clear();
   }
 
+  @Override
   public void remove(T o) {
     outside.remove(o);
     root.remove(o);
   }
 
+  @Override
+  public void clear() {
+    root.join();
+    root.objects.clear();
+    outside.clear();
+  }
+
+  @Override
   public Collection<T> findContains(Point2D.Double p) {
     HashSet<T> result = new HashSet<>();
     root.findContains(p, result);
@@ -89,6 +99,7 @@ public class QuadTree<T> implements Serializable {
     return result;
   }
 
+  @Override
   public Collection<T> findIntersects(Rectangle2D r) {
     return findIntersects(new Rectangle2D.Double(r.getX(), r.getY(), r.getWidth(), r.getHeight()));
   }
@@ -104,6 +115,7 @@ public class QuadTree<T> implements Serializable {
     return result;
   }
 
+  @Override
   public Collection<T> findInside(Rectangle2D.Double r) {
     HashSet<T> result = new HashSet<>();
     root.findInside(r, result);
@@ -0,0 +1,494 @@
+/*
+ * @(#)RTree.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.utils.geom;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An R-tree based {@link SpatialIndex}.
+ *
+ * <p>The tree groups objects into leaf nodes of nearby bounds, and leaf nodes into inner nodes,
+ * each node knowing the bounds of all objects below it. Overflowing nodes are split along the axis
+ * with the smaller margin, at the position which minimizes the overlap of the two halves (as in the
+ * R*-tree).
+ *
+ * <p>The tree keeps a map from each object to its entry in a leaf node. Therefore {@link #remove}
+ * and {@link #update} do not need to search the tree, and cost O(log n). {@link #addAll} on an
+ * empty tree builds the tree in bulk using Sort-Tile-Recursive (STR) packing.
+ *
+ * @param <T> the type of the indexed objects
+ */
+public class RTree<T> implements SpatialIndex<T>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private static final int DEFAULT_MAX_ENTRIES = 16;
+  private static final Comparator<Item> BY_X = Comparator.<Item>comparingDouble(i -> i.bounds.x)
+      .thenComparingDouble(i -> i.bounds.getMaxX());
+  private static final Comparator<Item> BY_Y = Comparator.<Item>comparingDouble(i -> i.bounds.y)
+      .thenComparingDouble(i -> i.bounds.getMaxY());
+  private static final Comparator<Item> BY_CENTER_X =
+      Comparator.comparingDouble(i -> i.bounds.getCenterX());
+  private static final Comparator<Item> BY_CENTER_Y =
+      Comparator.comparingDouble(i -> i.bounds.getCenterY());
+
+  private final int maxEntries;
+  private final int minEntries;
+  private final HashMap<T, Entry<T>> entries = new HashMap<>();
+  private Node root = new Node(true);
+
+  public RTree() {
+    this(DEFAULT_MAX_ENTRIES);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param maxEntries the maximal number of entries of a node, must be at least 4.
+   */
+  public RTree(int maxEntries) {
+    if (maxEntries < 4) {
+      throw new IllegalArgumentException("maxEntries must be at least 4: " + maxEntries);
+    }
+    this.maxEntries = maxEntries;
+    this.minEntries = Math.max(2, maxEntries * 2 / 5);
+  }
+
+  /** Returns the number of objects in the tree. */
+  public int size() {
+    return entries.size();
+  }
+
+  public boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  /** Returns true, if the object is in the tree. */
+  public boolean contains(T o) {
+    return entries.containsKey(o);
+  }
+
+  /**
+   * Returns the union of the bounds of all objects in the tree, or null if the tree is empty. The
+   * returned rectangle is a copy.
+   */
+  public Rectangle2D.Double getBounds() {
+    return root.bounds == null ? null : (Rectangle2D.Double) root.bounds.clone();
+  }
+
+  @Override
+  public void add(T o, Rectangle2D.Double bounds) {
+    if (entries.containsKey(o)) {
+      update(o, bounds);
+      return;
+    }
+    Entry<T> entry = new Entry<>(o, (Rectangle2D.Double) bounds.clone());
+    entries.put(o, entry);
+    insert(entry);
+  }
+
+  @Override
+  public void addAll(
+      Collection<? extends T> objects, Function<? super T, Rectangle2D.Double> boundsFunction) {
+    if (!entries.isEmpty() || objects.size() <= maxEntries) {
+      SpatialIndex.super.addAll(objects, boundsFunction);
+      return;
+    }
+    for (T o : objects) {
+      entries.put(o, new Entry<>(o, (Rectangle2D.Double) boundsFunction.apply(o).clone()));
+    }
+    List<Item> items = new ArrayList<>(entries.values());
+    boolean leaf = true;
+    do {
+      items = pack(items, leaf);
+      leaf = false;
+    } while (items.size() > 1);
+    root = (Node) items.get(0);
+    root.parent = null;
+  }
+
+  @Override
+  public void update(T o, Rectangle2D.Double bounds) {
+    Entry<T> entry = entries.get(o);
+    if (entry == null) {
+      add(o, bounds);
+    } else if (covers(entry.parent.bounds, bounds)) {
+      // The leaf still covers the object, we only have to tighten the bounds
+      entry.bounds.setRect(bounds);
+      tighten(entry.parent);
+    } else {
+      removeEntry(entry);
+      entry.bounds.setRect(bounds);
+      insert(entry);
+    }
+  }
+
+  @Override
+  public void remove(T o) {
+    Entry<T> entry = entries.remove(o);
+    if (entry != null) {
+      removeEntry(entry);
+    }
+  }
+
+  @Override
+  public void clear() {
+    entries.clear();
+    root = new Node(true);
+  }
+
+  @Override
+  public Collection<T> findContains(Point2D.Double p) {
+    List<T> result = new ArrayList<>();
+    findContains(root, p, result);
+    return result;
+  }
+
+  @Override
+  public Collection<T> findIntersects(Rectangle2D r) {
+    Rectangle2D.Double rd = (r instanceof Rectangle2D.Double)
+        ? (Rectangle2D.Double) r
+        : new Rectangle2D.Double(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    List<T> result = new ArrayList<>();
+    findIntersects(root, rd, result);
+    return result;
+  }
+
+  @Override
+  public Collection<T> findInside(Rectangle2D.Double r) {
+    List<T> result = new ArrayList<>();
+    findInside(root, r, result);
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void findContains(Node node, Point2D.Double p, List<T> result) {
+    if (node.bounds == null || !coversPoint(node.bounds, p)) {
+      return;
+    }
+    if (node.leaf) {
+      for (Item item : node.items) {
+        if (item.bounds.contains(p)) {
+          result.add(((Entry<T>) item).object);
+        }
+      }
+    } else {
+      for (Item item : node.items) {
+        findContains((Node) item, p, result);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void findIntersects(Node node, Rectangle2D.Double r, List<T> result) {
+    if (node.bounds == null || !overlaps(node.bounds, r)) {
+      return;
+    }
+    if (node.leaf) {
+      for (Item item : node.items) {
+        if (item.bounds.intersects(r)) {
+          result.add(((Entry<T>) item).object);
+        }
+      }
+    } else {
+      for (Item item : node.items) {
+        findIntersects((Node) item, r, result);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void findInside(Node node, Rectangle2D.Double r, List<T> result) {
+    if (node.bounds == null || !overlaps(node.bounds, r)) {
+      return;
+    }
+    if (node.leaf) {
+      for (Item item : node.items) {
+        if (r.contains(item.bounds)) {
+          result.add(((Entry<T>) item).object);
+        }
+      }
+    } else {
+      for (Item item : node.items) {
+        findInside((Node) item, r, result);
+      }
+    }
+  }
+
+  /** Inserts an entry into the leaf node, which needs the least enlargement. */
+  private void insert(Entry<T> entry) {
+    Node node = root;
+    while (!node.leaf) {
+      node = chooseSubtree(node, entry.bounds);
+    }
+    node.add(entry);
+    for (Node n = node; n != null; n = n.parent) {
+      n.include(entry.bounds);
+    }
+    while (node != null && node.items.size() > maxEntries) {
+      Node sibling = split(node);
+      if (node.parent == null) {
+        root = new Node(false);
+        root.add(node);
+        root.add(sibling);
+        root.recomputeBounds();
+        break;
+      }
+      node.parent.add(sibling);
+      node = node.parent;
+    }
+  }
+
+  private Node chooseSubtree(Node node, Rectangle2D.Double bounds) {
+    Node best = null;
+    double bestEnlargement = Double.POSITIVE_INFINITY;
+    double bestArea = Double.POSITIVE_INFINITY;
+    for (Item item : node.items) {
+      Rectangle2D.Double b = item.bounds;
+      double area = b.width * b.height;
+      double enlarged = (Math.max(b.getMaxX(), bounds.getMaxX()) - Math.min(b.x, bounds.x))
+          * (Math.max(b.getMaxY(), bounds.getMaxY()) - Math.min(b.y, bounds.y));
+      double enlargement = enlarged - area;
+      if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+        best = (Node) item;
+        bestEnlargement = enlargement;
+        bestArea = area;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Splits an overflowing node. Moves the upper half of the items into a new sibling node and
+   * returns the sibling.
+   */
+  private Node split(Node node) {
+    List<Item> items = node.items;
+    items.sort(BY_X);
+    double marginX = marginSum(items);
+    items.sort(BY_Y);
+    double marginY = marginSum(items);
+    if (marginX < marginY) {
+      items.sort(BY_X);
+    }
+
+    int n = items.size();
+    Rectangle2D.Double[] lower = prefixBounds(items);
+    Rectangle2D.Double[] upper = suffixBounds(items);
+    int bestIndex = minEntries;
+    double bestOverlap = Double.POSITIVE_INFINITY;
+    double bestArea = Double.POSITIVE_INFINITY;
+    for (int k = minEntries; k <= n - minEntries; k++) {
+      Rectangle2D.Double a = lower[k - 1];
+      Rectangle2D.Double b = upper[k];
+      double overlap = Math.max(0, Math.min(a.getMaxX(), b.getMaxX()) - Math.max(a.x, b.x))
+          * Math.max(0, Math.min(a.getMaxY(), b.getMaxY()) - Math.max(a.y, b.y));
+      double area = a.width * a.height + b.width * b.height;
+      if (overlap < bestOverlap || (overlap == bestOverlap && area < bestArea)) {
+        bestIndex = k;
+        bestOverlap = overlap;
+        bestArea = area;
+      }
+    }
+
+    Node sibling = new Node(node.leaf);
+    List<Item> moved = items.subList(bestIndex, n);
+    for (Item item : moved) {
+      sibling.add(item);
+    }
+    moved.clear();
+    node.recomputeBounds();
+    sibling.recomputeBounds();
+    return sibling;
+  }
+
+  private double marginSum(List<Item> items) {
+    Rectangle2D.Double[] lower = prefixBounds(items);
+    Rectangle2D.Double[] upper = suffixBounds(items);
+    double sum = 0;
+    for (int k = minEntries; k <= items.size() - minEntries; k++) {
+      sum += lower[k - 1].width + lower[k - 1].height + upper[k].width + upper[k].height;
+    }
+    return sum;
+  }
+
+  private static Rectangle2D.Double[] prefixBounds(List<Item> items) {
+    Rectangle2D.Double[] result = new Rectangle2D.Double[items.size()];
+    Rectangle2D.Double r = (Rectangle2D.Double) items.get(0).bounds.clone();
+    for (int i = 0; i < result.length; i++) {
+      r.add(items.get(i).bounds);
+      result[i] = (Rectangle2D.Double) r.clone();
+    }
+    return result;
+  }
+
+  private static Rectangle2D.Double[] suffixBounds(List<Item> items) {
+    Rectangle2D.Double[] result = new Rectangle2D.Double[items.size()];
+    Rectangle2D.Double r =
+        (Rectangle2D.Double) items.get(result.length - 1).bounds.clone();
+    for (int i = result.length - 1; i >= 0; i--) {
+      r.add(items.get(i).bounds);
+      result[i] = (Rectangle2D.Double) r.clone();
+    }
+    return result;
+  }
+
+  /**
+   * Removes an entry from its leaf. Underflowing nodes are dissolved and their entries are
+   * inserted again.
+   */
+  @SuppressWarnings("unchecked")
+  private void removeEntry(Entry<T> entry) {
+    Node node = entry.parent;
+    node.items.remove(entry);
+    entry.parent = null;
+    List<Entry<T>> orphans = new ArrayList<>();
+    while (node.parent != null) {
+      Node parent = node.parent;
+      if (node.items.size() < minEntries) {
+        parent.items.remove(node);
+        node.parent = null;
+        collectEntries(node, orphans);
+      } else {
+        node.recomputeBounds();
+      }
+      node = parent;
+    }
+    root.recomputeBounds();
+    while (!root.leaf && root.items.size() == 1) {
+      root = (Node) root.items.get(0);
+      root.parent = null;
+    }
+    if (!root.leaf && root.items.isEmpty()) {
+      root = new Node(true);
+    }
+    for (Entry<T> orphan : orphans) {
+      insert(orphan);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void collectEntries(Node node, List<Entry<T>> result) {
+    for (Item item : node.items) {
+      if (node.leaf) {
+        result.add((Entry<T>) item);
+      } else {
+        collectEntries((Node) item, result);
+      }
+    }
+  }
+
+  /** Recomputes the bounds of the node and its ancestors until they do not change anymore. */
+  private void tighten(Node node) {
+    for (Node n = node; n != null; n = n.parent) {
+      Rectangle2D.Double old = n.bounds == null ? null : (Rectangle2D.Double) n.bounds.clone();
+      n.recomputeBounds();
+      if (n.bounds != null && n.bounds.equals(old)) {
+        break;
+      }
+    }
+  }
+
+  /** Packs items into nodes using Sort-Tile-Recursive. */
+  private List<Item> pack(List<Item> items, boolean leaf) {
+    int nodeCount = (items.size() + maxEntries - 1) / maxEntries;
+    int sliceCount = (int) Math.ceil(Math.sqrt(nodeCount));
+    int sliceSize = sliceCount * maxEntries;
+    items.sort(BY_CENTER_X);
+    List<Item> nodes = new ArrayList<>(nodeCount);
+    for (int i = 0; i < items.size(); i += sliceSize) {
+      List<Item> slice = items.subList(i, Math.min(i + sliceSize, items.size()));
+      slice.sort(BY_CENTER_Y);
+      for (int j = 0; j < slice.size(); j += maxEntries) {
+        Node node = new Node(leaf);
+        for (Item item : slice.subList(j, Math.min(j + maxEntries, slice.size()))) {
+          node.add(item);
+        }
+        node.recomputeBounds();
+        nodes.add(node);
+      }
+    }
+    return nodes;
+  }
+
+  private static boolean covers(Rectangle2D.Double a, Rectangle2D.Double b) {
+    return a != null
+        && a.x <= b.x
+        && a.y <= b.y
+        && a.x + a.width >= b.x + b.width
+        && a.y + a.height >= b.y + b.height;
+  }
+
+  private static boolean coversPoint(Rectangle2D.Double a, Point2D.Double p) {
+    return a.x <= p.x && a.y <= p.y && a.x + a.width >= p.x && a.y + a.height >= p.y;
+  }
+
+  private static boolean overlaps(Rectangle2D.Double a, Rectangle2D.Double b) {
+    return a.x <= b.x + b.width
+        && b.x <= a.x + a.width
+        && a.y <= b.y + b.height
+        && b.y <= a.y + a.height;
+  }
+
+  /** An item of a node: either a child node or an entry. */
+  private abstract static class Item implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    protected Rectangle2D.Double bounds;
+    protected Node parent;
+  }
+
+  private static class Entry<T> extends Item {
+
+    private static final long serialVersionUID = 1L;
+    private final T object;
+
+    Entry(T object, Rectangle2D.Double bounds) {
+      this.object = object;
+      this.bounds = bounds;
+    }
+  }
+
+  private static class Node extends Item {
+
+    private static final long serialVersionUID = 1L;
+    private final boolean leaf;
+    private final ArrayList<Item> items = new ArrayList<>();
+
+    Node(boolean leaf) {
+      this.leaf = leaf;
+    }
+
+    void add(Item item) {
+      items.add(item);
+      item.parent = this;
+    }
+
+    void include(Rectangle2D.Double r) {
+      if (bounds == null) {
+        bounds = (Rectangle2D.Double) r.clone();
+      } else {
+        bounds.add(r);
+      }
+    }
+
+    void recomputeBounds() {
+      bounds = null;
+      for (Item item : items) {
+        include(item.bounds);
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * @(#)SpatialIndex.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.utils.geom;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * A SpatialIndex allows to quickly find objects on a two-dimensional space by their bounds.
+ *
+ * <p>Each object is stored at most once. The collections returned by the query methods therefore
+ * never contain duplicates, but they are not ordered in any particular way.
+ *
+ * @param <T> the type of the indexed objects
+ */
+public interface SpatialIndex<T> {
+
+  /** Adds an object with the specified bounds to the index. */
+  void add(T o, Rectangle2D.Double bounds);
+
+  /**
+   * Adds all objects to the index. The bounds of each object are determined by the supplied
+   * function.
+   *
+   * <p>Implementations may build their structure in bulk, which is considerably faster than adding
+   * the objects one by one.
+   */
+  default void addAll(
+      Collection<? extends T> objects, Function<? super T, Rectangle2D.Double> boundsFunction) {
+    for (T o : objects) {
+      add(o, boundsFunction.apply(o));
+    }
+  }
+
+  /**
+   * Updates the bounds of an object which is already in the index. Adds the object, if it is not
+   * in the index yet.
+   */
+  default void update(T o, Rectangle2D.Double bounds) {
+    remove(o);
+    add(o, bounds);
+  }
+
+  /** Removes an object from the index. Does nothing if the object is not in the index. */
+  void remove(T o);
+
+  /** Removes all objects from the index. */
+  void clear();
+
+  /** Returns all objects whose bounds contain the specified point. */
+  Collection<T> findContains(Point2D.Double p);
+
+  /** Returns all objects whose bounds intersect the specified rectangle. */
+  Collection<T> findIntersects(Rectangle2D r);
+
+  /** Returns all objects whose bounds are inside of the specified rectangle. */
+  Collection<T> findInside(Rectangle2D.Double r);
+}
@@ -9,6 +9,8 @@ package org.jhotdraw.utils.geom.path;
 
 import java.awt.geom.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import org.jhotdraw.utils.geom.Geom;
 
 /**
@@ -25,6 +27,9 @@ import org.jhotdraw.utils.geom.Geom;
  */
 public class Bezier {
 
+  /** The minimal angle of corners, at which {@link #fitBezierPath} splits the digitized points. */
+  static final double CORNER_ANGLE = 77 / 180d * Math.PI;
+
   /** Prevent instance creation. */
   private Bezier() {}
 
@@ -64,57 +69,13 @@ public class Bezier {
    */
   public static BezierPath fitBezierPath(
       java.util.List<Point2D.Double> digitizedPoints, double error) {
-    // Split into segments at corners
-    ArrayList<ArrayList<Point2D.Double>> segments;
-    segments = splitAtCorners(digitizedPoints, 77 / 180d * Math.PI, error * error);
-    // Clean up the data in the segments
-    for (int i = 0, n = segments.size(); i < n; i++) {
-      ArrayList<Point2D.Double> seg = segments.get(i);
-      seg = removeClosePoints(seg, error * 2);
-      seg = reduceNoise(seg, 0.8);
-      segments.set(i, seg);
-    }
-    // Create fitted bezier path
-    BezierPath fittedPath = new BezierPath();
-    // Quickly deal with empty dataset
-    boolean isEmpty = false;
-    for (ArrayList<Point2D.Double> seg : segments) {
-      if (seg.isEmpty()) {
-        isEmpty = false;
-        break;
-      }
-    }
-    if (!isEmpty) {
-      // Process each segment of digitized points
-      double errorSquared = error * error;
-      for (ArrayList<Point2D.Double> seg : segments) {
-        switch (seg.size()) {
-          case 0:
-            break;
-          case 1:
-            fittedPath.add(seg.get(0));
-            break;
-          case 2:
-            if (fittedPath.size() == 0) {
-              fittedPath.add(seg.get(0));
-            }
-            fittedPath.lineTo(seg.get(1).x, seg.get(1).y);
-            break;
-          default:
-            if (fittedPath.size() == 0) {
-              fittedPath.add(seg.get(0));
-            }
-            /*  Unit tangent vectors at endpoints */
-            Point2D.Double tHat1;
-            Point2D.Double tHat2;
-            tHat1 = computeLeftTangent(seg, 0);
-            tHat2 = computeRightTangent(seg, seg.size() - 1);
-            fitCubic(seg, 0, seg.size() - 1, tHat1, tHat2, errorSquared, fittedPath);
-            break;
-        }
-      }
+    double[] points = new double[digitizedPoints.size() * 2];
+    for (int i = 0, n = digitizedPoints.size(); i < n; i++) {
+      Point2D.Double p = digitizedPoints.get(i);
+      points[i * 2] = p.x;
+      points[i * 2 + 1] = p.y;
     }
-    return fittedPath;
+    return fitBezierPath(points, error);
   }
 
   /**
@@ -126,13 +87,136 @@ public class Bezier {
    * @param error the maximal allowed error between the bezier path and the digitized points.
    */
   public static BezierPath fitBezierPath(BezierPath digitizedPoints, double error) {
-    ArrayList<Point2D.Double> d = new ArrayList<>(digitizedPoints.size());
+    double[] points = new double[digitizedPoints.size() * 2];
+    int i = 0;
     for (BezierPath.Node n : digitizedPoints.nodes()) {
-      d.add(new Point2D.Double(n.x[0], n.y[0]));
+      points[i++] = n.x[0];
+      points[i++] = n.y[0];
     }
-    return fitBezierPath(d, error);
+    return fitBezierPath(points, error);
   }
 
+  /**
+   * Fits a bezier path to the specified digitized points.
+   *
+   * <p>The digitized points are split into segments at corners, and a bezier path is fitted to each
+   * segment. Use {@link BezierFitter} to fit the segments while the points are being digitized.
+   *
+   * @param digitizedPoints the coordinates of the digitized points, stored as x0, y0, x1, y1, ...
+   * @param error the maximal allowed error between the bezier path and the digitized points.
+   */
+  public static BezierPath fitBezierPath(double[] digitizedPoints, double error) {
+    BezierPath fittedPath = new BezierPath();
+    int[] corners = findCorners(digitizedPoints, CORNER_ANGLE, error * error);
+    int first = 0;
+    for (int corner : corners) {
+      fitSegment(digitizedPoints, first, corner, error, fittedPath);
+      first = corner;
+    }
+    fitSegment(digitizedPoints, first, digitizedPoints.length / 2 - 1, error, fittedPath);
+    return fittedPath;
+  }
+
+  /**
+   * Fits a bezier path to the specified digitized points, and fits the segments between corners in
+   * parallel.
+   *
+   * <p>The result is identical to the result of {@link #fitBezierPath(double[], double)}. This
+   * method is useful for large sets of digitized points, for example for imported traces.
+   *
+   * @param digitizedPoints the coordinates of the digitized points, stored as x0, y0, x1, y1, ...
+   * @param error the maximal allowed error between the bezier path and the digitized points.
+   * @param pool the pool on which the segments are fitted.
+   */
+  public static BezierPath fitBezierPath(
+      double[] digitizedPoints, double error, ForkJoinPool pool) {
+    int[] corners = findCorners(digitizedPoints, CORNER_ANGLE, error * error);
+    if (corners.length == 0) {
+      return fitBezierPath(digitizedPoints, error);
+    }
+    List<ForkJoinTask<BezierPath>> tasks = new ArrayList<>(corners.length + 1);
+    for (int i = 0; i <= corners.length; i++) {
+      int first = i == 0 ? 0 : corners[i - 1];
+      int last = i == corners.length ? digitizedPoints.length / 2 - 1 : corners[i];
+      tasks.add(pool.submit(() -> {
+        BezierPath segmentPath = new BezierPath();
+        fitSegment(digitizedPoints, first, last, error, segmentPath);
+        return segmentPath;
+      }));
+    }
+    BezierPath fittedPath = new BezierPath();
+    for (ForkJoinTask<BezierPath> task : tasks) {
+      appendSegment(fittedPath, task.join());
+    }
+    return fittedPath;
+  }
+
+  /**
+   * Appends a path, which has been fitted to a segment on its own, to the path fitted to the
+   * preceding segments.
+   *
+   * <p>The first node of the segment path coincides with the last node of the fitted path. The
+   * nodes are merged in the same way as if the segment had been fitted into the fitted path.
+   */
+  private static void appendSegment(BezierPath fittedPath, BezierPath segmentPath) {
+    List<BezierPath.Node> nodes = segmentPath.nodes();
+    if (nodes.isEmpty()) {
+      return;
+    }
+    int from = 1;
+    if (fittedPath.size() == 0 || nodes.size() == 1) {
+      fittedPath.add(nodes.get(0));
+    } else {
+      BezierPath.Node start = nodes.get(0);
+      BezierPath.Node next = nodes.get(1);
+      if ((start.mask & BezierPath.C2_MASK) != 0) {
+        fittedPath.curveTo(start.x[2], start.y[2], next.x[1], next.y[1], next.x[0], next.y[0]);
+      } else {
+        fittedPath.lineTo(next.x[0], next.y[0]);
+      }
+      fittedPath.set(fittedPath.size() - 1, next);
+      from = 2;
+    }
+    for (int i = from, n = nodes.size(); i < n; i++) {
+      fittedPath.add(nodes.get(i));
+    }
+  }
+
+  /**
+   * Cleans up the digitized points from index first to index last, and appends a bezier path that
+   * fits them to the specified path.
+   *
+   * <p>If the path is not empty, its last node must coincide with the first point.
+   */
+  static void fitSegment(
+      double[] digitizedPoints, int first, int last, double error, BezierPath fittedPath) {
+    double[] seg = removeClosePoints(digitizedPoints, first, last + 1, error * 2);
+    seg = reduceNoise(seg, 0.8);
+    int n = seg.length / 2;
+    switch (n) {
+      case 0:
+        break;
+      case 1:
+        fittedPath.add(seg[0], seg[1]);
+        break;
+      case 2:
+        if (fittedPath.size() == 0) {
+          fittedPath.add(seg[0], seg[1]);
+        }
+        fittedPath.lineTo(seg[2], seg[3]);
+        break;
+      default:
+        if (fittedPath.size() == 0) {
+          fittedPath.add(seg[0], seg[1]);
+        }
+        /*  Unit tangent vectors at endpoints */
+        double[] tHat1 = normalize(seg[2] - seg[0], seg[3] - seg[1]);
+        double[] tHat2 =
+            normalize(seg[n * 2 - 4] - seg[n * 2 - 2], seg[n * 2 - 3] - seg[n * 2 - 1]);
+        fitCubic(seg, 0, n - 1, tHat1, tHat2, error * error, fittedPath);
+        break;
+    }
+  }
   /**
    * Removes points which are closer together than the specified minimal distance.
    *
@@ -325,11 +409,180 @@ public class Bezier {
     return cleaned;
   }
 
+  /**
+   * Removes points which are closer together than the specified minimal distance.
+   *
+   * <p>This is the same as {@link #removeClosePoints(java.util.List, double)} for points which are
+   * stored as x0, y0, x1, y1, ...
+   *
+   * @param digitizedPoints Digitized points
+   * @param minDistance minimal distance between two points.
+   * @return Digitized points with a minimal distance.
+   */
+  public static double[] removeClosePoints(double[] digitizedPoints, double minDistance) {
+    return removeClosePoints(digitizedPoints, 0, digitizedPoints.length / 2, minDistance);
+  }
+
+  /**
+   * Removes points which are closer together than the specified minimal distance from the points
+   * with index from (inclusive) to index to (exclusive).
+   */
+  private static double[] removeClosePoints(double[] d, int from, int to, double minDistance) {
+    double[] cleaned = new double[(to - from) * 2];
+    int n = 0;
+    if (to > from) {
+      double squaredDistance = minDistance * minDistance;
+      double prevX = d[from * 2];
+      double prevY = d[from * 2 + 1];
+      cleaned[n++] = prevX;
+      cleaned[n++] = prevY;
+      for (int i = from; i < to; i++) {
+        double x = d[i * 2];
+        double y = d[i * 2 + 1];
+        boolean isDistinct = minDistance == 0
+            ? prevX != x || prevY != y
+            : squaredDistance(prevX, prevY, x, y) > squaredDistance;
+        if (isDistinct) {
+          cleaned[n++] = x;
+          cleaned[n++] = y;
+          prevX = x;
+          prevY = y;
+        }
+      }
+      double lastX = d[to * 2 - 2];
+      double lastY = d[to * 2 - 1];
+      if (minDistance != 0 && (prevX != lastX || prevY != lastY)) {
+        cleaned[n - 2] = lastX;
+        cleaned[n - 1] = lastY;
+      }
+    }
+    return n == cleaned.length ? cleaned : Arrays.copyOf(cleaned, n);
+  }
+
+  /**
+   * Splits the digitized points into multiple segments at each corner point.
+   *
+   * <p>This is the same as {@link #splitAtCorners(java.util.List, double, double)} for points which
+   * are stored as x0, y0, x1, y1, ...
+   *
+   * @param digitizedPoints Digitized points
+   * @param maxAngle maximal angle in radians between the current point and its predecessor and
+   *     successor up to which the point does not break the digitized list into segments.
+   * @return Segments of digitized points.
+   */
+  public static double[][] splitAtCorners(
+      double[] digitizedPoints, double maxAngle, double minDistance) {
+    int[] corners = findCorners(digitizedPoints, maxAngle, minDistance);
+    double[][] segments = new double[corners.length + 1][];
+    int first = 0;
+    for (int i = 0; i <= corners.length; i++) {
+      int last = i == corners.length ? digitizedPoints.length / 2 - 1 : corners[i];
+      segments[i] = Arrays.copyOfRange(digitizedPoints, first * 2, last * 2 + 2);
+      first = last;
+    }
+    return segments;
+  }
+
+  /**
+   * Finds corners in the provided points, and returns their indices.
+   *
+   * <p>This is the same as {@link #findCorners(java.util.List, double, double)} for points which
+   * are stored as x0, y0, x1, y1, ...
+   *
+   * @param digitizedPoints Digitized points.
+   * @param minAngle Minimal angle for corner points
+   * @param minDistance Minimal distance between a point and adjacent points for corner detection
+   * @return corner indices.
+   */
+  public static int[] findCorners(double[] digitizedPoints, double minAngle, double minDistance) {
+    double squaredDistance = minDistance * minDistance;
+    int[] corners = new int[8];
+    int count = 0;
+    int previousCorner = -1;
+    for (int i = 1, n = digitizedPoints.length / 2; i < n - 1; i++) {
+      int next = findNextCornerPoint(digitizedPoints, i, i + 1, n, squaredDistance);
+      if (next != -1
+          && isCorner(digitizedPoints, i, next, previousCorner, squaredDistance, minAngle)) {
+        if (count == corners.length) {
+          corners = Arrays.copyOf(corners, count * 2);
+        }
+        corners[count++] = i;
+        previousCorner = i;
+      }
+    }
+    return Arrays.copyOf(corners, count);
+  }
+
+  /**
+   * Returns the index of the first point in the range from index from (inclusive) to index to
+   * (exclusive), which is at least the minimal distance away from point i, or -1.
+   */
+  static int findNextCornerPoint(double[] d, int i, int from, int to, double squaredDistance) {
+    double x = d[i * 2];
+    double y = d[i * 2 + 1];
+    for (int j = from; j < to; j++) {
+      if (squaredDistance(d[j * 2], d[j * 2 + 1], x, y) >= squaredDistance) {
+        return j;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns true if point i is a corner.
+   *
+   * @param next the index of the succeeding point for corner detection.
+   * @param previousCorner the index of the previous corner, or -1.
+   */
+  static boolean isCorner(
+      double[] d, int i, int next, int previousCorner, double squaredDistance, double minAngle) {
+    double x = d[i * 2];
+    double y = d[i * 2 + 1];
+    // search for a preceding point for corner detection
+    int prev = -1;
+    for (int j = i - 1; j >= 0; j--) {
+      if (j == previousCorner || squaredDistance(d[j * 2], d[j * 2 + 1], x, y) >= squaredDistance) {
+        prev = j;
+        break;
+      }
+    }
+    if (prev == -1) {
+      return false;
+    }
+    double aPrev = Math.atan2(d[prev * 2 + 1] - y, d[prev * 2] - x);
+    double aNext = Math.atan2(d[next * 2 + 1] - y, d[next * 2] - x);
+    double angle = Math.abs(aPrev - aNext);
+    return angle < Math.PI - minAngle || angle > Math.PI + minAngle;
+  }
+
+  /**
+   * Reduces noise from the digitized points, by applying an approximation of a gaussian filter to
+   * the data.
+   *
+   * <p>This is the same as {@link #reduceNoise(java.util.List, double)} for points which are
+   * stored as x0, y0, x1, y1, ...
+   *
+   * @param digitizedPoints Digitized points
+   * @param weight Weight of the current point
+   * @return Digitized points with reduced noise.
+   */
+  public static double[] reduceNoise(double[] digitizedPoints, double weight) {
+    double[] d = digitizedPoints;
+    double[] cleaned = d.clone();
+    double pnWeight = (1d - weight) / 2d; // weight of previous and next
+    for (int i = 2, n = d.length - 2; i < n; i += 2) {
+      cleaned[i] = d[i] * weight + pnWeight * d[i - 2] + pnWeight * d[i + 2];
+      cleaned[i + 1] = d[i + 1] * weight + pnWeight * d[i - 1] + pnWeight * d[i + 3];
+    }
+    return cleaned;
+  }
+
   /**
    * Fit one or multiple subsequent cubic bezier curves to a (sub)set of digitized points. The
    * digitized points represent a smooth curve without corners.
    *
-   * @param d Array of digitized points. Must not contain subsequent coincident points.
+   * @param d Array of digitized points, stored as x0, y0, x1, y1, ... Must not contain subsequent
+   *     coincident points.
    * @param first Indice of first point in d.
    * @param last Indice of last point in d.
    * @param tHat1 Unit tangent vectors at start point.
@@ -338,178 +591,109 @@ public class Bezier {
    * @param bezierPath Path to which the bezier curve segments are added.
    */
   private static void fitCubic(
-      ArrayList<Point2D.Double> d,
+      double[] d,
       int first,
       int last,
-      Point2D.Double tHat1,
-      Point2D.Double tHat2,
+      double[] tHat1,
+      double[] tHat2,
       double errorSquared,
       BezierPath bezierPath) {
-    Point2D.Double[] bezCurve;
-    /*Control points of fitted Bezier curve*/
-    double[] u;
-    /*  Parameter values for point  */
-    double maxError;
-    /*  Maximum fitting errorSquared */
-    int[] splitPoint = new int[1];
-    /*  Point to split point set at.
-    This is an array of size one, because we need it as an input/output parameter.
-     */
-    int nPts;
-    /*  Number of points in subset  */
-    double iterationError;
-    /* Error below which you try iterating  */
-    int maxIterations = 4;
     /*  Max times to try iterating  */
-    Point2D.Double tHatCenter;
-    /* Unit tangent vector at splitPoint */
-    int i;
+    int maxIterations = 4;
     // clone unit tangent vectors, so that we can alter their coordinates
     // without affecting the input values.
-    tHat1 = (Point2D.Double) tHat1.clone();
-    tHat2 = (Point2D.Double) tHat2.clone();
-    iterationError = errorSquared * errorSquared;
-    nPts = last - first + 1;
+    tHat1 = tHat1.clone();
+    tHat2 = tHat2.clone();
+    /* Error below which you try iterating  */
+    double iterationError = errorSquared * errorSquared;
+    /*  Number of points in subset  */
+    int nPts = last - first + 1;
     /*  Use heuristic if region only has two points in it */
     if (nPts == 2) {
-      double dist = v2DistanceBetween2Points(d.get(last), d.get(first)) / 3.0;
-      bezCurve = new Point2D.Double[4];
-      for (i = 0; i < bezCurve.length; i++) {
-        bezCurve[i] = new Point2D.Double();
-      }
-      bezCurve[0] = d.get(first);
-      bezCurve[3] = d.get(last);
-      v2Add(bezCurve[0], v2Scale(tHat1, dist), bezCurve[1]);
-      v2Add(bezCurve[3], v2Scale(tHat2, dist), bezCurve[2]);
+      double[] bezCurve = generateBezier(d, first, last, tHat1, tHat2);
       bezierPath.curveTo(
-          bezCurve[1].x, bezCurve[1].y,
-          bezCurve[2].x, bezCurve[2].y,
-          bezCurve[3].x, bezCurve[3].y);
+          bezCurve[2], bezCurve[3],
+          bezCurve[4], bezCurve[5],
+          bezCurve[6], bezCurve[7]);
       return;
     }
+    /*  Point to split point set at.
+    This is an array of size one, because we need it as an input/output parameter.
+     */
+    int[] splitPoint = new int[1];
     /*  Parameterize points, and attempt to fit curve */
-    u = chordLengthParameterize(d, first, last);
-    bezCurve = generateBezier(d, first, last, u, tHat1, tHat2);
+    double[] u = chordLengthParameterize(d, first, last);
+    double[] bezCurve = generateBezier(d, first, last, tHat1, tHat2);
     /*  Find max deviation of points to fitted curve */
-    maxError = computeMaxError(d, first, last, bezCurve, u, splitPoint);
+    double maxError = computeMaxError(d, first, last, bezCurve, u, splitPoint);
     if (maxError < errorSquared) {
-      addCurveTo(bezCurve, bezierPath, errorSquared, first == 0 && last == d.size() - 1);
+      addCurveTo(bezCurve, bezierPath, errorSquared, first == 0 && last == d.length / 2 - 1);
       return;
     }
     /*  If errorSquared not too large, try some reparameterization  */
     /*  and iteration */
     if (maxError < iterationError) {
-      double[] uPrime;
-      /*  Improved parameter values */
-      for (i = 0; i < maxIterations; i++) {
-        uPrime = reparameterize(d, first, last, u, bezCurve);
-        bezCurve = generateBezier(d, first, last, uPrime, tHat1, tHat2);
+      for (int i = 0; i < maxIterations; i++) {
+        /*  Improved parameter values */
+        double[] uPrime = reparameterize(d, first, last, u, bezCurve);
+        bezCurve = generateBezier(d, first, last, tHat1, tHat2);
         maxError = computeMaxError(d, first, last, bezCurve, uPrime, splitPoint);
         if (maxError < errorSquared) {
-          addCurveTo(bezCurve, bezierPath, errorSquared, first == 0 && last == d.size() - 1);
+          addCurveTo(bezCurve, bezierPath, errorSquared, first == 0 && last == d.length / 2 - 1);
           return;
         }
         u = uPrime;
       }
     }
     /* Fitting failed -- split at max errorSquared point and fit recursively */
-    tHatCenter = computeCenterTangent(d, splitPoint[0]);
-    if (first < splitPoint[0]) {
-      fitCubic(d, first, splitPoint[0], tHat1, tHatCenter, errorSquared, bezierPath);
+    int split = splitPoint[0];
+    double[] tHatCenter = normalize(
+        ((d[split * 2 - 2] - d[split * 2]) + (d[split * 2] - d[split * 2 + 2])) / 2.0,
+        ((d[split * 2 - 1] - d[split * 2 + 1]) + (d[split * 2 + 1] - d[split * 2 + 3])) / 2.0);
+    if (first < split) {
+      fitCubic(d, first, split, tHat1, tHatCenter, errorSquared, bezierPath);
     } else {
-      bezierPath.lineTo(d.get(splitPoint[0]).x, d.get(splitPoint[0]).y);
-      //   System.err.println("Can't split any further " + first + ".." + splitPoint[0]);
+      bezierPath.lineTo(d[split * 2], d[split * 2 + 1]);
     }
-    v2Negate(tHatCenter);
-    if (splitPoint[0] < last) {
-      fitCubic(d, splitPoint[0], last, tHatCenter, tHat2, errorSquared, bezierPath);
+    tHatCenter[0] = -tHatCenter[0];
+    tHatCenter[1] = -tHatCenter[1];
+    if (split < last) {
+      fitCubic(d, split, last, tHatCenter, tHat2, errorSquared, bezierPath);
     } else {
-      bezierPath.lineTo(d.get(last).x, d.get(last).y);
-      //  System.err.println("Can't split any further " + splitPoint[0] + ".." + last);
+      bezierPath.lineTo(d[last * 2], d[last * 2 + 1]);
     }
   }
 
   /**
    * Adds the curve to the bezier path.
    *
-   * @param bezCurve
+   * @param bezCurve the control points of the curve, stored as x0, y0, ..., x3, y3.
    * @param bezierPath
    */
   private static void addCurveTo(
-      Point2D.Double[] bezCurve,
-      BezierPath bezierPath,
-      double errorSquared,
-      boolean connectsCorners) {
+      double[] bezCurve, BezierPath bezierPath, double errorSquared, boolean connectsCorners) {
     BezierPath.Node lastNode = bezierPath.nodes().get(bezierPath.size() - 1);
     double error = Math.sqrt(errorSquared);
     if (connectsCorners
         && Geom.lineContainsPoint(
-            lastNode.x[0],
-            lastNode.y[0],
-            bezCurve[3].x,
-            bezCurve[3].y,
-            bezCurve[1].x,
-            bezCurve[1].y,
-            error)
+            lastNode.x[0], lastNode.y[0], bezCurve[6], bezCurve[7], bezCurve[2], bezCurve[3], error)
         && Geom.lineContainsPoint(
             lastNode.x[0],
             lastNode.y[0],
-            bezCurve[3].x,
-            bezCurve[3].y,
-            bezCurve[2].x,
-            bezCurve[2].y,
+            bezCurve[6],
+            bezCurve[7],
+            bezCurve[4],
+            bezCurve[5],
             error)) {
-      bezierPath.lineTo(bezCurve[3].x, bezCurve[3].y);
+      bezierPath.lineTo(bezCurve[6], bezCurve[7]);
     } else {
       bezierPath.curveTo(
-          bezCurve[1].x, bezCurve[1].y,
-          bezCurve[2].x, bezCurve[2].y,
-          bezCurve[3].x, bezCurve[3].y);
+          bezCurve[2], bezCurve[3],
+          bezCurve[4], bezCurve[5],
+          bezCurve[6], bezCurve[7]);
     }
   }
 
-  /**
-   * Approximate unit tangents at "left" endpoint of digitized curve.
-   *
-   * @param d Digitized points.
-   * @param end Index to "left" end of region.
-   */
-  private static Point2D.Double computeLeftTangent(ArrayList<Point2D.Double> d, int end) {
-    Point2D.Double tHat1;
-    tHat1 = v2SubII(d.get(end + 1), d.get(end));
-    tHat1 = v2Normalize(tHat1);
-    return tHat1;
-  }
-
-  /**
-   * Approximate unit tangents at "right" endpoint of digitized curve.
-   *
-   * @param d Digitized points.
-   * @param end Index to "right" end of region.
-   */
-  private static Point2D.Double computeRightTangent(ArrayList<Point2D.Double> d, int end) {
-    Point2D.Double tHat2;
-    tHat2 = v2SubII(d.get(end - 1), d.get(end));
-    tHat2 = v2Normalize(tHat2);
-    return tHat2;
-  }
-
-  /**
-   * Approximate unit tangents at "center" of digitized curve.
-   *
-   * @param d Digitized points.
-   * @param center Index to "center" end of region.
-   */
-  private static Point2D.Double computeCenterTangent(ArrayList<Point2D.Double> d, int center) {
-    Point2D.Double V1, V2, tHatCenter = new Point2D.Double();
-    V1 = v2SubII(d.get(center - 1), d.get(center));
-    V2 = v2SubII(d.get(center), d.get(center + 1));
-    tHatCenter.x = (V1.x + V2.x) / 2.0;
-    tHatCenter.y = (V1.y + V2.y) / 2.0;
-    tHatCenter = v2Normalize(tHatCenter);
-    return tHatCenter;
-  }
-
   /**
    * Assign parameter values to digitized points using relative distances between points.
    *
@@ -517,20 +701,18 @@ public class Bezier {
    * @param first Indice of first point of region in d.
    * @param last Indice of last point of region in d.
    */
-  private static double[] chordLengthParameterize(
-      ArrayList<Point2D.Double> d, int first, int last) {
-    int i;
-    double[] u;
+  private static double[] chordLengthParameterize(double[] d, int first, int last) {
     /*  Parameterization */
-    u = new double[last - first + 1];
+    double[] u = new double[last - first + 1];
     u[0] = 0.0;
-    for (i = first + 1; i <= last; i++) {
-      u[i - first] = u[i - first - 1] + v2DistanceBetween2Points(d.get(i), d.get(i - 1));
+    for (int i = first + 1; i <= last; i++) {
+      u[i - first] = u[i - first - 1]
+          + Math.sqrt(squaredDistance(d[i * 2], d[i * 2 + 1], d[i * 2 - 2], d[i * 2 - 1]));
     }
-    for (i = first + 1; i <= last; i++) {
+    for (int i = first + 1; i <= last; i++) {
       u[i - first] = u[i - first] / u[last - first];
     }
-    return (u);
+    return u;
   }
 
   /**
@@ -543,56 +725,51 @@ public class Bezier {
    * @param bezCurve Current fitted curve.
    */
   private static double[] reparameterize(
-      ArrayList<Point2D.Double> d, int first, int last, double[] u, Point2D.Double[] bezCurve) {
-    int nPts = last - first + 1;
-    int i;
-    double[] uPrime;
+      double[] d, int first, int last, double[] u, double[] bezCurve) {
     /*  New parameter values */
-    uPrime = new double[nPts];
-    for (i = first; i <= last; i++) {
-      uPrime[i - first] = newtonRaphsonRootFind(bezCurve, d.get(i), u[i - first]);
+    double[] uPrime = new double[last - first + 1];
+    double[] q = new double[8];
+    for (int i = first; i <= last; i++) {
+      uPrime[i - first] = newtonRaphsonRootFind(bezCurve, d[i * 2], d[i * 2 + 1], u[i - first], q);
     }
-    return (uPrime);
+    return uPrime;
   }
 
   /**
    * Use Newton-Raphson iteration to find better root.
    *
    * @param Q Current fitted bezier curve.
-   * @param P Digitized point.
+   * @param px, py Digitized point.
    * @param u Parameter value vor P.
+   * @param tmp a temporary array of length 8.
    */
-  private static double newtonRaphsonRootFind(Point2D.Double[] Q, Point2D.Double P, double u) {
-    double numerator, denominator;
-    Point2D.Double[] Q1 = new Point2D.Double[3], Q2 = new Point2D.Double[2];
-    /*  Q' and Q''   */
-    Point2D.Double Q_u, Q1_u, Q2_u;
-    /*u evaluated at Q, Q', & Q'' */
-    double uPrime;
-    /*  Improved u */
-    int i;
+  private static double newtonRaphsonRootFind(
+      double[] Q, double px, double py, double u, double[] tmp) {
     /* Compute Q(u) */
-    Q_u = bezierII(3, Q, u);
+    double qx = bezierX(3, Q, u, tmp);
+    double qy = tmp[1];
     /* Generate control vertices for Q' */
-    for (i = 0; i <= 2; i++) {
-      Q1[i] = new Point2D.Double((Q[i + 1].x - Q[i].x) * 3.0, (Q[i + 1].y - Q[i].y) * 3.0);
+    double[] Q1 = new double[6];
+    for (int i = 0; i <= 2; i++) {
+      Q1[i * 2] = (Q[i * 2 + 2] - Q[i * 2]) * 3.0;
+      Q1[i * 2 + 1] = (Q[i * 2 + 3] - Q[i * 2 + 1]) * 3.0;
     }
     /* Generate control vertices for Q'' */
-    for (i = 0; i <= 1; i++) {
-      Q2[i] = new Point2D.Double((Q1[i + 1].x - Q1[i].x) * 2.0, (Q1[i + 1].y - Q1[i].y) * 2.0);
+    double[] Q2 = new double[4];
+    for (int i = 0; i <= 1; i++) {
+      Q2[i * 2] = (Q1[i * 2 + 2] - Q1[i * 2]) * 2.0;
+      Q2[i * 2 + 1] = (Q1[i * 2 + 3] - Q1[i * 2 + 1]) * 2.0;
     }
     /* Compute Q'(u) and Q''(u) */
-    Q1_u = bezierII(2, Q1, u);
-    Q2_u = bezierII(1, Q2, u);
+    double q1x = bezierX(2, Q1, u, tmp);
+    double q1y = tmp[1];
+    double q2x = bezierX(1, Q2, u, tmp);
+    double q2y = tmp[1];
     /* Compute f(u)/f'(u) */
-    numerator = (Q_u.x - P.x) * (Q1_u.x) + (Q_u.y - P.y) * (Q1_u.y);
-    denominator = (Q1_u.x) * (Q1_u.x)
-        + (Q1_u.y) * (Q1_u.y)
-        + (Q_u.x - P.x) * (Q2_u.x)
-        + (Q_u.y - P.y) * (Q2_u.y);
+    double numerator = (qx - px) * (q1x) + (qy - py) * (q1y);
+    double denominator = (q1x) * (q1x) + (q1y) * (q1y) + (qx - px) * (q2x) + (qy - py) * (q2y);
     /* u = u - f(u)/f'(u) */
-    uPrime = u - (numerator / denominator);
-    return (uPrime);
+    return u - (numerator / denominator);
   }
 
   /**
@@ -606,94 +783,77 @@ public class Bezier {
    * @param splitPoint Point of maximum error (input/output parameter, must be an array of 1)
    */
   private static double computeMaxError(
-      ArrayList<Point2D.Double> d,
-      int first,
-      int last,
-      Point2D.Double[] bezCurve,
-      double[] u,
-      int[] splitPoint) {
-    int i;
-    double maxDist;
-    /*  Maximum error */
-    double dist;
-    /*  Current error */
-    Point2D.Double P;
-    /*  Point on curve */
-    Point2D.Double v;
-    /*  Vector from point to curve */
+      double[] d, int first, int last, double[] bezCurve, double[] u, int[] splitPoint) {
+    double[] tmp = new double[8];
     splitPoint[0] = (last - first + 1) / 2;
-    maxDist = 0.0;
-    for (i = first + 1; i < last; i++) {
-      P = bezierII(3, bezCurve, u[i - first]);
-      v = v2SubII(P, d.get(i));
-      dist = v2SquaredLength(v);
+    /*  Maximum error */
+    double maxDist = 0.0;
+    for (int i = first + 1; i < last; i++) {
+      /*  Point on curve */
+      double x = bezierX(3, bezCurve, u[i - first], tmp);
+      double y = tmp[1];
+      /*  Current error */
+      double dist = squaredDistance(x, y, d[i * 2], d[i * 2 + 1]);
       if (dist >= maxDist) {
         maxDist = dist;
         splitPoint[0] = i;
       }
     }
-    return (maxDist);
+    return maxDist;
   }
 
   /**
-   * Use least-squares method to find Bezier control points for region.
+   * Generates the Bezier control points for region, using the Wu/Barsky heuristic.
+   *
+   * <p>This method scales the tangent vectors to a third of the distance between the first and the
+   * last point.
    *
    * @param d Array of digitized points.
    * @param first Indice of first point in d.
    * @param last Indice of last point in d.
-   * @param uPrime Parameter values for region .
    * @param tHat1 Unit tangent vectors at start point.
    * @param tHat2 Unit tanget vector at end point.
-   * @return A cubic bezier curve consisting of 4 control points.
+   * @return A cubic bezier curve consisting of 4 control points, stored as x0, y0, ..., x3, y3.
    */
-  private static Point2D.Double[] generateBezier(
-      ArrayList<Point2D.Double> d,
-      int first,
-      int last,
-      double[] uPrime,
-      Point2D.Double tHat1,
-      Point2D.Double tHat2) {
-    Point2D.Double[] bezCurve;
-    bezCurve = new Point2D.Double[4];
-    for (int i = 0; i < bezCurve.length; i++) {
-      bezCurve[i] = new Point2D.Double();
-    }
-    /*  Use the Wu/Barsky heuristic*/
-    double dist = v2DistanceBetween2Points(d.get(last), d.get(first)) / 3.0;
-    bezCurve[0] = d.get(first);
-    bezCurve[3] = d.get(last);
-    v2Add(bezCurve[0], v2Scale(tHat1, dist), bezCurve[1]);
-    v2Add(bezCurve[3], v2Scale(tHat2, dist), bezCurve[2]);
-    return (bezCurve);
+  private static double[] generateBezier(
+      double[] d, int first, int last, double[] tHat1, double[] tHat2) {
+    double[] bezCurve = new double[8];
+    double dist =
+        Math.sqrt(squaredDistance(d[last * 2], d[last * 2 + 1], d[first * 2], d[first * 2 + 1]))
+            / 3.0;
+    bezCurve[0] = d[first * 2];
+    bezCurve[1] = d[first * 2 + 1];
+    bezCurve[6] = d[last * 2];
+    bezCurve[7] = d[last * 2 + 1];
+    scale(tHat1, dist);
+    bezCurve[2] = bezCurve[0] + tHat1[0];
+    bezCurve[3] = bezCurve[1] + tHat1[1];
+    scale(tHat2, dist);
+    bezCurve[4] = bezCurve[6] + tHat2[0];
+    bezCurve[5] = bezCurve[7] + tHat2[1];
+    return bezCurve;
   }
 
   /**
    * Evaluate a Bezier curve at a particular parameter value.
    *
    * @param degree The degree of the bezier curve.
-   * @param V Array of control points.
+   * @param V Array of control points, stored as x0, y0, x1, y1, ...
    * @param t Parametric value to find point for.
+   * @param vTemp a temporary array of at least the length of V, which holds the point at index 0
+   *     and 1 on return.
+   * @return the x coordinate of the point.
    */
-  private static Point2D.Double bezierII(int degree, Point2D.Double[] V, double t) {
-    int i, j;
-    Point2D.Double q;
-    /* Point on curve at parameter t */
-    Point2D.Double[] vTemp;
-    /* Local copy of control points  */
-    /* Copy array */
-    vTemp = new Point2D.Double[degree + 1];
-    for (i = 0; i <= degree; i++) {
-      vTemp[i] = (Point2D.Double) V[i].clone();
-    }
+  private static double bezierX(int degree, double[] V, double t, double[] vTemp) {
+    System.arraycopy(V, 0, vTemp, 0, degree * 2 + 2);
     /* Triangle computation */
-    for (i = 1; i <= degree; i++) {
-      for (j = 0; j <= degree - i; j++) {
-        vTemp[j].x = (1.0 - t) * vTemp[j].x + t * vTemp[j + 1].x;
-        vTemp[j].y = (1.0 - t) * vTemp[j].y + t * vTemp[j + 1].y;
+    for (int i = 1; i <= degree; i++) {
+      for (int j = 0; j <= degree - i; j++) {
+        vTemp[j * 2] = (1.0 - t) * vTemp[j * 2] + t * vTemp[j * 2 + 2];
+        vTemp[j * 2 + 1] = (1.0 - t) * vTemp[j * 2 + 1] + t * vTemp[j * 2 + 3];
       }
     }
-    q = vTemp[0];
-    return q;
+    return vTemp[0];
   }
 
   /* -------------------------------------------------------------------------
@@ -703,11 +863,6 @@ public class Bezier {
    * from "Graphics Gems", Academic Press, 1990
    * -------------------------------------------------------------------------
    */
-  /** Return the distance between two points */
-  private static double v2DistanceBetween2Points(Point2D.Double a, Point2D.Double b) {
-    return Math.sqrt(v2SquaredDistanceBetween2Points(a, b));
-  }
-
   /** Return the distance between two points */
   private static double v2SquaredDistanceBetween2Points(Point2D.Double a, Point2D.Double b) {
     double dx = a.x - b.x;
@@ -715,114 +870,33 @@ public class Bezier {
     return (dx * dx) + (dy * dy);
   }
 
-  /**
-   * Scales the input vector to the new length and returns it.
-   *
-   * <p>This method alters the value of the input point!
-   */
-  private static Point2D.Double v2Scale(Point2D.Double v, double newlen) {
-    double len = v2Length(v);
-    if (len != 0.0) {
-      v.x *= newlen / len;
-      v.y *= newlen / len;
-    }
-    return v;
-  }
-
-  /**
-   * Scales the input vector by the specified factor and returns it.
-   *
-   * <p>This method alters the value of the input point!
-   */
-  private static Point2D.Double v2ScaleIII(Point2D.Double v, double s) {
-    Point2D.Double result = new Point2D.Double();
-    result.x = v.x * s;
-    result.y = v.y * s;
-    return result;
-  }
-
-  /** Returns length of input vector. */
-  private static double v2Length(Point2D.Double a) {
-    return Math.sqrt(v2SquaredLength(a));
-  }
-
-  /** Returns squared length of input vector. */
-  private static double v2SquaredLength(Point2D.Double a) {
-    return (a.x * a.x) + (a.y * a.y);
+  /** Returns the squared distance between two points. */
+  private static double squaredDistance(double ax, double ay, double bx, double by) {
+    double dx = ax - bx;
+    double dy = ay - by;
+    return (dx * dx) + (dy * dy);
   }
 
   /**
-   * Return vector sum c = a+b.
+   * Scales the input vector to the new length.
    *
-   * <p>This method alters the value of c.
+   * <p>This method alters the value of the input vector!
    */
-  private static Point2D.Double v2Add(Point2D.Double a, Point2D.Double b, Point2D.Double c) {
-    c.x = a.x + b.x;
-    c.y = a.y + b.y;
-    return c;
-  }
-
-  /** Return vector sum = a+b. */
-  private static Point2D.Double v2AddII(Point2D.Double a, Point2D.Double b) {
-    Point2D.Double c = new Point2D.Double();
-    c.x = a.x + b.x;
-    c.y = a.y + b.y;
-    return c;
-  }
-
-  /** Negates the input vector and returns it. */
-  private static Point2D.Double v2Negate(Point2D.Double v) {
-    v.x = -v.x;
-    v.y = -v.y;
-    return v;
-  }
-
-  /** Return the dot product of vectors a and b. */
-  private static double v2Dot(Point2D.Double a, Point2D.Double b) {
-    return (a.x * b.x) + (a.y * b.y);
-  }
-
-  /** Normalizes the input vector and returns it. */
-  private static Point2D.Double v2Normalize(Point2D.Double v) {
-    double len = v2Length(v);
+  private static void scale(double[] v, double newlen) {
+    double len = Math.sqrt((v[0] * v[0]) + (v[1] * v[1]));
     if (len != 0.0) {
-      v.x /= len;
-      v.y /= len;
+      v[0] *= newlen / len;
+      v[1] *= newlen / len;
     }
-    return v;
   }
 
-  /**
-   * Subtract Vector a from Vector b.
-   *
-   * @param a Vector a - the value is not changed by this method
-   * @param b Vector b - the value is not changed by this method
-   * @return Vector a subtracted by Vector v.
-   */
-  private static Point2D.Double v2SubII(Point2D.Double a, Point2D.Double b) {
-    Point2D.Double c = new Point2D.Double();
-    c.x = a.x - b.x;
-    c.y = a.y - b.y;
-    return (c);
-  }
-
-  /** B0, B1, B2, B3 : Bezier multipliers */
-  private static double b0(double u) {
-    double tmp = 1.0 - u;
-    return (tmp * tmp * tmp);
-  }
-
-  private static double b1(double u) {
-    double tmp = 1.0 - u;
-    return (3 * u * (tmp * tmp));
-  }
-
-  private static double b2(double u) {
-    double tmp = 1.0 - u;
-    return (3 * u * u * tmp);
-  }
-
-  private static double b3(double u) {
-    return (u * u * u);
+  /** Returns the normalized vector. */
+  private static double[] normalize(double x, double y) {
+    double len = Math.sqrt((x * x) + (y * y));
+    if (len != 0.0) {
+      x /= len;
+      y /= len;
+    }
+    return new double[] {x, y};
   }
 }
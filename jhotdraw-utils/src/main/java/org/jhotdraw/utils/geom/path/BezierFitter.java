@@ -0,0 +1,146 @@
+/*
+ * @(#)BezierFitter.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.utils.geom.path;
+
+import java.util.Arrays;
+
+/**
+ * Fits a bezier path to digitized points while they are being digitized.
+ *
+ * <p>{@link Bezier#fitBezierPath} splits the digitized points into segments at corners, and fits
+ * each segment on its own. A corner can be detected as soon as enough points after it have been
+ * digitized. This class detects corners while points are added, and fits each segment as soon as
+ * the corner at its end has been detected. When all points have been added, {@link #finish} only
+ * needs to fit the last segment.
+ *
+ * <p>The fitted path is identical to the path that {@link Bezier#fitBezierPath(double[], double)}
+ * fits to all points.
+ */
+public class BezierFitter {
+
+  private final double error;
+  private final double squaredCornerDistance;
+
+  /** The coordinates of the digitized points, stored as x0, y0, x1, y1, ... */
+  private double[] points = new double[64];
+
+  private int count;
+
+  /** The index of the next point, which is tested for being a corner. */
+  private int cornerCandidate = 1;
+
+  /** The index of the next point, which is tested for being far enough from the candidate. */
+  private int nextCandidate = 2;
+
+  /** The index of the last corner, or -1. */
+  private int previousCorner = -1;
+
+  /** The index of the first point of the segment, which has not been fitted yet. */
+  private int segmentStart;
+
+  private final BezierPath fittedPath = new BezierPath();
+  private boolean isFinished;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param error the maximal allowed error between the bezier path and the digitized points.
+   */
+  public BezierFitter(double error) {
+    this.error = error;
+    double cornerDistance = error * error;
+    this.squaredCornerDistance = cornerDistance * cornerDistance;
+  }
+
+  public double getError() {
+    return error;
+  }
+
+  /**
+   * Adds a digitized point, and fits the segment before it, if the point reveals a corner.
+   *
+   * @throws IllegalStateException if the fitter has been finished.
+   */
+  public void add(double x, double y) {
+    if (isFinished) {
+      throw new IllegalStateException("finished");
+    }
+    if (count * 2 == points.length) {
+      points = Arrays.copyOf(points, points.length * 2);
+    }
+    points[count * 2] = x;
+    points[count * 2 + 1] = y;
+    count++;
+    findCorners(false);
+  }
+
+  public int getPointCount() {
+    return count;
+  }
+
+  public double getX(int index) {
+    return points[index * 2];
+  }
+
+  public double getY(int index) {
+    return points[index * 2 + 1];
+  }
+
+  /**
+   * Returns a copy of the path, which has been fitted to the segments before the last detected
+   * corner.
+   */
+  public BezierPath getFittedPath() {
+    return fittedPath.clone();
+  }
+
+  /**
+   * Fits the last segment, and returns the fitted path. No points can be added after this method
+   * has been called.
+   */
+  public BezierPath finish() {
+    if (!isFinished) {
+      isFinished = true;
+      findCorners(true);
+      Bezier.fitSegment(points, segmentStart, count - 1, error, fittedPath);
+    }
+    return fittedPath;
+  }
+
+  /**
+   * Tests the points for corners, in the same order as {@link Bezier#findCorners(double[], double,
+   * double)} does.
+   *
+   * @param isComplete whether all points have been added. If this is false, the test of a point
+   *     waits until there is a succeeding point, which is far enough away from it.
+   */
+  private void findCorners(boolean isComplete) {
+    while (cornerCandidate < count - 1) {
+      int next = Bezier.findNextCornerPoint(
+          points, cornerCandidate, nextCandidate, count, squaredCornerDistance);
+      if (next == -1 && !isComplete) {
+        nextCandidate = count;
+        return;
+      }
+      if (next != -1
+          && Bezier.isCorner(
+              points,
+              cornerCandidate,
+              next,
+              previousCorner,
+              squaredCornerDistance,
+              Bezier.CORNER_ANGLE)) {
+        Bezier.fitSegment(points, segmentStart, cornerCandidate, error, fittedPath);
+        segmentStart = cornerCandidate;
+        previousCorner = cornerCandidate;
+      }
+      cornerCandidate++;
+      nextCandidate = cornerCandidate + 1;
+    }
+  }
+}
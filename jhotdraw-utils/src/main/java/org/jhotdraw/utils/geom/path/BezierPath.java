@@ -33,6 +33,14 @@ import org.jhotdraw.utils.geom.Shapes;
  * <p>A BezierPath is defined by its nodes. Each node has three control points: C0, C1, C2. A mask
  * defines which control points are in use. At a node, the path passes through C0. C1 controls the
  * curve going towards C0. C2 controls the curve going away from C0.
+ *
+ * <p>A BezierPath caches its shape, its bounds, an index of its segments and a table of arc
+ * lengths. The methods of the path keep these caches up to date. The nodes returned by
+ * {@link #nodes} can be changed in place, through their public fields or their methods
+ * {@code setMask}, {@code setControlPoint}, {@code moveTo} and {@code moveBy}. A node does not know
+ * the path it belongs to, so callers must call {@link #invalidatePath} after changing a node in
+ * place. Otherwise methods such as {@link #findSegment}, {@link #outlineContains} and
+ * {@link #getRelativePositionOnPath} answer from stale caches.
  */
 public class BezierPath implements Shape, Serializable, Cloneable {
 
@@ -68,6 +76,18 @@ public class BezierPath implements Shape, Serializable, Cloneable {
   /** We cache a Rectangle2D.Double instance to speed up getBounds operations. */
   private transient Rectangle2D.Double bounds;
 
+  /**
+   * Paths with at least this number of nodes build a {@link SegmentIndex} to speed up hit testing of
+   * their segments.
+   */
+  private static final int SEGMENT_INDEX_THRESHOLD = 16;
+
+  /** We cache a segment index to speed up findSegment and outlineContains operations. */
+  private transient SegmentIndex segmentIndex;
+
+  /** We cache an arc length table to speed up getPointOnPath operations. */
+  private transient ArcLengthTable arcLengthTable;
+
   /** We cache the index of the outermost node to speed up method indexOfOutermostNode(); */
   private int outer = -1;
 
@@ -92,13 +112,22 @@ public class BezierPath implements Shape, Serializable, Cloneable {
 
     private static final long serialVersionUID = 1L;
 
-    /** This mask is used to describe which control points in addition to C0 are in effect. */
+    /**
+     * This mask is used to describe which control points in addition to C0 are in effect. Call
+     * {@link BezierPath#invalidatePath} after changing it in place.
+     */
     public int mask = 0;
 
-    /** Control point x coordinates. */
+    /**
+     * Control point x coordinates. Call {@link BezierPath#invalidatePath} after changing them in
+     * place.
+     */
     public double[] x = new double[3];
 
-    /** Control point y coordinates. */
+    /**
+     * Control point y coordinates. Call {@link BezierPath#invalidatePath} after changing them in
+     * place.
+     */
     public double[] y = new double[3];
 
     /**
@@ -164,10 +193,17 @@ public class BezierPath implements Shape, Serializable, Cloneable {
       return mask;
     }
 
+    /**
+     * Sets the mask. Call {@link BezierPath#invalidatePath} on the path of the node afterwards.
+     */
     public void setMask(int newValue) {
       mask = newValue;
     }
 
+    /**
+     * Sets a control point. Call {@link BezierPath#invalidatePath} on the path of the node
+     * afterwards.
+     */
     public void setControlPoint(int index, Point2D.Double p) {
       x[index] = p.x;
       y[index] = p.y;
@@ -177,14 +213,26 @@ public class BezierPath implements Shape, Serializable, Cloneable {
       return new Point2D.Double(x[index], y[index]);
     }
 
+    /**
+     * Moves all control points, so that C0 is at the specified point. Call {@link
+     * BezierPath#invalidatePath} on the path of the node afterwards.
+     */
     public void moveTo(Point2D.Double p) {
       moveBy(p.x - x[0], p.y - y[0]);
     }
 
+    /**
+     * Moves all control points, so that C0 is at the specified point. Call {@link
+     * BezierPath#invalidatePath} on the path of the node afterwards.
+     */
     public void moveTo(double x, double y) {
       moveBy(x - this.x[0], y - this.y[0]);
     }
 
+    /**
+     * Moves all control points by the specified distance. Call {@link BezierPath#invalidatePath} on
+     * the path of the node afterwards.
+     */
     public void moveBy(double dx, double dy) {
       for (int i = 0; i < 3; i++) {
         x[i] += dx;
@@ -280,6 +328,7 @@ public class BezierPath implements Shape, Serializable, Cloneable {
   }
 
   public Node set(int index, Node element) {
+    invalidatePath();
     return NODES.set(index, element);
   }
 
@@ -320,6 +369,7 @@ public class BezierPath implements Shape, Serializable, Cloneable {
     Node c = NODES.get(nodeIndex);
     c.x[ctrlIndex] = p.x;
     c.y[ctrlIndex] = p.y;
+    invalidatePath();
   }
 
   /**
@@ -334,11 +384,16 @@ public class BezierPath implements Shape, Serializable, Cloneable {
     return new Point2D.Double(c.x[ctrlIndex], c.y[ctrlIndex]);
   }
 
-  /** This must be called after the BezierPath has been changed. */
+  /**
+   * This must be called after the BezierPath has been changed, in particular after a node has been
+   * changed in place.
+   */
   public void invalidatePath() {
     generalPath = null;
     bounds = null;
     outer = -1;
+    segmentIndex = null;
+    arcLengthTable = null;
   }
 
   /** Recomputes the BezierPath, if it is invalid. */
@@ -448,7 +503,17 @@ public class BezierPath implements Shape, Serializable, Cloneable {
    * @param tolerance The tolerance for the test.
    */
   public boolean outlineContains(Point2D.Double p, double tolerance) {
-    return Shapes.outlineContains(this, p, tolerance);
+    if (NODES.size() < SEGMENT_INDEX_THRESHOLD) {
+      return Shapes.outlineContains(this, p, tolerance);
+    }
+    if (findSegment(p, tolerance) != -1) {
+      return true;
+    }
+    // The flattened outline ends with a degenerate closing line at the first node
+    Node first = NODES.get(0);
+    return isClosed
+        && Geom.lineContainsPoint(
+            first.x[0], first.y[0], first.x[0], first.y[0], p.x, p.y, tolerance);
   }
 
   @Override
@@ -690,6 +755,7 @@ public class BezierPath implements Shape, Serializable, Cloneable {
    * that path.
    */
   public void setTo(BezierPath that) {
+    invalidatePath();
     while (that.NODES.size() < NODES.size()) {
       NODES.remove(NODES.size() - 1);
     }
@@ -758,37 +824,8 @@ public class BezierPath implements Shape, Serializable, Cloneable {
     } else if (relative >= 1) {
       return NODES.get(NODES.size() - 1).getControlPoint(0);
     }
-    validatePath();
-    // Compute the relative point on the path
-    double len = getLengthOfPath(flatness);
-    double relativeLen = len * relative;
-    double pos = 0;
-    double[] coords = new double[6];
-    PathIterator i = generalPath.getPathIterator(new AffineTransform(), flatness);
-    i.currentSegment(coords);
-    double prevX = coords[0];
-    double prevY = coords[1];
-    i.next();
-    for (; !i.isDone(); i.next()) {
-      i.currentSegment(coords);
-      double segLen = Geom.length(prevX, prevY, coords[0], coords[1]);
-      if (pos + segLen >= relativeLen) {
-        // if (true) return new Point2D.Double(coords[0], coords[1]);
-        // Compute the relative Point2D.Double on the line
-        /*
-        return new Point2D.Double(
-        prevX * pos / len + coords[0] * (pos + segLen) / len,
-        prevY * pos / len + coords[1] * (pos + segLen) / len
-        );*/
-        double factor = (relativeLen - pos) / segLen;
-        return new Point2D.Double(
-            prevX * (1 - factor) + coords[0] * factor, prevY * (1 - factor) + coords[1] * factor);
-      }
-      pos += segLen;
-      prevX = coords[0];
-      prevY = coords[1];
-    }
-    throw new InternalError("We should never get here");
+    ArcLengthTable table = getArcLengthTable(flatness);
+    return table.getPoint(table.getLength() * relative);
   }
 
   /**
@@ -797,20 +834,15 @@ public class BezierPath implements Shape, Serializable, Cloneable {
    * @param flatness the flatness used to approximate the length.
    */
   public double getLengthOfPath(double flatness) {
-    double len = 0;
-    PathIterator i = generalPath.getPathIterator(new AffineTransform(), flatness);
-    double[] coords = new double[6];
-    i.currentSegment(coords);
-    double prevX = coords[0];
-    double prevY = coords[1];
-    i.next();
-    for (; !i.isDone(); i.next()) {
-      i.currentSegment(coords);
-      len += Geom.length(prevX, prevY, coords[0], coords[1]);
-      prevX = coords[0];
-      prevY = coords[1];
+    return getArcLengthTable(flatness).getLength();
+  }
+
+  private ArcLengthTable getArcLengthTable(double flatness) {
+    if (arcLengthTable == null || arcLengthTable.flatness != flatness) {
+      validatePath();
+      arcLengthTable = new ArcLengthTable(generalPath, flatness);
     }
-    return len;
+    return arcLengthTable;
   }
 
   /**
@@ -823,102 +855,79 @@ public class BezierPath implements Shape, Serializable, Cloneable {
   public double getRelativePositionOnPath(Point2D.Double find, double flatness) {
     // XXX - This method works only for straight lines!
     double len = getLengthOfPath(flatness);
-    double relativeLen = 0d;
-    Node v1, v2;
-    BezierPath tempPath = new BezierPath();
-    Node t1, t2;
-    tempPath.NODES.add(t1 = new Node());
-    tempPath.NODES.add(t2 = new Node());
-    for (int i = 0, n = NODES.size() - 1; i < n; i++) {
-      v1 = NODES.get(i);
-      v2 = NODES.get(i + 1);
-      if (v1.mask == 0 && v2.mask == 0) {
-        if (Geom.lineContainsPoint(v1.x[0], v1.y[0], v2.x[0], v2.y[0], find.x, find.y, flatness)) {
-          relativeLen += Geom.length(v1.x[0], v1.y[0], find.x, find.y);
-          return relativeLen / len;
-        } else {
-          relativeLen += Geom.length(v1.x[0], v1.y[0], v2.x[0], v2.y[0]);
-        }
-      } else {
-        t1.setTo(v1);
-        t2.setTo(v2);
-        tempPath.invalidatePath();
-        if (tempPath.outlineContains(find, flatness)) {
-          relativeLen += Geom.length(v1.x[0], v1.y[0], find.x, find.y);
-          return relativeLen / len;
-        } else {
-          relativeLen += Geom.length(v1.x[0], v1.y[0], v2.x[0], v2.y[0]);
-        }
-      }
+    int i = findSegment(find, flatness);
+    if (i == -1) {
+      return -1;
     }
-    if (isClosed && NODES.size() > 1) {
-      v1 = NODES.get(NODES.size() - 1);
-      v2 = NODES.get(0);
-      if (v1.mask == 0 && v2.mask == 0) {
-        if (Geom.lineContainsPoint(v1.x[0], v1.y[0], v2.x[0], v2.y[0], find.x, find.y, flatness)) {
-          relativeLen += Geom.length(v1.x[0], v1.y[0], find.x, find.y);
-          return relativeLen / len;
-        }
-      } else {
-        t1.setTo(v1);
-        t2.setTo(v2);
-        tempPath.invalidatePath();
-        if (tempPath.outlineContains(find, flatness)) {
-          relativeLen += Geom.length(v1.x[0], v1.y[0], find.x, find.y);
-          return relativeLen / len;
-        }
+    double relativeLen;
+    if (NODES.size() < SEGMENT_INDEX_THRESHOLD) {
+      relativeLen = 0d;
+      for (int j = 0; j < i; j++) {
+        Node v1 = NODES.get(j);
+        Node v2 = NODES.get(j + 1);
+        relativeLen += Geom.length(v1.x[0], v1.y[0], v2.x[0], v2.y[0]);
       }
+    } else {
+      relativeLen = getSegmentIndex().getChordOffset(i);
     }
-    return -1;
+    Node v1 = NODES.get(i);
+    relativeLen += Geom.length(v1.x[0], v1.y[0], find.x, find.y);
+    return relativeLen / len;
   }
 
   /**
    * Gets the segment of the polyline that is hit by the given Point2D.Double.
    *
+   * <p>Paths with many nodes only test the segments whose bounds contain the point, and use an
+   * index, which is built on the first call and discarded by {@link #invalidatePath}.
+   *
    * @return the index of the segment or -1 if no segment was hit.
    */
   public int findSegment(Point2D.Double find, double tolerance) {
-    // XXX - This works only for straight lines!
-    Node v1, v2;
     BezierPath tempPath = new BezierPath();
-    Node t1, t2;
-    tempPath.NODES.add(t1 = new Node());
-    tempPath.NODES.add(t2 = new Node());
-    for (int i = 0, n = NODES.size() - 1; i < n; i++) {
-      v1 = NODES.get(i);
-      v2 = NODES.get(i + 1);
-      if (v1.mask == 0 && v2.mask == 0) {
-        if (Geom.lineContainsPoint(v1.x[0], v1.y[0], v2.x[0], v2.y[0], find.x, find.y, tolerance)) {
-          return i;
-        }
-      } else {
-        t1.setTo(v1);
-        t2.setTo(v2);
-        tempPath.invalidatePath();
-        if (tempPath.outlineContains(find, tolerance)) {
-          return i;
-        }
-      }
+    tempPath.NODES.add(new Node());
+    tempPath.NODES.add(new Node());
+    if (NODES.size() >= SEGMENT_INDEX_THRESHOLD) {
+      // Geom.lineContainsPoint accepts points in the bounds of the line grown by this amount
+      double grow = Math.max(2, Math.ceil(tolerance));
+      return getSegmentIndex()
+          .find(find.x, find.y, grow, i -> segmentContains(i, find, tolerance, tempPath));
     }
-    if (isClosed && NODES.size() > 1) {
-      v1 = NODES.get(NODES.size() - 1);
-      v2 = NODES.get(0);
-      if (v1.mask == 0 && v2.mask == 0) {
-        if (Geom.lineContainsPoint(v1.x[0], v1.y[0], v2.x[0], v2.y[0], find.x, find.y, tolerance)) {
-          return NODES.size() - 1;
-        }
-      } else {
-        t1.setTo(v1);
-        t2.setTo(v2);
-        tempPath.invalidatePath();
-        if (tempPath.outlineContains(find, tolerance)) {
-          return NODES.size() - 1;
-        }
+    int n = NODES.size();
+    for (int i = 0, count = n < 2 ? 0 : isClosed ? n : n - 1; i < count; i++) {
+      if (segmentContains(i, find, tolerance, tempPath)) {
+        return i;
       }
     }
     return -1;
   }
 
+  private SegmentIndex getSegmentIndex() {
+    if (segmentIndex == null
+        || segmentIndex.getSegmentCount() != (isClosed ? NODES.size() : NODES.size() - 1)) {
+      segmentIndex = new SegmentIndex(NODES, isClosed);
+    }
+    return segmentIndex;
+  }
+
+  /**
+   * Returns true, if the outline of the specified segment contains the point.
+   *
+   * @param tempPath a path with two nodes, which is used for testing curved segments.
+   */
+  private boolean segmentContains(
+      int i, Point2D.Double find, double tolerance, BezierPath tempPath) {
+    Node v1 = NODES.get(i);
+    Node v2 = NODES.get(i + 1 == NODES.size() ? 0 : i + 1);
+    if (v1.mask == 0 && v2.mask == 0) {
+      return Geom.lineContainsPoint(v1.x[0], v1.y[0], v2.x[0], v2.y[0], find.x, find.y, tolerance);
+    }
+    tempPath.NODES.get(0).setTo(v1);
+    tempPath.NODES.get(1).setTo(v2);
+    tempPath.invalidatePath();
+    return tempPath.outlineContains(find, tolerance);
+  }
+
   /**
    * Joins two segments into one if the given Point2D.Double hits a node of the bezier path.
    *
@@ -1028,6 +1037,7 @@ public class BezierPath implements Shape, Serializable, Cloneable {
       throw new IllegalPathStateException("curveTo only allowed when not empty");
     }
     Node lastPoint = NODES.get(NODES.size() - 1);
+    invalidatePath();
     lastPoint.mask |= C2_MASK;
     lastPoint.x[2] = x1;
     lastPoint.y[2] = y1;
@@ -1215,4 +1225,75 @@ public class BezierPath implements Shape, Serializable, Cloneable {
   public int getWindingRule() {
     return windingRule;
   }
+
+  /**
+   * The cumulative lengths of the flattened path, which allow to find a relative point on the path
+   * with a binary search.
+   */
+  private static final class ArcLengthTable {
+
+    private final double flatness;
+
+    /** The coordinates of the points of the flattened path, stored as x, y. */
+    private final double[] points;
+
+    /** The length of the flattened path from its start to each point. */
+    private final double[] lengths;
+
+    private final int count;
+
+    ArcLengthTable(Path2D.Double path, double flatness) {
+      this.flatness = flatness;
+      double[] pts = new double[32];
+      double[] lens = new double[16];
+      int n = 0;
+      double len = 0;
+      PathIterator i = path.getPathIterator(new AffineTransform(), flatness);
+      double[] coords = new double[6];
+      for (; !i.isDone(); i.next()) {
+        i.currentSegment(coords);
+        if (n > 0) {
+          len += Geom.length(pts[n * 2 - 2], pts[n * 2 - 1], coords[0], coords[1]);
+        }
+        if (n == lens.length) {
+          pts = Arrays.copyOf(pts, n * 4);
+          lens = Arrays.copyOf(lens, n * 2);
+        }
+        pts[n * 2] = coords[0];
+        pts[n * 2 + 1] = coords[1];
+        lens[n++] = len;
+      }
+      points = pts;
+      lengths = lens;
+      count = n;
+    }
+
+    double getLength() {
+      return lengths[count - 1];
+    }
+
+    Point2D.Double getPoint(double relativeLen) {
+      // Find the first point, which is at least relativeLen away from the start
+      int low = 1;
+      int high = count - 1;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (lengths[mid] >= relativeLen) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      if (low >= count || lengths[low] < relativeLen) {
+        throw new InternalError("We should never get here");
+      }
+      double prevX = points[low * 2 - 2];
+      double prevY = points[low * 2 - 1];
+      double x = points[low * 2];
+      double y = points[low * 2 + 1];
+      double factor = (relativeLen - lengths[low - 1]) / Geom.length(prevX, prevY, x, y);
+      return new Point2D.Double(
+          prevX * (1 - factor) + x * factor, prevY * (1 - factor) + y * factor);
+    }
+  }
 }
@@ -36,6 +36,9 @@ public class BezierPathIterator implements PathIterator {
   /** ?? */
   private static final int CURVE_SIZE[] = {2, 2, 4, 6, 0};
 
+  /** Receives the double coordinates, when the segments are requested as floats. */
+  private final double[] buffer = new double[6];
+
   /**
    * Constructs an iterator given a BezierPath.
    *
@@ -103,10 +106,9 @@ public class BezierPathIterator implements PathIterator {
    */
   @Override
   public int currentSegment(float[] coords) {
-    double[] cd = new double[coords.length];
-    int result = currentSegment(cd);
-    for (int i = 0; i < coords.length; i++) {
-      coords[i] = (float) cd[i];
+    int result = currentSegment(buffer);
+    for (int i = 0, n = Math.min(coords.length, buffer.length); i < n; i++) {
+      coords[i] = (float) buffer[i];
     }
     return result;
   }
@@ -0,0 +1,154 @@
+/*
+ * @(#)SegmentIndex.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.utils.geom.path;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+import org.jhotdraw.utils.geom.Geom;
+
+/**
+ * A bounding volume hierarchy over the segments of a {@link BezierPath}.
+ *
+ * <p>Segment {@code i} goes from node {@code i} to node {@code i + 1}, the closing segment of a
+ * closed path goes from the last node to the first node. The bounds of a segment are the bounds of
+ * its control points, which contain the curve of the segment.
+ *
+ * <p>Since consecutive segments of a path are usually close to each other, the hierarchy is a
+ * complete binary tree over runs of consecutive segments, which is stored in flat arrays. Searching
+ * the tree from left to right visits the candidate segments in ascending order, so that a search
+ * yields the same segment as a linear scan over all segments.
+ *
+ * <p>The index is a snapshot of the nodes. It must be discarded when the path changes.
+ */
+final class SegmentIndex {
+
+  /** The number of consecutive segments in a leaf of the tree. */
+  private static final int LEAF_SIZE = 4;
+
+  private final int segmentCount;
+
+  /** The bounds of each segment, stored as minX, minY, maxX, maxY. */
+  private final double[] segmentBounds;
+
+  /** The length of the chords from the start of the path to the start of each segment. */
+  private final double[] chordOffsets;
+
+  /** The index of the first leaf in {@link #treeBounds}. The root has index 1. */
+  private final int firstLeaf;
+
+  /** The bounds of each tree node, stored as minX, minY, maxX, maxY. */
+  private final double[] treeBounds;
+
+  SegmentIndex(List<BezierPath.Node> nodes, boolean isClosed) {
+    int n = nodes.size();
+    segmentCount = n < 2 ? 0 : isClosed ? n : n - 1;
+    segmentBounds = new double[segmentCount * 4];
+    chordOffsets = new double[segmentCount];
+    double offset = 0;
+    for (int i = 0; i < segmentCount; i++) {
+      BezierPath.Node v1 = nodes.get(i);
+      BezierPath.Node v2 = nodes.get(i + 1 == n ? 0 : i + 1);
+      int b = i * 4;
+      segmentBounds[b] = segmentBounds[b + 2] = v1.x[0];
+      segmentBounds[b + 1] = segmentBounds[b + 3] = v1.y[0];
+      add(segmentBounds, b, v2.x[0], v2.y[0]);
+      if ((v1.mask & BezierPath.C2_MASK) != 0) {
+        add(segmentBounds, b, v1.x[2], v1.y[2]);
+      }
+      if ((v2.mask & BezierPath.C1_MASK) != 0) {
+        add(segmentBounds, b, v2.x[1], v2.y[1]);
+      }
+      chordOffsets[i] = offset;
+      offset += Geom.length(v1.x[0], v1.y[0], v2.x[0], v2.y[0]);
+    }
+
+    int leafCount = Math.max(1, (segmentCount + LEAF_SIZE - 1) / LEAF_SIZE);
+    firstLeaf = Integer.highestOneBit(leafCount) == leafCount
+        ? leafCount
+        : Integer.highestOneBit(leafCount) << 1;
+    treeBounds = new double[firstLeaf * 2 * 4];
+    for (int node = 0, end = firstLeaf * 2; node < end; node++) {
+      int b = node * 4;
+      treeBounds[b] = treeBounds[b + 1] = Double.POSITIVE_INFINITY;
+      treeBounds[b + 2] = treeBounds[b + 3] = Double.NEGATIVE_INFINITY;
+    }
+    for (int i = 0; i < segmentCount; i++) {
+      int b = (firstLeaf + i / LEAF_SIZE) * 4;
+      int s = i * 4;
+      add(treeBounds, b, segmentBounds[s], segmentBounds[s + 1]);
+      add(treeBounds, b, segmentBounds[s + 2], segmentBounds[s + 3]);
+    }
+    for (int node = firstLeaf - 1; node > 0; node--) {
+      int b = node * 4;
+      for (int child = node * 2; child <= node * 2 + 1; child++) {
+        int c = child * 4;
+        add(treeBounds, b, treeBounds[c], treeBounds[c + 1]);
+        add(treeBounds, b, treeBounds[c + 2], treeBounds[c + 3]);
+      }
+    }
+  }
+
+  private static void add(double[] bounds, int b, double x, double y) {
+    if (x < bounds[b]) {
+      bounds[b] = x;
+    }
+    if (y < bounds[b + 1]) {
+      bounds[b + 1] = y;
+    }
+    if (x > bounds[b + 2]) {
+      bounds[b + 2] = x;
+    }
+    if (y > bounds[b + 3]) {
+      bounds[b + 3] = y;
+    }
+  }
+
+  public int getSegmentCount() {
+    return segmentCount;
+  }
+
+  /** Returns the length of the chords from the start of the path to the start of the segment. */
+  public double getChordOffset(int segment) {
+    return chordOffsets[segment];
+  }
+
+  /**
+   * Returns the first segment, whose bounds grown by the specified amount contain the point, and
+   * which passes the specified test.
+   *
+   * @return the index of the segment or -1 if no segment passes the test.
+   */
+  public int find(double x, double y, double grow, IntPredicate test) {
+    return find(1, x, y, grow, test);
+  }
+
+  private int find(int node, double x, double y, double grow, IntPredicate test) {
+    if (!contains(treeBounds, node * 4, x, y, grow)) {
+      return -1;
+    }
+    if (node >= firstLeaf) {
+      for (int i = (node - firstLeaf) * LEAF_SIZE, end = Math.min(i + LEAF_SIZE, segmentCount);
+          i < end;
+          i++) {
+        if (contains(segmentBounds, i * 4, x, y, grow) && test.test(i)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    int found = find(node * 2, x, y, grow, test);
+    return found != -1 ? found : find(node * 2 + 1, x, y, grow, test);
+  }
+
+  private static boolean contains(double[] bounds, int b, double x, double y, double grow) {
+    return x >= bounds[b] - grow
+        && y >= bounds[b + 1] - grow
+        && x <= bounds[b + 2] + grow
+        && y <= bounds[b + 3] + grow;
+  }
+}
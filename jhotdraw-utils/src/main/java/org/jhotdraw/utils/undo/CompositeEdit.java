@@ -7,6 +7,7 @@
  */
 package org.jhotdraw.utils.undo;
 
+import java.io.IOException;
 import javax.swing.undo.*;
 
 /**
@@ -27,14 +28,25 @@ import javax.swing.undo.*;
  * // fire CompositeEdit at end of sequence again, to end it.
  * fireUndoableEditEvent(ce);
  * </pre>
+ *
+ * <p>The estimated size of a {@code CompositeEdit} is the sum of the estimated sizes of its edits.
+ * Spilling a {@code CompositeEdit} spills all its {@link SpillableEdit}s.
  */
-public class CompositeEdit extends CompoundEdit {
+public class CompositeEdit extends CompoundEdit implements SpillableEdit {
 
   private static final long serialVersionUID = 1L;
   private String presentationName;
   private boolean isSignificant;
   private boolean isVerbose;
 
+  /**
+   * The sum of the estimated sizes of the first {@code sizedEditCount} edits. The last edit is
+   * never included, because it can still grow.
+   */
+  private long sizedEditsSize;
+
+  private int sizedEditCount;
+
   public void setVerbose(boolean b) {
     isVerbose = b;
   }
@@ -155,4 +167,43 @@ public class CompositeEdit extends CompoundEdit {
   public void setSignificant(boolean newValue) {
     isSignificant = newValue;
   }
+
+  @Override
+  public long getEstimatedSize() {
+    int n = edits.size();
+    while (sizedEditCount < n - 1) {
+      sizedEditsSize += UndoRedoManager.estimateSize(edits.elementAt(sizedEditCount++));
+    }
+    long size = UndoRedoManager.DEFAULT_EDIT_SIZE + 8L * n + sizedEditsSize;
+    return n == 0 ? size : size + UndoRedoManager.estimateSize(edits.lastElement());
+  }
+
+  @Override
+  public boolean isSpilled() {
+    for (UndoableEdit edit : edits) {
+      if (edit instanceof SpillableEdit spillable && !spillable.isSpilled()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void spill(UndoSpillFile file) throws IOException {
+    IOException failure = null;
+    for (UndoableEdit edit : edits) {
+      if (edit instanceof SpillableEdit spillable && !spillable.isSpilled()) {
+        try {
+          spillable.spill(file);
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+    }
+    sizedEditsSize = 0;
+    sizedEditCount = 0;
+    if (failure != null) {
+      throw failure;
+    }
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ * @(#)EditSizes.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.utils.undo;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.util.Collection;
+import java.util.Map;
+import org.jhotdraw.utils.geom.path.BezierPath;
+
+/**
+ * Rough estimates of the heap size of the data, which is held by undoable edits.
+ *
+ * <p>The estimates assume a 64-bit JVM with compressed references, and are meant to be cheap
+ * rather than exact. Objects of unknown classes count as {@link UndoRedoManager#DEFAULT_EDIT_SIZE}
+ * bytes.
+ */
+public final class EditSizes {
+
+  /** The size of an object header plus some fields. */
+  private static final long OBJECT = 16;
+
+  /** The size of a reference. */
+  private static final long REFERENCE = 4;
+
+  /** The estimated size of a {@link BezierPath.Node} with its coordinate arrays. */
+  private static final long BEZIER_NODE = OBJECT + 2 * (OBJECT + 3 * 8);
+
+  /** Collections and arrays are only traversed up to this depth. */
+  private static final int MAX_DEPTH = 4;
+
+  private EditSizes() {}
+
+  /** Returns the estimated number of bytes, which are retained by the object. */
+  public static long estimate(Object obj) {
+    return estimate(obj, 0);
+  }
+
+  private static long estimate(Object obj, int depth) {
+    if (obj == null) {
+      return 0;
+    } else if (obj instanceof Number || obj instanceof Boolean || obj instanceof Character) {
+      return OBJECT;
+    } else if (obj instanceof String str) {
+      return OBJECT + OBJECT + str.length();
+    } else if (obj instanceof BezierPath path) {
+      return OBJECT + OBJECT + path.size() * (REFERENCE + BEZIER_NODE);
+    } else if (obj instanceof BezierPath.Node) {
+      return BEZIER_NODE;
+    } else if (obj instanceof Point2D || obj instanceof AffineTransform) {
+      return OBJECT + 6 * 8;
+    } else if (obj instanceof Shape) {
+      return OBJECT + 4 * 8;
+    } else if (obj instanceof double[] a) {
+      return OBJECT + 8L * a.length;
+    } else if (obj instanceof float[] a) {
+      return OBJECT + 4L * a.length;
+    } else if (obj instanceof int[] a) {
+      return OBJECT + 4L * a.length;
+    } else if (obj instanceof Object[] a) {
+      long size = OBJECT + REFERENCE * a.length;
+      if (depth < MAX_DEPTH) {
+        for (Object element : a) {
+          size += estimate(element, depth + 1);
+        }
+      }
+      return size;
+    } else if (obj instanceof Collection<?> c) {
+      long size = OBJECT + OBJECT + OBJECT * c.size();
+      if (depth < MAX_DEPTH) {
+        for (Object element : c) {
+          size += estimate(element, depth + 1);
+        }
+      }
+      return size;
+    } else if (obj instanceof Map<?, ?> m) {
+      long size = OBJECT + OBJECT + 2 * OBJECT * m.size();
+      if (depth < MAX_DEPTH) {
+        for (Map.Entry<?, ?> entry : m.entrySet()) {
+          size += estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+        }
+      }
+      return size;
+    } else {
+      return UndoRedoManager.DEFAULT_EDIT_SIZE;
+    }
+  }
+}
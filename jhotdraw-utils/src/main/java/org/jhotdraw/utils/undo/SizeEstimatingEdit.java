@@ -0,0 +1,27 @@
+/*
+ * @(#)SizeEstimatingEdit.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.utils.undo;
+
+import javax.swing.undo.UndoableEdit;
+
+/**
+ * An {@code UndoableEdit} which can estimate how much memory it retains.
+ *
+ * <p>{@link UndoRedoManager} uses the estimates to keep the undo history within a memory budget.
+ * The estimate covers the data which is only reachable through the edit, such as restore data, but
+ * not the objects which are changed by the edit. Edits which do not implement this interface are
+ * assumed to retain {@link UndoRedoManager#DEFAULT_EDIT_SIZE} bytes.
+ *
+ * <p>The estimate of an edit may grow while edits are added to it, and it may shrink when the edit
+ * is spilled.
+ */
+public interface SizeEstimatingEdit extends UndoableEdit {
+
+  /** Returns an estimate of the number of bytes, which are retained by the edit. */
+  long getEstimatedSize();
+}
@@ -0,0 +1,34 @@
+/*
+ * @(#)SpillableEdit.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.utils.undo;
+
+import java.io.IOException;
+
+/**
+ * A {@link SizeEstimatingEdit} which can move its bulky data into an {@link UndoSpillFile}, and
+ * reads the data back from the file when it is undone or redone.
+ *
+ * <p>Only data which does not refer to live objects, such as the restore data of a figure, can be
+ * spilled. The objects which are changed by the edit must stay on the heap, because undo and redo
+ * must change the very same objects.
+ *
+ * <p>An edit must {@link UndoSpillFile#free free} its records in the spill file, when it dies.
+ */
+public interface SpillableEdit extends SizeEstimatingEdit {
+
+  /** Returns true, if the bulky data of the edit is in a spill file. */
+  boolean isSpilled();
+
+  /**
+   * Writes the bulky data of the edit into the spill file, and releases it from the heap. Does
+   * nothing if the edit is already spilled.
+   *
+   * @throws IOException if the data can not be written. The edit keeps its data in this case.
+   */
+  void spill(UndoSpillFile file) throws IOException;
+}
@@ -10,11 +10,21 @@ package org.jhotdraw.utils.undo;
 import java.awt.event.ActionEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Locale;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
+import javax.swing.SwingUtilities;
 import javax.swing.undo.AbstractUndoableEdit;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
@@ -23,8 +33,20 @@ import javax.swing.undo.UndoManager;
 import javax.swing.undo.UndoableEdit;
 import org.jhotdraw.utils.util.ResourceBundleUtil;
 
-/** Same as javax.swing.UndoManager but provides actions for undo and redo operations. */
-public class UndoRedoManager extends UndoManager { // javax.swing.undo.UndoManager {
+/**
+ * Same as javax.swing.UndoManager but provides actions for undo and redo operations.
+ *
+ * <p>In addition to the limit on the number of edits, the manager can keep the undo history within
+ * a memory budget. It estimates the size of each edit, see {@link SizeEstimatingEdit}. When the
+ * estimated size of the history exceeds the budget, the manager spills the oldest {@link
+ * SpillableEdit}s into a temporary file, if spilling is enabled, and then evicts the oldest edits
+ * until the history fits into the budget. The most recent edit is never spilled or evicted, and
+ * edits which can be redone are never evicted.
+ *
+ * <p>The memory usage of the history can be monitored over JMX, see {@link #registerMBean()}.
+ */
+public class UndoRedoManager extends UndoManager
+    implements UndoRedoManagerMXBean { // javax.swing.undo.UndoManager {
 
   private static final long serialVersionUID = 1L;
   protected PropertyChangeSupport propertySupport = new PropertyChangeSupport(this);
@@ -45,6 +67,23 @@ public class UndoRedoManager extends UndoManager { // javax.swing.undo.UndoManag
    */
   private boolean undoOrRedoInProgress;
 
+  /** The estimated size of edits which do not implement {@link SizeEstimatingEdit}. */
+  public static final long DEFAULT_EDIT_SIZE = 64;
+
+  /** The estimated sizes of the edits in the history. */
+  private final IdentityHashMap<UndoableEdit, Long> editSizes = new IdentityHashMap<>();
+
+  /** The edits which could not be spilled. */
+  private final Set<UndoableEdit> unspillableEdits =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private long estimatedSize;
+  private long maxEstimatedSize = Long.MAX_VALUE;
+  private boolean isSpillEnabled;
+  private transient UndoSpillFile spillFile;
+  private long evictedEditCount;
+  private long spilledEditCount;
+
   /**
    * Sending this UndoableEdit event to the UndoRedoManager disables the Undo and Redo functions of
    * the manager.
@@ -133,6 +172,12 @@ public class UndoRedoManager extends UndoManager { // javax.swing.undo.UndoManag
   @Override
   public void discardAllEdits() {
     super.discardAllEdits();
+    synchronized (this) {
+      editSizes.clear();
+      unspillableEdits.clear();
+      estimatedSize = 0;
+      closeSpillFile();
+    }
     updateActions();
     setHasSignificantEdits(false);
   }
@@ -170,6 +215,16 @@ public class UndoRedoManager extends UndoManager { // javax.swing.undo.UndoManag
       return true;
     }
     boolean success = super.addEdit(anEdit);
+    if (success) {
+      synchronized (this) {
+        // The edit may have been merged into the last edit, which then grew
+        UndoableEdit last = lastEdit();
+        if (last != null) {
+          updateEstimatedSize(last);
+        }
+        trimForMaxEstimatedSize();
+      }
+    }
     updateActions();
     if (success && anEdit.isSignificant() && editToBeUndone() == anEdit) {
       setHasSignificantEdits(true);
@@ -177,6 +232,248 @@ public class UndoRedoManager extends UndoManager { // javax.swing.undo.UndoManag
     return success;
   }
 
+  /** Returns the estimated size of an edit. */
+  public static long estimateSize(UndoableEdit edit) {
+    return edit instanceof SizeEstimatingEdit e ? e.getEstimatedSize() : DEFAULT_EDIT_SIZE;
+  }
+
+  private void updateEstimatedSize(UndoableEdit edit) {
+    long newSize = estimateSize(edit);
+    Long oldSize = editSizes.put(edit, newSize);
+    estimatedSize += newSize - (oldSize == null ? 0 : oldSize);
+  }
+
+  /** Removes the sizes of the trimmed edits from the estimated size. */
+  @Override
+  protected void trimEdits(int from, int to) {
+    for (int i = from; i <= to; i++) {
+      UndoableEdit edit = edits.elementAt(i);
+      unspillableEdits.remove(edit);
+      Long size = editSizes.remove(edit);
+      if (size != null) {
+        estimatedSize -= size;
+      }
+    }
+    super.trimEdits(from, to);
+  }
+
+  /**
+   * Spills and evicts the oldest edits, until the estimated size of the history is within the
+   * budget.
+   */
+  private void trimForMaxEstimatedSize() {
+    if (estimatedSize <= maxEstimatedSize) {
+      return;
+    }
+    if (isSpillEnabled) {
+      for (int i = 0, n = edits.size() - 1; i < n && estimatedSize > maxEstimatedSize; i++) {
+        UndoableEdit edit = edits.elementAt(i);
+        if (edit instanceof SpillableEdit spillable
+            && !unspillableEdits.contains(edit)
+            && !spillable.isSpilled()) {
+          try {
+            if (spillFile == null) {
+              spillFile = new UndoSpillFile();
+            }
+            spillable.spill(spillFile);
+            spilledEditCount++;
+          } catch (IOException e) {
+            unspillableEdits.add(edit);
+            LOG.log(Level.FINE, "cannot spill " + edit, e);
+          }
+          updateEstimatedSize(edit);
+        }
+      }
+    }
+    // Only evict edits which can be undone. Evicting an edit which can be redone would let redo
+    // replay the later edits without it.
+    while (estimatedSize > maxEstimatedSize && edits.size() > 1 && getUndoableEditCount() > 0) {
+      trimEdits(0, 0);
+      evictedEditCount++;
+    }
+  }
+
+  /**
+   * Returns the number of edits at the start of the history, which can be undone. The insignificant
+   * edits before the edit which can be redone are not counted, because redo may replay them.
+   */
+  private int getUndoableEditCount() {
+    UndoableEdit redoEdit = editToBeRedone();
+    if (redoEdit == null) {
+      return edits.size();
+    }
+    int count = edits.indexOf(redoEdit);
+    while (count > 0 && !edits.elementAt(count - 1).isSignificant()) {
+      count--;
+    }
+    return count;
+  }
+
+  private void closeSpillFile() {
+    if (spillFile != null) {
+      try {
+        spillFile.close();
+      } catch (IOException e) {
+        LOG.log(Level.FINE, "cannot close spill file", e);
+      }
+      spillFile = null;
+    }
+  }
+
+  @Override
+  public synchronized int getEditCount() {
+    return edits.size();
+  }
+
+  @Override
+  public synchronized long getEstimatedSize() {
+    return estimatedSize;
+  }
+
+  @Override
+  public synchronized long getMaxEstimatedSize() {
+    return maxEstimatedSize;
+  }
+
+  /**
+   * Sets the memory budget of the history.
+   *
+   * @param newValue the maximal estimated size in bytes. The default value is {@code
+   *     Long.MAX_VALUE}, which does not limit the history.
+   */
+  @Override
+  public void setMaxEstimatedSize(long newValue) {
+    if (newValue < 0) {
+      throw new IllegalArgumentException("maxEstimatedSize must not be negative: " + newValue);
+    }
+    synchronized (this) {
+      maxEstimatedSize = newValue;
+      trimForMaxEstimatedSize();
+    }
+    updateActions();
+  }
+
+  @Override
+  public synchronized boolean isSpillEnabled() {
+    return isSpillEnabled;
+  }
+
+  /**
+   * Sets whether {@link SpillableEdit}s are spilled into a temporary file, before edits are
+   * evicted from the history.
+   */
+  @Override
+  public synchronized void setSpillEnabled(boolean newValue) {
+    isSpillEnabled = newValue;
+  }
+
+  @Override
+  public synchronized long getEvictedEditCount() {
+    return evictedEditCount;
+  }
+
+  @Override
+  public synchronized long getSpilledEditCount() {
+    return spilledEditCount;
+  }
+
+  @Override
+  public synchronized long getSpillFileSize() {
+    return spillFile == null ? 0 : spillFile.getSize();
+  }
+
+  @Override
+  public synchronized long[] getEditSizeHistogram() {
+    long[] histogram = new long[64];
+    int length = 0;
+    for (long size : editSizes.values()) {
+      int bucket = 64 - Long.numberOfLeadingZeros(size);
+      histogram[bucket]++;
+      length = Math.max(length, bucket + 1);
+    }
+    return Arrays.copyOf(histogram, length);
+  }
+
+  /**
+   * Registers this manager with the platform MBean server, under the name {@code
+   * org.jhotdraw:type=UndoRedoManager,id=<identity hash code>}.
+   *
+   * <p>The setters of the MBean are invoked on a JMX thread. Since they may evict edits, and update
+   * the undo and redo actions, they are performed later on the event dispatch thread.
+   *
+   * @return the object name, with which the manager can be unregistered.
+   */
+  public ObjectName registerMBean() throws JMException {
+    ObjectName name = new ObjectName("org.jhotdraw:type=UndoRedoManager,id="
+        + Integer.toHexString(System.identityHashCode(this)));
+    ManagementFactory.getPlatformMBeanServer()
+        .registerMBean(
+            new StandardMBean(new MBeanAdapter(this), UndoRedoManagerMXBean.class, true), name);
+    return name;
+  }
+
+  /** Exposes a manager over JMX, and performs the setters on the event dispatch thread. */
+  private record MBeanAdapter(UndoRedoManager manager) implements UndoRedoManagerMXBean {
+
+    @Override
+    public int getEditCount() {
+      return manager.getEditCount();
+    }
+
+    @Override
+    public int getLimit() {
+      return manager.getLimit();
+    }
+
+    @Override
+    public long getEstimatedSize() {
+      return manager.getEstimatedSize();
+    }
+
+    @Override
+    public long getMaxEstimatedSize() {
+      return manager.getMaxEstimatedSize();
+    }
+
+    @Override
+    public void setMaxEstimatedSize(long newValue) {
+      if (newValue < 0) {
+        throw new IllegalArgumentException("maxEstimatedSize must not be negative: " + newValue);
+      }
+      SwingUtilities.invokeLater(() -> manager.setMaxEstimatedSize(newValue));
+    }
+
+    @Override
+    public boolean isSpillEnabled() {
+      return manager.isSpillEnabled();
+    }
+
+    @Override
+    public void setSpillEnabled(boolean newValue) {
+      SwingUtilities.invokeLater(() -> manager.setSpillEnabled(newValue));
+    }
+
+    @Override
+    public long getEvictedEditCount() {
+      return manager.getEvictedEditCount();
+    }
+
+    @Override
+    public long getSpilledEditCount() {
+      return manager.getSpilledEditCount();
+    }
+
+    @Override
+    public long getSpillFileSize() {
+      return manager.getSpillFileSize();
+    }
+
+    @Override
+    public long[] getEditSizeHistogram() {
+      return manager.getEditSizeHistogram();
+    }
+  }
+
   /** Gets the undo action for use as an Undo menu item. */
   public Action getUndoAction() {
     return undoAction;
@@ -0,0 +1,50 @@
+/*
+ * @(#)UndoRedoManagerMXBean.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.utils.undo;
+
+/**
+ * The management interface of {@link UndoRedoManager}, which exposes the memory usage of the undo
+ * history over JMX.
+ *
+ * @see UndoRedoManager#registerMBean()
+ */
+public interface UndoRedoManagerMXBean {
+
+  /** Returns the number of edits in the history, including the edits which can be redone. */
+  int getEditCount();
+
+  /** Returns the maximal number of edits in the history. */
+  int getLimit();
+
+  /** Returns the estimated number of bytes, which are retained by the edits in the history. */
+  long getEstimatedSize();
+
+  long getMaxEstimatedSize();
+
+  void setMaxEstimatedSize(long newValue);
+
+  boolean isSpillEnabled();
+
+  void setSpillEnabled(boolean newValue);
+
+  /** Returns the number of edits, which have been evicted to stay within the memory budget. */
+  long getEvictedEditCount();
+
+  /** Returns the number of edits, which have been spilled to stay within the memory budget. */
+  long getSpilledEditCount();
+
+  /** Returns the number of bytes in the spill file. */
+  long getSpillFileSize();
+
+  /**
+   * Returns the distribution of the estimated sizes of the edits in the history. Element {@code i}
+   * is the number of edits with a size of less than {@code 2^i} bytes, and of at least {@code
+   * 2^(i-1)} bytes.
+   */
+  long[] getEditSizeHistogram();
+}
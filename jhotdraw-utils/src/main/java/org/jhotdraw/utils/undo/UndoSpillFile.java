@@ -0,0 +1,163 @@
+/*
+ * @(#)UndoSpillFile.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.utils.undo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A temporary file, into which {@link SpillableEdit}s write their bulky data.
+ *
+ * <p>Each object is written with Java serialization into a record at the end of the file, and is
+ * identified by a handle. An edit frees its records with {@link #free} when it dies, e.g. when it
+ * is evicted from the history. The file is truncated when all records have been freed, and
+ * compacted when more than half of it consists of freed records. Compaction moves the records, but
+ * keeps their handles. The file is deleted when it is closed, which {@link UndoRedoManager} does
+ * when it discards all edits.
+ */
+public class UndoSpillFile implements Closeable {
+
+  /** The file is only compacted, if the freed records take up at least this many bytes. */
+  private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+  private final File file;
+  private final RandomAccessFile raf;
+
+  /** The length of the file. */
+  private long size;
+
+  /** The number of bytes in records which have not been freed. */
+  private long liveSize;
+
+  private long nextHandle;
+
+  /** Maps the handles of the records to their positions, in the order of the positions. */
+  private final LinkedHashMap<Long, Record> records = new LinkedHashMap<>();
+
+  private record Record(long position, int length) {}
+
+  /** Creates a spill file in the default temporary-file directory. */
+  public UndoSpillFile() throws IOException {
+    this(null);
+  }
+
+  /**
+   * Creates a spill file in the specified directory.
+   *
+   * @param directory the directory, or null for the default temporary-file directory.
+   */
+  public UndoSpillFile(File directory) throws IOException {
+    file = File.createTempFile("jhotdraw-undo", ".bin", directory);
+    file.deleteOnExit();
+    raf = new RandomAccessFile(file, "rw");
+  }
+
+  /**
+   * Appends an object to the file.
+   *
+   * @return the handle, with which the object can be read and freed.
+   * @throws IOException if the object graph can not be serialized.
+   */
+  public synchronized long write(Serializable obj) throws IOException {
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(buf)) {
+      out.writeObject(obj);
+    }
+    byte[] bytes = buf.toByteArray();
+    raf.seek(size);
+    raf.write(bytes);
+    long handle = nextHandle++;
+    records.put(handle, new Record(size, bytes.length));
+    size += bytes.length;
+    liveSize += bytes.length;
+    return handle;
+  }
+
+  /** Reads an object, which has been written with the specified handle. */
+  public synchronized Object read(long handle) throws IOException {
+    Record r = records.get(handle);
+    if (r == null) {
+      throw new IOException("no record with handle " + handle);
+    }
+    raf.seek(r.position);
+    byte[] bytes = new byte[r.length];
+    raf.readFully(bytes);
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Frees the record with the specified handle. Does nothing if the record has already been freed,
+   * or if the file has been closed.
+   */
+  public synchronized void free(long handle) throws IOException {
+    Record r = records.remove(handle);
+    if (r == null) {
+      return;
+    }
+    liveSize -= r.length;
+    if (records.isEmpty()) {
+      size = 0;
+      raf.setLength(0);
+    } else if (size - liveSize >= MIN_COMPACTION_SIZE && size - liveSize > liveSize) {
+      compact();
+    }
+  }
+
+  /** Moves the records to the start of the file, and truncates the file. */
+  private void compact() throws IOException {
+    long position = 0;
+    byte[] bytes = new byte[0];
+    for (Map.Entry<Long, Record> entry : records.entrySet()) {
+      Record r = entry.getValue();
+      if (r.position != position) {
+        if (bytes.length < r.length) {
+          bytes = new byte[r.length];
+        }
+        raf.seek(r.position);
+        raf.readFully(bytes, 0, r.length);
+        raf.seek(position);
+        raf.write(bytes, 0, r.length);
+        entry.setValue(new Record(position, r.length));
+      }
+      position += r.length;
+    }
+    size = position;
+    raf.setLength(size);
+  }
+
+  /** Returns the length of the file in bytes. */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  /** Closes and deletes the file. */
+  @Override
+  public synchronized void close() throws IOException {
+    records.clear();
+    size = 0;
+    liveSize = 0;
+    try {
+      raf.close();
+    } finally {
+      file.delete();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2015 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.utils.geom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.geom.Rectangle2D;
+import org.junit.jupiter.api.Test;
+
+public class BoundsSegmentTreeTest {
+
+  @Test
+  public void testGrowAndShrink() {
+    BoundsSegmentTree<Integer> tree = new BoundsSegmentTree<>();
+    assertThat(tree.getBounds()).isNull();
+    for (int i = 0; i < 100; i++) {
+      tree.put(i, new Rectangle2D.Double(i, i, 10, 10));
+    }
+    assertThat(tree.getBounds()).isEqualTo(new Rectangle2D.Double(0, 0, 109, 109));
+
+    tree.put(99, new Rectangle2D.Double(5, 5, 1, 1));
+    assertThat(tree.getBounds()).isEqualTo(new Rectangle2D.Double(0, 0, 108, 108));
+
+    tree.remove(0);
+    assertThat(tree.getBounds()).isEqualTo(new Rectangle2D.Double(1, 1, 107, 107));
+
+    tree.put(200, new Rectangle2D.Double(-20, 0, 1, 1));
+    assertThat(tree.getBounds()).isEqualTo(new Rectangle2D.Double(-20, 0, 128, 108));
+    assertThat(tree.size()).isEqualTo(100);
+
+    for (int i = 1; i < 99; i++) {
+      tree.remove(i);
+    }
+    tree.remove(200);
+    assertThat(tree.getBounds()).isEqualTo(new Rectangle2D.Double(5, 5, 1, 1));
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2015 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.utils.geom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class RTreeTest {
+
+  private final Random random = new Random(42);
+  private final Map<Integer, Rectangle2D.Double> expected = new HashMap<>();
+
+  private Rectangle2D.Double randomRect() {
+    return new Rectangle2D.Double(
+        random.nextDouble() * 1000,
+        random.nextDouble() * 1000,
+        1 + random.nextDouble() * 50,
+        1 + random.nextDouble() * 50);
+  }
+
+  private void assertQueriesMatch(RTree<Integer> tree) {
+    assertThat(tree.size()).isEqualTo(expected.size());
+    for (int i = 0; i < 50; i++) {
+      Rectangle2D.Double r = randomRect();
+      r.width *= 4;
+      r.height *= 4;
+      Point2D.Double p = new Point2D.Double(r.x, r.y);
+      List<Integer> intersects = new ArrayList<>();
+      List<Integer> inside = new ArrayList<>();
+      List<Integer> contains = new ArrayList<>();
+      for (Map.Entry<Integer, Rectangle2D.Double> e : expected.entrySet()) {
+        if (e.getValue().intersects(r)) {
+          intersects.add(e.getKey());
+        }
+        if (r.contains(e.getValue())) {
+          inside.add(e.getKey());
+        }
+        if (e.getValue().contains(p)) {
+          contains.add(e.getKey());
+        }
+      }
+      assertThat(tree.findIntersects(r)).containsExactlyInAnyOrderElementsOf(intersects);
+      assertThat(tree.findInside(r)).containsExactlyInAnyOrderElementsOf(inside);
+      assertThat(tree.findContains(p)).containsExactlyInAnyOrderElementsOf(contains);
+    }
+  }
+
+  @Test
+  public void testAddUpdateRemove() {
+    RTree<Integer> tree = new RTree<>(8);
+    for (int i = 0; i < 2000; i++) {
+      Rectangle2D.Double r = randomRect();
+      expected.put(i, r);
+      tree.add(i, r);
+    }
+    assertQueriesMatch(tree);
+
+    for (int i = 0; i < 2000; i += 3) {
+      Rectangle2D.Double r = randomRect();
+      expected.put(i, r);
+      tree.update(i, r);
+    }
+    assertQueriesMatch(tree);
+
+    for (int i = 0; i < 2000; i += 2) {
+      expected.remove(i);
+      tree.remove(i);
+    }
+    assertQueriesMatch(tree);
+
+    for (int i = 1; i < 2000; i += 2) {
+      expected.remove(i);
+      tree.remove(i);
+    }
+    assertQueriesMatch(tree);
+    assertThat(tree.getBounds()).isNull();
+  }
+
+  @Test
+  public void testBulkLoad() {
+    RTree<Integer> tree = new RTree<>();
+    for (int i = 0; i < 5000; i++) {
+      expected.put(i, randomRect());
+    }
+    tree.addAll(expected.keySet(), expected::get);
+    assertQueriesMatch(tree);
+
+    for (int i = 0; i < 5000; i += 7) {
+      Rectangle2D.Double r = randomRect();
+      expected.put(i, r);
+      tree.update(i, r);
+    }
+    for (int i = 0; i < 5000; i += 5) {
+      expected.remove(i);
+      tree.remove(i);
+    }
+    assertQueriesMatch(tree);
+  }
+}
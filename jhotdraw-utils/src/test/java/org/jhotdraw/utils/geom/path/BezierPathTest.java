@@ -19,10 +19,16 @@
 package org.jhotdraw.utils.geom.path;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Random;
+import org.jhotdraw.utils.geom.Shapes;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -110,4 +116,131 @@ public class BezierPathTest {
       pathIterator.next();
     }
   }
+
+  private static BezierPath createRandomPath(Random r, int size, boolean closed) {
+    BezierPath path = new BezierPath();
+    double x = 0;
+    double y = 0;
+    for (int i = 0; i < size; i++) {
+      x += r.nextDouble() * 20 - 5;
+      y += r.nextDouble() * 20 - 10;
+      int mask = r.nextInt(4);
+      path.add(new BezierPath.Node(
+          mask, x, y, x - r.nextDouble() * 10, y - 5, x + r.nextDouble() * 10, y + 5));
+    }
+    path.setClosed(closed);
+    return path;
+  }
+
+  /** Finds the segment without an index, by testing each segment as a path of its own. */
+  private static int findSegmentLinearly(BezierPath path, Point2D.Double p, double tolerance) {
+    int n = path.size();
+    for (int i = 0, count = path.isClosed() ? n : n - 1; i < count; i++) {
+      BezierPath segment = new BezierPath();
+      segment.add(path.nodes().get(i));
+      segment.add(path.nodes().get((i + 1) % n));
+      if (segment.findSegment(p, tolerance) == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Test
+  public void testIndexedHitTestingMatchesLinearScan() {
+    Random r = new Random(5);
+    for (boolean closed : new boolean[] {false, true}) {
+      BezierPath path = createRandomPath(r, 300, closed);
+      Rectangle2D.Double b = path.getBounds2D();
+      int hits = 0;
+      for (int k = 0; k < 2000; k++) {
+        Point2D.Double p;
+        if (k % 2 == 0) {
+          p = new Point2D.Double(b.x + r.nextDouble() * b.width, b.y + r.nextDouble() * b.height);
+        } else {
+          BezierPath.Node node = path.nodes().get(r.nextInt(path.size()));
+          p = new Point2D.Double(
+              node.x[0] + r.nextDouble() * 6 - 3, node.y[0] + r.nextDouble() * 6 - 3);
+        }
+        double tolerance = 1 + r.nextInt(3);
+        int expected = findSegmentLinearly(path, p, tolerance);
+        assertEquals(expected, path.findSegment(p, tolerance));
+        assertEquals(
+            Shapes.outlineContains(path, p, tolerance), path.outlineContains(p, tolerance));
+        if (expected != -1) {
+          hits++;
+        }
+      }
+      assertNotEquals(0, hits);
+    }
+  }
+
+  @Test
+  public void testFindSegmentAfterInvalidatePath() {
+    BezierPath path = createRandomPath(new Random(7), 100, false);
+    BezierPath.Node node = path.nodes().get(50);
+    Point2D.Double p = new Point2D.Double(node.x[0] + 1000, node.y[0] + 1000);
+    assertEquals(-1, path.findSegment(p, 2));
+
+    node.moveTo(p);
+    path.invalidatePath();
+    assertEquals(findSegmentLinearly(path, p, 2), path.findSegment(p, 2));
+    assertNotEquals(-1, path.findSegment(p, 2));
+  }
+
+  @Test
+  public void testHitTestingAfterInPlaceNodeEdits() {
+    BezierPath path = new BezierPath();
+    for (int i = 0; i < 20; i++) {
+      path.add(i * 10, 0);
+    }
+    Point2D.Double p = new Point2D.Double(55, 100);
+    assertEquals(-1, path.findSegment(p, 2));
+    assertFalse(path.outlineContains(p, 2));
+
+    // The methods of the path invalidate the caches on their own
+    path.set(5, BezierPath.C0_MASK, p);
+    assertEquals(findSegmentLinearly(path, p, 2), path.findSegment(p, 2));
+    assertEquals(4, path.findSegment(p, 2));
+    assertTrue(path.outlineContains(p, 2));
+
+    // A node which is changed in place needs an explicit invalidation
+    Point2D.Double q = new Point2D.Double(105, -100);
+    assertEquals(-1, path.findSegment(q, 2));
+    BezierPath.Node node = path.nodes().get(10);
+    node.setControlPoint(0, q);
+    node.setControlPoint(1, q);
+    node.setControlPoint(2, q);
+    path.invalidatePath();
+    assertEquals(findSegmentLinearly(path, q, 2), path.findSegment(q, 2));
+    assertEquals(9, path.findSegment(q, 2));
+    assertTrue(path.outlineContains(q, 2));
+
+    node.moveBy(0, 100);
+    path.invalidatePath();
+    assertEquals(-1, path.findSegment(q, 2));
+    assertFalse(path.outlineContains(q, 2));
+    Point2D.Double moved = new Point2D.Double(105, 0);
+    assertEquals(Shapes.outlineContains(path, moved, 2), path.outlineContains(moved, 2));
+  }
+
+  @Test
+  public void testPointOnPathUsesArcLength() {
+    BezierPath path = new BezierPath();
+    for (int i = 0; i <= 100; i++) {
+      path.add(i * 10, (i % 2) * 10);
+    }
+    double segment = Math.hypot(10, 10);
+    assertEquals(100 * segment, path.getLengthOfPath(1), 1e-9);
+    for (int i = 1; i < 100; i++) {
+      Point2D.Double p = path.getPointOnPath((i + 0.25) / 100, 1);
+      assertEquals(i * 10 + 2.5, p.x, 1e-9);
+      assertEquals((i % 2) * 10 + (i % 2 == 0 ? 2.5 : -2.5), p.y, 1e-9);
+      assertEquals((i + 0.25) / 100, path.getRelativePositionOnPath(p, 1), 1e-9);
+    }
+
+    path.nodes().get(100).moveTo(2000, 0);
+    path.invalidatePath();
+    assertEquals(99 * segment + Math.hypot(1010, 10), path.getLengthOfPath(1), 1e-9);
+  }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.utils.geom.path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+public class BezierTest {
+
+  /** Creates a stroke with noise, repeated points and sharp turns. */
+  private static List<Point2D.Double> createStroke(Random r, int size) {
+    List<Point2D.Double> points = new ArrayList<>();
+    double x = 0;
+    double y = 0;
+    double direction = 0;
+    for (int i = 0; i < size; i++) {
+      if (r.nextInt(40) == 0) {
+        direction += 1 + r.nextDouble() * 2;
+      }
+      direction += r.nextGaussian() * 0.1;
+      double step = r.nextInt(10) == 0 ? 0 : r.nextDouble() * 4;
+      x += Math.cos(direction) * step;
+      y += Math.sin(direction) * step;
+      points.add(new Point2D.Double(Math.rint(x), Math.rint(y)));
+    }
+    return points;
+  }
+
+  private static double[] toArray(List<Point2D.Double> points) {
+    double[] a = new double[points.size() * 2];
+    for (int i = 0; i < points.size(); i++) {
+      a[i * 2] = points.get(i).x;
+      a[i * 2 + 1] = points.get(i).y;
+    }
+    return a;
+  }
+
+  private static void assertSamePath(BezierPath expected, BezierPath actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      BezierPath.Node e = expected.nodes().get(i);
+      BezierPath.Node a = actual.nodes().get(i);
+      assertEquals(e.mask, a.mask);
+      assertEquals(e.keepColinear, a.keepColinear);
+      assertArrayEquals(e.x, a.x);
+      assertArrayEquals(e.y, a.y);
+    }
+  }
+
+  @Test
+  public void testPrimitiveCleanUpMatchesListCleanUp() {
+    Random r = new Random(3);
+    for (int size : new int[] {0, 1, 2, 3, 500}) {
+      List<Point2D.Double> stroke = createStroke(r, size);
+      double[] points = toArray(stroke);
+      for (double minDistance : new double[] {0, 3}) {
+        assertArrayEquals(
+            toArray(Bezier.removeClosePoints(stroke, minDistance)),
+            Bezier.removeClosePoints(points, minDistance));
+      }
+      assertArrayEquals(toArray(Bezier.reduceNoise(stroke, 0.8)), Bezier.reduceNoise(points, 0.8));
+      double angle = 77 / 180d * Math.PI;
+      List<Integer> corners = Bezier.findCorners(stroke, angle, 4);
+      assertArrayEquals(
+          corners.stream().mapToInt(Integer::intValue).toArray(),
+          Bezier.findCorners(points, angle, 4));
+      double[][] segments = Bezier.splitAtCorners(points, angle, 4);
+      assertEquals(corners.size() + 1, segments.length);
+      List<ArrayList<Point2D.Double>> expected = Bezier.splitAtCorners(stroke, angle, 4);
+      for (int i = 0; i < segments.length; i++) {
+        assertArrayEquals(toArray(expected.get(i)), segments[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testParallelAndStreamingFittingMatchSequentialFitting() {
+    Random r = new Random(11);
+    for (int size : new int[] {0, 1, 2, 5, 300, 3000}) {
+      double[] points = toArray(createStroke(r, size));
+      BezierPath expected = Bezier.fitBezierPath(points, 1.5);
+
+      assertSamePath(expected, Bezier.fitBezierPath(points, 1.5, ForkJoinPool.commonPool()));
+
+      BezierFitter fitter = new BezierFitter(1.5);
+      for (int i = 0; i < size; i++) {
+        fitter.add(points[i * 2], points[i * 2 + 1]);
+      }
+      assertEquals(size, fitter.getPointCount());
+      assertSamePath(expected, fitter.finish());
+    }
+  }
+
+  @Test
+  public void testFitterFitsSegmentsBeforeFinish() {
+    double[] points = toArray(createStroke(new Random(5), 3000));
+    BezierFitter fitter = new BezierFitter(1.5);
+    for (int i = 0; i < points.length / 2; i++) {
+      fitter.add(points[i * 2], points[i * 2 + 1]);
+    }
+    int fitted = fitter.getFittedPath().size();
+    assertTrue(fitted > 0);
+    assertTrue(fitter.finish().size() >= fitted);
+    assertThrows(IllegalStateException.class, () -> fitter.add(0, 0));
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.utils.undo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.Serializable;
+import javax.swing.undo.AbstractUndoableEdit;
+import org.junit.jupiter.api.Test;
+
+public class UndoRedoManagerTest {
+
+  /** An edit with a payload, which is restored on undo and redo. */
+  private static class PayloadEdit extends AbstractUndoableEdit implements SpillableEdit {
+    private static final long serialVersionUID = 1L;
+    private final int[] restored;
+    private int[] payload;
+    private UndoSpillFile spillFile;
+    private long handle;
+
+    PayloadEdit(int[] restored, int size) {
+      this.restored = restored;
+      this.payload = new int[size];
+      payload[0] = size;
+    }
+
+    @Override
+    public void undo() {
+      super.undo();
+      try {
+        int[] data = spillFile == null ? payload : (int[]) spillFile.read(handle);
+        restored[0] = data[0];
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public long getEstimatedSize() {
+      return UndoRedoManager.DEFAULT_EDIT_SIZE + (payload == null ? 0 : 4L * payload.length);
+    }
+
+    @Override
+    public boolean isSpilled() {
+      return spillFile != null;
+    }
+
+    @Override
+    public void spill(UndoSpillFile file) throws IOException {
+      handle = file.write(payload);
+      spillFile = file;
+      payload = null;
+    }
+
+    @Override
+    public void die() {
+      super.die();
+      if (spillFile != null) {
+        try {
+          spillFile.free(handle);
+        } catch (IOException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }
+  }
+
+  /** An edit which can not be spilled. */
+  private static class FailingEdit extends PayloadEdit {
+    private static final long serialVersionUID = 1L;
+    private int spillCount;
+
+    FailingEdit(int size) {
+      super(new int[1], size);
+    }
+
+    @Override
+    public void spill(UndoSpillFile file) throws IOException {
+      spillCount++;
+      file.write((Serializable) new Object[] {new Object()});
+    }
+  }
+
+  @Test
+  public void testEstimatedSizeTracksHistory() {
+    UndoRedoManager manager = new UndoRedoManager();
+    manager.addEdit(new PayloadEdit(new int[1], 100));
+    manager.addEdit(new AbstractUndoableEdit());
+    assertThat(manager.getEditCount()).isEqualTo(2);
+    assertThat(manager.getEstimatedSize()).isEqualTo(464 + UndoRedoManager.DEFAULT_EDIT_SIZE);
+    assertThat(manager.getEditSizeHistogram()).containsExactly(0, 0, 0, 0, 0, 0, 0, 1, 0, 1);
+
+    manager.undo();
+    manager.addEdit(new AbstractUndoableEdit());
+    assertThat(manager.getEstimatedSize()).isEqualTo(464 + UndoRedoManager.DEFAULT_EDIT_SIZE);
+
+    manager.discardAllEdits();
+    assertThat(manager.getEstimatedSize()).isZero();
+    assertThat(manager.getEditSizeHistogram()).isEmpty();
+  }
+
+  @Test
+  public void testEvictsOldestEditsBeyondBudget() {
+    UndoRedoManager manager = new UndoRedoManager();
+    manager.setMaxEstimatedSize(1000);
+    for (int i = 0; i < 5; i++) {
+      manager.addEdit(new PayloadEdit(new int[1], 100));
+    }
+    assertThat(manager.getEditCount()).isEqualTo(2);
+    assertThat(manager.getEvictedEditCount()).isEqualTo(3);
+    assertThat(manager.getEstimatedSize()).isEqualTo(2 * 464);
+
+    // The most recent edit is kept, even if it exceeds the budget on its own
+    manager.addEdit(new PayloadEdit(new int[1], 1000));
+    assertThat(manager.getEditCount()).isEqualTo(1);
+    assertThat(manager.canUndo()).isTrue();
+  }
+
+  @Test
+  public void testSpillsOldestEditsBeforeEvicting() {
+    UndoRedoManager manager = new UndoRedoManager();
+    manager.setSpillEnabled(true);
+    manager.setMaxEstimatedSize(3000);
+    int[] restored = new int[1];
+    for (int i = 1; i <= 5; i++) {
+      manager.addEdit(new PayloadEdit(restored, 100 * i));
+    }
+    assertThat(manager.getEditCount()).isEqualTo(5);
+    assertThat(manager.getEvictedEditCount()).isZero();
+    assertThat(manager.getSpilledEditCount()).isEqualTo(4);
+    assertThat(manager.getSpillFileSize()).isPositive();
+    assertThat(manager.getEstimatedSize()).isEqualTo(4 * UndoRedoManager.DEFAULT_EDIT_SIZE + 2064);
+
+    for (int i = 5; i >= 1; i--) {
+      manager.undo();
+      assertThat(restored[0]).isEqualTo(100 * i);
+    }
+
+    manager.discardAllEdits();
+    assertThat(manager.getSpillFileSize()).isZero();
+  }
+
+  @Test
+  public void testRedoableEditsAreNotEvicted() {
+    UndoRedoManager manager = new UndoRedoManager();
+    int[] restored = new int[1];
+    for (int i = 1; i <= 3; i++) {
+      manager.addEdit(new PayloadEdit(restored, 100 * i));
+    }
+    manager.undo();
+    manager.undo();
+    manager.undo();
+    manager.setMaxEstimatedSize(1000);
+    assertThat(manager.getEvictedEditCount()).isZero();
+    assertThat(manager.getEditCount()).isEqualTo(3);
+
+    for (int i = 1; i <= 3; i++) {
+      manager.redo();
+    }
+    manager.setMaxEstimatedSize(1500);
+    assertThat(manager.getEvictedEditCount()).isEqualTo(2);
+    assertThat(manager.getEditCount()).isEqualTo(1);
+    manager.undo();
+    assertThat(restored[0]).isEqualTo(300);
+  }
+
+  @Test
+  public void testSpillFileIsTruncatedWhenSpilledEditsAreEvicted() {
+    UndoRedoManager manager = new UndoRedoManager();
+    manager.setSpillEnabled(true);
+    manager.setMaxEstimatedSize(3000);
+    for (int i = 1; i <= 5; i++) {
+      manager.addEdit(new PayloadEdit(new int[1], 100 * i));
+    }
+    assertThat(manager.getSpillFileSize()).isPositive();
+
+    // Evict all spilled edits
+    manager.setMaxEstimatedSize(0);
+    assertThat(manager.getEditCount()).isEqualTo(1);
+    assertThat(manager.getSpillFileSize()).isZero();
+  }
+
+  @Test
+  public void testSpillFileIsCompacted() throws IOException {
+    try (UndoSpillFile file = new UndoSpillFile()) {
+      long[] handles = new long[40];
+      for (int i = 0; i < handles.length; i++) {
+        int[] data = new int[1000];
+        data[0] = i;
+        handles[i] = file.write(data);
+      }
+      long fullSize = file.getSize();
+      for (int i = 0; i < 30; i++) {
+        file.free(handles[i]);
+      }
+      assertThat(file.getSize()).isLessThan(fullSize / 2);
+      for (int i = 30; i < handles.length; i++) {
+        assertThat(((int[]) file.read(handles[i]))[0]).isEqualTo(i);
+      }
+    }
+  }
+
+  @Test
+  public void testUnspillableEditIsEvicted() {
+    UndoRedoManager manager = new UndoRedoManager();
+    manager.setSpillEnabled(true);
+    manager.setMaxEstimatedSize(1000);
+    FailingEdit failing = new FailingEdit(200);
+    manager.addEdit(failing);
+    manager.addEdit(new PayloadEdit(new int[1], 100));
+    manager.addEdit(new PayloadEdit(new int[1], 100));
+    assertThat(failing.spillCount).isEqualTo(1);
+    assertThat(manager.getEvictedEditCount()).isEqualTo(1);
+    assertThat(manager.getEditCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testCompositeEditSize() throws IOException {
+    int[] restored = new int[1];
+    CompositeEdit composite = new CompositeEdit();
+    composite.addEdit(new PayloadEdit(restored, 100));
+    composite.addEdit(new PayloadEdit(restored, 200));
+    composite.addEdit(new AbstractUndoableEdit());
+    composite.end();
+    assertThat(composite.getEstimatedSize())
+        .isEqualTo(UndoRedoManager.DEFAULT_EDIT_SIZE
+            + 3 * 8
+            + 464
+            + 864
+            + UndoRedoManager.DEFAULT_EDIT_SIZE);
+    assertThat(composite.isSpilled()).isFalse();
+
+    try (UndoSpillFile file = new UndoSpillFile()) {
+      composite.spill(file);
+      assertThat(composite.isSpilled()).isTrue();
+      assertThat(composite.getEstimatedSize())
+          .isEqualTo(4 * UndoRedoManager.DEFAULT_EDIT_SIZE + 3 * 8);
+      composite.undo();
+      assertThat(restored[0]).isEqualTo(100);
+    }
+  }
+}
@@ -8,6 +8,7 @@
 package org.jhotdraw.xml;
 
 import java.io.IOException;
+import java.util.function.Consumer;
 
 /**
  * DOMInput.
@@ -47,6 +48,37 @@ public interface DOMInput {
   /** Gets an attribute of the current element of the DOM Document. */
   public boolean getAttribute(String name, boolean defaultValue);
 
+  /**
+   * Gets a packed array of doubles of the current element of the DOM Document, which has been
+   * written with {@link DOMOutput#addPackedAttribute}.
+   *
+   * <p>The default implementation parses a list of numbers, which are separated by whitespace.
+   *
+   * @return the array, or the default value if the element has no such attribute.
+   * @throws IOException if the attribute is not a list of numbers.
+   */
+  public default double[] getPackedAttribute(String name, double[] defaultValue)
+      throws IOException {
+    String str = getAttribute(name, (String) null);
+    if (str == null) {
+      return defaultValue;
+    }
+    str = str.trim();
+    if (str.isEmpty()) {
+      return new double[0];
+    }
+    String[] tokens = str.split("\\s+");
+    double[] values = new double[tokens.length];
+    try {
+      for (int i = 0; i < tokens.length; i++) {
+        values[i] = Double.parseDouble(tokens[i]);
+      }
+    } catch (NumberFormatException e) {
+      throw new IOException("illegal number list in attribute " + name, e);
+    }
+    return values;
+  }
+
   /**
    * Gets an attribute of the current element of the DOM Document and of all parent DOM elements.
    */
@@ -84,4 +116,15 @@ public interface DOMInput {
 
   /** Reads an object from the current element. */
   public Object readObject(int index) throws IOException;
+
+  /**
+   * Reads all child elements of the current element as objects, in document order, and passes
+   * them to the specified consumer. Streaming implementations can discard each element after it has
+   * been read, so the child elements may not be accessible anymore afterwards.
+   */
+  public default void readObjects(Consumer<Object> consumer) throws IOException {
+    for (int i = 0, n = getElementCount(); i < n; i++) {
+      consumer.accept(readObject(i));
+    }
+  }
 }
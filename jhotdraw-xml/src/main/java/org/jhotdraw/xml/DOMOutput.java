@@ -99,6 +99,36 @@ public interface DOMOutput {
    */
   public void addAttribute(String name, double value, double defaultValue);
 
+  /**
+   * Adds a packed array of doubles as an attribute to the current element of the DOM Document.
+   * This is much more compact than writing a child element for each group of numbers.
+   *
+   * <p>The default implementation writes a list of numbers, which are separated by a space.
+   *
+   * @see #prefersPackedAttributes
+   */
+  public default void addPackedAttribute(String name, double[] values) {
+    StringBuilder buf = new StringBuilder(values.length * 8);
+    for (double value : values) {
+      if (buf.length() != 0) {
+        buf.append(' ');
+      }
+      // Remove the awkard .0 at the end of each number
+      String str = Double.toString(value);
+      buf.append(str, 0, str.endsWith(".0") ? str.length() - 2 : str.length());
+    }
+    addAttribute(name, buf.toString());
+  }
+
+  /**
+   * Returns true, if objects should write arrays of numbers with {@link #addPackedAttribute}
+   * instead of child elements. The default implementation returns false, so that XML documents
+   * keep the format which can be read by older versions.
+   */
+  public default boolean prefersPackedAttributes() {
+    return false;
+  }
+
   /** Writes an object. */
   public void writeObject(Object o) throws IOException;
 
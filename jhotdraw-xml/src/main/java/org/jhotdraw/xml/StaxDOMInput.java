@@ -0,0 +1,108 @@
+/*
+ * @(#)StaxDOMInput.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A {@link DOMInput} which pulls the elements from an {@code XMLStreamReader}, instead of
+ * building a DOM document of the whole input.
+ *
+ * @see StreamingDOMInput
+ */
+public class StaxDOMInput extends StreamingDOMInput {
+
+  private final XMLStreamReader reader;
+
+  public StaxDOMInput(DOMFactory factory, InputStream in) throws IOException {
+    super(factory);
+    try {
+      reader = createInputFactory().createXMLStreamReader(in);
+    } catch (XMLStreamException ex) {
+      throw new IOException(ex.getMessage(), ex);
+    }
+  }
+
+  public StaxDOMInput(DOMFactory factory, Reader in) throws IOException {
+    super(factory);
+    try {
+      reader = createInputFactory().createXMLStreamReader(in);
+    } catch (XMLStreamException ex) {
+      throw new IOException(ex.getMessage(), ex);
+    }
+  }
+
+  private static XMLInputFactory createInputFactory() {
+    XMLInputFactory f = XMLInputFactory.newFactory();
+    f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    f.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return f;
+  }
+
+  @Override
+  protected int next() throws IOException {
+    try {
+      if (!reader.hasNext()) {
+        return END_DOCUMENT;
+      }
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          return START_ELEMENT;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          return TEXT;
+        case XMLStreamConstants.END_ELEMENT:
+          return END_ELEMENT;
+        case XMLStreamConstants.END_DOCUMENT:
+          return END_DOCUMENT;
+        default:
+          return OTHER;
+      }
+    } catch (XMLStreamException ex) {
+      throw new IOException(ex.getMessage(), ex);
+    }
+  }
+
+  @Override
+  protected String getEventTagName() {
+    return reader.getLocalName();
+  }
+
+  @Override
+  protected int getEventAttributeCount() {
+    return reader.getAttributeCount();
+  }
+
+  @Override
+  protected String getEventAttributeName(int index) {
+    return reader.getAttributeLocalName(index);
+  }
+
+  @Override
+  protected Object getEventAttributeValue(int index) {
+    return reader.getAttributeValue(index);
+  }
+
+  @Override
+  protected String getEventText() {
+    return reader.getText();
+  }
+
+  @Override
+  protected boolean isEventWhiteSpace() {
+    return reader.isWhiteSpace();
+  }
+}
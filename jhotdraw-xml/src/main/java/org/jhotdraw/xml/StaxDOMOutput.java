@@ -0,0 +1,111 @@
+/*
+ * @(#)StaxDOMOutput.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.xml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Map;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * A {@link DOMOutput} which writes the elements to an {@code XMLStreamWriter}, instead of building
+ * a DOM document of the whole output.
+ *
+ * @see StreamingDOMOutput
+ */
+public class StaxDOMOutput extends StreamingDOMOutput {
+
+  private final XMLStreamWriter writer;
+
+  public StaxDOMOutput(DOMFactory factory, OutputStream out) throws IOException {
+    super(factory);
+    try {
+      writer = XMLOutputFactory.newFactory().createXMLStreamWriter(out, "UTF-8");
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  public StaxDOMOutput(DOMFactory factory, Writer out) throws IOException {
+    super(factory);
+    try {
+      writer = XMLOutputFactory.newFactory().createXMLStreamWriter(out);
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  protected void writeStartDocument() throws IOException {
+    try {
+      writer.writeStartDocument("UTF-8", "1.0");
+      if (getDoctype() != null) {
+        writer.writeDTD("<!DOCTYPE " + getDoctype() + ">");
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  protected void writeStartElement(String tagName, Map<String, Object> attributes, boolean empty)
+      throws IOException {
+    try {
+      if (empty) {
+        writer.writeEmptyElement(tagName);
+      } else {
+        writer.writeStartElement(tagName);
+      }
+      for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+        writer.writeAttribute(entry.getKey(), toString(entry.getValue()));
+      }
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  protected void writeEndElement() throws IOException {
+    try {
+      writer.writeEndElement();
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  protected void writeText(String text) throws IOException {
+    try {
+      writer.writeCharacters(text);
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  protected void writeComment(String comment) throws IOException {
+    try {
+      writer.writeComment(comment);
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  protected void writeEndDocument() throws IOException {
+    try {
+      writer.writeEndDocument();
+      writer.close();
+    } catch (XMLStreamException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+}
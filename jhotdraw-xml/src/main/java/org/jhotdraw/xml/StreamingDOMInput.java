@@ -0,0 +1,713 @@
+/*
+ * @(#)StreamingDOMInput.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.xml;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Base class for a {@link DOMInput} which pulls the elements from a stream of events, instead of
+ * building a DOM document of the whole input.
+ *
+ * <p>Container elements, which are opened with {@code openElement}, are streamed: their child
+ * elements are only read from the input, when they are accessed. Child elements which are skipped
+ * on the way to the requested element are kept in memory, until the container is closed.
+ *
+ * <p>Objects, which are read with {@code readObject}, are read into a lightweight element tree,
+ * because the {@link DOMFactory} may access their contents in any order. The tree is discarded as
+ * soon as the object has been read. {@link #readObjects} streams all objects of a container one by
+ * one. Therefore the memory needed for reading a drawing is proportional to the nesting depth and
+ * to the size of the largest top-level object, and not to the size of the drawing.
+ *
+ * <p>A streamed container can only be opened once. Opening it again after it has been closed,
+ * fails with an exception.
+ *
+ * <p>{@link #readObjects(Consumer, ForkJoinPool)} decodes the objects of a container on a pool of
+ * worker threads. The input is still parsed sequentially, but the factory reads independent
+ * objects concurrently.
+ *
+ * <p>Subclasses implement {@link #next} and the accessors of the current event.
+ */
+public abstract class StreamingDOMInput implements DOMInput {
+
+  /** Event returned by {@link #next}. */
+  protected static final int START_ELEMENT = 1;
+
+  /** Event returned by {@link #next}. */
+  protected static final int TEXT = 2;
+
+  /** Event returned by {@link #next}. */
+  protected static final int END_ELEMENT = 3;
+
+  /** Event returned by {@link #next}. */
+  protected static final int END_DOCUMENT = 4;
+
+  /** Event returned by {@link #next} for anything else, e.g. comments. */
+  protected static final int OTHER = 5;
+
+  /** The number of objects which are parsed ahead, before they are decoded in parallel. */
+  private static final int PARALLEL_CHUNK_SIZE = 4096;
+
+  /** The number of objects which are decoded by a single task. */
+  private static final int PARALLEL_TASK_SIZE = 64;
+
+  /**
+   * This map is used to unmarshall references to objects to the XML DOM. A key in this map is a
+   * String representing a marshalled reference. A value in this map is an unmarshalled Object.
+   * The map is shared with the detached inputs, which decode objects in parallel.
+   */
+  private final Map<String, Object> idobjects;
+
+  /** Stands for a null object in the id map, which does not permit null values. */
+  private static final Object NULL_OBJECT = new Object();
+
+  /** The factory used to create objects from XML tag names. */
+  private final DOMFactory factory;
+
+  /** The current element used for input. */
+  private Element current;
+
+  protected StreamingDOMInput(DOMFactory factory) {
+    this.factory = factory;
+    this.idobjects = new ConcurrentHashMap<>();
+    current = new Element(null, null);
+    current.streaming = true;
+  }
+
+  /**
+   * Creates a detached input, which shares the factory and the object ids with the specified
+   * input. A detached input only decodes elements which have already been read into memory, and
+   * never calls {@link #next}.
+   *
+   * @see #createDetachedInput
+   */
+  protected StreamingDOMInput(StreamingDOMInput shared) {
+    this.factory = shared.factory;
+    this.idobjects = shared.idobjects;
+  }
+
+  /**
+   * Creates a detached input, on which a worker thread decodes objects for {@link
+   * #readObjects(Consumer, ForkJoinPool)}. Subclasses, which provide additional accessors to the
+   * factory, override this method to return a detached instance of their own class.
+   */
+  protected StreamingDOMInput createDetachedInput() {
+    return new DetachedInput(this);
+  }
+
+  /** Advances to the next event, and returns its type. */
+  protected abstract int next() throws IOException;
+
+  /** Returns the tag name of the current {@link #START_ELEMENT} event. */
+  protected abstract String getEventTagName();
+
+  /** Returns the number of attributes of the current {@link #START_ELEMENT} event. */
+  protected abstract int getEventAttributeCount();
+
+  protected abstract String getEventAttributeName(int index);
+
+  /**
+   * Returns the value of an attribute of the current {@link #START_ELEMENT} event. The value is
+   * either a string, or a number or boolean, if the input is typed.
+   */
+  protected abstract Object getEventAttributeValue(int index);
+
+  /** Returns the text of the current {@link #TEXT} event. */
+  protected abstract String getEventText();
+
+  /** Returns true, if the text of the current {@link #TEXT} event consists of white space. */
+  protected boolean isEventWhiteSpace() {
+    return getEventText().isBlank();
+  }
+
+  /** Returns the tag name of the current element. */
+  @Override
+  public String getTagName() {
+    return current.tagName;
+  }
+
+  /** Returns the value of an attribute of the current element, or null. */
+  protected Object getAttributeValue(String name) {
+    return current.getAttribute(name);
+  }
+
+  /** Gets an attribute of the current element of the DOM Document. */
+  @Override
+  public String getAttribute(String name, String defaultValue) {
+    String value = toString(current.getAttribute(name));
+    return (value.length() == 0) ? defaultValue : value;
+  }
+
+  /** Gets the text of the current element of the DOM Document. */
+  @Override
+  public String getText() {
+    return getText(null);
+  }
+
+  /** Gets the text of the current element of the DOM Document. */
+  @Override
+  public String getText(String defaultValue) {
+    fillAll(current);
+    if (current.text == null && current.children.isEmpty()) {
+      return defaultValue;
+    }
+    StringBuilder buf = new StringBuilder();
+    getText(current, buf);
+    return buf.toString();
+  }
+
+  private static void getText(Element e, StringBuilder buf) {
+    if (e.text != null) {
+      buf.append(e.text);
+    }
+    for (Element child : e.children) {
+      getText(child, buf);
+    }
+  }
+
+  /**
+   * Gets an attribute of the current element of the DOM Document and of all parent DOM elements.
+   */
+  @Override
+  public List<String> getInheritedAttribute(String name) {
+    List<String> values = new ArrayList<>();
+    for (Element e = current; e != null && e.tagName != null; e = e.parent) {
+      values.add(0, toString(e.getAttribute(name)));
+    }
+    return values;
+  }
+
+  /** Gets an attribute of the current element of the DOM Document. */
+  @Override
+  public int getAttribute(String name, int defaultValue) {
+    Object value = current.getAttribute(name);
+    if (value instanceof Number n) {
+      return n.intValue();
+    }
+    String str = toString(value);
+    return (str.length() == 0) ? defaultValue : Long.decode(str).intValue();
+  }
+
+  /** Gets an attribute of the current element of the DOM Document. */
+  @Override
+  public double getAttribute(String name, double defaultValue) {
+    Object value = current.getAttribute(name);
+    if (value instanceof Number n) {
+      return n.doubleValue();
+    }
+    String str = toString(value);
+    return (str.length() == 0) ? defaultValue : Double.parseDouble(str);
+  }
+
+  /** Gets an attribute of the current element of the DOM Document. */
+  @Override
+  public boolean getAttribute(String name, boolean defaultValue) {
+    Object value = current.getAttribute(name);
+    if (value instanceof Boolean b) {
+      return b;
+    }
+    String str = toString(value);
+    return (str.length() == 0) ? defaultValue : Boolean.valueOf(str).booleanValue();
+  }
+
+  /** Converts an attribute value into a string, like {@link StreamingDOMOutput} does. */
+  private static String toString(Object value) {
+    if (value == null) {
+      return "";
+    } else if (value instanceof String str) {
+      return str;
+    }
+    return StreamingDOMOutput.toString(value);
+  }
+
+  /** Returns the number of child elements of the current element. */
+  @Override
+  public int getElementCount() {
+    fillAll(current);
+    return current.children.size();
+  }
+
+  /** Returns the number of child elements with the specified tag name of the current element. */
+  @Override
+  public int getElementCount(String tagName) {
+    fillAll(current);
+    int count = 0;
+    for (Element child : current.children) {
+      if (child.tagName.equalsIgnoreCase(tagName)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** Opens the element with the specified index and makes it the current node. */
+  @Override
+  public void openElement(int index) throws IOException {
+    open(index, null, 0, true);
+  }
+
+  /** Opens the first element with the specified name and makes it the current node. */
+  @Override
+  public void openElement(String tagName) throws IOException {
+    open(-1, tagName, 0, true);
+  }
+
+  @Override
+  public boolean hasElement(String tagName) {
+    return getElementCount(tagName) > 0;
+  }
+
+  /** Opens the element with the specified name and index and makes it the current node. */
+  @Override
+  public void openElement(String tagName, int index) throws IOException {
+    open(-1, tagName, index, true);
+  }
+
+  /**
+   * Opens a child element of the current element.
+   *
+   * @param index the index of the element, or -1 to search by tag name.
+   * @param tagName the tag name, if index is -1.
+   * @param nameIndex the index among the elements with the tag name.
+   * @param stream whether the element may be streamed, if it has not been read yet.
+   */
+  private void open(int index, String tagName, int nameIndex, boolean stream) throws IOException {
+    Element parent = current;
+    if (parent.drained) {
+      throw new IOException("the child elements of <" + parent.tagName + "> have been streamed");
+    }
+    int count = 0;
+    for (int i = 0; i < parent.children.size(); i++) {
+      Element child = parent.children.get(i);
+      if (index == -1
+          ? child.tagName.equalsIgnoreCase(tagName) && count++ == nameIndex
+          : i == index) {
+        if (child.consumed) {
+          throw new IOException("element <" + child.tagName + "> can not be opened twice");
+        }
+        current = child;
+        return;
+      }
+    }
+    try {
+      while (!parent.complete) {
+        Element child = readStartElement(parent);
+        if (child == null) {
+          break;
+        }
+        boolean match = index == -1
+            ? child.tagName.equalsIgnoreCase(tagName) && count++ == nameIndex
+            : parent.children.size() == index;
+        if (match && stream) {
+          child.streaming = true;
+          child.consumed = true;
+          parent.children.add(child);
+          current = child;
+          return;
+        }
+        readContent(child);
+        parent.children.add(child);
+        if (match) {
+          current = child;
+          return;
+        }
+      }
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+    if (index == -1) {
+      throw new IllegalArgumentException("no such child " + tagName + "[" + nameIndex + "]");
+    }
+    throw new IllegalArgumentException("no such child [" + index + "]");
+  }
+
+  /**
+   * Closes the current element of the DOM Document. The parent of the current element becomes the
+   * current element.
+   */
+  @Override
+  public void closeElement() {
+    Element e = current;
+    if (e.streaming) {
+      skipContent(e);
+      // Keep only the tag name, so that the element can be counted but not opened again
+      e.children = List.of();
+      e.text = null;
+    }
+    current = e.parent;
+  }
+
+  /** Reads an object from the current element. */
+  @Override
+  public Object readObject() throws IOException {
+    return readObject(0);
+  }
+
+  /** Reads an object from the current element. */
+  @Override
+  public Object readObject(int index) throws IOException {
+    open(index, null, 0, false);
+    return readCurrentObject();
+  }
+
+  /**
+   * Reads all child elements of the current element as objects. If the current element is
+   * streamed, the child elements are read one by one from the input, and are discarded after they
+   * have been read.
+   */
+  @Override
+  public void readObjects(Consumer<Object> consumer) throws IOException {
+    Element parent = current;
+    if (!parent.streaming) {
+      DOMInput.super.readObjects(consumer);
+      return;
+    }
+    for (int i = 0; i < parent.children.size(); i++) {
+      consumer.accept(readObject(i));
+    }
+    parent.drained = true;
+    try {
+      Element child;
+      while (!parent.complete && (child = readStartElement(parent)) != null) {
+        readContent(child);
+        current = child;
+        consumer.accept(readCurrentObject());
+      }
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+    parent.children = List.of();
+  }
+
+  /**
+   * Reads all child elements of the current element as objects, like {@link
+   * #readObjects(Consumer)}, but lets the factory decode them on the specified pool.
+   *
+   * <p>The child elements are parsed sequentially in chunks. Elements which do not contain a
+   * {@code ref} attribute do not depend on other objects, and are decoded concurrently. The other
+   * elements, e.g. connections which refer to the figures they connect, are decoded afterwards in
+   * document order on the calling thread, when all objects they may refer to have been read. The
+   * objects are passed to the consumer in document order.
+   *
+   * <p>The factory must be able to read independent objects concurrently.
+   */
+  public void readObjects(Consumer<Object> consumer, ForkJoinPool pool) throws IOException {
+    Element parent = current;
+    if (!parent.streaming) {
+      readObjects(consumer);
+      return;
+    }
+    parent.drained = true;
+    List<Element> chunk = new ArrayList<>(parent.children);
+    parent.children = List.of();
+    try {
+      for (; ; ) {
+        Element child;
+        while (chunk.size() < PARALLEL_CHUNK_SIZE
+            && !parent.complete
+            && (child = readStartElement(parent)) != null) {
+          readContent(child);
+          chunk.add(child);
+        }
+        if (chunk.isEmpty()) {
+          break;
+        }
+        for (Object o : readChunk(chunk, pool)) {
+          consumer.accept(o);
+        }
+        chunk.clear();
+      }
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /** Decodes a chunk of elements, which have been read into memory. */
+  private Object[] readChunk(List<Element> chunk, ForkJoinPool pool) throws IOException {
+    Object[] objects = new Object[chunk.size()];
+    List<Integer> dependent = new ArrayList<>();
+    List<Integer> independent = new ArrayList<>();
+    for (int i = 0; i < chunk.size(); i++) {
+      (containsRef(chunk.get(i)) ? dependent : independent).add(i);
+    }
+
+    List<Future<Void>> tasks = new ArrayList<>();
+    for (int from = 0; from < independent.size(); from += PARALLEL_TASK_SIZE) {
+      List<Integer> slice =
+          independent.subList(from, Math.min(from + PARALLEL_TASK_SIZE, independent.size()));
+      tasks.add(pool.submit(() -> {
+        StreamingDOMInput in = createDetachedInput();
+        for (int i : slice) {
+          objects[i] = in.readElement(chunk.get(i));
+        }
+        return null;
+      }));
+    }
+    for (Future<Void> task : tasks) {
+      try {
+        task.get();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IOException("interrupted while reading objects", ex);
+      } catch (ExecutionException ex) {
+        if (ex.getCause() instanceof IOException ioe) {
+          throw ioe;
+        } else if (ex.getCause() instanceof RuntimeException re) {
+          throw re;
+        }
+        throw new IOException(ex.getCause());
+      }
+    }
+
+    Element parent = current;
+    for (int i : dependent) {
+      objects[i] = readElement(chunk.get(i));
+    }
+    current = parent;
+    return objects;
+  }
+
+  /** Reads an object from an element, which has been read into memory. */
+  private Object readElement(Element e) throws IOException {
+    current = e;
+    return readCurrentObject();
+  }
+
+  /** Returns true, if the element or one of its descendants has a ref attribute. */
+  private static boolean containsRef(Element e) {
+    if (e.getAttribute("ref") != null) {
+      return true;
+    }
+    for (Element child : e.children) {
+      if (containsRef(child)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Object readCurrentObject() throws IOException {
+    Object o;
+    String ref = getAttribute("ref", null);
+    String id = getAttribute("id", null);
+    if (ref != null && id != null) {
+      throw new IOException("Element has both an id and a ref attribute: <"
+          + getTagName()
+          + " id="
+          + id
+          + " ref="
+          + ref
+          + ">");
+    }
+    if (id != null && idobjects.containsKey(id)) {
+      throw new IOException("Duplicate id attribute: <" + getTagName() + " id=" + id + ">");
+    }
+    if (ref != null && !idobjects.containsKey(ref)) {
+      throw new IOException("Illegal ref attribute value: <" + getTagName() + " ref=" + ref + ">");
+    }
+    // Keep track of objects which have an ID
+    if (ref != null) {
+      o = idobjects.get(ref);
+      if (o == NULL_OBJECT) {
+        o = null;
+      }
+    } else {
+      o = factory.read(this);
+      if (id != null && idobjects.putIfAbsent(id, o == null ? NULL_OBJECT : o) != null) {
+        throw new IOException("Duplicate id attribute: <" + getTagName() + " id=" + id + ">");
+      }
+    }
+    closeElement();
+    return o;
+  }
+
+  /** Reads all remaining child elements of a streamed element into memory. */
+  private void fillAll(Element e) {
+    if (e.drained) {
+      throw new IllegalStateException(
+          "the child elements of <" + e.tagName + "> have been streamed");
+    }
+    Element child;
+    while (!e.complete && (child = readStartElement(e)) != null) {
+      readContent(child);
+      e.children.add(child);
+    }
+  }
+
+  /**
+   * Reads up to the start of the next child element. Text is appended to the element.
+   *
+   * @return the child element with its attributes, or null if the end of the element was reached.
+   */
+  private Element readStartElement(Element parent) {
+    try {
+      for (; ; ) {
+        switch (next()) {
+          case START_ELEMENT:
+            return createElement(parent);
+          case TEXT:
+            // Do not accumulate the indentation between the children of a streamed element
+            if (!parent.streaming || !isEventWhiteSpace()) {
+              parent.appendText(getEventText());
+            }
+            break;
+          case END_ELEMENT:
+          case END_DOCUMENT:
+            parent.complete = true;
+            return null;
+          default:
+            break;
+        }
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /** Reads the content of an element, which has just been started, into memory. */
+  private void readContent(Element e) {
+    Element child;
+    while ((child = readStartElement(e)) != null) {
+      readContent(child);
+      e.children.add(child);
+    }
+  }
+
+  /** Skips the remaining content of a streamed element. */
+  private void skipContent(Element e) {
+    try {
+      int depth = 0;
+      while (!e.complete) {
+        switch (next()) {
+          case START_ELEMENT:
+            depth++;
+            break;
+          case END_ELEMENT:
+            if (depth-- == 0) {
+              e.complete = true;
+            }
+            break;
+          case END_DOCUMENT:
+            e.complete = true;
+            break;
+          default:
+            break;
+        }
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private Element createElement(Element parent) {
+    Element e = new Element(parent, getEventTagName());
+    int n = getEventAttributeCount();
+    if (n > 0) {
+      e.attributes = new Object[n * 2];
+      for (int i = 0; i < n; i++) {
+        e.attributes[i * 2] = getEventAttributeName(i);
+        e.attributes[i * 2 + 1] = getEventAttributeValue(i);
+      }
+    }
+    return e;
+  }
+
+  /** A lightweight element. */
+  private static class Element {
+
+    private static final Object[] NO_ATTRIBUTES = new Object[0];
+    private final Element parent;
+    private final String tagName;
+
+    /** The attributes as name, value pairs. */
+    private Object[] attributes = NO_ATTRIBUTES;
+
+    private List<Element> children = new ArrayList<>();
+    private StringBuilder text;
+
+    /** True, if the element is read lazily from the input. */
+    private boolean streaming;
+
+    /** True, if the end of a streamed element has been read. */
+    private boolean complete;
+
+    /** True, if the element has been streamed, and can not be opened again. */
+    private boolean consumed;
+
+    /** True, if the children of the element have been streamed by readObjects. */
+    private boolean drained;
+
+    Element(Element parent, String tagName) {
+      this.parent = parent;
+      this.tagName = tagName;
+    }
+
+    Object getAttribute(String name) {
+      for (int i = 0; i < attributes.length; i += 2) {
+        if (attributes[i].equals(name)) {
+          return attributes[i + 1];
+        }
+      }
+      return null;
+    }
+
+    void appendText(String str) {
+      if (text == null) {
+        text = new StringBuilder(str);
+      } else {
+        text.append(str);
+      }
+    }
+  }
+
+  /** A detached input of this class. */
+  private static final class DetachedInput extends StreamingDOMInput {
+
+    DetachedInput(StreamingDOMInput shared) {
+      super(shared);
+    }
+
+    @Override
+    protected int next() {
+      return END_DOCUMENT;
+    }
+
+    @Override
+    protected String getEventTagName() {
+      throw new IllegalStateException();
+    }
+
+    @Override
+    protected int getEventAttributeCount() {
+      throw new IllegalStateException();
+    }
+
+    @Override
+    protected String getEventAttributeName(int index) {
+      throw new IllegalStateException();
+    }
+
+    @Override
+    protected Object getEventAttributeValue(int index) {
+      throw new IllegalStateException();
+    }
+
+    @Override
+    protected String getEventText() {
+      throw new IllegalStateException();
+    }
+  }
+}
@@ -0,0 +1,386 @@
+/*
+ * @(#)StreamingDOMOutput.java
+ *
+ * Copyright (c) 1996-2010 The authors and contributors of JHotDraw.
+ * You may not use, copy or modify this file, except in compliance with the
+ * accompanying license terms.
+ */
+package org.jhotdraw.xml;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class for a {@link DOMOutput} which writes the elements to a stream, instead of building a
+ * DOM document of the whole output.
+ *
+ * <p>A {@link DOMFactory} may add attributes to an object element after it has written child
+ * elements into it. Therefore an element, which has been opened with {@link #writeObject}, is
+ * collected in a lightweight element tree, and written when it is closed. Container elements,
+ * which have been opened with {@link #openElement} outside of an object, are written as soon as an
+ * object is written into them. Therefore the memory needed for writing a drawing is proportional
+ * to the nesting depth and to the size of the largest top-level object, and not to the size of the
+ * drawing.
+ *
+ * <p>Attributes must be added to a container element before the first object is written into it.
+ * {@link #close} must be called after the root element has been closed.
+ *
+ * <p>Subclasses implement the methods which write the elements to the stream. Attribute values
+ * are passed to them as strings, numbers, booleans, or arrays of doubles.
+ */
+public abstract class StreamingDOMOutput implements DOMOutput, AutoCloseable {
+
+  /** The doctype of the XML document. */
+  private String doctype;
+
+  /**
+   * This map is used to marshall references to objects to the XML DOM. A key in this map is a Java
+   * Object, a value in this map is String representing a marshalled reference to that object.
+   */
+  private final HashMap<Object, String> objectids = new HashMap<>();
+
+  /** This map is used to cache prototype objects. */
+  private HashMap<String, Object> prototypes;
+
+  /** The factory used to create objects. */
+  private final DOMFactory factory;
+
+  private boolean documentStarted;
+
+  /** The open elements, from the root to the current element. */
+  private final List<Element> stack = new ArrayList<>();
+
+  protected StreamingDOMOutput(DOMFactory factory) {
+    this.factory = factory;
+  }
+
+  /** Writes the start of the document. */
+  protected abstract void writeStartDocument() throws IOException;
+
+  /**
+   * Writes the start of an element.
+   *
+   * @param tagName the tag name.
+   * @param attributes the attributes in the order in which they have been added.
+   * @param empty true if the element has no content, and {@link #writeEndElement} is not called.
+   */
+  protected abstract void writeStartElement(
+      String tagName, Map<String, Object> attributes, boolean empty) throws IOException;
+
+  /** Writes the end of the element, which has been started last. */
+  protected abstract void writeEndElement() throws IOException;
+
+  protected abstract void writeText(String text) throws IOException;
+
+  protected abstract void writeComment(String comment) throws IOException;
+
+  /** Writes the end of the document, and flushes the stream. */
+  protected abstract void writeEndDocument() throws IOException;
+
+  /**
+   * Converts an attribute value into a string. Numbers are written without the awkward .0 at the
+   * end, and double arrays as a list of numbers separated by spaces.
+   */
+  public static String toString(Object value) {
+    if (value instanceof Double || value instanceof Float) {
+      String str = value.toString();
+      return str.endsWith(".0") ? str.substring(0, str.length() - 2) : str;
+    } else if (value instanceof double[] array) {
+      StringBuilder buf = new StringBuilder();
+      for (int i = 0; i < array.length; i++) {
+        if (i > 0) {
+          buf.append(' ');
+        }
+        buf.append(toString(array[i]));
+      }
+      return buf.toString();
+    }
+    return String.valueOf(value);
+  }
+
+  private Element current() {
+    return stack.isEmpty() ? null : stack.get(stack.size() - 1);
+  }
+
+  /**
+   * Puts a new element into the document. The new element is added as a child to the current
+   * element. Then it becomes the current element. The element must be closed using closeElement.
+   */
+  @Override
+  public void openElement(String tagName) {
+    Element parent = current();
+    Element e = new Element(tagName);
+    if (parent != null && !parent.written) {
+      parent.content.add(e);
+    }
+    stack.add(e);
+  }
+
+  /**
+   * Closes the current element. The parent of the current element becomes the current element.
+   */
+  @Override
+  public void closeElement() {
+    Element e = stack.remove(stack.size() - 1);
+    Element parent = current();
+    try {
+      if (e.written) {
+        writeEndElement();
+      } else if (parent == null || parent.written) {
+        startDocument();
+        write(e);
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /** Adds a comment to the current element. */
+  @Override
+  public void addComment(String comment) {
+    Element e = current();
+    if (e.written) {
+      try {
+        writeComment(comment);
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    } else {
+      e.content.add(new Comment(comment));
+    }
+  }
+
+  /**
+   * Adds a text to current element of the DOM Document. Note: Multiple consecutives texts will be
+   * merged.
+   */
+  @Override
+  public void addText(String text) {
+    Element e = current();
+    if (e.written) {
+      try {
+        writeText(text);
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    } else {
+      e.content.add(text);
+    }
+  }
+
+  /**
+   * Adds an attribute with a string, number, boolean or double array value to the current element.
+   */
+  protected void addAttributeValue(String name, Object value) {
+    Element e = current();
+    if (e.written) {
+      throw new IllegalStateException(
+          "attribute " + name + " added after the start of <" + e.tagName + "> has been written");
+    }
+    e.attributes.put(name, value);
+  }
+
+  /** Adds an attribute to current element of the DOM Document. */
+  @Override
+  public void addAttribute(String name, String value) {
+    if (value != null) {
+      addAttributeValue(name, value);
+    }
+  }
+
+  /** Adds an attribute to current element of the DOM Document. */
+  @Override
+  public void addAttribute(String name, int value) {
+    addAttributeValue(name, value);
+  }
+
+  /** Adds an attribute to current element of the DOM Document. */
+  @Override
+  public void addAttribute(String name, boolean value) {
+    addAttributeValue(name, value);
+  }
+
+  /** Adds an attribute to current element of the DOM Document. */
+  @Override
+  public void addAttribute(String name, float value) {
+    addAttributeValue(name, value);
+  }
+
+  /** Adds an attribute to current element of the DOM Document. */
+  @Override
+  public void addAttribute(String name, double value) {
+    addAttributeValue(name, value);
+  }
+
+  @Override
+  public void writeObject(Object o) throws IOException {
+    String tagName = factory.getName(o);
+    if (tagName == null) {
+      throw new IllegalArgumentException("no tag name for:" + o);
+    }
+    writeContainers();
+    openElement(tagName);
+    current().object = true;
+    if (objectids.containsKey(o)) {
+      addAttribute("ref", objectids.get(o));
+    } else {
+      String id = Integer.toString(objectids.size(), 16);
+      objectids.put(o, id);
+      addAttribute("id", id);
+      factory.write(this, o);
+    }
+    try {
+      closeElement();
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  /**
+   * Writes the start of the open elements, unless one of them is an object, which may still
+   * receive attributes.
+   */
+  private void writeContainers() throws IOException {
+    for (Element e : stack) {
+      if (e.object) {
+        return;
+      }
+    }
+    for (int i = 0; i < stack.size(); i++) {
+      Element e = stack.get(i);
+      if (!e.written) {
+        startDocument();
+        writeStartElement(e.tagName, e.attributes, false);
+        Element next = i + 1 < stack.size() ? stack.get(i + 1) : null;
+        for (Object item : e.content) {
+          if (item != next) {
+            write(item);
+          }
+        }
+        e.content = null;
+        e.written = true;
+      }
+    }
+  }
+
+  private void startDocument() throws IOException {
+    if (!documentStarted) {
+      documentStarted = true;
+      writeStartDocument();
+    }
+  }
+
+  private void write(Object item) throws IOException {
+    if (item instanceof Element e) {
+      if (e.content.isEmpty()) {
+        writeStartElement(e.tagName, e.attributes, true);
+      } else {
+        writeStartElement(e.tagName, e.attributes, false);
+        for (Object child : e.content) {
+          write(child);
+        }
+        writeEndElement();
+      }
+    } else if (item instanceof Comment c) {
+      writeComment(c.text);
+    } else {
+      writeText((String) item);
+    }
+  }
+
+  @Override
+  public void addAttribute(String name, float value, float defaultValue) {
+    if (value != defaultValue) {
+      addAttribute(name, value);
+    }
+  }
+
+  @Override
+  public void addAttribute(String name, int value, int defaultValue) {
+    if (value != defaultValue) {
+      addAttribute(name, value);
+    }
+  }
+
+  @Override
+  public void addAttribute(String name, double value, double defaultValue) {
+    if (value != defaultValue) {
+      addAttribute(name, value);
+    }
+  }
+
+  @Override
+  public void addAttribute(String name, boolean value, boolean defaultValue) {
+    if (value != defaultValue) {
+      addAttribute(name, value);
+    }
+  }
+
+  @Override
+  public void addAttribute(String name, String value, String defaultValue) {
+    if (!value.equals(defaultValue)) {
+      addAttribute(name, value);
+    }
+  }
+
+  @Override
+  public Object getPrototype() {
+    if (prototypes == null) {
+      prototypes = new HashMap<String, Object>();
+    }
+    String tagName = current().tagName;
+    if (!prototypes.containsKey(tagName)) {
+      prototypes.put(tagName, factory.createPrototype(tagName));
+    }
+    return prototypes.get(tagName);
+  }
+
+  @Override
+  public void setDoctype(String doctype) {
+    this.doctype = doctype;
+  }
+
+  public String getDoctype() {
+    return doctype;
+  }
+
+  /**
+   * Ends the document and flushes it to the underlying stream. The underlying stream is not
+   * closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!stack.isEmpty()) {
+      throw new IllegalStateException("element <" + current().tagName + "> has not been closed");
+    }
+    startDocument();
+    writeEndDocument();
+  }
+
+  /** An element which has not been written yet. */
+  private static class Element {
+
+    private final String tagName;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    /** The child elements, texts and comments, as long as the element has not been written. */
+    private List<Object> content = new ArrayList<>();
+
+    /** True, if the element has been opened by writeObject. */
+    private boolean object;
+
+    /** True, if the start of the element has been written. */
+    private boolean written;
+
+    Element(String tagName) {
+      this.tagName = tagName;
+    }
+  }
+
+  private record Comment(String text) {}
+}
@@ -31,7 +31,7 @@ public class CSSRule {
 
   private String selector;
 
-  private static enum SelectorType {
+  static enum SelectorType {
     ALL,
     ELEMENT_NAME,
     CLASS_ATTRIBUTE,
@@ -75,6 +75,33 @@ public class CSSRule {
     this.selector = (type == SelectorType.ELEMENT_NAME) ? selector : selector.substring(1);
   }
 
+  /** Returns the type of the selector, or null if the rule has no selector. */
+  SelectorType getSelectorType() {
+    return type;
+  }
+
+  /** Returns the selector without its type prefix. */
+  String getSelector() {
+    return selector;
+  }
+
+  /** Splits the value of a "class" attribute into its whitespace separated class names. */
+  static List<String> splitClasses(String value) {
+    List<String> classes = new ArrayList<String>(2);
+    int start = -1;
+    for (int i = 0, n = value.length(); i <= n; i++) {
+      if (i == n || Character.isWhitespace(value.charAt(i))) {
+        if (start != -1) {
+          classes.add(value.substring(start, i));
+          start = -1;
+        }
+      } else if (start == -1) {
+        start = i;
+      }
+    }
+    return classes;
+  }
+
   public boolean matches(Element elem) {
     boolean isMatch = false;
     switch (type) {
@@ -88,8 +115,7 @@ public class CSSRule {
       case CLASS_ATTRIBUTE:
         String value = elem.getAttribute("class");
         if (value != null) {
-          String[] clazzes = value.split(" ");
-          for (String clazz : clazzes) {
+          for (String clazz : splitClasses(value)) {
             if (clazz.equals(selector)) {
               isMatch = true;
               break;
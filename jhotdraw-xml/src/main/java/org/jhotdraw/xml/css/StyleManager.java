@@ -16,28 +16,122 @@ import org.w3c.dom.Element;
 /**
  * StyleManager applies styling Rules to an XML DOM. This class supports net.n3.nanoxml as well as
  * org.w3c.dom.
+ *
+ * <p>The rules are indexed by the element name, class and id of their selectors, so that only the
+ * rules which can match an element are looked at. Matching rules are applied in the order in which
+ * they have been added. Since a rule does not replace attributes which are already present, the
+ * first matching rule wins. Rules without a selector match no element. The selector of a rule must
+ * not be changed after the rule has been added.
  */
 public class StyleManager {
 
   private java.util.List<CSSRule> rules;
 
+  /** The indices of the rules which match all elements. */
+  private List<Integer> universalRules;
+
+  /** Maps selectors without their type prefix to the indices of the rules. */
+  private Map<String, List<Integer>> elementNameRules;
+
+  private Map<String, List<Integer>> classRules;
+  private Map<String, List<Integer>> idRules;
+
   public StyleManager() {
     rules = new ArrayList<CSSRule>();
+    universalRules = new ArrayList<Integer>();
+    elementNameRules = new HashMap<String, List<Integer>>();
+    classRules = new HashMap<String, List<Integer>>();
+    idRules = new HashMap<String, List<Integer>>();
   }
 
   public void add(CSSRule rule) {
+    Integer ruleIndex = rules.size();
     rules.add(rule);
+    CSSRule.SelectorType type = rule.getSelectorType();
+    if (type == null) {
+      return;
+    }
+    Map<String, List<Integer>> rulesBySelector;
+    switch (type) {
+      case ALL:
+        universalRules.add(ruleIndex);
+        return;
+      case ELEMENT_NAME:
+        rulesBySelector = elementNameRules;
+        break;
+      case CLASS_ATTRIBUTE:
+        rulesBySelector = classRules;
+        break;
+      default:
+        rulesBySelector = idRules;
+        break;
+    }
+    rulesBySelector
+        .computeIfAbsent(rule.getSelector(), k -> new ArrayList<Integer>(1))
+        .add(ruleIndex);
   }
 
   public void applyStylesTo(Element elem) {
-    for (CSSRule rule : rules) {
-      if (rule.matches(elem)) {
-        rule.apply(elem);
+    if (rules.isEmpty()) {
+      return;
+    }
+    // Collect the lists of candidate rules. Each list is in ascending order.
+    List<List<Integer>> candidates = new ArrayList<List<Integer>>(4);
+    addCandidates(candidates, universalRules);
+    String name = elem.getLocalName();
+    if (name != null) {
+      addCandidates(candidates, elementNameRules.get(name));
+    }
+    if (!classRules.isEmpty()) {
+      String value = elem.getAttribute("class");
+      if (value != null && !value.isEmpty()) {
+        for (String clazz : CSSRule.splitClasses(value)) {
+          addCandidates(candidates, classRules.get(clazz));
+        }
       }
     }
+    if (!idRules.isEmpty()) {
+      String id = elem.getAttribute("id");
+      if (id != null && !id.isEmpty()) {
+        addCandidates(candidates, idRules.get(id));
+      }
+    }
+
+    // Merge the lists, and apply the rules in the order in which they were added
+    int n = candidates.size();
+    int[] positions = new int[n];
+    int previous = -1;
+    while (true) {
+      int next = Integer.MAX_VALUE;
+      for (int i = 0; i < n; i++) {
+        List<Integer> list = candidates.get(i);
+        // Skip rules which have already been applied, e.g. for a duplicated class name
+        while (positions[i] < list.size() && list.get(positions[i]) <= previous) {
+          positions[i]++;
+        }
+        if (positions[i] < list.size()) {
+          next = Math.min(next, list.get(positions[i]));
+        }
+      }
+      if (next == Integer.MAX_VALUE) {
+        break;
+      }
+      rules.get(next).apply(elem);
+      previous = next;
+    }
+  }
+
+  private static void addCandidates(List<List<Integer>> candidates, List<Integer> list) {
+    if (list != null && !list.isEmpty()) {
+      candidates.add(list);
+    }
   }
 
   public void clear() {
     rules.clear();
+    universalRules.clear();
+    elementNameRules.clear();
+    classRules.clear();
+    idRules.clear();
   }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 JHotDraw.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package org.jhotdraw.xml.css;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+public class StyleManagerTest {
+
+  private Document document;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    document = factory.newDocumentBuilder().newDocument();
+  }
+
+  private Element createElement(String name, String clazz, String id) {
+    Element elem = document.createElementNS("http://www.w3.org/2000/svg", name);
+    if (clazz != null) {
+      elem.setAttribute("class", clazz);
+    }
+    if (id != null) {
+      elem.setAttribute("id", id);
+    }
+    return elem;
+  }
+
+  @Test
+  void testFirstMatchingRuleWins() throws Exception {
+    StyleManager styleManager = new StyleManager();
+    new CSSParser()
+        .parse(
+            ".b { fill: blue } rect { fill: red; stroke: black } #r { stroke: green } * { opacity: 1 }",
+            styleManager);
+    Element elem = createElement("rect", "a  b\tb", "r");
+    styleManager.applyStylesTo(elem);
+    assertEquals("blue", elem.getAttribute("fill"));
+    assertEquals("black", elem.getAttribute("stroke"));
+    assertEquals("1", elem.getAttribute("opacity"));
+
+    Element other = createElement("circle", "a", null);
+    styleManager.applyStylesTo(other);
+    assertFalse(other.hasAttribute("fill"));
+    assertEquals("1", other.getAttribute("opacity"));
+  }
+
+  @Test
+  void testAttributesAreNotReplaced() {
+    StyleManager styleManager = new StyleManager();
+    styleManager.add(new CSSRule("rect", "fill", "red"));
+    Element elem = createElement("rect", null, null);
+    elem.setAttribute("fill", "blue");
+    styleManager.applyStylesTo(elem);
+    assertEquals("blue", elem.getAttribute("fill"));
+  }
+
+  @Test
+  void testSameResultAsMatchingEveryRule() {
+    Random random = new Random(7);
+    String[] names = {"rect", "circle", "g", "path"};
+    List<CSSRule> rules = new ArrayList<>();
+    StyleManager styleManager = new StyleManager();
+    for (int i = 0; i < 200; i++) {
+      String selector =
+          switch (random.nextInt(4)) {
+            case 0 -> names[random.nextInt(names.length)];
+            case 1 -> ".c" + random.nextInt(20);
+            case 2 -> "#e" + random.nextInt(50);
+            default -> "*";
+          };
+      CSSRule rule = new CSSRule(selector, "p" + random.nextInt(10), "v" + i);
+      rules.add(rule);
+      styleManager.add(rule);
+    }
+    for (int i = 0; i < 50; i++) {
+      String name = names[random.nextInt(names.length)];
+      String clazz = "c" + random.nextInt(20) + " c" + random.nextInt(20);
+      Element indexed = createElement(name, clazz, "e" + i);
+      Element expected = createElement(name, clazz, "e" + i);
+      styleManager.applyStylesTo(indexed);
+      for (CSSRule rule : rules) {
+        if (rule.matches(expected)) {
+          rule.apply(expected);
+        }
+      }
+      assertTrue(expected.getAttributes().getLength() > 2);
+      assertEquals(expected.getAttributes().getLength(), indexed.getAttributes().getLength());
+      for (int p = 0; p < 10; p++) {
+        assertEquals(expected.getAttribute("p" + p), indexed.getAttribute("p" + p));
+      }
+    }
+  }
+}